@@ -16,29 +16,45 @@
  */
 package com.helger.poi.excel;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 import org.apache.poi.hssf.usermodel.HSSFRichTextString;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.poifs.filesystem.OfficeXmlFileException;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.CheckForSigned;
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.WillClose;
 import com.helger.base.CGlobal;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.id.IHasID;
+import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.lang.EnumHelper;
 import com.helger.mime.CMimeType;
 import com.helger.mime.IMimeType;
 import com.helger.poi.POISetup;
+import com.helger.poi.excel.stream.ExcelStreamingXLSReader;
+import com.helger.poi.excel.stream.ExcelStreamingXLSXReader;
+import com.helger.poi.excel.stream.IExcelStreamingReader;
 
 /**
  * Encapsulates the main differences between the different excel versions.
@@ -72,6 +88,44 @@ public enum EExcelVersion implements IHasID <String>
       }
     }
 
+    @Override
+    @Nullable
+    public HSSFWorkbook readWorkbook (@NonNull final File aFile)
+    {
+      ValueEnforcer.notNull (aFile, "File");
+
+      POIFSFileSystem aFS = null;
+      try
+      {
+        // Read-only random access - the file is not buffered on the heap
+        aFS = new POIFSFileSystem (aFile, true);
+        if (aFS.getRoot ().hasEntry (Decryptor.DEFAULT_POIFS_ENTRY))
+        {
+          LOGGER.error ("The Excel file '" +
+                        aFile.getAbsolutePath () +
+                        "' is an encrypted XLSX file, which cannot be read without a password");
+          aFS.close ();
+          return null;
+        }
+        // Closing the workbook closes the file system
+        return new HSSFWorkbook (aFS);
+      }
+      catch (final IOException | RuntimeException ex)
+      {
+        // No XLS - e.g. not an OLE2 file, an encrypted XLSX, an old BIFF5
+        // file or another OLE2 document
+        StreamHelper.close (aFS);
+        return null;
+      }
+    }
+
+    @Override
+    @NonNull
+    public ExcelStreamingXLSReader createStreamingReader ()
+    {
+      return new ExcelStreamingXLSReader ();
+    }
+
     @Override
     @NonNull
     public HSSFRichTextString createRichText (final String sValue)
@@ -125,6 +179,42 @@ public enum EExcelVersion implements IHasID <String>
       }
     }
 
+    @Override
+    @Nullable
+    public XSSFWorkbook readWorkbook (@NonNull final File aFile)
+    {
+      ValueEnforcer.notNull (aFile, "File");
+
+      OPCPackage aPkg = null;
+      try
+      {
+        // Read-only random access via the ZIP file - the file is not buffered on the heap
+        aPkg = OPCPackage.open (aFile, PackageAccess.READ);
+        if (!aPkg.getPartsByContentType (XSSFRelation.XLSB_BINARY_WORKBOOK.getContentType ()).isEmpty ())
+        {
+          LOGGER.error ("The Excel file '" + aFile.getAbsolutePath () + "' is an XLSB file, which is not supported");
+          aPkg.revert ();
+          return null;
+        }
+        // Closing the workbook reverts the package
+        return new XSSFWorkbook (aPkg);
+      }
+      catch (final InvalidFormatException | IOException | RuntimeException ex)
+      {
+        // No XLSX
+        if (aPkg != null)
+          aPkg.revert ();
+        return null;
+      }
+    }
+
+    @Override
+    @NonNull
+    public ExcelStreamingXLSXReader createStreamingReader ()
+    {
+      return new ExcelStreamingXLSXReader ();
+    }
+
     @Override
     @NonNull
     public XSSFRichTextString createRichText (final String sValue)
@@ -159,6 +249,8 @@ public enum EExcelVersion implements IHasID <String>
     POISetup.initOnDemand ();
   }
 
+  private static final Logger LOGGER = LoggerFactory.getLogger (EExcelVersion.class);
+
   private final String m_sID;
 
   private EExcelVersion (@NonNull @Nonempty final String sID)
@@ -189,6 +281,44 @@ public enum EExcelVersion implements IHasID <String>
   @Nullable
   public abstract Workbook readWorkbook (@NonNull InputStream aIS);
 
+  /**
+   * Open an existing work book for reading directly from a file. Contrary to
+   * {@link #readWorkbook(InputStream)} the file is accessed randomly and read
+   * only, so that the content is not buffered on the heap. The returned
+   * workbook should be closed after usage to release the file handle.
+   *
+   * @param aFile
+   *        The file to read from. May not be <code>null</code>.
+   * @return <code>null</code> in case the workbook cannot be opened.
+   * @since 7.1.1
+   */
+  @Nullable
+  public abstract Workbook readWorkbook (@NonNull File aFile);
+
+  /**
+   * Open an existing work book for reading directly from a path.
+   *
+   * @param aPath
+   *        The path to read from. May not be <code>null</code>.
+   * @return <code>null</code> in case the workbook cannot be opened.
+   * @see #readWorkbook(File)
+   * @since 7.1.1
+   */
+  @Nullable
+  public Workbook readWorkbook (@NonNull final Path aPath)
+  {
+    ValueEnforcer.notNull (aPath, "Path");
+    return readWorkbook (aPath.toFile ());
+  }
+
+  /**
+   * @return A new streaming reader for this version, that reads the content
+   *         row by row without creating a workbook.
+   * @since 7.1.1
+   */
+  @NonNull
+  public abstract IExcelStreamingReader createStreamingReader ();
+
   @NonNull
   public abstract RichTextString createRichText (String sValue);
 
@@ -220,6 +350,27 @@ public enum EExcelVersion implements IHasID <String>
   @CheckForSigned
   public abstract int getRowLimitPerSheet ();
 
+  /**
+   * Get the Excel version matching the passed file magic. Note: encrypted XLSX
+   * files are stored in an OLE2 container and are therefore reported as
+   * {@link #XLS}.
+   *
+   * @param eFileMagic
+   *        The file magic as determined by {@link FileMagic#valueOf(InputStream)}.
+   *        May be <code>null</code>.
+   * @return <code>null</code> if the file magic does not denote an Excel file.
+   * @since 7.1.1
+   */
+  @Nullable
+  public static EExcelVersion getFromFileMagic (@Nullable final FileMagic eFileMagic)
+  {
+    if (eFileMagic == FileMagic.OLE2)
+      return XLS;
+    if (eFileMagic == FileMagic.OOXML)
+      return XLSX;
+    return null;
+  }
+
   @Nullable
   public static EExcelVersion getFromIDOrNull (@Nullable final String sID)
   {
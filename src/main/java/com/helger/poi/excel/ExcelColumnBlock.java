@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A rectangular block of primitive column arrays that can be written at once
+ * via {@link WorkbookCreationHelper#writeColumns(int, int, ExcelColumnBlock)}
+ * or {@link XLSXDirectWriter#addColumns(ExcelColumnBlock)}. The arrays are not
+ * copied, so they must not be modified until the block was written. Columns
+ * may have different lengths - missing values of shorter columns are not
+ * written at all.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public final class ExcelColumnBlock
+{
+  /** The constant to indicate that no style should be applied */
+  public static final int NO_STYLE = -1;
+
+  static final byte TYPE_DOUBLE = 0;
+  static final byte TYPE_LONG = 1;
+  static final byte TYPE_INT = 2;
+  static final byte TYPE_BOOLEAN = 3;
+
+  private byte [] m_aTypes = new byte [8];
+  private Object [] m_aArrays = new Object [8];
+  private int [] m_aLengths = new int [8];
+  private int [] m_aStyleHandles = new int [8];
+  private int m_nColumnCount = 0;
+  private int m_nRowCount = 0;
+
+  public ExcelColumnBlock ()
+  {}
+
+  @NonNull
+  private ExcelColumnBlock _addColumn (final byte nType,
+                                       @NonNull final Object aArray,
+                                       final int nLength,
+                                       final int nStyleHandle)
+  {
+    ValueEnforcer.isTrue (nStyleHandle >= NO_STYLE, () -> "Invalid style handle " + nStyleHandle);
+
+    if (m_nColumnCount == m_aTypes.length)
+    {
+      final int nNewLength = m_nColumnCount * 2;
+      m_aTypes = Arrays.copyOf (m_aTypes, nNewLength);
+      m_aArrays = Arrays.copyOf (m_aArrays, nNewLength);
+      m_aLengths = Arrays.copyOf (m_aLengths, nNewLength);
+      m_aStyleHandles = Arrays.copyOf (m_aStyleHandles, nNewLength);
+    }
+    m_aTypes[m_nColumnCount] = nType;
+    m_aArrays[m_nColumnCount] = aArray;
+    m_aLengths[m_nColumnCount] = nLength;
+    m_aStyleHandles[m_nColumnCount] = nStyleHandle;
+    m_nColumnCount++;
+    if (nLength > m_nRowCount)
+      m_nRowCount = nLength;
+    return this;
+  }
+
+  /**
+   * Add a numeric column without a style.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final double [] aValues)
+  {
+    return addColumn (aValues, NO_STYLE);
+  }
+
+  /**
+   * Add a numeric column.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @param nStyleHandle
+   *        The style handle as returned by
+   *        <code>registerCellStyle</code> of the writer or {@link #NO_STYLE}.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final double [] aValues, final int nStyleHandle)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+    return _addColumn (TYPE_DOUBLE, aValues, aValues.length, nStyleHandle);
+  }
+
+  /**
+   * Add a numeric column without a style. Note: Excel stores all numbers as
+   * double, so values exceeding 2^53 lose precision.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final long [] aValues)
+  {
+    return addColumn (aValues, NO_STYLE);
+  }
+
+  /**
+   * Add a numeric column. Note: Excel stores all numbers as double, so values
+   * exceeding 2^53 lose precision.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @param nStyleHandle
+   *        The style handle as returned by
+   *        <code>registerCellStyle</code> of the writer or {@link #NO_STYLE}.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final long [] aValues, final int nStyleHandle)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+    return _addColumn (TYPE_LONG, aValues, aValues.length, nStyleHandle);
+  }
+
+  /**
+   * Add a numeric column without a style.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final int [] aValues)
+  {
+    return addColumn (aValues, NO_STYLE);
+  }
+
+  /**
+   * Add a numeric column.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @param nStyleHandle
+   *        The style handle as returned by
+   *        <code>registerCellStyle</code> of the writer or {@link #NO_STYLE}.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final int [] aValues, final int nStyleHandle)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+    return _addColumn (TYPE_INT, aValues, aValues.length, nStyleHandle);
+  }
+
+  /**
+   * Add a boolean column without a style.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final boolean [] aValues)
+  {
+    return addColumn (aValues, NO_STYLE);
+  }
+
+  /**
+   * Add a boolean column.
+   *
+   * @param aValues
+   *        The column values. May not be <code>null</code>.
+   * @param nStyleHandle
+   *        The style handle as returned by
+   *        <code>registerCellStyle</code> of the writer or {@link #NO_STYLE}.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnBlock addColumn (@NonNull final boolean [] aValues, final int nStyleHandle)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+    return _addColumn (TYPE_BOOLEAN, aValues, aValues.length, nStyleHandle);
+  }
+
+  /**
+   * @return The number of columns in this block. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getColumnCount ()
+  {
+    return m_nColumnCount;
+  }
+
+  /**
+   * @return The number of rows in this block, which is the length of the
+   *         longest column. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getRowCount ()
+  {
+    return m_nRowCount;
+  }
+
+  byte getColumnType (final int nCol)
+  {
+    return m_aTypes[nCol];
+  }
+
+  int getColumnLength (final int nCol)
+  {
+    return m_aLengths[nCol];
+  }
+
+  int getColumnStyleHandle (final int nCol)
+  {
+    return m_aStyleHandles[nCol];
+  }
+
+  /**
+   * Get a numeric value without boxing.
+   *
+   * @param nCol
+   *        Column index
+   * @param nRow
+   *        Row index. Must be &lt; the column length.
+   * @return The numeric value. For boolean columns 1 or 0 is returned.
+   */
+  double getNumeric (final int nCol, final int nRow)
+  {
+    switch (m_aTypes[nCol])
+    {
+      case TYPE_DOUBLE:
+        return ((double []) m_aArrays[nCol])[nRow];
+      case TYPE_LONG:
+        return ((long []) m_aArrays[nCol])[nRow];
+      case TYPE_INT:
+        return ((int []) m_aArrays[nCol])[nRow];
+      case TYPE_BOOLEAN:
+        return ((boolean []) m_aArrays[nCol])[nRow] ? 1 : 0;
+      default:
+        throw new IllegalStateException ("Unsupported column type " + m_aTypes[nCol]);
+    }
+  }
+
+  boolean getBoolean (final int nCol, final int nRow)
+  {
+    return ((boolean []) m_aArrays[nCol])[nRow];
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("ColumnCount", m_nColumnCount)
+                                       .append ("RowCount", m_nRowCount)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.poi.excel.style.ExcelStyle;
+
+/**
+ * The specification of a single column for
+ * {@link WorkbookCreationHelper#addRows(Iterable, ExcelColumnSpec...)}. Each
+ * column has a value extractor that is bound to a type specific cell writer
+ * when the specification is created, and an optional style that is registered
+ * once per bulk operation. That way no overload resolution or type check is
+ * necessary per cell.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The type of the objects from which the column values are extracted.
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelColumnSpec <T>
+{
+  /**
+   * Internal callback to write a single cell.
+   *
+   * @param <T>
+   *        The source object type
+   */
+  @FunctionalInterface
+  interface ICellWriter <T>
+  {
+    void addCell (@NonNull WorkbookCreationHelper aWBCH, T aObject);
+  }
+
+  private final ICellWriter <T> m_aCellWriter;
+  private final ExcelStyle m_aStyle;
+
+  private ExcelColumnSpec (@NonNull final ICellWriter <T> aCellWriter, @Nullable final ExcelStyle aStyle)
+  {
+    m_aCellWriter = aCellWriter;
+    m_aStyle = aStyle;
+  }
+
+  /**
+   * @return The style to apply to all cells of this column. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public ExcelStyle getStyle ()
+  {
+    return m_aStyle;
+  }
+
+  /**
+   * Get a copy of this column specification with the passed style.
+   *
+   * @param aStyle
+   *        The style to apply to all cells of this column. May be
+   *        <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public ExcelColumnSpec <T> withStyle (@Nullable final ExcelStyle aStyle)
+  {
+    return new ExcelColumnSpec <> (m_aCellWriter, aStyle);
+  }
+
+  void addCell (@NonNull final WorkbookCreationHelper aWBCH, final T aObject)
+  {
+    m_aCellWriter.addCell (aWBCH, aObject);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).appendIfNotNull ("Style", m_aStyle).getToString ();
+  }
+
+  /**
+   * Create a text column. <code>null</code> values result in a blank cell.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofString (@NonNull final Function <? super T, String> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell (aExtractor.apply (aObject)), null);
+  }
+
+  /**
+   * Create a numeric column based on a primitive <code>double</code>.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofDouble (@NonNull final ToDoubleFunction <? super T> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell (aExtractor.applyAsDouble (aObject)), null);
+  }
+
+  /**
+   * Create a numeric column based on a primitive <code>long</code>. Note: Excel
+   * stores all numbers as double, so values exceeding 2^53 lose precision.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofLong (@NonNull final ToLongFunction <? super T> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell ((double) aExtractor.applyAsLong (aObject)),
+                                    null);
+  }
+
+  /**
+   * Create a numeric column based on {@link BigDecimal}. <code>null</code>
+   * values result in a blank cell.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofBigDecimal (@NonNull final Function <? super T, BigDecimal> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell (aExtractor.apply (aObject)), null);
+  }
+
+  /**
+   * Create a boolean column.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofBoolean (@NonNull final Predicate <? super T> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell (aExtractor.test (aObject)), null);
+  }
+
+  /**
+   * Create a date column. <code>null</code> values result in a blank cell. The
+   * style should contain a date format.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofLocalDate (@NonNull final Function <? super T, LocalDate> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell (aExtractor.apply (aObject)), null);
+  }
+
+  /**
+   * Create a date/time column. <code>null</code> values result in a blank
+   * cell. The style should contain a date/time format.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofLocalDateTime (@NonNull final Function <? super T, LocalDateTime> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCell (aExtractor.apply (aObject)), null);
+  }
+
+  /**
+   * Create a column with arbitrary values. The cell type is determined per
+   * value as in {@link WorkbookCreationHelper#addRow(Object...)}, so the type
+   * specific factory methods should be preferred.
+   *
+   * @param <T>
+   *        The source object type
+   * @param aExtractor
+   *        The value extractor. May not be <code>null</code>.
+   * @return A new column specification and never <code>null</code>.
+   */
+  @NonNull
+  public static <T> ExcelColumnSpec <T> ofObject (@NonNull final Function <? super T, ?> aExtractor)
+  {
+    ValueEnforcer.notNull (aExtractor, "Extractor");
+    return new ExcelColumnSpec <> ( (aWBCH, aObject) -> aWBCH.addCellObject (aExtractor.apply (aObject)), null);
+  }
+}
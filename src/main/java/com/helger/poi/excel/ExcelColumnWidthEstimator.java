@@ -0,0 +1,478 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.poi.excel.style.ExcelFontSpec;
+import com.helger.poi.excel.style.ExcelStyle;
+
+/**
+ * Estimates the column widths of a sheet incrementally while the cells are
+ * added, so that no final scan over all rows and no AWT font metrics are
+ * needed. The estimation is based on the number of displayed characters, the
+ * data format and the font size of the applied style.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+final class ExcelColumnWidthEstimator
+{
+  /** The maximum column width supported by Excel in 1/256th characters */
+  static final int MAX_COLUMN_WIDTH = 255 * 256;
+  /**
+   * The numeric stand-in value (an Excel serial date) passed to
+   * {@link #setNumeric(double)} for date cells, as the actual value does not
+   * influence the width. The width is derived from the date format of the
+   * cell style.
+   */
+  static final double DATE_VALUE_PLACEHOLDER = 99999;
+
+  // Excel shows at maximum 11 characters in the "General" format
+  private static final int GENERAL_MAX_CHARS = 11;
+
+  private static final byte KIND_NONE = 0;
+  private static final byte KIND_CHARS = 1;
+  private static final byte KIND_NUMERIC = 2;
+
+  /**
+   * Pre-analyzed data format
+   */
+  private static final class FormatInfo
+  {
+    static final FormatInfo GENERAL = new FormatInfo (-1, 0, false, false, 0);
+
+    // Fixed number of characters (e.g. for dates) or -1 if value dependent
+    private final int m_nFixedChars;
+    private final int m_nDecimals;
+    private final boolean m_bGrouping;
+    private final boolean m_bPercent;
+    private final int m_nLiteralChars;
+
+    FormatInfo (final int nFixedChars,
+                final int nDecimals,
+                final boolean bGrouping,
+                final boolean bPercent,
+                final int nLiteralChars)
+    {
+      m_nFixedChars = nFixedChars;
+      m_nDecimals = nDecimals;
+      m_bGrouping = bGrouping;
+      m_bPercent = bPercent;
+      m_nLiteralChars = nLiteralChars;
+    }
+  }
+
+  private final Workbook m_aWB;
+  private final double m_dDefaultFontHeight;
+  private final ICommonsMap <String, FormatInfo> m_aFormatCache = new CommonsHashMap <> ();
+  private int [] m_aMaxWidths = new int [16];
+  private int m_nMaxColumn = -1;
+
+  private int m_nPendingCol = -1;
+  private byte m_nPendingKind = KIND_NONE;
+  private int m_nPendingChars;
+  private double m_dPendingValue;
+  private ExcelStyle m_aPendingStyle;
+
+  ExcelColumnWidthEstimator (@NonNull final Workbook aWB)
+  {
+    m_aWB = aWB;
+    final Font aDefaultFont = aWB.getNumberOfFonts () > 0 ? aWB.getFontAt (0) : null;
+    m_dDefaultFontHeight = aDefaultFont != null && aDefaultFont.getFontHeightInPoints () > 0 ? aDefaultFont.getFontHeightInPoints ()
+                                                                                             : 11;
+  }
+
+  private static int _getVisibleChars (@NonNull final String sFormat, final int nStart, final int nEnd)
+  {
+    int ret = 0;
+    for (int i = nStart; i < nEnd; ++i)
+    {
+      final char c = sFormat.charAt (i);
+      switch (c)
+      {
+        case '[':
+          // Colors, conditions and locales are not displayed
+          final int nClose = sFormat.indexOf (']', i);
+          if (nClose > i)
+            i = nClose;
+          break;
+        case '"':
+          // Quoted text is displayed as is
+          final int nQuote = sFormat.indexOf ('"', i + 1);
+          if (nQuote > i)
+          {
+            ret += nQuote - i - 1;
+            i = nQuote;
+          }
+          break;
+        case '\\':
+        case '_':
+          // Escaped character or a space with the width of the next character
+          ++i;
+          ++ret;
+          break;
+        case '*':
+          // Repeat the next char to fill the cell
+          ++i;
+          break;
+        default:
+          ++ret;
+          break;
+      }
+    }
+    return ret;
+  }
+
+  @NonNull
+  private static FormatInfo _createFormatInfo (@NonNull final String sFormat)
+  {
+    if (sFormat.isEmpty () || "General".equalsIgnoreCase (sFormat))
+      return FormatInfo.GENERAL;
+
+    // Only the first section (for positive values) is considered
+    int nSectionEnd = sFormat.length ();
+    boolean bInQuote = false;
+    for (int i = 0; i < sFormat.length (); ++i)
+    {
+      final char c = sFormat.charAt (i);
+      if (c == '"')
+        bInQuote = !bInQuote;
+      else
+        if (c == ';' && !bInQuote)
+        {
+          nSectionEnd = i;
+          break;
+        }
+    }
+
+    if (ExcelDateFormatCache.getDefaultInstance ().isDateFormat (-1, sFormat))
+    {
+      int nChars = _getVisibleChars (sFormat, 0, nSectionEnd);
+      // Full month and day names are longer than the format
+      if (sFormat.contains ("mmmm"))
+        nChars += 5;
+      if (sFormat.contains ("dddd"))
+        nChars += 5;
+      return new FormatInfo (nChars, 0, false, false, 0);
+    }
+
+    int nDecimals = 0;
+    boolean bAfterDot = false;
+    boolean bGrouping = false;
+    boolean bPercent = false;
+    boolean bScientific = false;
+    int nLiteralChars = 0;
+    for (int i = 0; i < nSectionEnd; ++i)
+    {
+      final char c = sFormat.charAt (i);
+      switch (c)
+      {
+        case '0':
+        case '#':
+        case '?':
+          if (bAfterDot)
+            nDecimals++;
+          break;
+        case '.':
+          bAfterDot = true;
+          break;
+        case ',':
+          if (!bAfterDot)
+            bGrouping = true;
+          break;
+        case '%':
+          bPercent = true;
+          break;
+        case 'E':
+        case 'e':
+          bScientific = true;
+          break;
+        case '[':
+        case '"':
+        case '\\':
+        case '_':
+        case '*':
+        {
+          // Determine the length of the special part
+          int nEnd = i + 1;
+          if (c == '[')
+            nEnd = sFormat.indexOf (']', i) + 1;
+          else
+            if (c == '"')
+              nEnd = sFormat.indexOf ('"', i + 1) + 1;
+            else
+              nEnd = i + 2;
+          if (nEnd <= i)
+            nEnd = nSectionEnd;
+          nEnd = Math.min (nEnd, nSectionEnd);
+          nLiteralChars += _getVisibleChars (sFormat, i, nEnd);
+          i = nEnd - 1;
+          break;
+        }
+        default:
+          nLiteralChars++;
+          break;
+      }
+    }
+    if (bScientific)
+      return new FormatInfo (_getVisibleChars (sFormat, 0, nSectionEnd), 0, false, false, 0);
+    return new FormatInfo (-1, nDecimals, bGrouping, bPercent, nLiteralChars);
+  }
+
+  private static int _getIntegerDigits (final double dAbsValue)
+  {
+    if (dAbsValue < 10)
+      return 1;
+    return (int) Math.floor (Math.log10 (dAbsValue)) + 1;
+  }
+
+  private static int _getGeneralChars (final double dValue)
+  {
+    if (Double.isNaN (dValue) || Double.isInfinite (dValue))
+      return 5;
+
+    final int nSign = dValue < 0 ? 1 : 0;
+    final double dAbs = Math.abs (dValue);
+    if (dAbs >= 1e11 || (dAbs != 0 && dAbs < 1e-9))
+    {
+      // Scientific notation
+      return GENERAL_MAX_CHARS;
+    }
+
+    final int nIntDigits = _getIntegerDigits (dAbs);
+    if (dAbs == Math.rint (dAbs))
+      return nSign + nIntDigits;
+
+    // Find the minimum number of decimals that represent the value
+    final int nMaxDecimals = Math.max (1, GENERAL_MAX_CHARS - 1 - nIntDigits);
+    double dScaled = dAbs;
+    int nDecimals = 0;
+    while (nDecimals < nMaxDecimals)
+    {
+      dScaled *= 10;
+      nDecimals++;
+      if (Math.abs (dScaled - Math.rint (dScaled)) < 1e-6)
+        break;
+    }
+    return nSign + nIntDigits + 1 + nDecimals;
+  }
+
+  private int _getNumericChars (final double dValue, @Nullable final String sFormat)
+  {
+    if (sFormat == null)
+      return _getGeneralChars (dValue);
+
+    FormatInfo aInfo = m_aFormatCache.get (sFormat);
+    if (aInfo == null)
+    {
+      aInfo = _createFormatInfo (sFormat);
+      m_aFormatCache.put (sFormat, aInfo);
+    }
+    if (aInfo == FormatInfo.GENERAL)
+      return _getGeneralChars (dValue);
+    if (aInfo.m_nFixedChars >= 0)
+      return aInfo.m_nFixedChars;
+
+    final double dAbs = Math.abs (aInfo.m_bPercent ? dValue * 100 : dValue);
+    final int nIntDigits = _getIntegerDigits (dAbs);
+    int ret = nIntDigits + aInfo.m_nLiteralChars;
+    if (aInfo.m_bGrouping)
+      ret += (nIntDigits - 1) / 3;
+    if (aInfo.m_nDecimals > 0)
+      ret += 1 + aInfo.m_nDecimals;
+    if (dValue < 0)
+      ret++;
+    return ret;
+  }
+
+  private double _getFontFactor (@Nullable final ExcelStyle aStyle)
+  {
+    if (aStyle == null)
+      return 1;
+    final ExcelFontSpec aFontSpec = aStyle.getFontSpec ();
+    if (aFontSpec != null)
+    {
+      double ret = aFontSpec.getHeightInPoints () > 0 ? aFontSpec.getHeightInPoints () / m_dDefaultFontHeight : 1;
+      if (aFontSpec.isBold ())
+        ret *= 1.1;
+      return ret;
+    }
+    final int nFontIndex = aStyle.getFontIndex ();
+    if (nFontIndex < 0 || nFontIndex >= m_aWB.getNumberOfFonts ())
+      return 1;
+    final Font aFont = m_aWB.getFontAt (nFontIndex);
+    double ret = aFont.getFontHeightInPoints () / m_dDefaultFontHeight;
+    if (aFont.getBold ())
+      ret *= 1.1;
+    return ret;
+  }
+
+  /**
+   * Commit the pending cell to the column maximum.
+   */
+  void flush ()
+  {
+    if (m_nPendingKind != KIND_NONE)
+    {
+      final int nChars;
+      if (m_nPendingKind == KIND_CHARS)
+        nChars = m_nPendingChars;
+      else
+        nChars = _getNumericChars (m_dPendingValue, m_aPendingStyle == null ? null : m_aPendingStyle.getDataFormat ());
+
+      // Add one character padding
+      final int nWidth = (int) Math.min (MAX_COLUMN_WIDTH, (nChars * _getFontFactor (m_aPendingStyle) + 1) * 256);
+      final int nCol = m_nPendingCol;
+      if (nCol >= m_aMaxWidths.length)
+        m_aMaxWidths = Arrays.copyOf (m_aMaxWidths, Math.max (nCol + 1, m_aMaxWidths.length * 2));
+      if (nWidth > m_aMaxWidths[nCol])
+        m_aMaxWidths[nCol] = nWidth;
+      if (nCol > m_nMaxColumn)
+        m_nMaxColumn = nCol;
+    }
+    m_nPendingKind = KIND_NONE;
+    m_aPendingStyle = null;
+  }
+
+  /**
+   * A new cell without a relevant value was added.
+   *
+   * @param nCol
+   *        0-based column index
+   */
+  void onBlankCell (@Nonnegative final int nCol)
+  {
+    flush ();
+    m_nPendingCol = nCol;
+  }
+
+  /**
+   * Set the displayed text of the current cell.
+   *
+   * @param sText
+   *        The text. May not be <code>null</code>.
+   */
+  void setText (@NonNull final String sText)
+  {
+    // Determine the longest line
+    int nMax = 0;
+    int nCur = 0;
+    final int nLen = sText.length ();
+    for (int i = 0; i < nLen; ++i)
+    {
+      if (sText.charAt (i) == '\n')
+      {
+        if (nCur > nMax)
+          nMax = nCur;
+        nCur = 0;
+      }
+      else
+        nCur++;
+    }
+    setChars (Math.max (nMax, nCur));
+  }
+
+  /**
+   * Set the number of displayed characters of the current cell.
+   *
+   * @param nChars
+   *        Number of characters.
+   */
+  void setChars (@Nonnegative final int nChars)
+  {
+    m_nPendingKind = KIND_CHARS;
+    m_nPendingChars = nChars;
+  }
+
+  /**
+   * Set the numeric value of the current cell. The displayed width depends on
+   * the data format of the style.
+   *
+   * @param dValue
+   *        Numeric value
+   */
+  void setNumeric (final double dValue)
+  {
+    m_nPendingKind = KIND_NUMERIC;
+    m_dPendingValue = dValue;
+  }
+
+  /**
+   * Set the style of the current cell.
+   *
+   * @param aStyle
+   *        The style applied. May be <code>null</code>.
+   */
+  void setStyle (@Nullable final ExcelStyle aStyle)
+  {
+    m_aPendingStyle = aStyle;
+  }
+
+  /**
+   * Reset all collected widths, e.g. for a new sheet.
+   */
+  void reset ()
+  {
+    Arrays.fill (m_aMaxWidths, 0);
+    m_nMaxColumn = -1;
+    m_nPendingCol = -1;
+    m_nPendingKind = KIND_NONE;
+    m_aPendingStyle = null;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The estimated width of the column in 1/256th characters or 0 if
+   *         the column contains no values.
+   */
+  @Nonnegative
+  int getEstimatedWidth (final int nCol)
+  {
+    return nCol >= 0 && nCol < m_aMaxWidths.length ? m_aMaxWidths[nCol] : 0;
+  }
+
+  /**
+   * Apply all estimated column widths to the passed sheet. Columns without
+   * values are not touched.
+   *
+   * @param aSheet
+   *        The sheet to modify. May not be <code>null</code>.
+   */
+  void applyTo (@NonNull final Sheet aSheet)
+  {
+    flush ();
+    for (int nCol = 0; nCol <= m_nMaxColumn; ++nCol)
+    {
+      final int nWidth = m_aMaxWidths[nCol];
+      if (nWidth > 0)
+        aSheet.setColumnWidth (nCol, nWidth);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.apache.poi.ss.usermodel.Date1904Support;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * Direct conversion between <code>java.time</code> values and Excel serial
+ * date numbers, for both the 1900 and the 1904 date system. In contrast to
+ * {@link DateUtil} no intermediate {@link java.util.Calendar} or
+ * {@link java.util.Date} objects are created and no time zone calculation is
+ * performed. The results are identical to the ones of {@link DateUtil},
+ * including the emulation of the non-existing 1900-02-29 of the 1900 date
+ * system.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelDateConverter
+{
+  /** The value returned for dates that cannot be represented in Excel */
+  public static final double INVALID_EXCEL_DATE = -1;
+
+  /** Excel serial number of 1970-01-01 in the 1900 date system */
+  private static final long EPOCH_SERIAL_1900 = 25569;
+  /** Excel serial number of 1970-01-01 in the 1904 date system */
+  private static final long EPOCH_SERIAL_1904 = 24107;
+  /**
+   * The first serial number after the non-existing 1900-02-29 (which is 60) in
+   * the 1900 date system
+   */
+  private static final long FIRST_SERIAL_AFTER_LEAP_BUG = 61;
+  /** Epoch day of 1900-01-01 */
+  private static final long EPOCH_DAY_1900_01_01 = -25567;
+  /** Epoch day of 1900-03-01 */
+  private static final long EPOCH_DAY_1900_03_01 = -25508;
+  /** Epoch day of 1904-01-01 */
+  private static final long EPOCH_DAY_1904_01_01 = -24107;
+
+  private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private ExcelDateConverter ()
+  {}
+
+  /**
+   * Check if the passed workbook uses the 1904 date system.
+   *
+   * @param aWB
+   *        The workbook to check. May not be <code>null</code>.
+   * @return <code>true</code> if the 1904 date system is used,
+   *         <code>false</code> if the default 1900 date system is used.
+   */
+  public static boolean isDate1904 (@NonNull final Workbook aWB)
+  {
+    ValueEnforcer.notNull (aWB, "Workbook");
+    if (aWB instanceof SXSSFWorkbook)
+      return ((SXSSFWorkbook) aWB).getXSSFWorkbook ().isDate1904 ();
+    return aWB instanceof Date1904Support && ((Date1904Support) aWB).isDate1904 ();
+  }
+
+  private static double _getSerialDay (final long nEpochDay, final boolean bDate1904)
+  {
+    if (bDate1904)
+    {
+      if (nEpochDay < EPOCH_DAY_1904_01_01)
+        return INVALID_EXCEL_DATE;
+      return nEpochDay + EPOCH_SERIAL_1904;
+    }
+
+    if (nEpochDay < EPOCH_DAY_1900_01_01)
+      return INVALID_EXCEL_DATE;
+    // Excel assumes 1900 is a leap year
+    if (nEpochDay < EPOCH_DAY_1900_03_01)
+      return nEpochDay + EPOCH_SERIAL_1900 - 1;
+    return nEpochDay + EPOCH_SERIAL_1900;
+  }
+
+  /**
+   * Convert a date to an Excel serial number.
+   *
+   * @param aDate
+   *        The date to convert. May not be <code>null</code>.
+   * @param bDate1904
+   *        <code>true</code> to use the 1904 date system, <code>false</code>
+   *        for the 1900 date system.
+   * @return The serial number or {@link #INVALID_EXCEL_DATE} if the date is
+   *         before the start of the date system.
+   */
+  public static double toExcelDate (@NonNull final LocalDate aDate, final boolean bDate1904)
+  {
+    ValueEnforcer.notNull (aDate, "Date");
+    return _getSerialDay (aDate.toEpochDay (), bDate1904);
+  }
+
+  /**
+   * Convert a date/time to an Excel serial number. The time is considered
+   * with millisecond precision.
+   *
+   * @param aDateTime
+   *        The date/time to convert. May not be <code>null</code>.
+   * @param bDate1904
+   *        <code>true</code> to use the 1904 date system, <code>false</code>
+   *        for the 1900 date system.
+   * @return The serial number or {@link #INVALID_EXCEL_DATE} if the date is
+   *         before the start of the date system.
+   */
+  public static double toExcelDate (@NonNull final LocalDateTime aDateTime, final boolean bDate1904)
+  {
+    ValueEnforcer.notNull (aDateTime, "DateTime");
+    final double dDay = _getSerialDay (aDateTime.toLocalDate ().toEpochDay (), bDate1904);
+    if (dDay < 0)
+      return INVALID_EXCEL_DATE;
+    final long nMillisOfDay = aDateTime.toLocalTime ().toNanoOfDay () / NANOS_PER_MILLI;
+    return dDay + nMillisOfDay / (double) MILLIS_PER_DAY;
+  }
+
+  /**
+   * Check if the passed serial number can be converted to a date/time.
+   *
+   * @param dSerial
+   *        The serial number to check.
+   * @return <code>true</code> if it is a valid serial number.
+   */
+  public static boolean isValidExcelDate (final double dSerial)
+  {
+    // Excludes NaN
+    return dSerial >= 0 && dSerial < Integer.MAX_VALUE;
+  }
+
+  /**
+   * Convert an Excel serial number to a date/time. The time is rounded to
+   * milliseconds.
+   *
+   * @param dSerial
+   *        The serial number to convert.
+   * @param bDate1904
+   *        <code>true</code> to use the 1904 date system, <code>false</code>
+   *        for the 1900 date system.
+   * @return <code>null</code> if the serial number is invalid.
+   */
+  @Nullable
+  public static LocalDateTime toLocalDateTime (final double dSerial, final boolean bDate1904)
+  {
+    if (!isValidExcelDate (dSerial))
+      return null;
+
+    final long nWholeDays = (long) dSerial;
+    long nMillisOfDay = (long) ((dSerial - nWholeDays) * MILLIS_PER_DAY + 0.5);
+    long nEpochDay = _getEpochDay (nWholeDays, bDate1904);
+    if (nMillisOfDay >= MILLIS_PER_DAY)
+    {
+      // Rounded up to the next day
+      nMillisOfDay -= MILLIS_PER_DAY;
+      nEpochDay++;
+    }
+    return LocalDateTime.of (LocalDate.ofEpochDay (nEpochDay), LocalTime.ofNanoOfDay (nMillisOfDay * NANOS_PER_MILLI));
+  }
+
+  /**
+   * Convert an Excel serial number to a date. The time part is rounded to
+   * milliseconds and afterwards ignored.
+   *
+   * @param dSerial
+   *        The serial number to convert.
+   * @param bDate1904
+   *        <code>true</code> to use the 1904 date system, <code>false</code>
+   *        for the 1900 date system.
+   * @return <code>null</code> if the serial number is invalid.
+   */
+  @Nullable
+  public static LocalDate toLocalDate (final double dSerial, final boolean bDate1904)
+  {
+    if (!isValidExcelDate (dSerial))
+      return null;
+
+    final long nWholeDays = (long) dSerial;
+    long nEpochDay = _getEpochDay (nWholeDays, bDate1904);
+    if ((long) ((dSerial - nWholeDays) * MILLIS_PER_DAY + 0.5) >= MILLIS_PER_DAY)
+      nEpochDay++;
+    return LocalDate.ofEpochDay (nEpochDay);
+  }
+
+  /**
+   * Convert an Excel serial number to a time. The date part is ignored and the
+   * time is rounded to milliseconds.
+   *
+   * @param dSerial
+   *        The serial number to convert.
+   * @return <code>null</code> if the serial number is invalid.
+   */
+  @Nullable
+  public static LocalTime toLocalTime (final double dSerial)
+  {
+    if (!isValidExcelDate (dSerial))
+      return null;
+
+    final long nWholeDays = (long) dSerial;
+    final long nMillisOfDay = (long) ((dSerial - nWholeDays) * MILLIS_PER_DAY + 0.5) % MILLIS_PER_DAY;
+    return LocalTime.ofNanoOfDay (nMillisOfDay * NANOS_PER_MILLI);
+  }
+
+  private static long _getEpochDay (final long nWholeDays, final boolean bDate1904)
+  {
+    if (bDate1904)
+      return nWholeDays - EPOCH_SERIAL_1904;
+    // Serial 60 is the non-existing 1900-02-29 and is mapped to 1900-03-01
+    // like in DateUtil
+    if (nWholeDays < FIRST_SERIAL_AFTER_LEAP_BUG)
+      return nWholeDays - EPOCH_SERIAL_1900 + 1;
+    return nWholeDays - EPOCH_SERIAL_1900;
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Caches the result of {@link DateUtil#isADateFormat(int, String)}, which
+ * parses the format string with regular expressions on every call. The
+ * classification is cached per format string and, if the cache is bound to a
+ * workbook, additionally per cell style index, so that checking a cell
+ * requires neither format parsing nor a format string lookup. Therefore the
+ * data formats of the existing cell styles of a bound workbook must not be
+ * changed while the cache is in use.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class ExcelDateFormatCache
+{
+  /** The maximum number of format strings to cache */
+  public static final int MAX_FORMAT_STRINGS = 10_000;
+
+  private static final ExcelDateFormatCache DEFAULT_INSTANCE = new ExcelDateFormatCache (null);
+
+  private final Workbook m_aWorkbook;
+  private final Map <String, Boolean> m_aFormatStrings = new ConcurrentHashMap <> ();
+  // Per style index: null = unknown
+  private volatile AtomicReferenceArray <Boolean> m_aStyles;
+
+  private ExcelDateFormatCache (@Nullable final Workbook aWorkbook)
+  {
+    m_aWorkbook = aWorkbook;
+    m_aStyles = aWorkbook == null ? null : new AtomicReferenceArray <> (Math.max (aWorkbook.getNumCellStyles (), 16));
+  }
+
+  /**
+   * @return The global cache instance that is only keyed by format string.
+   *         It is used by {@link ExcelReadHelper} and the streaming readers.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  public static ExcelDateFormatCache getDefaultInstance ()
+  {
+    return DEFAULT_INSTANCE;
+  }
+
+  /**
+   * Create a new cache that additionally caches the classification per cell
+   * style index of the passed workbook. Cells of other workbooks are only
+   * looked up by format string.
+   *
+   * @param aWorkbook
+   *        The workbook to bind the cache to. May not be <code>null</code>.
+   * @return A new cache. Never <code>null</code>.
+   */
+  @NonNull
+  public static ExcelDateFormatCache createForWorkbook (@NonNull final Workbook aWorkbook)
+  {
+    return new ExcelDateFormatCache (aWorkbook);
+  }
+
+  /**
+   * Check if the passed format is a date format.
+   *
+   * @param nFormatIndex
+   *        The index of the data format. Built-in date formats are detected by
+   *        index only.
+   * @param sFormatString
+   *        The format string. May be <code>null</code>.
+   * @return <code>true</code> if the format is a date or time format.
+   */
+  public boolean isDateFormat (final int nFormatIndex, @Nullable final String sFormatString)
+  {
+    if (DateUtil.isInternalDateFormat (nFormatIndex))
+      return true;
+    if (sFormatString == null || sFormatString.isEmpty ())
+      return false;
+
+    final Boolean aCached = m_aFormatStrings.get (sFormatString);
+    if (aCached != null)
+      return aCached.booleanValue ();
+
+    // The index is only used by POI for the built-in check done above
+    final boolean ret = DateUtil.isADateFormat (-1, sFormatString);
+    if (m_aFormatStrings.size () < MAX_FORMAT_STRINGS)
+      m_aFormatStrings.put (sFormatString, Boolean.valueOf (ret));
+    return ret;
+  }
+
+  /**
+   * Check if the passed cell style has a date format.
+   *
+   * @param aStyle
+   *        The cell style to check. May be <code>null</code>.
+   * @return <code>true</code> if the data format of the style is a date or
+   *         time format.
+   */
+  public boolean isDateFormat (@Nullable final CellStyle aStyle)
+  {
+    if (aStyle == null)
+      return false;
+    return isDateFormat (aStyle.getDataFormat (), aStyle.getDataFormatString ());
+  }
+
+  /**
+   * Check if the passed cell is a numeric cell (or a formula with a numeric
+   * result) with a valid date value and a date format. This is the cached
+   * equivalent of {@link DateUtil#isCellDateFormatted(Cell)}.
+   *
+   * @param aCell
+   *        The cell to check. May be <code>null</code>.
+   * @return <code>true</code> if the cell is date formatted.
+   */
+  public boolean isCellDateFormatted (@Nullable final Cell aCell)
+  {
+    if (!ExcelReadHelper.isNumericCell (aCell))
+      return false;
+    if (!DateUtil.isValidExcelDate (aCell.getNumericCellValue ()))
+      return false;
+
+    final CellStyle aStyle = aCell.getCellStyle ();
+    if (aStyle == null)
+      return false;
+
+    final AtomicReferenceArray <Boolean> aStyles = m_aStyles;
+    if (aStyles == null || aCell.getSheet ().getWorkbook () != m_aWorkbook)
+      return isDateFormat (aStyle);
+
+    final int nStyleIndex = aStyle.getIndex ();
+    if (nStyleIndex < 0)
+      return isDateFormat (aStyle);
+    if (nStyleIndex >= aStyles.length ())
+    {
+      // Styles were added to the workbook - grow the cache
+      final AtomicReferenceArray <Boolean> aNewStyles = new AtomicReferenceArray <> (Math.max (nStyleIndex + 1,
+                                                                                               aStyles.length () * 2));
+      for (int i = 0; i < aStyles.length (); ++i)
+        aNewStyles.set (i, aStyles.get (i));
+      m_aStyles = aNewStyles;
+      return isCellDateFormatted (aCell);
+    }
+
+    final Boolean aCached = aStyles.get (nStyleIndex);
+    if (aCached != null)
+      return aCached.booleanValue ();
+
+    final boolean ret = isDateFormat (aStyle);
+    aStyles.set (nStyleIndex, Boolean.valueOf (ret));
+    return ret;
+  }
+
+  /**
+   * @return The number of cached format strings.
+   */
+  @Nonnegative
+  public int getFormatStringCount ()
+  {
+    return m_aFormatStrings.size ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Workbook", m_aWorkbook != null)
+                                       .append ("FormatStrings", m_aFormatStrings.size ())
+                                       .getToString ();
+  }
+}
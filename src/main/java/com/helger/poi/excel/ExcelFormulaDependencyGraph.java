@@ -0,0 +1,775 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.apache.poi.ss.formula.EvaluationName;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheetRange;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.ExternSheetReferenceToken;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.collection.commons.ICommonsSet;
+
+/**
+ * The precedents of all formula cells of a workbook. The graph is built once
+ * from the parsed formula tokens and is used to determine which formula cells
+ * are affected by a change of a cell. Cells are identified by a
+ * <code>long</code> key created by {@link #getCellKey(int, int, int)}.<br>
+ * The following constructs cannot be resolved statically. Formulas using them
+ * are marked as volatile and are considered affected by every change:
+ * volatile functions like <code>INDIRECT</code>, <code>OFFSET</code> or
+ * <code>NOW</code>, and defined names that cannot be resolved. References to
+ * external workbooks are ignored, because they cannot change.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public final class ExcelFormulaDependencyGraph
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ExcelFormulaDependencyGraph.class);
+
+  // Functions whose result may change without a change of their arguments
+  private static final ICommonsSet <String> VOLATILE_FUNCTIONS = new CommonsHashSet <> ("INDIRECT",
+                                                                                      "OFFSET",
+                                                                                      "NOW",
+                                                                                      "TODAY",
+                                                                                      "RAND",
+                                                                                      "RANDBETWEEN",
+                                                                                      "RANDARRAY",
+                                                                                      "CELL",
+                                                                                      "INFO");
+  // Maximum nesting of defined names referring to other names
+  private static final int MAX_NAME_DEPTH = 16;
+
+  private static final int COLUMN_BITS = 14;
+  private static final int ROW_BITS = 20;
+  // Area dependencies are indexed in buckets of 1024 rows and 64 columns
+  private static final int ROW_BUCKET_BITS = 10;
+  private static final int COLUMN_BUCKET_BITS = 6;
+  // Areas covering more buckets (e.g. whole columns) are kept per sheet
+  private static final int MAX_BUCKETS_PER_AREA = 256;
+
+  /**
+   * A rectangular range of cells that is referenced by a formula cell.
+   */
+  private static final class AreaDependency
+  {
+    private final int m_nFirstSheet;
+    private final int m_nLastSheet;
+    private final int m_nFirstRow;
+    private final int m_nLastRow;
+    private final int m_nFirstColumn;
+    private final int m_nLastColumn;
+    private final long m_nDependent;
+
+    AreaDependency (final int nFirstSheet,
+                    final int nLastSheet,
+                    final int nFirstRow,
+                    final int nLastRow,
+                    final int nFirstColumn,
+                    final int nLastColumn,
+                    final long nDependent)
+    {
+      m_nFirstSheet = nFirstSheet;
+      m_nLastSheet = nLastSheet;
+      m_nFirstRow = nFirstRow;
+      m_nLastRow = nLastRow;
+      m_nFirstColumn = nFirstColumn;
+      m_nLastColumn = nLastColumn;
+      m_nDependent = nDependent;
+    }
+
+    boolean contains (final int nSheet, final int nRow, final int nColumn)
+    {
+      return nSheet >= m_nFirstSheet &&
+             nSheet <= m_nLastSheet &&
+             nRow >= m_nFirstRow &&
+             nRow <= m_nLastRow &&
+             nColumn >= m_nFirstColumn &&
+             nColumn <= m_nLastColumn;
+    }
+  }
+
+  private final Workbook m_aWorkbook;
+  private final EvaluationWorkbook m_aEvalWB;
+  // All formula cells in workbook order
+  private final ICommonsOrderedSet <Long> m_aFormulaCells = new CommonsLinkedHashSet <> ();
+  private final ICommonsSet <Long> m_aVolatileCells = new CommonsHashSet <> ();
+  // Single cell precedent to dependent formula cells and vice versa
+  private final ICommonsMap <Long, ICommonsOrderedSet <Long>> m_aCellDependents = new CommonsHashMap <> ();
+  private final ICommonsMap <Long, ICommonsList <Long>> m_aCellPrecedents = new CommonsHashMap <> ();
+  // Area precedents by bucket, large area precedents by sheet and all area
+  // precedents by dependent formula cell
+  private final ICommonsMap <Long, ICommonsOrderedSet <AreaDependency>> m_aAreaBuckets = new CommonsHashMap <> ();
+  private final ICommonsMap <Integer, ICommonsOrderedSet <AreaDependency>> m_aLargeAreas = new CommonsHashMap <> ();
+  private final ICommonsMap <Long, ICommonsList <AreaDependency>> m_aDependentAreas = new CommonsHashMap <> ();
+  private int m_nAreaDependencyCount = 0;
+
+  private ExcelFormulaDependencyGraph (@NonNull final Workbook aWorkbook)
+  {
+    m_aWorkbook = aWorkbook;
+    m_aEvalWB = ExcelFormulaHelper.createEvaluationWorkbook (aWorkbook);
+  }
+
+  /**
+   * Build the dependency graph of all formula cells of the passed workbook.
+   * Each formula is parsed once.
+   *
+   * @param aWorkbook
+   *        The workbook to scan. Must be an HSSF or XSSF workbook. May not be
+   *        <code>null</code>.
+   * @return The new graph. Never <code>null</code>.
+   */
+  @NonNull
+  public static ExcelFormulaDependencyGraph build (@NonNull final Workbook aWorkbook)
+  {
+    ValueEnforcer.notNull (aWorkbook, "Workbook");
+
+    final ExcelFormulaDependencyGraph ret = new ExcelFormulaDependencyGraph (aWorkbook);
+    for (final Sheet aSheet : aWorkbook)
+      for (final Row aRow : aSheet)
+        for (final Cell aCell : aRow)
+          if (aCell.getCellType () == CellType.FORMULA)
+            ret.addFormulaCell (aCell);
+    return ret;
+  }
+
+  /**
+   * Create the key of a single cell.
+   *
+   * @param nSheetIndex
+   *        0-based sheet index
+   * @param nRowIndex
+   *        0-based row index
+   * @param nColumnIndex
+   *        0-based column index
+   * @return The unique key of the cell.
+   */
+  public static long getCellKey (@Nonnegative final int nSheetIndex,
+                                 @Nonnegative final int nRowIndex,
+                                 @Nonnegative final int nColumnIndex)
+  {
+    return ((long) nSheetIndex << (ROW_BITS + COLUMN_BITS)) | ((long) nRowIndex << COLUMN_BITS) | nColumnIndex;
+  }
+
+  /**
+   * Create the key of a single cell.
+   *
+   * @param aCell
+   *        The cell to use. May not be <code>null</code>.
+   * @return The unique key of the cell.
+   */
+  public static long getCellKey (@NonNull final Cell aCell)
+  {
+    final Sheet aSheet = aCell.getSheet ();
+    return getCellKey (aSheet.getWorkbook ().getSheetIndex (aSheet), aCell.getRowIndex (), aCell.getColumnIndex ());
+  }
+
+  /**
+   * @param nCellKey
+   *        The cell key
+   * @return The 0-based sheet index of the key
+   */
+  public static int getSheetIndex (final long nCellKey)
+  {
+    return (int) (nCellKey >>> (ROW_BITS + COLUMN_BITS));
+  }
+
+  /**
+   * @param nCellKey
+   *        The cell key
+   * @return The 0-based row index of the key
+   */
+  public static int getRowIndex (final long nCellKey)
+  {
+    return (int) ((nCellKey >>> COLUMN_BITS) & ((1L << ROW_BITS) - 1));
+  }
+
+  /**
+   * @param nCellKey
+   *        The cell key
+   * @return The 0-based column index of the key
+   */
+  public static int getColumnIndex (final long nCellKey)
+  {
+    return (int) (nCellKey & ((1L << COLUMN_BITS) - 1));
+  }
+
+  /**
+   * Resolve a cell key to the cell of the underlying workbook.
+   *
+   * @param nCellKey
+   *        The cell key
+   * @return <code>null</code> if no such cell exists.
+   */
+  @Nullable
+  public Cell getCell (final long nCellKey)
+  {
+    final Sheet aSheet = m_aWorkbook.getSheetAt (getSheetIndex (nCellKey));
+    final Row aRow = aSheet.getRow (getRowIndex (nCellKey));
+    return aRow == null ? null : aRow.getCell (getColumnIndex (nCellKey));
+  }
+
+  private void _addCellPrecedent (final long nPrecedent, final long nDependent)
+  {
+    m_aCellDependents.computeIfAbsent (Long.valueOf (nPrecedent), k -> new CommonsLinkedHashSet <> ())
+                     .add (Long.valueOf (nDependent));
+    m_aCellPrecedents.computeIfAbsent (Long.valueOf (nDependent), k -> new CommonsArrayList <> ())
+                     .add (Long.valueOf (nPrecedent));
+  }
+
+  private static long _getBucketKey (final int nSheet, final int nRowBucket, final int nColumnBucket)
+  {
+    return ((long) nSheet << 32) | ((long) nRowBucket << 16) | nColumnBucket;
+  }
+
+  private static boolean _isLargeArea (@NonNull final AreaDependency aArea)
+  {
+    final long nRowBuckets = (aArea.m_nLastRow >>> ROW_BUCKET_BITS) - (aArea.m_nFirstRow >>> ROW_BUCKET_BITS) + 1;
+    final long nColumnBuckets = (aArea.m_nLastColumn >>> COLUMN_BUCKET_BITS) -
+                                (aArea.m_nFirstColumn >>> COLUMN_BUCKET_BITS) +
+                                1;
+    return nRowBuckets * nColumnBuckets > MAX_BUCKETS_PER_AREA;
+  }
+
+  private static <K> void _updateIndex (@NonNull final ICommonsMap <K, ICommonsOrderedSet <AreaDependency>> aIndex,
+                                        @NonNull final K aKey,
+                                        @NonNull final AreaDependency aArea,
+                                        final boolean bAdd)
+  {
+    if (bAdd)
+      aIndex.computeIfAbsent (aKey, k -> new CommonsLinkedHashSet <> ()).add (aArea);
+    else
+    {
+      final ICommonsOrderedSet <AreaDependency> aAreas = aIndex.get (aKey);
+      if (aAreas != null)
+      {
+        aAreas.remove (aArea);
+        if (aAreas.isEmpty ())
+          aIndex.remove (aKey);
+      }
+    }
+  }
+
+  /**
+   * Add the passed area to or remove it from all buckets it overlaps.
+   */
+  private void _updateAreaIndex (@NonNull final AreaDependency aArea, final boolean bAdd)
+  {
+    final boolean bLarge = _isLargeArea (aArea);
+    final int nFirstRowBucket = aArea.m_nFirstRow >>> ROW_BUCKET_BITS;
+    final int nLastRowBucket = aArea.m_nLastRow >>> ROW_BUCKET_BITS;
+    final int nFirstColumnBucket = aArea.m_nFirstColumn >>> COLUMN_BUCKET_BITS;
+    final int nLastColumnBucket = aArea.m_nLastColumn >>> COLUMN_BUCKET_BITS;
+    for (int nSheet = aArea.m_nFirstSheet; nSheet <= aArea.m_nLastSheet; ++nSheet)
+      if (bLarge)
+        _updateIndex (m_aLargeAreas, Integer.valueOf (nSheet), aArea, bAdd);
+      else
+        for (int nRowBucket = nFirstRowBucket; nRowBucket <= nLastRowBucket; ++nRowBucket)
+          for (int nColumnBucket = nFirstColumnBucket; nColumnBucket <= nLastColumnBucket; ++nColumnBucket)
+            _updateIndex (m_aAreaBuckets,
+                          Long.valueOf (_getBucketKey (nSheet, nRowBucket, nColumnBucket)),
+                          aArea,
+                          bAdd);
+  }
+
+  private void _addAreaPrecedent (@NonNull final AreaDependency aArea)
+  {
+    _updateAreaIndex (aArea, true);
+    m_aDependentAreas.computeIfAbsent (Long.valueOf (aArea.m_nDependent), k -> new CommonsArrayList <> ()).add (aArea);
+    m_nAreaDependencyCount++;
+  }
+
+  /**
+   * Determine the sheet range of a 3D reference.
+   *
+   * @return <code>null</code> if the reference points to an external workbook
+   *         or cannot be resolved.
+   */
+  @Nullable
+  private int [] _getSheetRange (@NonNull final Ptg aPtg)
+  {
+    if (aPtg instanceof Pxg)
+    {
+      // XSSF
+      final Pxg aPxg = (Pxg) aPtg;
+      if (aPxg.getExternalWorkbookNumber () > 0)
+        return null;
+      final int nFirst = m_aWorkbook.getSheetIndex (aPxg.getSheetName ());
+      final String sLastSheetName = aPtg instanceof Pxg3D ? ((Pxg3D) aPtg).getLastSheetName () : null;
+      final int nLast = sLastSheetName == null ? nFirst : m_aWorkbook.getSheetIndex (sLastSheetName);
+      return nFirst < 0 || nLast < 0 ? null : new int [] { nFirst, nLast };
+    }
+
+    // HSSF
+    final int nExternSheetIndex = ((ExternSheetReferenceToken) aPtg).getExternSheetIndex ();
+    final ExternalSheet aExternalSheet = m_aEvalWB.getExternalSheet (nExternSheetIndex);
+    if (aExternalSheet != null)
+    {
+      if (aExternalSheet.getWorkbookName () != null)
+        return null;
+      final int nFirst = m_aWorkbook.getSheetIndex (aExternalSheet.getSheetName ());
+      final int nLast = aExternalSheet instanceof ExternalSheetRange ? m_aWorkbook.getSheetIndex (((ExternalSheetRange) aExternalSheet).getLastSheetName ())
+                                                                      : nFirst;
+      return nFirst < 0 || nLast < 0 ? null : new int [] { nFirst, nLast };
+    }
+    final int nSheet = m_aEvalWB.convertFromExternSheetIndex (nExternSheetIndex);
+    return nSheet < 0 ? null : new int [] { nSheet, nSheet };
+  }
+
+  private void _addPrecedents (@NonNull final Ptg [] aPtgs,
+                               final int nFormulaSheet,
+                               final long nDependent,
+                               final int nDepth)
+  {
+    for (final Ptg aPtg : aPtgs)
+    {
+      if (aPtg instanceof RefPtgBase)
+      {
+        final RefPtgBase aRef = (RefPtgBase) aPtg;
+        if (aPtg instanceof Pxg || aPtg instanceof ExternSheetReferenceToken)
+        {
+          final int [] aSheets = _getSheetRange (aPtg);
+          if (aSheets != null)
+            for (int nSheet = aSheets[0]; nSheet <= aSheets[1]; ++nSheet)
+              _addCellPrecedent (getCellKey (nSheet, aRef.getRow (), aRef.getColumn ()), nDependent);
+        }
+        else
+          _addCellPrecedent (getCellKey (nFormulaSheet, aRef.getRow (), aRef.getColumn ()), nDependent);
+      }
+      else
+        if (aPtg instanceof AreaPtgBase)
+        {
+          final AreaPtgBase aArea = (AreaPtgBase) aPtg;
+          int nFirstSheet = nFormulaSheet;
+          int nLastSheet = nFormulaSheet;
+          if (aPtg instanceof Pxg || aPtg instanceof ExternSheetReferenceToken)
+          {
+            final int [] aSheets = _getSheetRange (aPtg);
+            if (aSheets == null)
+              continue;
+            nFirstSheet = aSheets[0];
+            nLastSheet = aSheets[1];
+          }
+          _addAreaPrecedent (new AreaDependency (nFirstSheet,
+                                                 nLastSheet,
+                                                 Math.min (aArea.getFirstRow (), aArea.getLastRow ()),
+                                                 Math.max (aArea.getFirstRow (), aArea.getLastRow ()),
+                                                 Math.min (aArea.getFirstColumn (), aArea.getLastColumn ()),
+                                                 Math.max (aArea.getFirstColumn (), aArea.getLastColumn ()),
+                                                 nDependent));
+        }
+        else
+          if (aPtg instanceof NamePtg)
+          {
+            final EvaluationName aName = nDepth < MAX_NAME_DEPTH ? m_aEvalWB.getName ((NamePtg) aPtg) : null;
+            if (aName != null && aName.hasFormula ())
+              _addPrecedents (aName.getNameDefinition (), nFormulaSheet, nDependent, nDepth + 1);
+            else
+              m_aVolatileCells.add (Long.valueOf (nDependent));
+          }
+          else
+            if (aPtg instanceof AbstractFunctionPtg)
+            {
+              if (VOLATILE_FUNCTIONS.contains (((AbstractFunctionPtg) aPtg).getName ()))
+                m_aVolatileCells.add (Long.valueOf (nDependent));
+            }
+    }
+  }
+
+  /**
+   * Add a formula cell to the graph or update the precedents of an existing
+   * formula cell. If the cell is no longer a formula cell, it is removed from
+   * the graph.
+   *
+   * @param aCell
+   *        The cell that was added or changed. May not be <code>null</code>.
+   */
+  public void addFormulaCell (@NonNull final Cell aCell)
+  {
+    ValueEnforcer.notNull (aCell, "Cell");
+
+    final int nSheetIndex = m_aWorkbook.getSheetIndex (aCell.getSheet ());
+    final long nKey = getCellKey (nSheetIndex, aCell.getRowIndex (), aCell.getColumnIndex ());
+    removeFormulaCell (nKey);
+    if (aCell.getCellType () != CellType.FORMULA)
+      return;
+
+    Ptg [] aPtgs;
+    try
+    {
+      aPtgs = FormulaParser.parse (aCell.getCellFormula (),
+                                   (FormulaParsingWorkbook) m_aEvalWB,
+                                   FormulaType.CELL,
+                                   nSheetIndex,
+                                   aCell.getRowIndex ());
+    }
+    catch (final RuntimeException ex)
+    {
+      // E.g. unsupported functions or references
+      LOGGER.warn ("Failed to parse formula of cell " +
+                   aCell.getAddress ().formatAsString () +
+                   " - treating it as volatile: " +
+                   ex.getMessage ());
+      aPtgs = null;
+    }
+
+    m_aFormulaCells.add (Long.valueOf (nKey));
+    if (aPtgs == null)
+      m_aVolatileCells.add (Long.valueOf (nKey));
+    else
+      _addPrecedents (aPtgs, nSheetIndex, nKey, 0);
+  }
+
+  /**
+   * Remove a formula cell and all its precedents from the graph. Cells
+   * depending on it are not touched.
+   *
+   * @param nCellKey
+   *        The key of the cell to remove.
+   */
+  public void removeFormulaCell (final long nCellKey)
+  {
+    final Long aKey = Long.valueOf (nCellKey);
+    if (!m_aFormulaCells.remove (aKey))
+      return;
+
+    m_aVolatileCells.remove (aKey);
+    final ICommonsList <Long> aPrecedents = m_aCellPrecedents.remove (aKey);
+    if (aPrecedents != null)
+      for (final Long aPrecedent : aPrecedents)
+      {
+        final ICommonsOrderedSet <Long> aDependents = m_aCellDependents.get (aPrecedent);
+        if (aDependents != null)
+        {
+          aDependents.remove (aKey);
+          if (aDependents.isEmpty ())
+            m_aCellDependents.remove (aPrecedent);
+        }
+      }
+    final ICommonsList <AreaDependency> aAreas = m_aDependentAreas.remove (aKey);
+    if (aAreas != null)
+    {
+      for (final AreaDependency aArea : aAreas)
+        _updateAreaIndex (aArea, false);
+      m_nAreaDependencyCount -= aAreas.size ();
+    }
+  }
+
+  /**
+   * @param nCellKey
+   *        The cell key to check
+   * @return <code>true</code> if the cell is a formula cell of this graph.
+   */
+  public boolean isFormulaCell (final long nCellKey)
+  {
+    return m_aFormulaCells.contains (Long.valueOf (nCellKey));
+  }
+
+  /**
+   * @param nCellKey
+   *        The cell key to check
+   * @return <code>true</code> if the formula cell could not be analyzed
+   *         statically and must be recalculated on every change.
+   */
+  public boolean isVolatileCell (final long nCellKey)
+  {
+    return m_aVolatileCells.contains (Long.valueOf (nCellKey));
+  }
+
+  /**
+   * @return The keys of all formula cells in workbook order. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedSet <Long> getAllFormulaCells ()
+  {
+    return m_aFormulaCells.getClone ();
+  }
+
+  /**
+   * @return The keys of all volatile formula cells. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsSet <Long> getAllVolatileCells ()
+  {
+    return m_aVolatileCells.getClone ();
+  }
+
+  /**
+   * @return The number of formula cells in the graph.
+   */
+  @Nonnegative
+  public int getFormulaCellCount ()
+  {
+    return m_aFormulaCells.size ();
+  }
+
+  /**
+   * Get the formula cells directly referencing the passed cell.
+   *
+   * @param nCellKey
+   *        The key of the referenced cell.
+   * @return The keys of the directly dependent formula cells. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedSet <Long> getDirectDependents (final long nCellKey)
+  {
+    final ICommonsOrderedSet <Long> ret = new CommonsLinkedHashSet <> ();
+    final ICommonsOrderedSet <Long> aDependents = m_aCellDependents.get (Long.valueOf (nCellKey));
+    if (aDependents != null)
+      ret.addAll (aDependents);
+
+    final int nSheet = getSheetIndex (nCellKey);
+    final int nRow = getRowIndex (nCellKey);
+    final int nColumn = getColumnIndex (nCellKey);
+    // Only check the areas of the bucket of the cell
+    final long nBucketKey = _getBucketKey (nSheet, nRow >>> ROW_BUCKET_BITS, nColumn >>> COLUMN_BUCKET_BITS);
+    final ICommonsOrderedSet <AreaDependency> aBucket = m_aAreaBuckets.get (Long.valueOf (nBucketKey));
+    if (aBucket != null)
+      for (final AreaDependency aArea : aBucket)
+        if (aArea.contains (nSheet, nRow, nColumn))
+          ret.add (Long.valueOf (aArea.m_nDependent));
+    final ICommonsOrderedSet <AreaDependency> aLargeAreas = m_aLargeAreas.get (Integer.valueOf (nSheet));
+    if (aLargeAreas != null)
+      for (final AreaDependency aArea : aLargeAreas)
+        if (aArea.contains (nSheet, nRow, nColumn))
+          ret.add (Long.valueOf (aArea.m_nDependent));
+    return ret;
+  }
+
+  /**
+   * Get all formula cells that directly or indirectly reference the passed
+   * cell. The passed cell itself is only contained, if it is part of a
+   * reference cycle. Volatile cells are not contained, unless they reference
+   * the cell.
+   *
+   * @param nCellKey
+   *        The key of the changed cell.
+   * @return The keys of all transitive dependents. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedSet <Long> getAllDependents (final long nCellKey)
+  {
+    final ICommonsOrderedSet <Long> ret = new CommonsLinkedHashSet <> ();
+    final ICommonsList <Long> aOpen = new CommonsArrayList <> ();
+    aOpen.add (Long.valueOf (nCellKey));
+    while (aOpen.isNotEmpty ())
+    {
+      final long nCurrent = aOpen.remove (aOpen.size () - 1).longValue ();
+      for (final Long aDependent : getDirectDependents (nCurrent))
+        if (ret.add (aDependent))
+          aOpen.add (aDependent);
+    }
+    return ret;
+  }
+
+  /**
+   * @return For each formula cell the formula cells it directly references.
+   */
+  @NonNull
+  private ICommonsMap <Long, ICommonsOrderedSet <Long>> _getFormulaPrecedents ()
+  {
+    final ICommonsMap <Long, ICommonsOrderedSet <Long>> ret = new CommonsHashMap <> ();
+    for (final Long aKey : m_aFormulaCells)
+      ret.put (aKey, new CommonsLinkedHashSet <> ());
+
+    for (final Map.Entry <Long, ICommonsList <Long>> aEntry : m_aCellPrecedents.entrySet ())
+      for (final Long aPrecedent : aEntry.getValue ())
+        if (m_aFormulaCells.contains (aPrecedent))
+          ret.get (aEntry.getKey ()).add (aPrecedent);
+
+    if (m_aDependentAreas.isNotEmpty ())
+    {
+      // Sorted by sheet, row and column
+      final NavigableSet <Long> aSorted = new TreeSet <> (m_aFormulaCells);
+      final int nMaxColumn = (1 << COLUMN_BITS) - 1;
+      for (final ICommonsList <AreaDependency> aAreas : m_aDependentAreas.values ())
+        for (final AreaDependency aArea : aAreas)
+        {
+          final ICommonsOrderedSet <Long> aPrecedents = ret.get (Long.valueOf (aArea.m_nDependent));
+          for (int nSheet = aArea.m_nFirstSheet; nSheet <= aArea.m_nLastSheet; ++nSheet)
+            for (final Long aKey : aSorted.subSet (Long.valueOf (getCellKey (nSheet, aArea.m_nFirstRow, 0)),
+                                                   true,
+                                                   Long.valueOf (getCellKey (nSheet, aArea.m_nLastRow, nMaxColumn)),
+                                                   true))
+            {
+              final int nColumn = getColumnIndex (aKey.longValue ());
+              if (nColumn >= aArea.m_nFirstColumn && nColumn <= aArea.m_nLastColumn)
+                aPrecedents.add (aKey);
+            }
+        }
+    }
+    return ret;
+  }
+
+  /**
+   * Check if the formula cells reference each other in a cycle.
+   *
+   * @return <code>true</code> if at least one reference cycle exists.
+   */
+  public boolean hasCycle ()
+  {
+    final ICommonsMap <Long, ICommonsOrderedSet <Long>> aPrecedents = _getFormulaPrecedents ();
+
+    // Topological sort - all cells that cannot be sorted are part of or
+    // depend on a cycle
+    final ICommonsMap <Long, ICommonsList <Long>> aDependents = new CommonsHashMap <> ();
+    final ICommonsMap <Long, Integer> aOpenPrecedents = new CommonsHashMap <> ();
+    final ICommonsList <Long> aReady = new CommonsArrayList <> ();
+    for (final Map.Entry <Long, ICommonsOrderedSet <Long>> aEntry : aPrecedents.entrySet ())
+    {
+      final int nCount = aEntry.getValue ().size ();
+      if (nCount == 0)
+        aReady.add (aEntry.getKey ());
+      else
+        aOpenPrecedents.put (aEntry.getKey (), Integer.valueOf (nCount));
+      for (final Long aPrecedent : aEntry.getValue ())
+        aDependents.computeIfAbsent (aPrecedent, k -> new CommonsArrayList <> ()).add (aEntry.getKey ());
+    }
+
+    int nSorted = 0;
+    while (aReady.isNotEmpty ())
+    {
+      final Long aKey = aReady.remove (aReady.size () - 1);
+      nSorted++;
+      final ICommonsList <Long> aList = aDependents.get (aKey);
+      if (aList != null)
+        for (final Long aDependent : aList)
+        {
+          final int nOpen = aOpenPrecedents.get (aDependent).intValue () - 1;
+          aOpenPrecedents.put (aDependent, Integer.valueOf (nOpen));
+          if (nOpen == 0)
+            aReady.add (aDependent);
+        }
+    }
+    return nSorted < aPrecedents.size ();
+  }
+
+  @Nonnegative
+  private static int _find (@NonNull final int [] aParents, final int n)
+  {
+    int nRoot = n;
+    while (aParents[nRoot] != nRoot)
+      nRoot = aParents[nRoot];
+    // Path compression
+    int nCur = n;
+    while (aParents[nCur] != nRoot)
+    {
+      final int nNext = aParents[nCur];
+      aParents[nCur] = nRoot;
+      nCur = nNext;
+    }
+    return nRoot;
+  }
+
+  /**
+   * Partition all formula cells into groups that do not reference formula
+   * cells of other groups. The groups can be evaluated independently of each
+   * other. Volatile cells are not considered specially.
+   *
+   * @return The list of groups, ordered by the first cell of each group. The
+   *         cells of each group are in workbook order. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ICommonsList <Long>> getIndependentComponents ()
+  {
+    final ICommonsMap <Long, ICommonsOrderedSet <Long>> aPrecedents = _getFormulaPrecedents ();
+
+    // Union-find over the formula cell indices
+    final ICommonsList <Long> aKeys = new CommonsArrayList <> (m_aFormulaCells);
+    final ICommonsMap <Long, Integer> aIndices = new CommonsHashMap <> ();
+    for (int i = 0; i < aKeys.size (); ++i)
+      aIndices.put (aKeys.get (i), Integer.valueOf (i));
+    final int [] aParents = new int [aKeys.size ()];
+    for (int i = 0; i < aParents.length; ++i)
+      aParents[i] = i;
+    for (final Map.Entry <Long, ICommonsOrderedSet <Long>> aEntry : aPrecedents.entrySet ())
+    {
+      final int nIndex = aIndices.get (aEntry.getKey ()).intValue ();
+      for (final Long aPrecedent : aEntry.getValue ())
+      {
+        final int nRoot = _find (aParents, nIndex);
+        final int nOtherRoot = _find (aParents, aIndices.get (aPrecedent).intValue ());
+        // The lower index is always the root, so the result is stable
+        if (nRoot != nOtherRoot)
+          aParents[Math.max (nRoot, nOtherRoot)] = Math.min (nRoot, nOtherRoot);
+      }
+    }
+
+    // Roots are the lowest index of each group
+    final ICommonsMap <Integer, ICommonsList <Long>> aGroups = new CommonsLinkedHashMap <> ();
+    for (int i = 0; i < aParents.length; ++i)
+      aGroups.computeIfAbsent (Integer.valueOf (_find (aParents, i)), k -> new CommonsArrayList <> ())
+             .add (aKeys.get (i));
+    return new CommonsArrayList <> (aGroups.values ());
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("FormulaCells", m_aFormulaCells.size ())
+                                       .append ("VolatileCells", m_aVolatileCells.size ())
+                                       .append ("CellDependencies", m_aCellPrecedents.size ())
+                                       .append ("AreaDependencies", m_nAreaDependencyCount)
+                                       .getToString ();
+  }
+}
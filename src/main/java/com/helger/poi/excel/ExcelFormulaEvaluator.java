@@ -19,31 +19,220 @@ package com.helger.poi.excel;
 import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.formula.IStabilityClassifier;
+import org.apache.poi.ss.formula.udf.UDFFinder;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFFormulaEvaluator;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.poi.excel.lookup.ExcelIndexedLookupFunctions;
+import com.helger.poi.excel.lookup.ExcelLookupIndexCache;
 
 public class ExcelFormulaEvaluator
 {
   private final FormulaEvaluator m_aEvaluator;
+  private final ExcelLookupIndexCache m_aLookupIndexCache;
+  private final ExcelStabilityClassifier m_aStabilityClassifier;
 
   public ExcelFormulaEvaluator (@NonNull final Workbook aWB)
   {
     m_aEvaluator = aWB.getCreationHelper ().createFormulaEvaluator ();
+    m_aLookupIndexCache = null;
+    m_aStabilityClassifier = null;
   }
 
   public ExcelFormulaEvaluator (@NonNull final Workbook aWB, @Nullable final IStabilityClassifier aStability)
   {
-    m_aEvaluator = aWB instanceof HSSFWorkbook ? new HSSFFormulaEvaluator ((HSSFWorkbook) aWB, aStability)
-                                               : XSSFFormulaEvaluator.create ((XSSFWorkbook) aWB, aStability, null);
+    this (aWB, aStability, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aWB
+   *        The workbook to evaluate. May not be <code>null</code>.
+   * @param aStability
+   *        The optional stability classifier. If it is an
+   *        {@link ExcelStabilityClassifier}, it is notified about all cell
+   *        changes reported to this evaluator. May be <code>null</code>.
+   * @param aLookupIndexCache
+   *        The optional lookup index cache. If it is provided, the functions of
+   *        {@link ExcelIndexedLookupFunctions} are registered in the workbook
+   *        and in this evaluator. Cell changes reported to this evaluator
+   *        invalidate the affected indexes. May be <code>null</code>.
+   * @since 7.1.1
+   */
+  public ExcelFormulaEvaluator (@NonNull final Workbook aWB,
+                                @Nullable final IStabilityClassifier aStability,
+                                @Nullable final ExcelLookupIndexCache aLookupIndexCache)
+  {
+    UDFFinder aUDFFinder = null;
+    if (aLookupIndexCache != null)
+    {
+      // Required to parse XLSX formulas
+      ExcelIndexedLookupFunctions.registerInWorkbook (aWB);
+      aUDFFinder = ExcelIndexedLookupFunctions.createUDFFinder (aLookupIndexCache);
+    }
+    if (aWB instanceof HSSFWorkbook)
+      m_aEvaluator = HSSFFormulaEvaluator.create ((HSSFWorkbook) aWB, aStability, aUDFFinder);
+    else
+      if (aWB instanceof SXSSFWorkbook)
+        m_aEvaluator = SXSSFFormulaEvaluator.create ((SXSSFWorkbook) aWB, aStability, aUDFFinder);
+      else
+        m_aEvaluator = XSSFFormulaEvaluator.create ((XSSFWorkbook) aWB, aStability, aUDFFinder);
+    m_aLookupIndexCache = aLookupIndexCache;
+    m_aStabilityClassifier = aStability instanceof ExcelStabilityClassifier ? (ExcelStabilityClassifier) aStability
+                                                                            : null;
+  }
+
+  /**
+   * @return The underlying POI formula evaluator. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @NonNull
+  protected final FormulaEvaluator getFormulaEvaluator ()
+  {
+    return m_aEvaluator;
+  }
+
+  /**
+   * @return The stability classifier passed in the constructor, if it is an
+   *         {@link ExcelStabilityClassifier}. May be <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nullable
+  public final ExcelStabilityClassifier getStabilityClassifier ()
+  {
+    return m_aStabilityClassifier;
+  }
+
+  /**
+   * @return The lookup index cache passed in the constructor. May be
+   *         <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nullable
+  public final ExcelLookupIndexCache getLookupIndexCache ()
+  {
+    return m_aLookupIndexCache;
+  }
+
+  @Nullable
+  private static Cell _getCell (@NonNull final Workbook aWB, final long nCellKey)
+  {
+    final Sheet aSheet = aWB.getSheetAt (ExcelFormulaDependencyGraph.getSheetIndex (nCellKey));
+    final Row aRow = aSheet.getRow (ExcelFormulaDependencyGraph.getRowIndex (nCellKey));
+    return aRow == null ? null : aRow.getCell (ExcelFormulaDependencyGraph.getColumnIndex (nCellKey));
+  }
+
+  private void _invalidateCaches (@NonNull final Cell aCell)
+  {
+    if (m_aLookupIndexCache == null && m_aStabilityClassifier == null)
+      return;
+
+    final Sheet aSheet = aCell.getSheet ();
+    final Workbook aWB = aSheet.getWorkbook ();
+    final int nSheetIndex = aWB.getSheetIndex (aSheet);
+    if (m_aLookupIndexCache != null)
+    {
+      // Lookups using a cached index did not register the cells of the range
+      // as dependencies, so the formula cells using the index are invalidated
+      // explicitly
+      for (final Long aUsingCell : m_aLookupIndexCache.notifyUpdateCell (nSheetIndex,
+                                                                          aCell.getRowIndex (),
+                                                                          aCell.getColumnIndex ()))
+      {
+        final Cell aFormulaCell = _getCell (aWB, aUsingCell.longValue ());
+        if (aFormulaCell != null && aFormulaCell.getCellType () == CellType.FORMULA)
+          m_aEvaluator.notifySetFormula (aFormulaCell);
+      }
+    }
+    if (m_aStabilityClassifier != null &&
+        m_aStabilityClassifier.notifyCellWritten (nSheetIndex, aCell.getRowIndex (), aCell.getColumnIndex ()))
+      onFinalCellChanged (aCell);
+  }
+
+  /**
+   * Called after a cell that was classified as final by the stability
+   * classifier was changed. Final cells are not tracked by the underlying
+   * evaluator, so it does not know which cached results depend on the cell.
+   * This implementation clears all cached results, because no dependency
+   * information is available.
+   *
+   * @param aCell
+   *        The changed cell. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  protected void onFinalCellChanged (@NonNull final Cell aCell)
+  {
+    m_aEvaluator.clearAllCachedResultValues ();
+  }
+
+  /**
+   * Should be called whenever there are changes to input cells in the
+   * evaluated workbook. Failure to call this method after changing cell values
+   * will cause incorrect behaviour of the evaluate~ methods of this class.
+   *
+   * @param aCell
+   *        The cell that was changed
+   * @since 7.1.1
+   */
+  public void notifyUpdateCell (@NonNull final Cell aCell)
+  {
+    m_aEvaluator.notifyUpdateCell (aCell);
+    _invalidateCaches (aCell);
+  }
+
+  /**
+   * Should be called to tell the cell value cache that the specified cell has
+   * just become a formula cell, or the formula text has changed.
+   *
+   * @param aCell
+   *        The cell that was changed
+   * @since 7.1.1
+   */
+  public void notifySetFormula (@NonNull final Cell aCell)
+  {
+    m_aEvaluator.notifySetFormula (aCell);
+    _invalidateCaches (aCell);
+  }
+
+  /**
+   * Should be called to tell the cell value cache that the specified cell has
+   * just been deleted. Failure to call this method after changing cell values
+   * will cause incorrect behaviour of the evaluate~ methods of this class.
+   *
+   * @param aCell
+   *        The cell that is about to be deleted
+   * @since 7.1.1
+   */
+  public void notifyDeleteCell (@NonNull final Cell aCell)
+  {
+    m_aEvaluator.notifyDeleteCell (aCell);
+    _invalidateCaches (aCell);
+  }
+
+  /**
+   * Should be called whenever there are major changes (e.g. moving sheets) to
+   * input cells in the evaluated workbook.
+   *
+   * @since 7.1.1
+   */
+  public void clearAllCachedResultValues ()
+  {
+    m_aEvaluator.clearAllCachedResultValues ();
+    if (m_aLookupIndexCache != null)
+      m_aLookupIndexCache.clear ();
   }
 
   /**
@@ -114,6 +303,9 @@ public class ExcelFormulaEvaluator
   @Override
   public String toString ()
   {
-    return new ToStringGenerator (this).append ("evaluator", m_aEvaluator).getToString ();
+    return new ToStringGenerator (this).append ("evaluator", m_aEvaluator)
+                                       .appendIfNotNull ("lookupIndexCache", m_aLookupIndexCache)
+                                       .appendIfNotNull ("stabilityClassifier", m_aStabilityClassifier)
+                                       .getToString ();
   }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFEvaluationWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+
+/**
+ * Internal helper for formula handling.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class ExcelFormulaHelper
+{
+  private ExcelFormulaHelper ()
+  {}
+
+  /**
+   * Create the evaluation workbook matching the passed workbook. All returned
+   * objects also implement
+   * {@link org.apache.poi.ss.formula.FormulaParsingWorkbook} and
+   * {@link org.apache.poi.ss.formula.FormulaRenderingWorkbook}.
+   *
+   * @param aWB
+   *        The workbook to use. Must be an {@link HSSFWorkbook},
+   *        {@link XSSFWorkbook} or {@link SXSSFWorkbook}.
+   * @return The new evaluation workbook. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         For unsupported workbook types
+   */
+  @NonNull
+  static EvaluationWorkbook createEvaluationWorkbook (@NonNull final Workbook aWB)
+  {
+    if (aWB instanceof HSSFWorkbook)
+      return HSSFEvaluationWorkbook.create ((HSSFWorkbook) aWB);
+    if (aWB instanceof XSSFWorkbook)
+      return XSSFEvaluationWorkbook.create ((XSSFWorkbook) aWB);
+    if (aWB instanceof SXSSFWorkbook)
+      return SXSSFEvaluationWorkbook.create ((SXSSFWorkbook) aWB);
+    throw new IllegalArgumentException ("Unsupported workbook type " + aWB.getClass ().getName ());
+  }
+}
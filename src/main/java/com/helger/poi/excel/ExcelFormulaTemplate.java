@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaRenderingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A formula that is parsed only once and can be applied to many cells. The
+ * formula is parsed relative to an anchor cell. When it is applied to another
+ * cell, all relative references are shifted by the row and column distance to
+ * the anchor, like Excel does when copying a formula. Absolute references
+ * (e.g. <code>$A$1</code>) are not changed.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ * @see WorkbookCreationHelper#createFormulaTemplate(String, int, int)
+ */
+@Immutable
+public final class ExcelFormulaTemplate
+{
+  private final String m_sFormula;
+  private final int m_nAnchorRow;
+  private final int m_nAnchorColumn;
+  private final Ptg [] m_aPtgs;
+  private final FormulaRenderingWorkbook m_aRenderingWB;
+  private final SpreadsheetVersion m_eVersion;
+
+  private ExcelFormulaTemplate (@NonNull final String sFormula,
+                                final int nAnchorRow,
+                                final int nAnchorColumn,
+                                @NonNull final Ptg [] aPtgs,
+                                @NonNull final FormulaRenderingWorkbook aRenderingWB,
+                                @NonNull final SpreadsheetVersion eVersion)
+  {
+    m_sFormula = sFormula;
+    m_nAnchorRow = nAnchorRow;
+    m_nAnchorColumn = nAnchorColumn;
+    m_aPtgs = aPtgs;
+    m_aRenderingWB = aRenderingWB;
+    m_eVersion = eVersion;
+  }
+
+  /**
+   * @return The original formula as passed in. Never <code>null</code>.
+   */
+  @NonNull
+  @Nonempty
+  public String getFormula ()
+  {
+    return m_sFormula;
+  }
+
+  /**
+   * @return The 0-based row index the formula was written for.
+   */
+  @Nonnegative
+  public int getAnchorRow ()
+  {
+    return m_nAnchorRow;
+  }
+
+  /**
+   * @return The 0-based column index the formula was written for.
+   */
+  @Nonnegative
+  public int getAnchorColumn ()
+  {
+    return m_nAnchorColumn;
+  }
+
+  private int _shiftRow (final int nRow, final int nRowDelta)
+  {
+    final int ret = nRow + nRowDelta;
+    if (ret < 0 || ret > m_eVersion.getLastRowIndex ())
+      throw new IllegalArgumentException ("Shifting formula '" + m_sFormula + "' results in an invalid row index " + ret);
+    return ret;
+  }
+
+  private int _shiftColumn (final int nColumn, final int nColumnDelta)
+  {
+    final int ret = nColumn + nColumnDelta;
+    if (ret < 0 || ret > m_eVersion.getLastColumnIndex ())
+      throw new IllegalArgumentException ("Shifting formula '" +
+                                          m_sFormula +
+                                          "' results in an invalid column index " +
+                                          ret);
+    return ret;
+  }
+
+  /**
+   * Get the parsed tokens of this formula, shifted to the passed cell.
+   *
+   * @param nRow
+   *        The 0-based row index of the target cell.
+   * @param nColumn
+   *        The 0-based column index of the target cell.
+   * @return A new array of tokens. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If a shifted reference would be outside of the sheet
+   */
+  @NonNull
+  public Ptg [] getPtgs (@Nonnegative final int nRow, @Nonnegative final int nColumn)
+  {
+    final int nRowDelta = nRow - m_nAnchorRow;
+    final int nColumnDelta = nColumn - m_nAnchorColumn;
+    final Ptg [] ret = new Ptg [m_aPtgs.length];
+    for (int i = 0; i < m_aPtgs.length; ++i)
+    {
+      final Ptg aPtg = m_aPtgs[i];
+      if (aPtg instanceof RefPtgBase)
+      {
+        final RefPtgBase aRef = (RefPtgBase) aPtg.copy ();
+        if (aRef.isRowRelative ())
+          aRef.setRow (_shiftRow (aRef.getRow (), nRowDelta));
+        if (aRef.isColRelative ())
+          aRef.setColumn (_shiftColumn (aRef.getColumn (), nColumnDelta));
+        ret[i] = aRef;
+      }
+      else
+        if (aPtg instanceof AreaPtgBase)
+        {
+          final AreaPtgBase aArea = (AreaPtgBase) aPtg.copy ();
+          // Whole columns and whole rows are never shifted
+          final boolean bWholeColumn = aArea.getFirstRow () == 0 &&
+                                       aArea.getLastRow () == m_eVersion.getLastRowIndex ();
+          final boolean bWholeRow = aArea.getFirstColumn () == 0 &&
+                                    aArea.getLastColumn () == m_eVersion.getLastColumnIndex ();
+          if (!bWholeColumn)
+          {
+            if (aArea.isFirstRowRelative ())
+              aArea.setFirstRow (_shiftRow (aArea.getFirstRow (), nRowDelta));
+            if (aArea.isLastRowRelative ())
+              aArea.setLastRow (_shiftRow (aArea.getLastRow (), nRowDelta));
+          }
+          if (!bWholeRow)
+          {
+            if (aArea.isFirstColRelative ())
+              aArea.setFirstColumn (_shiftColumn (aArea.getFirstColumn (), nColumnDelta));
+            if (aArea.isLastColRelative ())
+              aArea.setLastColumn (_shiftColumn (aArea.getLastColumn (), nColumnDelta));
+          }
+          ret[i] = aArea;
+        }
+        else
+        {
+          // Not modified, so no copy is needed
+          ret[i] = aPtg;
+        }
+    }
+    return ret;
+  }
+
+  /**
+   * Get the formula string shifted to the passed cell. Rendering the formula
+   * from the parsed tokens is much cheaper than parsing it.
+   *
+   * @param nRow
+   *        The 0-based row index of the target cell.
+   * @param nColumn
+   *        The 0-based column index of the target cell.
+   * @return The formula string for the target cell. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If a shifted reference would be outside of the sheet
+   */
+  @NonNull
+  public String getFormula (@Nonnegative final int nRow, @Nonnegative final int nColumn)
+  {
+    if (nRow == m_nAnchorRow && nColumn == m_nAnchorColumn)
+      return FormulaRenderer.toFormulaString (m_aRenderingWB, m_aPtgs);
+    return FormulaRenderer.toFormulaString (m_aRenderingWB, getPtgs (nRow, nColumn));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Formula", m_sFormula)
+                                       .append ("AnchorRow", m_nAnchorRow)
+                                       .append ("AnchorColumn", m_nAnchorColumn)
+                                       .getToString ();
+  }
+
+  /**
+   * Parse the passed formula for the passed workbook.
+   *
+   * @param aWB
+   *        The workbook the formula belongs to. Must be an
+   *        {@link HSSFWorkbook}, {@link XSSFWorkbook} or {@link SXSSFWorkbook}.
+   * @param sFormula
+   *        The formula without the leading '='. May neither be
+   *        <code>null</code> nor empty.
+   * @param nSheetIndex
+   *        The 0-based index of the sheet the formula is used in, or -1 if
+   *        unknown.
+   * @param nAnchorRow
+   *        The 0-based row index the formula is written for.
+   * @param nAnchorColumn
+   *        The 0-based column index the formula is written for.
+   * @return The parsed template. Never <code>null</code>.
+   * @throws org.apache.poi.ss.formula.FormulaParseException
+   *         If the formula cannot be parsed
+   */
+  @NonNull
+  public static ExcelFormulaTemplate parse (@NonNull final Workbook aWB,
+                                            @NonNull @Nonempty final String sFormula,
+                                            final int nSheetIndex,
+                                            @Nonnegative final int nAnchorRow,
+                                            @Nonnegative final int nAnchorColumn)
+  {
+    ValueEnforcer.notNull (aWB, "Workbook");
+    ValueEnforcer.notEmpty (sFormula, "Formula");
+    ValueEnforcer.isGE0 (nAnchorRow, "AnchorRow");
+    ValueEnforcer.isGE0 (nAnchorColumn, "AnchorColumn");
+
+    final EvaluationWorkbook aEvalWB = ExcelFormulaHelper.createEvaluationWorkbook (aWB);
+    final FormulaParsingWorkbook aParsingWB = (FormulaParsingWorkbook) aEvalWB;
+    final FormulaRenderingWorkbook aRenderingWB = (FormulaRenderingWorkbook) aEvalWB;
+    final Ptg [] aPtgs = FormulaParser.parse (sFormula, aParsingWB, FormulaType.CELL, nSheetIndex, nAnchorRow);
+    return new ExcelFormulaTemplate (sFormula,
+                                     nAnchorRow,
+                                     nAnchorColumn,
+                                     aPtgs,
+                                     aRenderingWB,
+                                     aWB.getSpreadsheetVersion ());
+  }
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.poi.ss.formula.IStabilityClassifier;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.poi.excel.lookup.ExcelLookupIndexCache;
+
+/**
+ * A formula evaluator that keeps track of the formula cells that need to be
+ * recalculated. The dependency graph of all formula cells is built once upon
+ * construction. Evaluated results are stored in the formula cells and in the
+ * value cache of the underlying evaluator, so after a cell change only the
+ * formula cells that transitively depend on the changed cell are recalculated
+ * by {@link #evaluateDirty()}. All changes to the workbook must be reported via
+ * {@link #notifyUpdateCell(Cell)}, {@link #notifySetFormula(Cell)} or
+ * {@link #notifyDeleteCell(Cell)}.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelIncrementalFormulaEvaluator extends ExcelFormulaEvaluator
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ExcelIncrementalFormulaEvaluator.class);
+
+  private final Workbook m_aWorkbook;
+  private final IStabilityClassifier m_aStability;
+  private final ExcelFormulaDependencyGraph m_aGraph;
+  private final ICommonsOrderedSet <Long> m_aDirtyCells = new CommonsLinkedHashSet <> ();
+  private long m_nRecomputedCount;
+  private long m_nReusedCount;
+
+  public ExcelIncrementalFormulaEvaluator (@NonNull final Workbook aWB)
+  {
+    super (aWB);
+    m_aWorkbook = aWB;
+    m_aStability = null;
+    m_aGraph = ExcelFormulaDependencyGraph.build (aWB);
+    m_aDirtyCells.addAll (m_aGraph.getAllFormulaCells ());
+  }
+
+  public ExcelIncrementalFormulaEvaluator (@NonNull final Workbook aWB, @Nullable final IStabilityClassifier aStability)
+  {
+    this (aWB, aStability, null);
+  }
+
+  public ExcelIncrementalFormulaEvaluator (@NonNull final Workbook aWB,
+                                           @Nullable final IStabilityClassifier aStability,
+                                           @Nullable final ExcelLookupIndexCache aLookupIndexCache)
+  {
+    super (aWB, aStability, aLookupIndexCache);
+    m_aWorkbook = aWB;
+    m_aStability = aStability;
+    m_aGraph = ExcelFormulaDependencyGraph.build (aWB);
+    m_aDirtyCells.addAll (m_aGraph.getAllFormulaCells ());
+  }
+
+  /**
+   * @return The dependency graph of all formula cells. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public final ExcelFormulaDependencyGraph getDependencyGraph ()
+  {
+    return m_aGraph;
+  }
+
+  private void _onCellChanged (@NonNull final Cell aCell, final boolean bDeleted)
+  {
+    final long nKey = ExcelFormulaDependencyGraph.getCellKey (aCell);
+    final Long aKey = Long.valueOf (nKey);
+    if (bDeleted)
+      m_aGraph.removeFormulaCell (nKey);
+    else
+      if (aCell.getCellType () == CellType.FORMULA || m_aGraph.isFormulaCell (nKey))
+        m_aGraph.addFormulaCell (aCell);
+
+    if (m_aGraph.isFormulaCell (nKey))
+      m_aDirtyCells.add (aKey);
+    else
+      m_aDirtyCells.remove (aKey);
+    m_aDirtyCells.addAll (m_aGraph.getAllDependents (nKey));
+  }
+
+  @Override
+  public void notifyUpdateCell (@NonNull final Cell aCell)
+  {
+    super.notifyUpdateCell (aCell);
+    _onCellChanged (aCell, false);
+  }
+
+  @Override
+  public void notifySetFormula (@NonNull final Cell aCell)
+  {
+    super.notifySetFormula (aCell);
+    _onCellChanged (aCell, false);
+  }
+
+  @Override
+  public void notifyDeleteCell (@NonNull final Cell aCell)
+  {
+    super.notifyDeleteCell (aCell);
+    _onCellChanged (aCell, true);
+  }
+
+  /**
+   * Invalidates the cached results of the formula cells directly referencing
+   * the changed cell, and of all volatile formula cells, instead of clearing
+   * all cached results. The underlying evaluator invalidates their dependents
+   * transitively.
+   */
+  @Override
+  protected void onFinalCellChanged (@NonNull final Cell aCell)
+  {
+    final ICommonsOrderedSet <Long> aKeys = m_aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (aCell));
+    aKeys.addAll (m_aGraph.getAllVolatileCells ());
+    for (final Long aKey : aKeys)
+    {
+      final Cell aFormulaCell = m_aGraph.getCell (aKey.longValue ());
+      if (aFormulaCell != null && aFormulaCell.getCellType () == CellType.FORMULA)
+        getFormulaEvaluator ().notifySetFormula (aFormulaCell);
+    }
+  }
+
+  @Override
+  public void clearAllCachedResultValues ()
+  {
+    super.clearAllCachedResultValues ();
+    m_aDirtyCells.addAll (m_aGraph.getAllFormulaCells ());
+  }
+
+  /**
+   * The underlying evaluator has no notion of volatile functions and would
+   * return the result cached on the first evaluation. Invalidating a cell also
+   * invalidates its dependents.
+   */
+  private void _invalidateVolatileCells ()
+  {
+    for (final Long aKey : m_aGraph.getAllVolatileCells ())
+    {
+      final Cell aCell = m_aGraph.getCell (aKey.longValue ());
+      if (aCell != null && aCell.getCellType () == CellType.FORMULA)
+        getFormulaEvaluator ().notifySetFormula (aCell);
+    }
+  }
+
+  private int _evaluate (@NonNull final ICommonsOrderedSet <Long> aKeys)
+  {
+    int ret = 0;
+    for (final Long aKey : aKeys)
+    {
+      final Cell aCell = m_aGraph.getCell (aKey.longValue ());
+      if (aCell != null)
+      {
+        // Stores the result in the cell
+        evaluateFormulaCell (aCell);
+        ret++;
+      }
+      m_aDirtyCells.remove (aKey);
+    }
+    m_nRecomputedCount += ret;
+    m_nReusedCount += m_aGraph.getFormulaCellCount () - ret;
+    return ret;
+  }
+
+  /**
+   * Evaluate all formula cells of the workbook and store the results in the
+   * cells.
+   *
+   * @return The number of evaluated formula cells.
+   */
+  @Nonnegative
+  public int evaluateAll ()
+  {
+    _invalidateVolatileCells ();
+    return _evaluate (m_aGraph.getAllFormulaCells ());
+  }
+
+  /**
+   * @return <code>true</code> if the result was stored in the cell.
+   */
+  private static boolean _setCachedResult (@NonNull final Cell aCell, @NonNull final CellValue aValue)
+  {
+    // The cell remains a formula cell, only the cached result is changed
+    switch (aValue.getCellType ())
+    {
+      case BOOLEAN:
+        aCell.setCellValue (aValue.getBooleanValue ());
+        return true;
+      case ERROR:
+        aCell.setCellErrorValue (aValue.getErrorValue ());
+        return true;
+      case NUMERIC:
+        aCell.setCellValue (aValue.getNumberValue ());
+        return true;
+      case STRING:
+        aCell.setCellValue (aValue.getStringValue ());
+        return true;
+      default:
+        // BLANK cannot be stored as a formula result
+        return false;
+    }
+  }
+
+  /**
+   * Evaluate all formula cells of the workbook in parallel and store the
+   * results in the cells. The formula cells are partitioned into groups that
+   * do not reference each other (see
+   * {@link ExcelFormulaDependencyGraph#getIndependentComponents()}) and each
+   * group is evaluated by its own evaluator on the provided executor. The
+   * results are written back to the cells on the calling thread, group by
+   * group in the order of
+   * {@link ExcelFormulaDependencyGraph#getIndependentComponents()} and in
+   * workbook order within each group. Cells whose result cannot be stored
+   * (e.g. a blank result) are not counted and stay dirty. The workbook must not
+   * be modified while this method is running.<br>
+   * If the workbook contains volatile formula cells, reference cycles or only
+   * a single group, all cells are evaluated sequentially via
+   * {@link #evaluateAll()} instead, so that the result does not depend on the
+   * scheduling.<br>
+   * Note: the values calculated by the workers are not available in the value
+   * cache of this evaluator, so the next {@link #evaluateDirty()} may
+   * recalculate unchanged precedents once.
+   *
+   * @param aExecutor
+   *        The executor to run the evaluation tasks. May not be
+   *        <code>null</code>. It is not shut down by this method.
+   * @return The number of formula cells whose result was stored. If the
+   *         calling thread is interrupted, the cells that were not written back
+   *         stay dirty.
+   */
+  @Nonnegative
+  public int evaluateAllParallel (@NonNull final ExecutorService aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+
+    if (m_aGraph.getAllVolatileCells ().isNotEmpty () || m_aGraph.hasCycle ())
+      return evaluateAll ();
+    final ICommonsList <ICommonsList <Long>> aComponents = m_aGraph.getIndependentComponents ();
+    if (aComponents.size () <= 1)
+      return evaluateAll ();
+
+    final ICommonsList <Future <ICommonsList <CellValue>>> aFutures = new CommonsArrayList <> ();
+    for (final ICommonsList <Long> aComponent : aComponents)
+      aFutures.add (aExecutor.submit ( () -> {
+        // Evaluators are not thread-safe - one per task
+        final ExcelFormulaEvaluator aWorker = new ExcelFormulaEvaluator (m_aWorkbook,
+                                                                         m_aStability,
+                                                                         getLookupIndexCache ());
+        final ICommonsList <CellValue> aValues = new CommonsArrayList <> (aComponent.size ());
+        for (final Long aKey : aComponent)
+        {
+          final Cell aCell = m_aGraph.getCell (aKey.longValue ());
+          aValues.add (aCell == null ? null : aWorker.evaluate (aCell));
+        }
+        return aValues;
+      }));
+
+    int ret = 0;
+    for (int i = 0; i < aFutures.size (); ++i)
+    {
+      final ICommonsList <CellValue> aValues;
+      try
+      {
+        aValues = aFutures.get (i).get ();
+      }
+      catch (final ExecutionException ex)
+      {
+        for (final Future <?> aOther : aFutures)
+          aOther.cancel (true);
+        // Same behaviour as in sequential evaluation
+        if (ex.getCause () instanceof RuntimeException)
+          throw (RuntimeException) ex.getCause ();
+        throw new IllegalStateException ("Failed to evaluate formula cells", ex.getCause ());
+      }
+      catch (final InterruptedException ex)
+      {
+        LOGGER.error ("Interrupted while evaluating formula cells in parallel", ex);
+        for (final Future <?> aOther : aFutures)
+          aOther.cancel (true);
+        Thread.currentThread ().interrupt ();
+        break;
+      }
+
+      final ICommonsList <Long> aComponent = aComponents.get (i);
+      for (int j = 0; j < aComponent.size (); ++j)
+      {
+        final Long aKey = aComponent.get (j);
+        final CellValue aValue = aValues.get (j);
+        if (aValue == null)
+        {
+          // The cell no longer exists
+          m_aDirtyCells.remove (aKey);
+        }
+        else
+          if (_setCachedResult (m_aGraph.getCell (aKey.longValue ()), aValue))
+          {
+            ret++;
+            m_aDirtyCells.remove (aKey);
+          }
+      }
+    }
+    m_nRecomputedCount += ret;
+    m_nReusedCount += m_aGraph.getFormulaCellCount () - ret;
+    return ret;
+  }
+
+  /**
+   * Evaluate only the formula cells affected by the changes reported since the
+   * last evaluation, and store the results in the cells. Volatile formula cells
+   * (see {@link ExcelFormulaDependencyGraph}) and their dependents are always
+   * evaluated.
+   *
+   * @return The number of evaluated formula cells.
+   */
+  @Nonnegative
+  public int evaluateDirty ()
+  {
+    final ICommonsOrderedSet <Long> aKeys = m_aDirtyCells.getClone ();
+    for (final Long aKey : m_aGraph.getAllVolatileCells ())
+    {
+      aKeys.add (aKey);
+      aKeys.addAll (m_aGraph.getAllDependents (aKey.longValue ()));
+    }
+    _invalidateVolatileCells ();
+    return _evaluate (aKeys);
+  }
+
+  /**
+   * @return The number of formula cells that need to be recalculated,
+   *         excluding volatile cells.
+   */
+  @Nonnegative
+  public int getDirtyCellCount ()
+  {
+    return m_aDirtyCells.size ();
+  }
+
+  /**
+   * @return The total number of formula cell evaluations performed by
+   *         {@link #evaluateAll()} and {@link #evaluateDirty()}.
+   */
+  @Nonnegative
+  public long getRecomputedCellCount ()
+  {
+    return m_nRecomputedCount;
+  }
+
+  /**
+   * @return The total number of formula cells that were skipped by
+   *         {@link #evaluateDirty()}, because their stored result was still
+   *         valid.
+   */
+  @Nonnegative
+  public long getReusedCellCount ()
+  {
+    return m_nReusedCount;
+  }
+
+  /**
+   * Reset the recomputed and reused counters.
+   */
+  public void resetStatistics ()
+  {
+    m_nRecomputedCount = 0;
+    m_nReusedCount = 0;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("Graph", m_aGraph)
+                            .append ("DirtyCells", m_aDirtyCells.size ())
+                            .append ("RecomputedCount", m_nRecomputedCount)
+                            .append ("ReusedCount", m_nReusedCount)
+                            .getToString ();
+  }
+}
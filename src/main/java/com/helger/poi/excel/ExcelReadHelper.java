@@ -16,32 +16,38 @@
  */
 package com.helger.poi.excel;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Date;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.poifs.filesystem.NotOLE2FileException;
-import org.apache.poi.poifs.filesystem.OfficeXmlFileException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Hyperlink;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.WillClose;
 import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.io.iface.IHasInputStream;
 import com.helger.base.io.stream.StreamHelper;
-import com.helger.base.string.StringReplace;
-import com.helger.datetime.helper.PDTFactory;
 
 /**
  * Misc Excel read helper methods.
@@ -57,62 +63,167 @@ public final class ExcelReadHelper
   {}
 
   /**
-   * Try to read an Excel {@link Workbook} from the passed {@link IHasInputStream}. First XLS is
-   * tried, than XLSX, as XLS files can be identified more easily.
+   * Try to read an Excel {@link Workbook} from the passed {@link IHasInputStream}. The format is
+   * detected from the first bytes of the content, so the input stream is only opened once.
    *
    * @param aIIS
    *        The input stream provider to read from.
    * @return <code>null</code> if the content of the InputStream could not be interpreted as Excel
    *         file
+   * @see #readWorkbookFromInputStream(InputStream)
    */
   @Nullable
   public static Workbook readWorkbookFromInputStream (@NonNull final IHasInputStream aIIS)
   {
-    InputStream aIS = null;
+    final InputStream aIS = aIIS.getInputStream ();
+    if (aIS == null)
+    {
+      // Failed to open input stream -> no need to continue
+      return null;
+    }
+    return readWorkbookFromInputStream (aIS);
+  }
+
+  /**
+   * Try to read an Excel {@link Workbook} from the passed {@link InputStream}. The format is
+   * detected via {@link FileMagic} from the first bytes of the stream, so that the content is only
+   * read once and non-repeatable streams are supported. Encrypted OOXML files and XLSB files are
+   * detected but cannot be read.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. Is closed afterwards.
+   * @return <code>null</code> if the content of the InputStream could not be interpreted as Excel
+   *         file
+   * @since 7.1.1
+   */
+  @Nullable
+  public static Workbook readWorkbookFromInputStream (@NonNull @WillClose final InputStream aIS)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
     try
     {
-      // Try to read as XLS
-      aIS = aIIS.getInputStream ();
-      if (aIS == null)
+      final InputStream aPreparedIS = FileMagic.prepareToCheckMagic (aIS);
+      final FileMagic eMagic = FileMagic.valueOf (aPreparedIS);
+      switch (eMagic)
       {
-        // Failed to open input stream -> no need to continue
-        return null;
+        case OLE2:
+        {
+          final POIFSFileSystem aFS = new POIFSFileSystem (aPreparedIS);
+          if (aFS.getRoot ().hasEntry (Decryptor.DEFAULT_POIFS_ENTRY))
+          {
+            LOGGER.error ("The Excel file is an encrypted XLSX file, which cannot be read without a password");
+            aFS.close ();
+            return null;
+          }
+          return new HSSFWorkbook (aFS);
+        }
+        case OOXML:
+        {
+          final OPCPackage aPkg = OPCPackage.open (aPreparedIS);
+          if (!aPkg.getPartsByContentType (XSSFRelation.XLSB_BINARY_WORKBOOK.getContentType ()).isEmpty ())
+          {
+            LOGGER.error ("The Excel file is an XLSB file, which is not supported");
+            aPkg.revert ();
+            return null;
+          }
+          return new XSSFWorkbook (aPkg);
+        }
+        default:
+          LOGGER.error ("Error trying to read non-Excel file with detected format " + eMagic);
+          return null;
       }
-      return new HSSFWorkbook (aIS);
     }
-    catch (final OfficeXmlFileException ex)
+    catch (final IOException | InvalidFormatException | RuntimeException ex)
+    {
+      LOGGER.error ("Error trying to read Excel file", ex);
+      return null;
+    }
+    finally
     {
-      // No XLS -> try XSLS
+      // Ensure the InputStream is closed. The data structures are in memory!
       StreamHelper.close (aIS);
-      try
-      {
-        // Re-retrieve the input stream, to ensure we read from the beginning!
-        aIS = aIIS.getInputStream ();
-        return new XSSFWorkbook (aIS);
-      }
-      catch (final IOException ex2)
-      {
-        LOGGER.error ("Error trying to read XLSX file from " + aIIS, ex);
-      }
     }
-    catch (final NotOLE2FileException ex)
+  }
+
+  /**
+   * Try to read an Excel {@link Workbook} directly from the passed file. The format is detected via
+   * {@link FileMagic} and the file is opened read-only with random access, so that large files are
+   * not buffered on the heap. The returned workbook should be closed after usage to release the
+   * file handle.
+   *
+   * @param aFile
+   *        The file to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the file does not exist or could not be interpreted as Excel file
+   * @see EExcelVersion#readWorkbook(File)
+   * @since 7.1.1
+   */
+  @Nullable
+  public static Workbook readWorkbook (@NonNull final File aFile)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    if (!aFile.isFile ())
+    {
+      LOGGER.error ("The Excel file '" + aFile.getAbsolutePath () + "' does not exist");
+      return null;
+    }
+
+    final FileMagic eMagic;
+    try
     {
-      LOGGER.error ("Error trying to read non-Excel file from " + aIIS + ": " + ex.getMessage ());
+      eMagic = FileMagic.valueOf (aFile);
     }
     catch (final IOException ex)
     {
-      LOGGER.error ("Error trying to read XLS file from " + aIIS, ex);
+      LOGGER.error ("Error trying to detect the format of Excel file '" + aFile.getAbsolutePath () + "'", ex);
+      return null;
     }
-    finally
+
+    final EExcelVersion eVersion = EExcelVersion.getFromFileMagic (eMagic);
+    if (eVersion == null)
     {
-      // Ensure the InputStream is closed. The data structures are in memory!
-      StreamHelper.close (aIS);
+      LOGGER.error ("Error trying to read non-Excel file '" +
+                    aFile.getAbsolutePath () +
+                    "' with detected format " +
+                    eMagic);
+      return null;
     }
-    return null;
+
+    final Workbook ret = eVersion.readWorkbook (aFile);
+    if (ret == null)
+      LOGGER.error ("Error trying to read Excel file '" + aFile.getAbsolutePath () + "' as " + eVersion);
+    return ret;
   }
 
+  /**
+   * Try to read an Excel {@link Workbook} directly from the passed path.
+   *
+   * @param aPath
+   *        The path to read from. May not be <code>null</code>.
+   * @return <code>null</code> if the file does not exist or could not be interpreted as Excel file
+   * @see #readWorkbook(File)
+   * @since 7.1.1
+   */
+  @Nullable
+  public static Workbook readWorkbook (@NonNull final Path aPath)
+  {
+    ValueEnforcer.notNull (aPath, "Path");
+    return readWorkbook (aPath.toFile ());
+  }
+
+  /**
+   * Get the passed numeric cell value as the most specific {@link Number}
+   * object. Values without a fraction are returned as {@link Integer} or
+   * {@link Long}, all others as {@link Double}.
+   *
+   * @param dValue
+   *        The numeric value.
+   * @return The matching number object. Never <code>null</code>.
+   * @since 7.1.1
+   */
   @NonNull
-  private static Number _getAsNumberObject (final double dValue)
+  public static Number getAsNumberObject (final double dValue)
   {
     if (dValue == (int) dValue)
     {
@@ -128,6 +239,153 @@ public final class ExcelReadHelper
     return Double.valueOf (dValue);
   }
 
+  /**
+   * Get the passed numeric cell value as a string, in the same way as
+   * <code>getAsNumberObject (dValue).toString ()</code> but without creating
+   * the intermediate number object.
+   *
+   * @param dValue
+   *        The numeric value.
+   * @return The string representation. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @NonNull
+  public static String getAsNumberString (final double dValue)
+  {
+    if (dValue == (int) dValue)
+      return Integer.toString ((int) dValue);
+    if (dValue == (long) dValue)
+      return Long.toString ((long) dValue);
+    return Double.toString (dValue);
+  }
+
+  /**
+   * Get the type of the passed cell. For formula cells the type of the cached
+   * result is returned.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @return <code>null</code> if the cell is <code>null</code>.
+   * @since 7.1.1
+   */
+  @Nullable
+  public static CellType getEffectiveCellType (@Nullable final Cell aCell)
+  {
+    if (aCell == null)
+      return null;
+    final CellType eCellType = aCell.getCellType ();
+    return eCellType == CellType.FORMULA ? aCell.getCachedFormulaResultType () : eCellType;
+  }
+
+  /**
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @return <code>true</code> if the cell or the cached formula result is
+   *         numeric.
+   * @since 7.1.1
+   */
+  public static boolean isNumericCell (@Nullable final Cell aCell)
+  {
+    return getEffectiveCellType (aCell) == CellType.NUMERIC;
+  }
+
+  /**
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @return <code>true</code> if the cell or the cached formula result is a
+   *         string.
+   * @since 7.1.1
+   */
+  public static boolean isStringCell (@Nullable final Cell aCell)
+  {
+    return getEffectiveCellType (aCell) == CellType.STRING;
+  }
+
+  /**
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @return <code>true</code> if the cell or the cached formula result is a
+   *         boolean.
+   * @since 7.1.1
+   */
+  public static boolean isBooleanCell (@Nullable final Cell aCell)
+  {
+    return getEffectiveCellType (aCell) == CellType.BOOLEAN;
+  }
+
+  /**
+   * Get the numeric value of the passed cell without boxing.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @param dDefault
+   *        The value to be returned if the cell is not numeric.
+   * @return The numeric value or the default value.
+   * @since 7.1.1
+   */
+  public static double getCellValueDouble (@Nullable final Cell aCell, final double dDefault)
+  {
+    return isNumericCell (aCell) ? aCell.getNumericCellValue () : dDefault;
+  }
+
+  /**
+   * Get the numeric value of the passed cell as a long without boxing.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @param nDefault
+   *        The value to be returned if the cell is not numeric or has a
+   *        fractional part.
+   * @return The numeric value or the default value.
+   * @since 7.1.1
+   */
+  public static long getCellValueLong (@Nullable final Cell aCell, final long nDefault)
+  {
+    if (!isNumericCell (aCell))
+      return nDefault;
+    final double dValue = aCell.getNumericCellValue ();
+    return dValue == (long) dValue ? (long) dValue : nDefault;
+  }
+
+  /**
+   * Pass the value of the passed cell to the visitor without creating wrapper
+   * objects. For formula cells the cached result is visited.
+   *
+   * @param aCell
+   *        The cell to be visited. May be <code>null</code> in which case
+   *        {@link IExcelCellValueVisitor#onBlank()} is invoked.
+   * @param aVisitor
+   *        The visitor to be invoked. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public static void visitCellValue (@Nullable final Cell aCell, @NonNull final IExcelCellValueVisitor aVisitor)
+  {
+    final CellType eCellType = getEffectiveCellType (aCell);
+    if (eCellType == null)
+    {
+      aVisitor.onBlank ();
+      return;
+    }
+    switch (eCellType)
+    {
+      case NUMERIC:
+        aVisitor.onNumber (aCell.getNumericCellValue ());
+        break;
+      case STRING:
+        aVisitor.onString (aCell.getStringCellValue ());
+        break;
+      case BOOLEAN:
+        aVisitor.onBoolean (aCell.getBooleanCellValue ());
+        break;
+      case ERROR:
+        aVisitor.onError (aCell.getErrorCellValue ());
+        break;
+      default:
+        aVisitor.onBlank ();
+        break;
+    }
+  }
+
   /**
    * Return the best matching Java object underlying the passed cell.<br>
    * Note: Date values cannot be determined automatically!
@@ -146,7 +404,7 @@ public final class ExcelReadHelper
     switch (eCellType)
     {
       case NUMERIC:
-        return _getAsNumberObject (aCell.getNumericCellValue ());
+        return getAsNumberObject (aCell.getNumericCellValue ());
       case STRING:
         return aCell.getStringCellValue ();
       case BOOLEAN:
@@ -156,7 +414,7 @@ public final class ExcelReadHelper
         switch (eFormulaResultType)
         {
           case NUMERIC:
-            return _getAsNumberObject (aCell.getNumericCellValue ());
+            return getAsNumberObject (aCell.getNumericCellValue ());
           case STRING:
             return aCell.getStringCellValue ();
           case BOOLEAN:
@@ -174,26 +432,152 @@ public final class ExcelReadHelper
   @Nullable
   public static String getCellValueString (@Nullable final Cell aCell)
   {
-    final Object aObject = getCellValueObject (aCell);
-    return aObject == null ? null : aObject.toString ();
+    if (aCell == null)
+      return null;
+
+    final CellType eCellType = aCell.getCellType ();
+    final CellType eEffectiveType = eCellType == CellType.FORMULA ? aCell.getCachedFormulaResultType () : eCellType;
+    switch (eEffectiveType)
+    {
+      case NUMERIC:
+        // Avoid the intermediate number object
+        return getAsNumberString (aCell.getNumericCellValue ());
+      case STRING:
+        return aCell.getStringCellValue ();
+      case BOOLEAN:
+        return Boolean.toString (aCell.getBooleanCellValue ());
+      case BLANK:
+        return null;
+      default:
+        if (eCellType == CellType.FORMULA)
+          throw new IllegalArgumentException ("The cell formula type " + eEffectiveType + " is unsupported!");
+        throw new IllegalArgumentException ("The cell type " + eCellType + " is unsupported!");
+    }
+  }
+
+  /**
+   * Append the normalized version of the passed text to the passed
+   * {@link StringBuilder}. Normalization removes all control characters,
+   * collapses sequences of spaces into a single space and removes leading and
+   * trailing spaces - all in a single pass.
+   *
+   * @param aText
+   *        The text to normalize. May not be <code>null</code>.
+   * @param aTarget
+   *        The string builder to append to. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public static void appendNormalizedString (@NonNull final CharSequence aText, @NonNull final StringBuilder aTarget)
+  {
+    final int nLen = aText.length ();
+    boolean bAnyChar = false;
+    boolean bPendingSpace = false;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = aText.charAt (i);
+      if (Character.getType (c) == Character.CONTROL)
+        continue;
+      if (c == ' ')
+      {
+        // Leading spaces are skipped, inner spaces are collapsed
+        if (bAnyChar)
+          bPendingSpace = true;
+      }
+      else
+      {
+        if (bPendingSpace)
+        {
+          aTarget.append (' ');
+          bPendingSpace = false;
+        }
+        aTarget.append (c);
+        bAnyChar = true;
+      }
+    }
   }
 
+  /**
+   * Get the normalized version of the passed string, as defined by
+   * {@link #appendNormalizedString(CharSequence, StringBuilder)}.
+   *
+   * @param sValue
+   *        The string to normalize. May be <code>null</code>.
+   * @return The passed instance if it is already normalized, a new string
+   *         otherwise. <code>null</code> if the passed string is
+   *         <code>null</code>.
+   * @since 7.1.1
+   */
   @Nullable
-  public static String getCellValueNormalizedString (@Nullable final Cell aCell)
+  public static String getNormalizedString (@Nullable final String sValue)
   {
-    final String sValue = getCellValueString (aCell);
     if (sValue == null)
       return null;
 
-    // Remove all control characters
-    final char [] aChars = sValue.toCharArray ();
-    final StringBuilder aSB = new StringBuilder (aChars.length);
-    for (final char c : aChars)
-      if (Character.getType (c) != Character.CONTROL)
-        aSB.append (c);
+    // Check if anything needs to be changed at all
+    final int nLen = sValue.length ();
+    boolean bPrevSpace = true;
+    boolean bUnchanged = true;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = sValue.charAt (i);
+      if (c == ' ')
+      {
+        if (bPrevSpace)
+        {
+          // Leading or repeated space
+          bUnchanged = false;
+          break;
+        }
+        bPrevSpace = true;
+      }
+      else
+      {
+        if (Character.getType (c) == Character.CONTROL)
+        {
+          bUnchanged = false;
+          break;
+        }
+        bPrevSpace = false;
+      }
+    }
+    // Trailing space?
+    if (bUnchanged && (nLen == 0 || !bPrevSpace))
+      return sValue;
 
-    // And trim away all unnecessary spaces
-    return StringReplace.replaceAllRepeatedly (aSB.toString ().trim (), "  ", " ");
+    final StringBuilder aSB = new StringBuilder (nLen);
+    appendNormalizedString (sValue, aSB);
+    return aSB.toString ();
+  }
+
+  @Nullable
+  public static String getCellValueNormalizedString (@Nullable final Cell aCell)
+  {
+    return getNormalizedString (getCellValueString (aCell));
+  }
+
+  /**
+   * Append the normalized string value of the passed cell to the passed
+   * {@link StringBuilder}. This allows bulk normalization with a single
+   * reused string builder.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @param aTarget
+   *        The string builder to append to. May not be <code>null</code>.
+   * @return <code>true</code> if the cell has a value, <code>false</code> if
+   *         nothing was appended because the cell is <code>null</code> or
+   *         blank.
+   * @see #appendNormalizedString(CharSequence, StringBuilder)
+   * @since 7.1.1
+   */
+  public static boolean appendCellValueNormalizedString (@Nullable final Cell aCell,
+                                                         @NonNull final StringBuilder aTarget)
+  {
+    final String sValue = getCellValueString (aCell);
+    if (sValue == null)
+      return false;
+    appendNormalizedString (sValue, aTarget);
+    return true;
   }
 
   @Nullable
@@ -236,25 +620,119 @@ public final class ExcelReadHelper
     return null;
   }
 
+  /**
+   * Get the numeric value of a cell that should be interpreted as a date.
+   *
+   * @param aCell
+   *        The cell to use. May be <code>null</code>.
+   * @return {@link Double#NaN} if the cell is <code>null</code>, blank or not
+   *         numeric.
+   */
+  private static double _getDateSerial (@Nullable final Cell aCell)
+  {
+    if (aCell != null && aCell.getCellType () != CellType.BLANK)
+      try
+      {
+        return aCell.getNumericCellValue ();
+      }
+      catch (final RuntimeException ex)
+      {
+        // fall through
+        LOGGER.warn ("Failed to get cell value as date: " + ex.getMessage ());
+      }
+    return Double.NaN;
+  }
+
+  private static boolean _isDate1904 (@NonNull final Cell aCell)
+  {
+    return ExcelDateConverter.isDate1904 (aCell.getSheet ().getWorkbook ());
+  }
+
   @Nullable
   public static LocalDateTime getCellValueLocalDateTime (@Nullable final Cell aCell)
   {
-    final Date aDate = getCellValueJavaDate (aCell);
-    return aDate == null ? null : PDTFactory.createLocalDateTime (aDate);
+    final double dSerial = _getDateSerial (aCell);
+    return Double.isNaN (dSerial) ? null : ExcelDateConverter.toLocalDateTime (dSerial, _isDate1904 (aCell));
   }
 
   @Nullable
   public static LocalDate getCellValueLocalDate (@Nullable final Cell aCell)
   {
-    final Date aDate = getCellValueJavaDate (aCell);
-    return aDate == null ? null : PDTFactory.createLocalDate (aDate);
+    final double dSerial = _getDateSerial (aCell);
+    return Double.isNaN (dSerial) ? null : ExcelDateConverter.toLocalDate (dSerial, _isDate1904 (aCell));
   }
 
   @Nullable
   public static LocalTime getCellValueLocalTime (@Nullable final Cell aCell)
   {
-    final Date aDate = getCellValueJavaDate (aCell);
-    return aDate == null ? null : PDTFactory.createLocalTime (aDate);
+    final double dSerial = _getDateSerial (aCell);
+    return Double.isNaN (dSerial) ? null : ExcelDateConverter.toLocalTime (dSerial);
+  }
+
+  /**
+   * Check if the passed cell is a numeric cell with a date format. The format
+   * classification is cached in {@link ExcelDateFormatCache#getDefaultInstance()}.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @return <code>true</code> if the cell is date formatted.
+   * @since 7.1.1
+   */
+  public static boolean isCellDateFormatted (@Nullable final Cell aCell)
+  {
+    return ExcelDateFormatCache.getDefaultInstance ().isCellDateFormatted (aCell);
+  }
+
+  /**
+   * Get the value of the passed cell as the best matching Java object, taking
+   * date formats into account. Date formatted numeric cells are returned as
+   * {@link LocalDate} if the value has no time part and as
+   * {@link LocalDateTime} otherwise. All other cells are handled like in
+   * {@link #getCellValueObject(Cell)}.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @return <code>null</code> if the cell is <code>null</code> or if it is of
+   *         type blank.
+   * @see #getCellValueTyped(Cell, ExcelDateFormatCache)
+   * @since 7.1.1
+   */
+  @Nullable
+  public static Object getCellValueTyped (@Nullable final Cell aCell)
+  {
+    return getCellValueTyped (aCell, ExcelDateFormatCache.getDefaultInstance ());
+  }
+
+  /**
+   * Get the value of the passed cell as the best matching Java object, taking
+   * date formats into account. Use a cache created with
+   * {@link ExcelDateFormatCache#createForWorkbook(org.apache.poi.ss.usermodel.Workbook)}
+   * to avoid the format lookup for each cell when reading a complete
+   * workbook.
+   *
+   * @param aCell
+   *        The cell to be queried. May be <code>null</code>.
+   * @param aDateFormatCache
+   *        The date format cache to use. May not be <code>null</code>.
+   * @return <code>null</code> if the cell is <code>null</code> or if it is of
+   *         type blank.
+   * @since 7.1.1
+   */
+  @Nullable
+  public static Object getCellValueTyped (@Nullable final Cell aCell,
+                                          @NonNull final ExcelDateFormatCache aDateFormatCache)
+  {
+    ValueEnforcer.notNull (aDateFormatCache, "DateFormatCache");
+
+    if (aDateFormatCache.isCellDateFormatted (aCell))
+    {
+      final double dSerial = aCell.getNumericCellValue ();
+      final boolean bDate1904 = _isDate1904 (aCell);
+      if (dSerial == Math.floor (dSerial))
+        return ExcelDateConverter.toLocalDate (dSerial, bDate1904);
+      return ExcelDateConverter.toLocalDateTime (dSerial, bDate1904);
+    }
+    return getCellValueObject (aCell);
   }
 
   @Nullable
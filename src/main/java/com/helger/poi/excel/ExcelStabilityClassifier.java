@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.poi.ss.formula.IStabilityClassifier;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * An {@link IStabilityClassifier} that is created from a workbook. Cells that
+ * are classified as final are not tracked in the evaluation cache of the
+ * formula evaluator, which saves memory and time for large input ranges. A
+ * non-formula cell is classified as final if
+ * <ul>
+ * <li>it was not written after this classifier was created, and the
+ * classification of unwritten cells was enabled via
+ * {@link #setUnwrittenCellsFinal(boolean)}, or</li>
+ * <li>it is located on a sheet added via {@link #addInputSheet(int)}, or</li>
+ * <li>it is located in a range added via
+ * {@link #addStableRange(int, CellRangeAddress)}.</li>
+ * </ul>
+ * Formula cells are never classified as final. Writes to cells must be
+ * reported to the {@link ExcelFormulaEvaluator} using this classifier, which
+ * calls {@link #notifyCellWritten(int, int, int)} and invalidates the cached
+ * results depending on a changed final cell. Such a cell is no longer
+ * classified as final afterwards.<br>
+ * In measurement mode the classifier counts the distinct final cells it was
+ * queried for. Each of these cells saves one entry in the evaluation cache.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class ExcelStabilityClassifier implements IStabilityClassifier
+{
+  /**
+   * A range on a single sheet.
+   */
+  private static final class SheetRange
+  {
+    private final int m_nSheetIndex;
+    private final CellRangeAddress m_aRange;
+
+    SheetRange (final int nSheetIndex, @NonNull final CellRangeAddress aRange)
+    {
+      m_nSheetIndex = nSheetIndex;
+      m_aRange = aRange;
+    }
+
+    boolean contains (final int nSheetIndex, final int nRow, final int nColumn)
+    {
+      return nSheetIndex == m_nSheetIndex && m_aRange.isInRange (nRow, nColumn);
+    }
+  }
+
+  private final Set <Long> m_aFormulaCells = ConcurrentHashMap.newKeySet ();
+  private final Set <Long> m_aWrittenCells = ConcurrentHashMap.newKeySet ();
+  private final Set <Integer> m_aInputSheets = ConcurrentHashMap.newKeySet ();
+  private final List <SheetRange> m_aStableRanges = new CopyOnWriteArrayList <> ();
+  private volatile boolean m_bUnwrittenCellsFinal = false;
+  private volatile boolean m_bMeasurementEnabled = false;
+  private final AtomicLong m_aQueryCount = new AtomicLong ();
+  private final Set <Long> m_aSavedCells = ConcurrentHashMap.newKeySet ();
+
+  /**
+   * Constructor. Scans all formula cells of the workbook.
+   *
+   * @param aWB
+   *        The workbook to classify. May not be <code>null</code>.
+   */
+  public ExcelStabilityClassifier (@NonNull final Workbook aWB)
+  {
+    ValueEnforcer.notNull (aWB, "Workbook");
+    for (int nSheetIndex = 0; nSheetIndex < aWB.getNumberOfSheets (); ++nSheetIndex)
+      for (final Row aRow : aWB.getSheetAt (nSheetIndex))
+        for (final Cell aCell : aRow)
+          if (aCell.getCellType () == CellType.FORMULA)
+            m_aFormulaCells.add (Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (nSheetIndex,
+                                                                                     aCell.getRowIndex (),
+                                                                                     aCell.getColumnIndex ())));
+  }
+
+  /**
+   * Define whether all non-formula cells that were not written since the
+   * creation of this classifier are classified as final. Only enable this, if
+   * all cell changes are reported to the evaluator, because every change of
+   * such a cell requires the invalidation of the cached results depending on
+   * it.
+   *
+   * @param bUnwrittenCellsFinal
+   *        <code>true</code> to classify unwritten cells as final. Default is
+   *        <code>false</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelStabilityClassifier setUnwrittenCellsFinal (final boolean bUnwrittenCellsFinal)
+  {
+    m_bUnwrittenCellsFinal = bUnwrittenCellsFinal;
+    return this;
+  }
+
+  /**
+   * Mark a sheet as containing only input values that do not change during
+   * evaluation.
+   *
+   * @param nSheetIndex
+   *        0-based sheet index. Must be &ge; 0.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelStabilityClassifier addInputSheet (@Nonnegative final int nSheetIndex)
+  {
+    ValueEnforcer.isGE0 (nSheetIndex, "SheetIndex");
+    m_aInputSheets.add (Integer.valueOf (nSheetIndex));
+    return this;
+  }
+
+  /**
+   * Declare a range whose values do not change during evaluation.
+   *
+   * @param nSheetIndex
+   *        0-based sheet index. Must be &ge; 0.
+   * @param aRange
+   *        The cell range. May not be <code>null</code>. A copy is stored.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelStabilityClassifier addStableRange (@Nonnegative final int nSheetIndex,
+                                                  @NonNull final CellRangeAddress aRange)
+  {
+    ValueEnforcer.isGE0 (nSheetIndex, "SheetIndex");
+    ValueEnforcer.notNull (aRange, "Range");
+    m_aStableRanges.add (new SheetRange (nSheetIndex, aRange.copy ()));
+    return this;
+  }
+
+  /**
+   * Enable or disable the measurement mode.
+   *
+   * @param bMeasurementEnabled
+   *        <code>true</code> to count the saved cache entries. Default is
+   *        <code>false</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelStabilityClassifier setMeasurementEnabled (final boolean bMeasurementEnabled)
+  {
+    m_bMeasurementEnabled = bMeasurementEnabled;
+    return this;
+  }
+
+  private boolean _isFinal (final int nSheetIndex, final int nRowIndex, final int nColumnIndex, final Long aKey)
+  {
+    if (m_aWrittenCells.contains (aKey) || m_aFormulaCells.contains (aKey))
+      return false;
+    if (m_bUnwrittenCellsFinal || m_aInputSheets.contains (Integer.valueOf (nSheetIndex)))
+      return true;
+    for (final SheetRange aRange : m_aStableRanges)
+      if (aRange.contains (nSheetIndex, nRowIndex, nColumnIndex))
+        return true;
+    return false;
+  }
+
+  @Override
+  public boolean isCellFinal (final int nSheetIndex, final int nRowIndex, final int nColumnIndex)
+  {
+    final Long aKey = Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (nSheetIndex, nRowIndex, nColumnIndex));
+    final boolean ret = _isFinal (nSheetIndex, nRowIndex, nColumnIndex, aKey);
+    if (m_bMeasurementEnabled)
+    {
+      m_aQueryCount.incrementAndGet ();
+      if (ret)
+        m_aSavedCells.add (aKey);
+    }
+    return ret;
+  }
+
+  /**
+   * Notify the classifier that a cell was written. The cell is never
+   * classified as final afterwards.
+   *
+   * @param nSheetIndex
+   *        0-based sheet index
+   * @param nRowIndex
+   *        0-based row index
+   * @param nColumnIndex
+   *        0-based column index
+   * @return <code>true</code> if the cell was classified as final before, in
+   *         which case the cached evaluation results depending on it must be
+   *         invalidated.
+   */
+  public boolean notifyCellWritten (@Nonnegative final int nSheetIndex,
+                                    @Nonnegative final int nRowIndex,
+                                    @Nonnegative final int nColumnIndex)
+  {
+    final Long aKey = Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (nSheetIndex, nRowIndex, nColumnIndex));
+    final boolean ret = _isFinal (nSheetIndex, nRowIndex, nColumnIndex, aKey);
+    m_aWrittenCells.add (aKey);
+    return ret;
+  }
+
+  /**
+   * @return The number of {@link #isCellFinal(int, int, int)} calls in
+   *         measurement mode.
+   */
+  @Nonnegative
+  public long getQueryCount ()
+  {
+    return m_aQueryCount.get ();
+  }
+
+  /**
+   * @return The number of distinct cells classified as final in measurement
+   *         mode. This is the number of evaluation cache entries saved.
+   */
+  @Nonnegative
+  public int getSavedCacheEntryCount ()
+  {
+    return m_aSavedCells.size ();
+  }
+
+  /**
+   * Reset the measurement counters.
+   */
+  public void resetMeasurement ()
+  {
+    m_aQueryCount.set (0);
+    m_aSavedCells.clear ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("FormulaCells", m_aFormulaCells.size ())
+                                       .append ("WrittenCells", m_aWrittenCells.size ())
+                                       .append ("InputSheets", m_aInputSheets.size ())
+                                       .append ("StableRanges", m_aStableRanges.size ())
+                                       .append ("UnwrittenCellsFinal", m_bUnwrittenCellsFinal)
+                                       .append ("MeasurementEnabled", m_bMeasurementEnabled)
+                                       .getToString ();
+  }
+}
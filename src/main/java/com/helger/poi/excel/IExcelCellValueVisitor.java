@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Visitor for cell values that receives numbers and booleans as primitives,
+ * so that reading cells does not allocate wrapper objects. For formula cells
+ * the cached result is visited.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ * @see ExcelReadHelper#visitCellValue(org.apache.poi.ss.usermodel.Cell,
+ *      IExcelCellValueVisitor)
+ */
+public interface IExcelCellValueVisitor
+{
+  /**
+   * Called for numeric cells, including date formatted cells.
+   *
+   * @param dValue
+   *        The numeric value.
+   */
+  void onNumber (double dValue);
+
+  /**
+   * Called for string cells.
+   *
+   * @param sValue
+   *        The string value. Never <code>null</code>.
+   */
+  void onString (@NonNull String sValue);
+
+  /**
+   * Called for boolean cells.
+   *
+   * @param bValue
+   *        The boolean value.
+   */
+  void onBoolean (boolean bValue);
+
+  /**
+   * Called for blank or missing cells.
+   */
+  default void onBlank ()
+  {}
+
+  /**
+   * Called for error cells. By default this is handled like a blank cell.
+   *
+   * @param nErrorCode
+   *        The Excel error code as in
+   *        {@link org.apache.poi.ss.usermodel.FormulaError}.
+   */
+  default void onError (final byte nErrorCode)
+  {
+    onBlank ();
+  }
+}
@@ -25,9 +25,12 @@ import java.math.BigInteger;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -39,11 +42,14 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.WillClose;
 import com.helger.base.enforce.ValueEnforcer;
@@ -51,9 +57,11 @@ import com.helger.base.io.EAppend;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.state.ESuccess;
-import com.helger.datetime.helper.PDTFactory;
 import com.helger.io.file.FileHelper;
 import com.helger.io.resource.IWritableResource;
+import com.helger.poi.excel.style.ExcelDataFormatCache;
+import com.helger.poi.excel.style.ExcelFontCache;
+import com.helger.poi.excel.style.ExcelFontSpec;
 import com.helger.poi.excel.style.ExcelStyle;
 import com.helger.poi.excel.style.ExcelStyleCache;
 
@@ -64,11 +72,22 @@ import com.helger.poi.excel.style.ExcelStyleCache;
  */
 public final class WorkbookCreationHelper implements AutoCloseable
 {
+  /** The default number of rows kept in memory per sheet in streaming mode */
+  public static final int DEFAULT_STREAMING_ROW_ACCESS_WINDOW_SIZE = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+  /** By default the temporary files of the streaming mode are compressed */
+  public static final boolean DEFAULT_STREAMING_COMPRESS_TEMP_FILES = true;
+  /** The maximum number of literal formulas remembered as already parsed */
+  public static final int FORMULA_CACHE_SIZE = 1024;
+
   private static final Logger LOGGER = LoggerFactory.getLogger (WorkbookCreationHelper.class);
 
   private final Workbook m_aWB;
   private final CreationHelper m_aCreationHelper;
   private final ExcelStyleCache m_aStyleCache = new ExcelStyleCache ();
+  private final ExcelDataFormatCache m_aDataFormatCache;
+  private final ExcelFontCache m_aFontCache;
+  // The date system does not change while writing
+  private final boolean m_bDate1904;
   private Sheet m_aLastSheet;
   private int m_nLastSheetRowIndex = 0;
   private Row m_aLastRow;
@@ -76,6 +95,25 @@ public final class WorkbookCreationHelper implements AutoCloseable
   private Cell m_aLastCell;
   private int m_nMaxCellIndex = 0;
   private int m_nCreatedCellStyles = 0;
+  // The last frozen style applied, for quick reuse
+  private ExcelStyle m_aLastExcelStyle;
+  private CellStyle m_aLastCellStyle;
+  // Pre-registered styles, accessed by handle
+  private ExcelStyle [] m_aRegisteredExcelStyles = new ExcelStyle [16];
+  private CellStyle [] m_aRegisteredCellStyles = new CellStyle [16];
+  private int m_nRegisteredStyles = 0;
+  private ExcelColumnWidthEstimator m_aColumnWidthEstimator;
+  // Literal formulas that were already validated - access ordered for LRU
+  private final Map <String, Boolean> m_aParsedFormulas = new LinkedHashMap <> (16, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry (final Map.Entry <String, Boolean> aEldest)
+    {
+      return size () > FORMULA_CACHE_SIZE;
+    }
+  };
+  private int m_nFormulaParseCount = 0;
+  private int m_nFormulaCacheHitCount = 0;
 
   public WorkbookCreationHelper (@NonNull final EExcelVersion eVersion)
   {
@@ -86,6 +124,52 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     m_aWB = ValueEnforcer.notNull (aWB, "Workbook");
     m_aCreationHelper = aWB.getCreationHelper ();
+    m_aDataFormatCache = new ExcelDataFormatCache (aWB);
+    m_aFontCache = new ExcelFontCache (aWB);
+    m_bDate1904 = ExcelDateConverter.isDate1904 (aWB);
+  }
+
+  /**
+   * Create a new helper for an XLSX workbook in streaming mode. Only the last
+   * <code>nRowAccessWindowSize</code> rows of each sheet are kept in memory -
+   * all previous rows are flushed to a temporary file and are no longer
+   * accessible. This keeps the heap usage constant independent of the number
+   * of rows created. The temporary files are deleted in {@link #close()}.
+   * Column width estimation is enabled by default for streaming workbooks.
+   *
+   * @param nRowAccessWindowSize
+   *        The number of rows to keep in memory per sheet. Must be &gt; 0.
+   * @param bCompressTempFiles
+   *        <code>true</code> to GZIP compress the temporary files,
+   *        <code>false</code> to write them uncompressed.
+   * @return A new helper in streaming mode. Never <code>null</code>.
+   * @since 7.1.1
+   */
+  @NonNull
+  public static WorkbookCreationHelper createStreaming (@Nonnegative final int nRowAccessWindowSize,
+                                                        final boolean bCompressTempFiles)
+  {
+    ValueEnforcer.isGT0 (nRowAccessWindowSize, "RowAccessWindowSize");
+    final WorkbookCreationHelper ret = new WorkbookCreationHelper (new SXSSFWorkbook (new XSSFWorkbook (),
+                                                                                      nRowAccessWindowSize,
+                                                                                      bCompressTempFiles));
+    // The flushed rows are not available for auto sizing
+    ret.setEstimateColumnWidths (true);
+    return ret;
+  }
+
+  /**
+   * Create a new helper for an XLSX workbook in streaming mode, using the
+   * default row access window size and compressed temporary files.
+   *
+   * @return A new helper in streaming mode. Never <code>null</code>.
+   * @see #createStreaming(int, boolean)
+   * @since 7.1.1
+   */
+  @NonNull
+  public static WorkbookCreationHelper createStreaming ()
+  {
+    return createStreaming (DEFAULT_STREAMING_ROW_ACCESS_WINDOW_SIZE, DEFAULT_STREAMING_COMPRESS_TEMP_FILES);
   }
 
   public void close ()
@@ -98,6 +182,22 @@ public final class WorkbookCreationHelper implements AutoCloseable
     {
       throw new UncheckedIOException (ex);
     }
+    finally
+    {
+      // Ensure the temporary files of the streaming mode are deleted
+      if (m_aWB instanceof SXSSFWorkbook)
+        ((SXSSFWorkbook) m_aWB).dispose ();
+    }
+  }
+
+  /**
+   * @return <code>true</code> if this helper works on a streaming workbook,
+   *         meaning that only a limited number of rows is kept in memory.
+   * @since 7.1.1
+   */
+  public boolean isStreaming ()
+  {
+    return m_aWB instanceof SXSSFWorkbook;
   }
 
   @NonNull
@@ -106,6 +206,54 @@ public final class WorkbookCreationHelper implements AutoCloseable
     return m_aWB;
   }
 
+  /**
+   * @return <code>true</code> if column widths are estimated while adding
+   *         cells, <code>false</code> if not.
+   * @see #setEstimateColumnWidths(boolean)
+   * @since 7.1.1
+   */
+  public boolean isEstimateColumnWidths ()
+  {
+    return m_aColumnWidthEstimator != null;
+  }
+
+  /**
+   * Enable or disable the estimation of column widths. If enabled, the maximum
+   * displayed width of each column is tracked incrementally in the
+   * <code>addCell</code> methods (based on the value, the data format and the
+   * font size of the applied {@link ExcelStyle}) and
+   * {@link #autoSizeAllColumns()} just applies the collected widths instead of
+   * scanning all rows with AWT font metrics. This is much faster for large
+   * sheets and also works in streaming mode, but is less exact. Formula cells
+   * are not considered. This should be enabled before the first cell is added.
+   *
+   * @param bEstimate
+   *        <code>true</code> to enable estimation, <code>false</code> to use
+   *        the exact POI based auto sizing.
+   * @since 7.1.1
+   */
+  public void setEstimateColumnWidths (final boolean bEstimate)
+  {
+    if (bEstimate)
+    {
+      if (m_aColumnWidthEstimator == null)
+        m_aColumnWidthEstimator = new ExcelColumnWidthEstimator (m_aWB);
+    }
+    else
+      m_aColumnWidthEstimator = null;
+  }
+
+  /**
+   * @return The data format cache used for creating cell styles. Never
+   *         <code>null</code>.
+   * @since 7.1.1
+   */
+  @NonNull
+  public ExcelDataFormatCache getDataFormatCache ()
+  {
+    return m_aDataFormatCache;
+  }
+
   /**
    * Create a new font in the passed workbook.
    *
@@ -117,6 +265,32 @@ public final class WorkbookCreationHelper implements AutoCloseable
     return m_aWB.createFont ();
   }
 
+  /**
+   * Get or create the font matching the passed specification. Equal
+   * specifications result in the same font object.
+   *
+   * @param aFontSpec
+   *        The font specification. May not be <code>null</code>.
+   * @return The font and never <code>null</code>.
+   * @since 7.1.1
+   */
+  @NonNull
+  public Font getOrCreateFont (@NonNull final ExcelFontSpec aFontSpec)
+  {
+    return m_aFontCache.getOrCreateFont (aFontSpec);
+  }
+
+  /**
+   * @return The font cache used for font specifications. Never
+   *         <code>null</code>.
+   * @since 7.1.1
+   */
+  @NonNull
+  public ExcelFontCache getFontCache ()
+  {
+    return m_aFontCache;
+  }
+
   /**
    * @return A new sheet with a default name
    */
@@ -142,6 +316,8 @@ public final class WorkbookCreationHelper implements AutoCloseable
     m_nLastRowCellIndex = 0;
     m_aLastCell = null;
     m_nMaxCellIndex = 0;
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.reset ();
     return m_aLastSheet;
   }
 
@@ -201,6 +377,9 @@ public final class WorkbookCreationHelper implements AutoCloseable
     // Check for the maximum cell index in this sheet
     if (m_nLastRowCellIndex > m_nMaxCellIndex)
       m_nMaxCellIndex = m_nLastRowCellIndex;
+
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.onBlankCell (m_nLastRowCellIndex - 1);
     return m_aLastCell;
   }
 
@@ -214,6 +393,8 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     final Cell aCell = addCell ();
     aCell.setCellValue (bValue);
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.setChars (bValue ? 4 : 5);
     return aCell;
   }
 
@@ -235,7 +416,11 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     final Cell aCell = addCell ();
     if (aValue != null)
+    {
       aCell.setCellValue (aValue);
+      if (m_aColumnWidthEstimator != null)
+        m_aColumnWidthEstimator.setNumeric (ExcelColumnWidthEstimator.DATE_VALUE_PLACEHOLDER);
+    }
     return aCell;
   }
 
@@ -257,7 +442,11 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     final Cell aCell = addCell ();
     if (aValue != null)
+    {
       aCell.setCellValue (aValue);
+      if (m_aColumnWidthEstimator != null)
+        m_aColumnWidthEstimator.setNumeric (ExcelColumnWidthEstimator.DATE_VALUE_PLACEHOLDER);
+    }
     return aCell;
   }
 
@@ -279,7 +468,7 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     if (aValue == null)
       return addCell ();
-    return addCell (PDTFactory.createZonedDateTime (aValue));
+    return _addDateCell (ExcelDateConverter.toExcelDate (aValue, m_bDate1904));
   }
 
   /**
@@ -300,7 +489,17 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     if (aValue == null)
       return addCell ();
-    return addCell (PDTFactory.createZonedDateTime (aValue));
+    return _addDateCell (ExcelDateConverter.toExcelDate (aValue, m_bDate1904));
+  }
+
+  @NonNull
+  private Cell _addDateCell (final double dSerial)
+  {
+    final Cell aCell = addCell ();
+    aCell.setCellValue (dSerial);
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.setNumeric (ExcelColumnWidthEstimator.DATE_VALUE_PLACEHOLDER);
+    return aCell;
   }
 
   /**
@@ -352,6 +551,8 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     final Cell aCell = addCell ();
     aCell.setCellValue (dValue);
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.setNumeric (dValue);
     return aCell;
   }
 
@@ -387,7 +588,11 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     final Cell aCell = addCell ();
     if (aValue != null)
+    {
       aCell.setCellValue (aValue);
+      if (m_aColumnWidthEstimator != null)
+        m_aColumnWidthEstimator.setText (aValue.getString ());
+    }
     return aCell;
   }
 
@@ -401,7 +606,11 @@ public final class WorkbookCreationHelper implements AutoCloseable
   {
     final Cell aCell = addCell ();
     if (sValue != null)
+    {
       aCell.setCellValue (sValue);
+      if (m_aColumnWidthEstimator != null)
+        m_aColumnWidthEstimator.setText (sValue);
+    }
     return aCell;
   }
 
@@ -414,10 +623,150 @@ public final class WorkbookCreationHelper implements AutoCloseable
   public Cell addCellFormula (@Nullable final String sFormula)
   {
     final Cell aCell = addCell ();
-    aCell.setCellFormula (sFormula);
+    if (sFormula == null)
+      aCell.setCellFormula (null);
+    else
+      if (m_aWB instanceof XSSFWorkbook)
+      {
+        // Only XSSF can skip parsing an already known formula
+        final boolean bKnownValid = m_aParsedFormulas.get (sFormula) != null;
+        if (bKnownValid)
+          m_nFormulaCacheHitCount++;
+        _setCellFormula (aCell, sFormula, bKnownValid);
+        if (!bKnownValid)
+          m_aParsedFormulas.put (sFormula, Boolean.TRUE);
+      }
+      else
+        _setCellFormula (aCell, sFormula, false);
+    return aCell;
+  }
+
+  /**
+   * Set a formula into the passed cell.
+   *
+   * @param aCell
+   *        The cell to set the formula into.
+   * @param sFormula
+   *        The formula to set.
+   * @param bKnownValid
+   *        <code>true</code> if the formula is known to be syntactically valid,
+   *        so that XSSF can skip the validation by parsing.
+   */
+  private void _setCellFormula (@NonNull final Cell aCell, @NonNull final String sFormula, final boolean bKnownValid)
+  {
+    if (m_aWB instanceof SXSSFWorkbook)
+    {
+      // Streaming cells never parse the formula
+      aCell.setCellFormula (sFormula);
+    }
+    else
+      if (m_aWB instanceof XSSFWorkbook)
+      {
+        final XSSFWorkbook aXWB = (XSSFWorkbook) m_aWB;
+        if (bKnownValid && aXWB.getCellFormulaValidation ())
+        {
+          aXWB.setCellFormulaValidation (false);
+          try
+          {
+            aCell.setCellFormula (sFormula);
+          }
+          finally
+          {
+            aXWB.setCellFormulaValidation (true);
+          }
+        }
+        else
+        {
+          if (aXWB.getCellFormulaValidation ())
+            m_nFormulaParseCount++;
+          aCell.setCellFormula (sFormula);
+        }
+      }
+      else
+      {
+        // HSSF always needs to parse the formula to store the tokens
+        m_nFormulaParseCount++;
+        aCell.setCellFormula (sFormula);
+      }
+  }
+
+  /**
+   * Parse a formula once, so that it can be added to many cells via
+   * {@link #addCellFormula(ExcelFormulaTemplate)}. The formula is written for
+   * the anchor cell, and relative references are shifted for all other cells,
+   * as when copying a formula in Excel. E.g. the formula <code>A1*B1</code>
+   * with the anchor cell C1 becomes <code>A2*B2</code> in cell C2.
+   *
+   * @param sFormula
+   *        The formula to parse, without the leading '='. May neither be
+   *        <code>null</code> nor empty.
+   * @param nAnchorRow
+   *        The 0-based row index the formula is written for.
+   * @param nAnchorColumn
+   *        The 0-based column index the formula is written for.
+   * @return The parsed formula template. Never <code>null</code>.
+   * @throws org.apache.poi.ss.formula.FormulaParseException
+   *         If the formula cannot be parsed
+   * @since 7.1.1
+   */
+  @NonNull
+  public ExcelFormulaTemplate createFormulaTemplate (@NonNull @Nonempty final String sFormula,
+                                                     @Nonnegative final int nAnchorRow,
+                                                     @Nonnegative final int nAnchorColumn)
+  {
+    final int nSheetIndex = m_aLastSheet == null ? -1 : m_aWB.getSheetIndex (m_aLastSheet);
+    final ExcelFormulaTemplate ret = ExcelFormulaTemplate.parse (m_aWB, sFormula, nSheetIndex, nAnchorRow, nAnchorColumn);
+    m_nFormulaParseCount++;
+    return ret;
+  }
+
+  /**
+   * Add a new cell with the passed formula template, shifted to the position
+   * of the new cell. For XLSX the formula is not parsed again. For XLS POI
+   * requires the formula to be parsed for each cell.
+   *
+   * @param aTemplate
+   *        The formula template to use. May not be <code>null</code>.
+   * @return A new cell in the current row of the current sheet with the
+   *         shifted formula
+   * @throws IllegalArgumentException
+   *         If a shifted reference would be outside of the sheet
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCellFormula (@NonNull final ExcelFormulaTemplate aTemplate)
+  {
+    ValueEnforcer.notNull (aTemplate, "Template");
+
+    final Cell aCell = addCell ();
+    _setCellFormula (aCell, aTemplate.getFormula (aCell.getRowIndex (), aCell.getColumnIndex ()), true);
     return aCell;
   }
 
+  /**
+   * @return The number of times a formula was parsed for this workbook. For
+   *         XLSX this includes the validation parsing done by POI when setting
+   *         a formula. Always &ge; 0.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public int getFormulaParseCount ()
+  {
+    return m_nFormulaParseCount;
+  }
+
+  /**
+   * @return The number of times a literal formula passed to
+   *         {@link #addCellFormula(String)} was found in the cache of already
+   *         parsed formulas. Always &ge; 0.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public int getFormulaCacheHitCount ()
+  {
+    return m_nFormulaCacheHitCount;
+  }
+
   /**
    * Add a merge region in the current row. Note: only the content of the first cell is used as the
    * content of the merged cell!
@@ -463,7 +812,9 @@ public final class WorkbookCreationHelper implements AutoCloseable
   }
 
   /**
-   * Set the cell style of the last added cell
+   * Set the cell style of the last added cell. For best performance use frozen
+   * styles (see {@link ExcelStyle#freeze()}) - applying the same frozen style
+   * instance to consecutive cells requires no lookup at all.
    *
    * @param aExcelStyle
    *        The style to be set.
@@ -473,15 +824,455 @@ public final class WorkbookCreationHelper implements AutoCloseable
     ValueEnforcer.notNull (aExcelStyle, "ExcelStyle");
     _ensureCell ();
 
+    final CellStyle aCellStyle;
+    if (aExcelStyle == m_aLastExcelStyle)
+    {
+      // Same frozen instance as before
+      aCellStyle = m_aLastCellStyle;
+    }
+    else
+    {
+      aCellStyle = _getOrCreateCellStyle (aExcelStyle);
+      if (aExcelStyle.isFrozen ())
+      {
+        m_aLastExcelStyle = aExcelStyle;
+        m_aLastCellStyle = aCellStyle;
+      }
+    }
+    m_aLastCell.setCellStyle (aCellStyle);
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.setStyle (aExcelStyle);
+  }
+
+  @NonNull
+  private CellStyle _getOrCreateCellStyle (@NonNull final ExcelStyle aExcelStyle)
+  {
     CellStyle aCellStyle = m_aStyleCache.getCellStyle (aExcelStyle);
     if (aCellStyle == null)
     {
       aCellStyle = m_aWB.createCellStyle ();
-      aExcelStyle.fillCellStyle (m_aWB, aCellStyle, m_aCreationHelper);
+      aExcelStyle.fillCellStyle (m_aWB, aCellStyle, m_aDataFormatCache, m_aFontCache);
       m_aStyleCache.addCellStyle (aExcelStyle, aCellStyle);
       m_nCreatedCellStyles++;
     }
-    m_aLastCell.setCellStyle (aCellStyle);
+    return aCellStyle;
+  }
+
+  /**
+   * Register a style up front and get a compact handle for it. The handle can
+   * be used in {@link #addCellStyle(int)}, the <code>addCell</code> overloads
+   * taking a style handle and {@link #setColumnStyle(int, int)}. Applying a
+   * style via its handle is a simple array access without any map lookup.
+   * Registering an equal style twice returns the same handle.
+   *
+   * @param aExcelStyle
+   *        The style to register. May not be <code>null</code>.
+   * @return The 0-based handle of the style, valid for the lifetime of this
+   *         helper.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public int registerCellStyle (@NonNull final ExcelStyle aExcelStyle)
+  {
+    ValueEnforcer.notNull (aExcelStyle, "ExcelStyle");
+
+    final CellStyle aCellStyle = _getOrCreateCellStyle (aExcelStyle);
+    for (int i = 0; i < m_nRegisteredStyles; ++i)
+      if (m_aRegisteredCellStyles[i] == aCellStyle)
+        return i;
+
+    if (m_nRegisteredStyles == m_aRegisteredCellStyles.length)
+    {
+      final int nNewLength = m_nRegisteredStyles * 2;
+      m_aRegisteredExcelStyles = Arrays.copyOf (m_aRegisteredExcelStyles, nNewLength);
+      m_aRegisteredCellStyles = Arrays.copyOf (m_aRegisteredCellStyles, nNewLength);
+    }
+    final int ret = m_nRegisteredStyles++;
+    m_aRegisteredExcelStyles[ret] = m_aStyleCache.getInterned (aExcelStyle);
+    m_aRegisteredCellStyles[ret] = aCellStyle;
+    return ret;
+  }
+
+  /**
+   * @return The number of styles registered via
+   *         {@link #registerCellStyle(ExcelStyle)}. Always &ge; 0.
+   * @since 7.1.1
+   */
+  @Nonnegative
+  public int getRegisteredCellStyleCount ()
+  {
+    return m_nRegisteredStyles;
+  }
+
+  @NonNull
+  private CellStyle _getRegisteredCellStyle (final int nStyleHandle)
+  {
+    if (nStyleHandle < 0 || nStyleHandle >= m_nRegisteredStyles)
+      throw new IllegalArgumentException ("Invalid style handle " + nStyleHandle + " provided");
+    return m_aRegisteredCellStyles[nStyleHandle];
+  }
+
+  /**
+   * Set the cell style of the last added cell using a pre-registered style.
+   *
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   * @see #registerCellStyle(ExcelStyle)
+   * @since 7.1.1
+   */
+  public void addCellStyle (@Nonnegative final int nStyleHandle)
+  {
+    _ensureCell ();
+
+    m_aLastCell.setCellStyle (_getRegisteredCellStyle (nStyleHandle));
+    if (m_aColumnWidthEstimator != null)
+      m_aColumnWidthEstimator.setStyle (m_aRegisteredExcelStyles[nStyleHandle]);
+  }
+
+  /**
+   * Set the default style of a whole column in the current sheet, using a
+   * pre-registered style. This style is used for all cells of the column that
+   * have no explicit style.
+   *
+   * @param nCol
+   *        The 0-based column index.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   * @since 7.1.1
+   */
+  public void setColumnStyle (@Nonnegative final int nCol, @Nonnegative final int nStyleHandle)
+  {
+    _ensureSheet ();
+    m_aLastSheet.setDefaultColumnStyle (nCol, _getRegisteredCellStyle (nStyleHandle));
+  }
+
+  /**
+   * @param bValue
+   *        The value to be set.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value and style
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCell (final boolean bValue, @Nonnegative final int nStyleHandle)
+  {
+    final Cell ret = addCell (bValue);
+    addCellStyle (nStyleHandle);
+    return ret;
+  }
+
+  /**
+   * @param dValue
+   *        The value to be set.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value and style
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCell (final double dValue, @Nonnegative final int nStyleHandle)
+  {
+    final Cell ret = addCell (dValue);
+    addCellStyle (nStyleHandle);
+    return ret;
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value and style
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCell (@Nullable final BigDecimal aValue, @Nonnegative final int nStyleHandle)
+  {
+    final Cell ret = addCell (aValue);
+    addCellStyle (nStyleHandle);
+    return ret;
+  }
+
+  /**
+   * @param sValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value and style
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCell (@Nullable final String sValue, @Nonnegative final int nStyleHandle)
+  {
+    final Cell ret = addCell (sValue);
+    addCellStyle (nStyleHandle);
+    return ret;
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   *        Should contain a date format.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value and style
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCell (@Nullable final LocalDate aValue, @Nonnegative final int nStyleHandle)
+  {
+    final Cell ret = addCell (aValue);
+    addCellStyle (nStyleHandle);
+    return ret;
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   *        Should contain a date/time format.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value and style
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCell (@Nullable final LocalDateTime aValue, @Nonnegative final int nStyleHandle)
+  {
+    final Cell ret = addCell (aValue);
+    addCellStyle (nStyleHandle);
+    return ret;
+  }
+
+  /**
+   * Add a new cell with the passed value, where the cell type is determined by
+   * the runtime type of the value. <code>null</code> results in a blank cell
+   * and unknown types are added as their string representation.
+   *
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @return A new cell in the current row of the current sheet with the passed
+   *         value.
+   * @since 7.1.1
+   */
+  @NonNull
+  public Cell addCellObject (@Nullable final Object aValue)
+  {
+    if (aValue == null)
+      return addCell ();
+    if (aValue instanceof String)
+      return addCell ((String) aValue);
+    if (aValue instanceof BigDecimal)
+      return addCell ((BigDecimal) aValue);
+    if (aValue instanceof BigInteger)
+      return addCell ((BigInteger) aValue);
+    if (aValue instanceof Number)
+      return addCell (((Number) aValue).doubleValue ());
+    if (aValue instanceof Boolean)
+      return addCell (((Boolean) aValue).booleanValue ());
+    if (aValue instanceof LocalDate)
+      return addCell ((LocalDate) aValue);
+    if (aValue instanceof LocalDateTime)
+      return addCell ((LocalDateTime) aValue);
+    if (aValue instanceof ZonedDateTime)
+      return addCell ((ZonedDateTime) aValue);
+    if (aValue instanceof Calendar)
+      return addCell ((Calendar) aValue);
+    if (aValue instanceof Date)
+      return addCell ((Date) aValue);
+    if (aValue instanceof RichTextString)
+      return addCell ((RichTextString) aValue);
+    return addCell (String.valueOf (aValue));
+  }
+
+  /**
+   * Add a new row containing one cell per passed value. The cell type of each
+   * value is determined as in {@link #addCellObject(Object)}.
+   *
+   * @param aValues
+   *        The values of the row. May not be <code>null</code> but may contain
+   *        <code>null</code> elements.
+   * @return The created row
+   * @since 7.1.1
+   */
+  @NonNull
+  public Row addRow (@NonNull final Object... aValues)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+
+    final Row ret = addRow ();
+    for (final Object aValue : aValues)
+      addCellObject (aValue);
+    return ret;
+  }
+
+  /**
+   * Add one row per passed object, with one cell per column specification. The
+   * styles of the columns are registered once upfront, so that the creation of
+   * each cell is a direct call to the type specific <code>addCell</code>
+   * method.
+   *
+   * @param <T>
+   *        The type of the objects to be added.
+   * @param aObjects
+   *        The objects to add. Each object results in one row. May not be
+   *        <code>null</code>.
+   * @param aColumns
+   *        The column specifications. May neither be <code>null</code> nor
+   *        empty nor contain <code>null</code> elements.
+   * @since 7.1.1
+   */
+  @SafeVarargs
+  public final <T> void addRows (@NonNull final Iterable <? extends T> aObjects,
+                                 @NonNull final ExcelColumnSpec <? super T>... aColumns)
+  {
+    ValueEnforcer.notNull (aObjects, "Objects");
+    ValueEnforcer.notEmptyNoNullValue (aColumns, "Columns");
+    _ensureSheet ();
+
+    // Resolve all styles once
+    final int nCols = aColumns.length;
+    final int [] aStyleHandles = new int [nCols];
+    for (int i = 0; i < nCols; ++i)
+    {
+      final ExcelStyle aStyle = aColumns[i].getStyle ();
+      aStyleHandles[i] = aStyle == null ? -1 : registerCellStyle (aStyle);
+    }
+
+    for (final T aObject : aObjects)
+    {
+      addRow ();
+      for (int i = 0; i < nCols; ++i)
+      {
+        aColumns[i].addCell (this, aObject);
+        if (aStyleHandles[i] >= 0)
+          addCellStyle (aStyleHandles[i]);
+      }
+    }
+  }
+
+  /**
+   * Write a rectangular block of numeric columns without styles, starting at
+   * the first column.
+   *
+   * @param nFirstRow
+   *        The 0-based index of the first row to write.
+   * @param aColumns
+   *        The column values. May not be <code>null</code>.
+   * @see #writeColumns(int, int, ExcelColumnBlock)
+   * @since 7.1.1
+   */
+  public void writeColumns (@Nonnegative final int nFirstRow, @NonNull final double []... aColumns)
+  {
+    ValueEnforcer.notNull (aColumns, "Columns");
+
+    final ExcelColumnBlock aBlock = new ExcelColumnBlock ();
+    for (final double [] aColumn : aColumns)
+      aBlock.addColumn (aColumn);
+    writeColumns (nFirstRow, 0, aBlock);
+  }
+
+  /**
+   * Write a rectangular block of primitive columns into the current sheet. The
+   * values are written without boxing and the style of each column is resolved
+   * only once. Existing rows are reused, missing rows are created. After this
+   * call the row cursor is positioned after the last row of the block and
+   * {@link #addRow()} must be called before further cells can be added.<br>
+   * Note: in streaming mode only rows that were not yet flushed to disk can be
+   * written.
+   *
+   * @param nFirstRow
+   *        The 0-based index of the first row to write.
+   * @param nFirstCol
+   *        The 0-based index of the first column to write.
+   * @param aBlock
+   *        The column block to write. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public void writeColumns (@Nonnegative final int nFirstRow,
+                            @Nonnegative final int nFirstCol,
+                            @NonNull final ExcelColumnBlock aBlock)
+  {
+    ValueEnforcer.isGE0 (nFirstRow, "FirstRow");
+    ValueEnforcer.isGE0 (nFirstCol, "FirstCol");
+    ValueEnforcer.notNull (aBlock, "Block");
+    _ensureSheet ();
+
+    // Resolve all styles once
+    final int nCols = aBlock.getColumnCount ();
+    final int nRows = aBlock.getRowCount ();
+    final CellStyle [] aCellStyles = new CellStyle [nCols];
+    final ExcelStyle [] aExcelStyles = new ExcelStyle [nCols];
+    for (int nCol = 0; nCol < nCols; ++nCol)
+    {
+      final int nStyleHandle = aBlock.getColumnStyleHandle (nCol);
+      if (nStyleHandle != ExcelColumnBlock.NO_STYLE)
+      {
+        aCellStyles[nCol] = _getRegisteredCellStyle (nStyleHandle);
+        aExcelStyles[nCol] = m_aRegisteredExcelStyles[nStyleHandle];
+      }
+    }
+
+    final ExcelColumnWidthEstimator aEstimator = m_aColumnWidthEstimator;
+    if (aEstimator != null)
+      aEstimator.flush ();
+
+    for (int nRowOfs = 0; nRowOfs < nRows; ++nRowOfs)
+    {
+      final int nRowIndex = nFirstRow + nRowOfs;
+      Row aRow = m_aLastSheet.getRow (nRowIndex);
+      if (aRow == null)
+        aRow = m_aLastSheet.createRow (nRowIndex);
+
+      for (int nCol = 0; nCol < nCols; ++nCol)
+      {
+        if (nRowOfs >= aBlock.getColumnLength (nCol))
+          continue;
+
+        final Cell aCell = aRow.createCell (nFirstCol + nCol);
+        if (aBlock.getColumnType (nCol) == ExcelColumnBlock.TYPE_BOOLEAN)
+        {
+          final boolean bValue = aBlock.getBoolean (nCol, nRowOfs);
+          aCell.setCellValue (bValue);
+          if (aEstimator != null)
+          {
+            aEstimator.onBlankCell (nFirstCol + nCol);
+            aEstimator.setChars (bValue ? 4 : 5);
+          }
+        }
+        else
+        {
+          final double dValue = aBlock.getNumeric (nCol, nRowOfs);
+          aCell.setCellValue (dValue);
+          if (aEstimator != null)
+          {
+            aEstimator.onBlankCell (nFirstCol + nCol);
+            aEstimator.setNumeric (dValue);
+          }
+        }
+        if (aCellStyles[nCol] != null)
+        {
+          aCell.setCellStyle (aCellStyles[nCol]);
+          if (aEstimator != null)
+            aEstimator.setStyle (aExcelStyles[nCol]);
+        }
+      }
+    }
+
+    // Update the cursor
+    if (nFirstRow + nRows > m_nLastSheetRowIndex)
+      m_nLastSheetRowIndex = nFirstRow + nRows;
+    if (nFirstCol + nCols > m_nMaxCellIndex)
+      m_nMaxCellIndex = nFirstCol + nCols;
+    m_aLastRow = null;
+    m_nLastRowCellIndex = 0;
+    m_aLastCell = null;
   }
 
   /**
@@ -513,12 +1304,22 @@ public final class WorkbookCreationHelper implements AutoCloseable
   }
 
   /**
-   * Auto size all columns to be matching width in the current sheet
+   * Auto size all columns to be matching width in the current sheet. If column
+   * width estimation is enabled, the estimated widths are applied, otherwise
+   * each column is measured by POI.
+   *
+   * @see #setEstimateColumnWidths(boolean)
    */
   public void autoSizeAllColumns ()
   {
     _ensureSheet ();
 
+    if (m_aColumnWidthEstimator != null)
+    {
+      m_aColumnWidthEstimator.applyTo (m_aLastSheet);
+      return;
+    }
+
     // auto-adjust all columns (except description and image description)
     for (short nCol = 0; nCol < m_nMaxCellIndex; ++nCol)
       try
@@ -530,6 +1331,12 @@ public final class WorkbookCreationHelper implements AutoCloseable
         // Happens if a column is too large
         LOGGER.warn ("Failed to resize column " + nCol + ": column too wide!");
       }
+      catch (final IllegalStateException ex)
+      {
+        // Happens in streaming mode, if the column is not tracked for auto
+        // sizing
+        LOGGER.warn ("Failed to resize column " + nCol + ": " + ex.getMessage ());
+      }
   }
 
   /**
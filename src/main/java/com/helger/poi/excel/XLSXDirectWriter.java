@@ -0,0 +1,1374 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.WillCloseWhenClosed;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.poi.excel.style.ExcelDataFormatCache;
+import com.helger.poi.excel.style.ExcelFontCache;
+import com.helger.poi.excel.style.ExcelFontSpec;
+import com.helger.poi.excel.style.ExcelStyle;
+import com.helger.poi.excel.style.ExcelStyleCache;
+
+/**
+ * A lean XLSX writer with an API similar to {@link WorkbookCreationHelper}
+ * that writes the SpreadsheetML rows directly into the ZIP output stream,
+ * without creating a POI cell object per value. Only the cell styles and fonts
+ * are managed via a POI workbook, so {@link ExcelStyle} can be used as usual.
+ * <p>
+ * Restrictions compared to {@link WorkbookCreationHelper}:
+ * <ul>
+ * <li>Sheets are written one after the other - a sheet cannot be modified
+ * after the next sheet was created.</li>
+ * <li>Column widths must be defined before the first row of a sheet is
+ * added.</li>
+ * <li>Formulas are written without cached values - Excel recalculates them
+ * when opening the file.</li>
+ * </ul>
+ * The output stream passed in the constructor is closed in {@link #close()},
+ * which must be called to create a valid file.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public final class XLSXDirectWriter implements AutoCloseable
+{
+  /** By default, strings are written as shared strings */
+  public static final boolean DEFAULT_USE_SHARED_STRINGS = true;
+
+  private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+  private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+  private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+  private static final String NS_PKG_REL = "http://schemas.openxmlformats.org/package/2006/relationships";
+  private static final String CT_PREFIX = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+  private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows ();
+  private static final int MAX_COLUMNS = SpreadsheetVersion.EXCEL2007.getMaxColumns ();
+
+  private static final byte CELL_NONE = 0;
+  private static final byte CELL_BLANK = 1;
+  private static final byte CELL_NUMBER = 2;
+  private static final byte CELL_STRING = 3;
+  private static final byte CELL_BOOLEAN = 4;
+  private static final byte CELL_FORMULA = 5;
+
+  private final ZipOutputStream m_aZOS;
+  private final Writer m_aWriter;
+  private final boolean m_bUseSharedStrings;
+
+  // Styles and fonts are handled via a sheetless workbook
+  private final XSSFWorkbook m_aStyleWB = new XSSFWorkbook ();
+  private final ExcelStyleCache m_aStyleCache = new ExcelStyleCache ();
+  private final ExcelDataFormatCache m_aDataFormatCache = new ExcelDataFormatCache (m_aStyleWB);
+  private final ExcelFontCache m_aFontCache = new ExcelFontCache (m_aStyleWB);
+  private int m_nCreatedCellStyles = 0;
+  // The last frozen style applied, for quick reuse
+  private ExcelStyle m_aLastExcelStyle;
+  private int m_nLastStyleIndex;
+  // Pre-registered styles: handle to style index
+  private int [] m_aRegisteredStyleIndices = new int [16];
+  private int m_nRegisteredStyles = 0;
+
+  // Shared strings
+  private final ICommonsMap <String, Integer> m_aSSTMap = new CommonsHashMap <> ();
+  private final ICommonsList <String> m_aSSTList = new CommonsArrayList <> ();
+  private int m_nSSTRefCount = 0;
+
+  // Workbook state
+  private final ICommonsList <String> m_aSheetNames = new CommonsArrayList <> ();
+  private final ICommonsList <String> m_aFilterDatabases = new CommonsArrayList <> ();
+  private boolean m_bHasFormulas = false;
+  private boolean m_bClosed = false;
+
+  // Current sheet state
+  private boolean m_bSheetOpen = false;
+  private boolean m_bSheetDataStarted = false;
+  // Column index to width and style index
+  private final TreeMap <Integer, int []> m_aColumns = new TreeMap <> ();
+  private final ICommonsList <String> m_aMergeRegions = new CommonsArrayList <> ();
+  private String m_sAutoFilterRef;
+  private int m_nLastSheetRowIndex = 0;
+  private boolean m_bRowOpen = false;
+  private int m_nLastRowCellIndex = 0;
+  private int m_nMaxCellIndex = 0;
+
+  // The last added cell is kept, until the next cell is added, so that a style
+  // can still be applied
+  private byte m_nPendingType = CELL_NONE;
+  private int m_nPendingStyle = 0;
+  private double m_dPendingValue;
+  private String m_sPendingValue;
+
+  private final char [] m_aNumBuf = new char [24];
+
+  /**
+   * Constructor using shared strings.
+   *
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. Is
+   *        closed in {@link #close()}.
+   */
+  public XLSXDirectWriter (@NonNull @WillCloseWhenClosed final OutputStream aOS)
+  {
+    this (aOS, DEFAULT_USE_SHARED_STRINGS);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. Is
+   *        closed in {@link #close()}.
+   * @param bUseSharedStrings
+   *        <code>true</code> to write strings deduplicated into the shared
+   *        strings table, <code>false</code> to write all strings inline. Inline
+   *        strings require no memory, shared strings create smaller files if
+   *        values repeat.
+   */
+  public XLSXDirectWriter (@NonNull @WillCloseWhenClosed final OutputStream aOS, final boolean bUseSharedStrings)
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    m_aZOS = new ZipOutputStream (aOS, StandardCharsets.UTF_8);
+    m_aWriter = new BufferedWriter (new OutputStreamWriter (m_aZOS, StandardCharsets.UTF_8), 64 * 1024);
+    m_bUseSharedStrings = bUseSharedStrings;
+  }
+
+  private void _ensureOpen ()
+  {
+    if (m_bClosed)
+      throw new IllegalStateException ("This writer was already closed");
+  }
+
+  private void _writeEscaped (@NonNull final String s) throws IOException
+  {
+    final int nLen = s.length ();
+    int nStart = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = s.charAt (i);
+      final String sReplacement;
+      switch (c)
+      {
+        case '<':
+          sReplacement = "&lt;";
+          break;
+        case '>':
+          sReplacement = "&gt;";
+          break;
+        case '&':
+          sReplacement = "&amp;";
+          break;
+        case '"':
+          sReplacement = "&quot;";
+          break;
+        case '\r':
+          sReplacement = "&#13;";
+          break;
+        case '\t':
+        case '\n':
+          continue;
+        default:
+          if (c >= 0x20 && c < 0xfffe)
+            continue;
+          // Character not allowed in XML 1.0 - use the same escape as XSSF
+          sReplacement = String.format ("_x%04X_", Integer.valueOf (c));
+          break;
+      }
+      if (i > nStart)
+        m_aWriter.write (s, nStart, i - nStart);
+      m_aWriter.write (sReplacement);
+      nStart = i + 1;
+    }
+    if (nStart < nLen)
+      m_aWriter.write (s, nStart, nLen - nStart);
+  }
+
+  private void _writeInt (final long nValue) throws IOException
+  {
+    long n = nValue;
+    if (n == 0)
+    {
+      m_aWriter.write ('0');
+      return;
+    }
+    final boolean bNegative = n < 0;
+    if (bNegative)
+      n = -n;
+    int nPos = m_aNumBuf.length;
+    while (n > 0)
+    {
+      m_aNumBuf[--nPos] = (char) ('0' + (n % 10));
+      n /= 10;
+    }
+    if (bNegative)
+      m_aNumBuf[--nPos] = '-';
+    m_aWriter.write (m_aNumBuf, nPos, m_aNumBuf.length - nPos);
+  }
+
+  private void _writeDouble (final double dValue) throws IOException
+  {
+    if (dValue == (long) dValue && Math.abs (dValue) < 1e15)
+    {
+      // No fraction - avoid the String allocation
+      _writeInt ((long) dValue);
+    }
+    else
+      m_aWriter.write (Double.toString (dValue));
+  }
+
+  private void _writeColumnName (final int nCol) throws IOException
+  {
+    // 0-based index to "A", "B", ... "AA", ...
+    int nPos = m_aNumBuf.length;
+    int n = nCol + 1;
+    while (n > 0)
+    {
+      final int nRem = (n - 1) % 26;
+      m_aNumBuf[--nPos] = (char) ('A' + nRem);
+      n = (n - 1) / 26;
+    }
+    m_aWriter.write (m_aNumBuf, nPos, m_aNumBuf.length - nPos);
+  }
+
+  @NonNull
+  private static String _getColumnName (final int nCol)
+  {
+    final StringBuilder aSB = new StringBuilder (3);
+    int n = nCol + 1;
+    while (n > 0)
+    {
+      aSB.insert (0, (char) ('A' + (n - 1) % 26));
+      n = (n - 1) / 26;
+    }
+    return aSB.toString ();
+  }
+
+  @NonNull
+  private static String _getCellRef (final int nRow, final int nCol, final boolean bAbsolute)
+  {
+    final String sAbs = bAbsolute ? "$" : "";
+    return sAbs + _getColumnName (nCol) + sAbs + (nRow + 1);
+  }
+
+  @NonNull
+  private static String _getAreaRef (final int nFirstRow,
+                                     final int nLastRow,
+                                     final int nFirstCol,
+                                     final int nLastCol,
+                                     final boolean bAbsolute)
+  {
+    return _getCellRef (nFirstRow, nFirstCol, bAbsolute) + ":" + _getCellRef (nLastRow, nLastCol, bAbsolute);
+  }
+
+  private void _writeEntry (@NonNull final String sName, @NonNull final String sContent) throws IOException
+  {
+    m_aZOS.putNextEntry (new ZipEntry (sName));
+    m_aWriter.write (sContent);
+    m_aWriter.flush ();
+    m_aZOS.closeEntry ();
+  }
+
+  private void _flushPendingCell () throws IOException
+  {
+    final byte nType = m_nPendingType;
+    if (nType == CELL_NONE)
+      return;
+    m_nPendingType = CELL_NONE;
+
+    // Blank cells without a style don't need to be written at all
+    if (nType == CELL_BLANK && m_nPendingStyle == 0)
+      return;
+
+    m_aWriter.write ("<c r=\"");
+    _writeColumnName (m_nLastRowCellIndex - 1);
+    _writeInt (m_nLastSheetRowIndex);
+    m_aWriter.write ('"');
+    if (m_nPendingStyle != 0)
+    {
+      m_aWriter.write (" s=\"");
+      _writeInt (m_nPendingStyle);
+      m_aWriter.write ('"');
+    }
+
+    switch (nType)
+    {
+      case CELL_BLANK:
+        m_aWriter.write ("/>");
+        break;
+      case CELL_NUMBER:
+        _writeNumberCellContent (m_dPendingValue);
+        break;
+      case CELL_STRING:
+        if (m_bUseSharedStrings)
+        {
+          Integer aIndex = m_aSSTMap.get (m_sPendingValue);
+          if (aIndex == null)
+          {
+            aIndex = Integer.valueOf (m_aSSTList.size ());
+            m_aSSTList.add (m_sPendingValue);
+            m_aSSTMap.put (m_sPendingValue, aIndex);
+          }
+          m_nSSTRefCount++;
+          m_aWriter.write (" t=\"s\"><v>");
+          _writeInt (aIndex.intValue ());
+          m_aWriter.write ("</v></c>");
+        }
+        else
+        {
+          m_aWriter.write (" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+          _writeEscaped (m_sPendingValue);
+          m_aWriter.write ("</t></is></c>");
+        }
+        break;
+      case CELL_BOOLEAN:
+        m_aWriter.write (m_dPendingValue != 0 ? " t=\"b\"><v>1</v></c>" : " t=\"b\"><v>0</v></c>");
+        break;
+      case CELL_FORMULA:
+        m_aWriter.write ("><f>");
+        _writeEscaped (m_sPendingValue);
+        m_aWriter.write ("</f></c>");
+        break;
+      default:
+        throw new IllegalStateException ("Unsupported cell type " + nType);
+    }
+    m_sPendingValue = null;
+  }
+
+  private void _writeNumberCellContent (final double dValue) throws IOException
+  {
+    if (Double.isNaN (dValue) || Double.isInfinite (dValue))
+      m_aWriter.write (" t=\"e\"><v>#NUM!</v></c>");
+    else
+    {
+      m_aWriter.write ("><v>");
+      _writeDouble (dValue);
+      m_aWriter.write ("</v></c>");
+    }
+  }
+
+  private void _startSheetData () throws IOException
+  {
+    m_aZOS.putNextEntry (new ZipEntry ("xl/worksheets/sheet" + m_aSheetNames.size () + ".xml"));
+    m_aWriter.write (XML_HEADER);
+    m_aWriter.write ("<worksheet xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_REL + "\">");
+    if (!m_aColumns.isEmpty ())
+    {
+      m_aWriter.write ("<cols>");
+      for (final Map.Entry <Integer, int []> aEntry : m_aColumns.entrySet ())
+      {
+        final int nCol = aEntry.getKey ().intValue () + 1;
+        final int nWidth = aEntry.getValue ()[0];
+        final int nStyle = aEntry.getValue ()[1];
+        m_aWriter.write ("<col min=\"");
+        _writeInt (nCol);
+        m_aWriter.write ("\" max=\"");
+        _writeInt (nCol);
+        m_aWriter.write ("\" width=\"");
+        // Excel default column width
+        m_aWriter.write (nWidth >= 0 ? Double.toString (nWidth / 256d) : "8.43");
+        if (nWidth >= 0)
+          m_aWriter.write ("\" customWidth=\"1");
+        if (nStyle > 0)
+        {
+          m_aWriter.write ("\" style=\"");
+          _writeInt (nStyle);
+        }
+        m_aWriter.write ("\"/>");
+      }
+      m_aWriter.write ("</cols>");
+    }
+    m_aWriter.write ("<sheetData>");
+    m_bSheetDataStarted = true;
+  }
+
+  private void _finishSheet () throws IOException
+  {
+    if (!m_bSheetOpen)
+      return;
+
+    if (!m_bSheetDataStarted)
+      _startSheetData ();
+    _flushPendingCell ();
+    if (m_bRowOpen)
+    {
+      m_aWriter.write ("</row>");
+      m_bRowOpen = false;
+    }
+    m_aWriter.write ("</sheetData>");
+    if (m_sAutoFilterRef != null)
+    {
+      m_aWriter.write ("<autoFilter ref=\"");
+      m_aWriter.write (m_sAutoFilterRef);
+      m_aWriter.write ("\"/>");
+    }
+    if (m_aMergeRegions.isNotEmpty ())
+    {
+      m_aWriter.write ("<mergeCells count=\"");
+      _writeInt (m_aMergeRegions.size ());
+      m_aWriter.write ("\">");
+      for (final String sRef : m_aMergeRegions)
+      {
+        m_aWriter.write ("<mergeCell ref=\"");
+        m_aWriter.write (sRef);
+        m_aWriter.write ("\"/>");
+      }
+      m_aWriter.write ("</mergeCells>");
+    }
+    m_aWriter.write ("</worksheet>");
+    m_aWriter.flush ();
+    m_aZOS.closeEntry ();
+
+    m_bSheetOpen = false;
+  }
+
+  /**
+   * Create a new font. The font can be used in {@link ExcelStyle#setFont(Font)}.
+   *
+   * @return The created font.
+   */
+  @NonNull
+  public Font createFont ()
+  {
+    return m_aStyleWB.createFont ();
+  }
+
+  /**
+   * Get or create the font matching the passed specification. Equal
+   * specifications result in the same font object.
+   *
+   * @param aFontSpec
+   *        The font specification. May not be <code>null</code>.
+   * @return The font and never <code>null</code>.
+   */
+  @NonNull
+  public Font getOrCreateFont (@NonNull final ExcelFontSpec aFontSpec)
+  {
+    return m_aFontCache.getOrCreateFont (aFontSpec);
+  }
+
+  /**
+   * Create a new sheet with a default name. The previous sheet is finished and
+   * can no longer be modified.
+   */
+  public void createNewSheet ()
+  {
+    createNewSheet (null);
+  }
+
+  /**
+   * Create a new sheet with an optional name. The previous sheet is finished
+   * and can no longer be modified.
+   *
+   * @param sName
+   *        The name to be used. May be <code>null</code>.
+   */
+  public void createNewSheet (@Nullable final String sName)
+  {
+    _ensureOpen ();
+    final String sRealName = sName == null ? "Sheet" + m_aSheetNames.size () : WorkbookUtil.createSafeSheetName (sName);
+    for (final String sExisting : m_aSheetNames)
+      if (sExisting.equalsIgnoreCase (sRealName))
+        throw new IllegalArgumentException ("The workbook already contains a sheet named '" + sRealName + "'");
+
+    try
+    {
+      _finishSheet ();
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+
+    m_aSheetNames.add (sRealName);
+    m_bSheetOpen = true;
+    m_bSheetDataStarted = false;
+    m_aColumns.clear ();
+    m_aMergeRegions.clear ();
+    m_sAutoFilterRef = null;
+    m_nLastSheetRowIndex = 0;
+    m_bRowOpen = false;
+    m_nLastRowCellIndex = 0;
+    m_nMaxCellIndex = 0;
+  }
+
+  private void _ensureSheet ()
+  {
+    _ensureOpen ();
+    if (!m_bSheetOpen)
+      throw new IllegalStateException ("A sheet needs to be present to perform this! Call createNewSheet");
+  }
+
+  /**
+   * Set the width of a column in the current sheet. This must be called before
+   * the first row of the sheet is added.
+   *
+   * @param nCol
+   *        The 0-based column index.
+   * @param nWidth
+   *        The width in units of 1/256th of a character width.
+   */
+  public void setColumnWidth (@Nonnegative final int nCol, @Nonnegative final int nWidth)
+  {
+    ValueEnforcer.isBetweenInclusive (nCol, "Column", 0, MAX_COLUMNS - 1);
+    ValueEnforcer.isBetweenInclusive (nWidth, "Width", 0, 255 * 256);
+    _ensureSheet ();
+    if (m_bSheetDataStarted)
+      throw new IllegalStateException ("Column widths must be set before the first row is added");
+    m_aColumns.computeIfAbsent (Integer.valueOf (nCol), k -> new int [] { -1, 0 })[0] = nWidth;
+  }
+
+  /**
+   * Set the default style of a whole column in the current sheet, using a
+   * pre-registered style. This must be called before the first row of the
+   * sheet is added.
+   *
+   * @param nCol
+   *        The 0-based column index.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   */
+  public void setColumnStyle (@Nonnegative final int nCol, @Nonnegative final int nStyleHandle)
+  {
+    ValueEnforcer.isBetweenInclusive (nCol, "Column", 0, MAX_COLUMNS - 1);
+    final int nStyleIndex = _getRegisteredStyleIndex (nStyleHandle);
+    _ensureSheet ();
+    if (m_bSheetDataStarted)
+      throw new IllegalStateException ("Column styles must be set before the first row is added");
+    m_aColumns.computeIfAbsent (Integer.valueOf (nCol), k -> new int [] { -1, 0 })[1] = nStyleIndex;
+  }
+
+  /**
+   * Add a new row in the current sheet.
+   */
+  public void addRow ()
+  {
+    _ensureSheet ();
+    if (m_nLastSheetRowIndex >= MAX_ROWS)
+      throw new IllegalStateException ("The maximum number of rows per sheet (" + MAX_ROWS + ") was reached");
+
+    try
+    {
+      if (!m_bSheetDataStarted)
+        _startSheetData ();
+      _flushPendingCell ();
+      if (m_bRowOpen)
+        m_aWriter.write ("</row>");
+      m_nLastSheetRowIndex++;
+      m_aWriter.write ("<row r=\"");
+      _writeInt (m_nLastSheetRowIndex);
+      m_aWriter.write ("\">");
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+    m_bRowOpen = true;
+    m_nLastRowCellIndex = 0;
+  }
+
+  /**
+   * @return The number of rows in the current sheet, 0-based.
+   */
+  @Nonnegative
+  public int getRowCount ()
+  {
+    return m_nLastSheetRowIndex;
+  }
+
+  private void _addCell (final byte nType, final double dValue, @Nullable final String sValue)
+  {
+    if (!m_bRowOpen)
+      throw new IllegalStateException ("A row needs to be present to perform this! Call addRow");
+    if (m_nLastRowCellIndex >= MAX_COLUMNS)
+      throw new IllegalStateException ("The maximum number of columns (" + MAX_COLUMNS + ") was reached");
+
+    try
+    {
+      _flushPendingCell ();
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+    m_nPendingType = nType;
+    m_nPendingStyle = 0;
+    m_dPendingValue = dValue;
+    m_sPendingValue = sValue;
+
+    m_nLastRowCellIndex++;
+    if (m_nLastRowCellIndex > m_nMaxCellIndex)
+      m_nMaxCellIndex = m_nLastRowCellIndex;
+  }
+
+  /**
+   * Add a new blank cell in the current row.
+   */
+  public void addCell ()
+  {
+    _addCell (CELL_BLANK, 0, null);
+  }
+
+  /**
+   * @param bValue
+   *        The value to be set.
+   */
+  public void addCell (final boolean bValue)
+  {
+    _addCell (CELL_BOOLEAN, bValue ? 1 : 0, null);
+  }
+
+  /**
+   * @param dValue
+   *        The value to be set.
+   */
+  public void addCell (final double dValue)
+  {
+    _addCell (CELL_NUMBER, dValue, null);
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final BigInteger aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+      if (CExcel.canBeNumericValue (aValue))
+        addCell (aValue.longValue ());
+      else
+      {
+        // Too large - add as string
+        addCell (aValue.toString ());
+      }
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final BigDecimal aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+    {
+      final double dValue = aValue.doubleValue ();
+      if (Double.isInfinite (dValue))
+      {
+        // Add as string if too large for a double
+        addCell (aValue.toString ());
+      }
+      else
+        addCell (dValue);
+    }
+  }
+
+  /**
+   * @param sValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final String sValue)
+  {
+    if (sValue == null)
+      addCell ();
+    else
+      _addCell (CELL_STRING, 0, sValue);
+  }
+
+  /**
+   * Added a new cell as date/time. Don't forget to apply a style with a date
+   * format afterwards.
+   *
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final Calendar aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+      addCell (DateUtil.getExcelDate (aValue, false));
+  }
+
+  /**
+   * Added a new cell as date/time. Don't forget to apply a style with a date
+   * format afterwards.
+   *
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final Date aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+      addCell (DateUtil.getExcelDate (aValue));
+  }
+
+  /**
+   * Added a new cell as date. Don't forget to apply a style with a date format
+   * afterwards.
+   *
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final LocalDate aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+      addCell (ExcelDateConverter.toExcelDate (aValue, false));
+  }
+
+  /**
+   * Added a new cell as date/time. Don't forget to apply a style with a date
+   * format afterwards.
+   *
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final LocalDateTime aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+      addCell (ExcelDateConverter.toExcelDate (aValue, false));
+  }
+
+  /**
+   * Added a new cell as date/time. Don't forget to apply a style with a date
+   * format afterwards.
+   *
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   */
+  public void addCell (@Nullable final ZonedDateTime aValue)
+  {
+    if (aValue == null)
+      addCell ();
+    else
+      addCell (aValue.toLocalDateTime ());
+  }
+
+  /**
+   * @param sFormula
+   *        The formula to be set, without the leading "=". May be
+   *        <code>null</code> to set no formula.
+   */
+  public void addCellFormula (@Nullable final String sFormula)
+  {
+    if (sFormula == null)
+      addCell ();
+    else
+    {
+      _addCell (CELL_FORMULA, 0, sFormula);
+      m_bHasFormulas = true;
+    }
+  }
+
+  /**
+   * Set the cell style of the last added cell
+   *
+   * @param aExcelStyle
+   *        The style to be set.
+   */
+  public void addCellStyle (@NonNull final ExcelStyle aExcelStyle)
+  {
+    ValueEnforcer.notNull (aExcelStyle, "ExcelStyle");
+    if (m_nPendingType == CELL_NONE)
+      throw new IllegalStateException ("A cell needs to be present to perform this! Call addCell");
+
+    if (aExcelStyle == m_aLastExcelStyle)
+    {
+      // Same frozen instance as before
+      m_nPendingStyle = m_nLastStyleIndex;
+      return;
+    }
+
+    m_nPendingStyle = _getOrCreateStyleIndex (aExcelStyle);
+    if (aExcelStyle.isFrozen ())
+    {
+      m_aLastExcelStyle = aExcelStyle;
+      m_nLastStyleIndex = m_nPendingStyle;
+    }
+  }
+
+  private int _getOrCreateStyleIndex (@NonNull final ExcelStyle aExcelStyle)
+  {
+    CellStyle aCellStyle = m_aStyleCache.getCellStyle (aExcelStyle);
+    if (aCellStyle == null)
+    {
+      aCellStyle = m_aStyleWB.createCellStyle ();
+      aExcelStyle.fillCellStyle (m_aStyleWB, aCellStyle, m_aDataFormatCache, m_aFontCache);
+      m_aStyleCache.addCellStyle (aExcelStyle, aCellStyle);
+      m_nCreatedCellStyles++;
+    }
+    return aCellStyle.getIndex () & 0xffff;
+  }
+
+  /**
+   * Register a style up front and get a compact handle for it. Applying a
+   * style via its handle is a simple array access without any map lookup.
+   * Registering an equal style twice returns the same handle.
+   *
+   * @param aExcelStyle
+   *        The style to register. May not be <code>null</code>.
+   * @return The 0-based handle of the style, valid for the lifetime of this
+   *         writer.
+   */
+  @Nonnegative
+  public int registerCellStyle (@NonNull final ExcelStyle aExcelStyle)
+  {
+    ValueEnforcer.notNull (aExcelStyle, "ExcelStyle");
+    _ensureOpen ();
+
+    final int nStyleIndex = _getOrCreateStyleIndex (aExcelStyle);
+    for (int i = 0; i < m_nRegisteredStyles; ++i)
+      if (m_aRegisteredStyleIndices[i] == nStyleIndex)
+        return i;
+
+    if (m_nRegisteredStyles == m_aRegisteredStyleIndices.length)
+      m_aRegisteredStyleIndices = Arrays.copyOf (m_aRegisteredStyleIndices, m_nRegisteredStyles * 2);
+    final int ret = m_nRegisteredStyles++;
+    m_aRegisteredStyleIndices[ret] = nStyleIndex;
+    return ret;
+  }
+
+  /**
+   * @return The number of styles registered via
+   *         {@link #registerCellStyle(ExcelStyle)}. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getRegisteredCellStyleCount ()
+  {
+    return m_nRegisteredStyles;
+  }
+
+  private int _getRegisteredStyleIndex (final int nStyleHandle)
+  {
+    if (nStyleHandle < 0 || nStyleHandle >= m_nRegisteredStyles)
+      throw new IllegalArgumentException ("Invalid style handle " + nStyleHandle + " provided");
+    return m_aRegisteredStyleIndices[nStyleHandle];
+  }
+
+  /**
+   * Set the cell style of the last added cell using a pre-registered style.
+   *
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   */
+  public void addCellStyle (@Nonnegative final int nStyleHandle)
+  {
+    if (m_nPendingType == CELL_NONE)
+      throw new IllegalStateException ("A cell needs to be present to perform this! Call addCell");
+    m_nPendingStyle = _getRegisteredStyleIndex (nStyleHandle);
+  }
+
+  /**
+   * @param bValue
+   *        The value to be set.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   */
+  public void addCell (final boolean bValue, @Nonnegative final int nStyleHandle)
+  {
+    addCell (bValue);
+    addCellStyle (nStyleHandle);
+  }
+
+  /**
+   * @param dValue
+   *        The value to be set.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   */
+  public void addCell (final double dValue, @Nonnegative final int nStyleHandle)
+  {
+    addCell (dValue);
+    addCellStyle (nStyleHandle);
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   */
+  public void addCell (@Nullable final BigDecimal aValue, @Nonnegative final int nStyleHandle)
+  {
+    addCell (aValue);
+    addCellStyle (nStyleHandle);
+  }
+
+  /**
+   * @param sValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   */
+  public void addCell (@Nullable final String sValue, @Nonnegative final int nStyleHandle)
+  {
+    addCell (sValue);
+    addCellStyle (nStyleHandle);
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   *        Should contain a date format.
+   */
+  public void addCell (@Nullable final LocalDate aValue, @Nonnegative final int nStyleHandle)
+  {
+    addCell (aValue);
+    addCellStyle (nStyleHandle);
+  }
+
+  /**
+   * @param aValue
+   *        The value to be set. May be <code>null</code>.
+   * @param nStyleHandle
+   *        The handle returned by {@link #registerCellStyle(ExcelStyle)}.
+   *        Should contain a date/time format.
+   */
+  public void addCell (@Nullable final LocalDateTime aValue, @Nonnegative final int nStyleHandle)
+  {
+    addCell (aValue);
+    addCellStyle (nStyleHandle);
+  }
+
+  /**
+   * Append a rectangular block of primitive columns as new rows to the current
+   * sheet, starting at the first column. The cells are written directly to the
+   * output without any intermediate objects. After this call, the last row of
+   * the block is the current row, so further cells may be added to it.
+   *
+   * @param aBlock
+   *        The column block to write. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public void addColumns (@NonNull final ExcelColumnBlock aBlock)
+  {
+    ValueEnforcer.notNull (aBlock, "Block");
+    _ensureSheet ();
+
+    final int nCols = aBlock.getColumnCount ();
+    final int nRows = aBlock.getRowCount ();
+    if (nRows == 0)
+      return;
+    if (nCols > MAX_COLUMNS)
+      throw new IllegalStateException ("The maximum number of columns (" + MAX_COLUMNS + ") was reached");
+    if (m_nLastSheetRowIndex + nRows > MAX_ROWS)
+      throw new IllegalStateException ("The maximum number of rows per sheet (" + MAX_ROWS + ") was reached");
+
+    // Resolve all styles and column names once
+    final int [] aStyleIndices = new int [nCols];
+    final String [] aColumnNames = new String [nCols];
+    for (int nCol = 0; nCol < nCols; ++nCol)
+    {
+      final int nStyleHandle = aBlock.getColumnStyleHandle (nCol);
+      aStyleIndices[nCol] = nStyleHandle == ExcelColumnBlock.NO_STYLE ? 0 : _getRegisteredStyleIndex (nStyleHandle);
+      aColumnNames[nCol] = _getColumnName (nCol);
+    }
+
+    try
+    {
+      if (!m_bSheetDataStarted)
+        _startSheetData ();
+      _flushPendingCell ();
+      if (m_bRowOpen)
+        m_aWriter.write ("</row>");
+
+      for (int nRowOfs = 0; nRowOfs < nRows; ++nRowOfs)
+      {
+        if (nRowOfs > 0)
+          m_aWriter.write ("</row>");
+        m_nLastSheetRowIndex++;
+        m_aWriter.write ("<row r=\"");
+        _writeInt (m_nLastSheetRowIndex);
+        m_aWriter.write ("\">");
+
+        for (int nCol = 0; nCol < nCols; ++nCol)
+        {
+          if (nRowOfs >= aBlock.getColumnLength (nCol))
+            continue;
+
+          m_aWriter.write ("<c r=\"");
+          m_aWriter.write (aColumnNames[nCol]);
+          _writeInt (m_nLastSheetRowIndex);
+          m_aWriter.write ('"');
+          if (aStyleIndices[nCol] != 0)
+          {
+            m_aWriter.write (" s=\"");
+            _writeInt (aStyleIndices[nCol]);
+            m_aWriter.write ('"');
+          }
+          if (aBlock.getColumnType (nCol) == ExcelColumnBlock.TYPE_BOOLEAN)
+            m_aWriter.write (aBlock.getBoolean (nCol, nRowOfs) ? " t=\"b\"><v>1</v></c>" : " t=\"b\"><v>0</v></c>");
+          else
+            _writeNumberCellContent (aBlock.getNumeric (nCol, nRowOfs));
+        }
+      }
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+
+    // The last row stays open
+    m_bRowOpen = true;
+    m_nLastRowCellIndex = nCols;
+    if (nCols > m_nMaxCellIndex)
+      m_nMaxCellIndex = nCols;
+  }
+
+  /**
+   * @return The number of unique styles in the current workbook. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getCreatedCellStyleCount ()
+  {
+    return m_nCreatedCellStyles;
+  }
+
+  /**
+   * @return The number of cells in the current row in the current sheet,
+   *         0-based
+   */
+  @Nonnegative
+  public int getCellCountInRow ()
+  {
+    return m_nLastRowCellIndex;
+  }
+
+  /**
+   * @return The maximum number of cells in a single row in the current sheet,
+   *         0-based.
+   */
+  @Nonnegative
+  public int getMaximumCellCountInRowInSheet ()
+  {
+    return m_nMaxCellIndex;
+  }
+
+  /**
+   * Add a merge region in the current row. Note: only the content of the first
+   * cell is used as the content of the merged cell!
+   *
+   * @param nFirstCol
+   *        First column to be merged (inclusive). 0-based
+   * @param nLastCol
+   *        Last column to be merged (inclusive). 0-based, must be larger than
+   *        {@code nFirstCol}
+   */
+  public void addMergeRegionInCurrentRow (@Nonnegative final int nFirstCol, @Nonnegative final int nLastCol)
+  {
+    final int nCurrentRowIndex = m_nLastSheetRowIndex - 1;
+    addMergeRegion (nCurrentRowIndex, nCurrentRowIndex, nFirstCol, nLastCol);
+  }
+
+  /**
+   * Adds a merged region of cells (hence those cells form one)
+   *
+   * @param nFirstRow
+   *        Index of first row
+   * @param nLastRow
+   *        Index of last row (inclusive), must be equal to or larger than
+   *        {@code nFirstRow}
+   * @param nFirstCol
+   *        Index of first column
+   * @param nLastCol
+   *        Index of last column (inclusive), must be equal to or larger than
+   *        {@code nFirstCol}
+   */
+  public void addMergeRegion (@Nonnegative final int nFirstRow,
+                              @Nonnegative final int nLastRow,
+                              @Nonnegative final int nFirstCol,
+                              @Nonnegative final int nLastCol)
+  {
+    ValueEnforcer.isGE0 (nFirstRow, "FirstRow");
+    ValueEnforcer.isTrue (nLastRow >= nFirstRow, "LastRow must be >= FirstRow");
+    ValueEnforcer.isGE0 (nFirstCol, "FirstCol");
+    ValueEnforcer.isTrue (nLastCol >= nFirstCol, "LastCol must be >= FirstCol");
+    _ensureSheet ();
+    m_aMergeRegions.add (_getAreaRef (nFirstRow, nLastRow, nFirstCol, nLastCol, false));
+  }
+
+  /**
+   * Add an auto filter on the first row on all columns in the current sheet.
+   */
+  public void autoFilterAllColumns ()
+  {
+    autoFilterAllColumns (0);
+  }
+
+  /**
+   * Add an auto filter on all columns in the current sheet.
+   *
+   * @param nRowIndex
+   *        The 0-based index of the row, where to set the filter.
+   */
+  public void autoFilterAllColumns (@Nonnegative final int nRowIndex)
+  {
+    _ensureSheet ();
+    if (m_nMaxCellIndex == 0)
+      return;
+
+    m_sAutoFilterRef = _getAreaRef (nRowIndex, nRowIndex, 0, m_nMaxCellIndex - 1, false);
+    // Excel requires the matching hidden defined name
+    final int nSheetIndex = m_aSheetNames.size () - 1;
+    final String sSheetName = m_aSheetNames.get (nSheetIndex);
+    m_aFilterDatabases.removeIf (x -> x.startsWith (nSheetIndex + "|"));
+    m_aFilterDatabases.add (nSheetIndex +
+                            "|'" +
+                            sSheetName.replace ("'", "''") +
+                            "'!" +
+                            _getAreaRef (nRowIndex, nRowIndex, 0, m_nMaxCellIndex - 1, true));
+  }
+
+  @NonNull
+  private String _getWorkbookXML ()
+  {
+    final StringBuilder aSB = new StringBuilder (XML_HEADER);
+    aSB.append ("<workbook xmlns=\"").append (NS_MAIN).append ("\" xmlns:r=\"").append (NS_REL).append ("\"><sheets>");
+    int nIndex = 1;
+    for (final String sSheetName : m_aSheetNames)
+    {
+      aSB.append ("<sheet name=\"").append (_getEscaped (sSheetName)).append ("\" sheetId=\"").append (nIndex);
+      aSB.append ("\" r:id=\"rId").append (nIndex).append ("\"/>");
+      nIndex++;
+    }
+    aSB.append ("</sheets>");
+    if (m_aFilterDatabases.isNotEmpty ())
+    {
+      aSB.append ("<definedNames>");
+      for (final String sFilterDatabase : m_aFilterDatabases)
+      {
+        final int nSep = sFilterDatabase.indexOf ('|');
+        aSB.append ("<definedName name=\"_xlnm._FilterDatabase\" localSheetId=\"")
+           .append (sFilterDatabase, 0, nSep)
+           .append ("\" hidden=\"1\">")
+           .append (_getEscaped (sFilterDatabase.substring (nSep + 1)))
+           .append ("</definedName>");
+      }
+      aSB.append ("</definedNames>");
+    }
+    if (m_bHasFormulas)
+      aSB.append ("<calcPr fullCalcOnLoad=\"1\"/>");
+    aSB.append ("</workbook>");
+    return aSB.toString ();
+  }
+
+  @NonNull
+  private static String _getEscaped (@NonNull final String s)
+  {
+    final StringBuilder aSB = new StringBuilder (s.length ());
+    for (final char c : s.toCharArray ())
+      switch (c)
+      {
+        case '<':
+          aSB.append ("&lt;");
+          break;
+        case '>':
+          aSB.append ("&gt;");
+          break;
+        case '&':
+          aSB.append ("&amp;");
+          break;
+        case '"':
+          aSB.append ("&quot;");
+          break;
+        default:
+          aSB.append (c);
+      }
+    return aSB.toString ();
+  }
+
+  private void _writeSharedStrings () throws IOException
+  {
+    m_aZOS.putNextEntry (new ZipEntry ("xl/sharedStrings.xml"));
+    m_aWriter.write (XML_HEADER);
+    m_aWriter.write ("<sst xmlns=\"" + NS_MAIN + "\" count=\"");
+    _writeInt (m_nSSTRefCount);
+    m_aWriter.write ("\" uniqueCount=\"");
+    _writeInt (m_aSSTList.size ());
+    m_aWriter.write ("\">");
+    for (final String s : m_aSSTList)
+    {
+      m_aWriter.write ("<si><t xml:space=\"preserve\">");
+      _writeEscaped (s);
+      m_aWriter.write ("</t></si>");
+    }
+    m_aWriter.write ("</sst>");
+    m_aWriter.flush ();
+    m_aZOS.closeEntry ();
+  }
+
+  private void _writeStyles () throws IOException
+  {
+    // Let POI serialize the styles, fonts and data formats
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      m_aStyleWB.getStylesSource ().writeTo (aBAOS);
+      m_aZOS.putNextEntry (new ZipEntry ("xl/styles.xml"));
+      aBAOS.writeTo (m_aZOS);
+      m_aZOS.closeEntry ();
+    }
+  }
+
+  private void _writePackageParts () throws IOException
+  {
+    final int nSheets = m_aSheetNames.size ();
+    final boolean bHasSST = m_aSSTList.isNotEmpty ();
+
+    // Content types
+    final StringBuilder aSB = new StringBuilder (XML_HEADER);
+    aSB.append ("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+       .append ("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+       .append ("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+       .append ("<Override PartName=\"/xl/workbook.xml\" ContentType=\"" + CT_PREFIX + "sheet.main+xml\"/>")
+       .append ("<Override PartName=\"/xl/styles.xml\" ContentType=\"" + CT_PREFIX + "styles+xml\"/>");
+    if (bHasSST)
+      aSB.append ("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"" + CT_PREFIX + "sharedStrings+xml\"/>");
+    for (int i = 1; i <= nSheets; ++i)
+      aSB.append ("<Override PartName=\"/xl/worksheets/sheet")
+         .append (i)
+         .append (".xml\" ContentType=\"" + CT_PREFIX + "worksheet+xml\"/>");
+    aSB.append ("</Types>");
+    _writeEntry ("[Content_Types].xml", aSB.toString ());
+
+    // Package relationships
+    _writeEntry ("_rels/.rels",
+                 XML_HEADER +
+                                 "<Relationships xmlns=\"" + NS_PKG_REL + "\">" +
+                                 "<Relationship Id=\"rId1\" Type=\"" + NS_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                                 "</Relationships>");
+
+    // Workbook relationships
+    aSB.setLength (0);
+    aSB.append (XML_HEADER).append ("<Relationships xmlns=\"" + NS_PKG_REL + "\">");
+    for (int i = 1; i <= nSheets; ++i)
+      aSB.append ("<Relationship Id=\"rId")
+         .append (i)
+         .append ("\" Type=\"" + NS_REL + "/worksheet\" Target=\"worksheets/sheet")
+         .append (i)
+         .append (".xml\"/>");
+    aSB.append ("<Relationship Id=\"rId")
+       .append (nSheets + 1)
+       .append ("\" Type=\"" + NS_REL + "/styles\" Target=\"styles.xml\"/>");
+    if (bHasSST)
+      aSB.append ("<Relationship Id=\"rId")
+         .append (nSheets + 2)
+         .append ("\" Type=\"" + NS_REL + "/sharedStrings\" Target=\"sharedStrings.xml\"/>");
+    aSB.append ("</Relationships>");
+    _writeEntry ("xl/_rels/workbook.xml.rels", aSB.toString ());
+
+    _writeEntry ("xl/workbook.xml", _getWorkbookXML ());
+  }
+
+  /**
+   * Finish the current sheet, write all remaining workbook parts and close the
+   * underlying output stream. If no sheet was created, an empty default sheet
+   * is created, as Excel requires at least one sheet.
+   */
+  public void close ()
+  {
+    if (m_bClosed)
+      return;
+
+    try
+    {
+      if (m_aSheetNames.isEmpty ())
+        createNewSheet ();
+      _finishSheet ();
+      if (m_aSSTList.isNotEmpty ())
+        _writeSharedStrings ();
+      _writeStyles ();
+      _writePackageParts ();
+      m_aWriter.flush ();
+      m_aZOS.finish ();
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+    finally
+    {
+      m_bClosed = true;
+      try
+      {
+        m_aWriter.close ();
+        m_aStyleWB.close ();
+      }
+      catch (final IOException ex)
+      {
+        // ignore - an eventual previous exception is more important
+      }
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("SheetNames", m_aSheetNames)
+                                       .append ("UseSharedStrings", m_bUseSharedStrings)
+                                       .append ("SharedStringCount", m_aSSTList.size ())
+                                       .append ("CreatedCellStyles", m_nCreatedCellStyles)
+                                       .append ("Closed", m_bClosed)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.columnar;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.base.id.IHasID;
+import com.helger.base.lang.EnumHelper;
+
+/**
+ * The inferred type of a column in an {@link ExcelColumnarSheet}. The type of
+ * a column is widened while reading: integral numbers become floating point
+ * numbers if a fractional value occurs, and any other conflict results in a
+ * string column.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public enum EExcelColumnType implements IHasID <String>
+{
+  /** The column contains no values */
+  EMPTY ("empty"),
+  /** The column contains only boolean values */
+  BOOLEAN ("boolean"),
+  /** The column contains only integral numbers */
+  LONG ("long"),
+  /** The column contains only numbers */
+  DOUBLE ("double"),
+  /** The column contains strings or mixed values */
+  STRING ("string");
+
+  private final String m_sID;
+
+  EExcelColumnType (@NonNull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @NonNull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  /**
+   * @return <code>true</code> if this is {@link #LONG} or {@link #DOUBLE}.
+   */
+  public boolean isNumeric ()
+  {
+    return this == LONG || this == DOUBLE;
+  }
+
+  /**
+   * Get the type that can hold values of this type and of the passed type.
+   *
+   * @param eOther
+   *        The other type. May not be <code>null</code>.
+   * @return The widened type. Never <code>null</code>.
+   */
+  @NonNull
+  public EExcelColumnType getMergedType (@NonNull final EExcelColumnType eOther)
+  {
+    if (this == eOther || eOther == EMPTY)
+      return this;
+    if (this == EMPTY)
+      return eOther;
+    if (isNumeric () && eOther.isNumeric ())
+      return DOUBLE;
+    return STRING;
+  }
+
+  @Nullable
+  public static EExcelColumnType getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (EExcelColumnType.class, sID);
+  }
+}
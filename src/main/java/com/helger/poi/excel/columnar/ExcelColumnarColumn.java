@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.columnar;
+
+import java.util.BitSet;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.poi.excel.ExcelReadHelper;
+
+/**
+ * A single column of an {@link ExcelColumnarSheet}. The values are stored in a
+ * primitive array matching the column type: <code>long[]</code> for
+ * {@link EExcelColumnType#LONG}, <code>double[]</code> for
+ * {@link EExcelColumnType#DOUBLE}, a {@link BitSet} for
+ * {@link EExcelColumnType#BOOLEAN} and dictionary codes for
+ * {@link EExcelColumnType#STRING}. Missing cells are tracked in a separate
+ * {@link BitSet}. All primitive accessors are allocation free.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelColumnarColumn
+{
+  private final int m_nColumnIndex;
+  private final String m_sName;
+  private final EExcelColumnType m_eType;
+  private final int m_nRowCount;
+  private final BitSet m_aPresent;
+  private final long [] m_aLongs;
+  private final double [] m_aDoubles;
+  private final BitSet m_aBooleans;
+  private final int [] m_aStringCodes;
+  private final String [] m_aDictionary;
+
+  ExcelColumnarColumn (final int nColumnIndex,
+                       @Nullable final String sName,
+                       @NonNull final EExcelColumnType eType,
+                       @Nonnegative final int nRowCount,
+                       @NonNull final BitSet aPresent,
+                       @Nullable final long [] aLongs,
+                       @Nullable final double [] aDoubles,
+                       @Nullable final BitSet aBooleans,
+                       @Nullable final int [] aStringCodes,
+                       @Nullable final String [] aDictionary)
+  {
+    m_nColumnIndex = nColumnIndex;
+    m_sName = sName;
+    m_eType = eType;
+    m_nRowCount = nRowCount;
+    m_aPresent = aPresent;
+    m_aLongs = aLongs;
+    m_aDoubles = aDoubles;
+    m_aBooleans = aBooleans;
+    m_aStringCodes = aStringCodes;
+    m_aDictionary = aDictionary;
+  }
+
+  /**
+   * @return The 0-based column index in the source sheet.
+   */
+  @Nonnegative
+  public int getColumnIndex ()
+  {
+    return m_nColumnIndex;
+  }
+
+  /**
+   * @return The column name from the header row. May be <code>null</code> if
+   *         no header row was used.
+   */
+  @Nullable
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  /**
+   * @return The inferred column type. Never <code>null</code>.
+   */
+  @NonNull
+  public EExcelColumnType getType ()
+  {
+    return m_eType;
+  }
+
+  /**
+   * @return The number of rows in this column. Is identical for all columns of
+   *         a sheet.
+   */
+  @Nonnegative
+  public int getRowCount ()
+  {
+    return m_nRowCount;
+  }
+
+  /**
+   * @param nRow
+   *        0-based row index relative to the first data row.
+   * @return <code>true</code> if the cell at the passed row is missing or
+   *         blank.
+   */
+  public boolean isNull (final int nRow)
+  {
+    return !m_aPresent.get (nRow);
+  }
+
+  /**
+   * @return The number of missing or blank cells in this column.
+   */
+  @Nonnegative
+  public int getNullCount ()
+  {
+    return m_nRowCount - m_aPresent.cardinality ();
+  }
+
+  /**
+   * @param nRow
+   *        0-based row index relative to the first data row.
+   * @return The value of a {@link EExcelColumnType#LONG} column, or
+   *         <code>0</code> for a null cell.
+   * @throws IllegalStateException
+   *         If the column is not a {@link EExcelColumnType#LONG} column.
+   */
+  public long getLong (final int nRow)
+  {
+    if (m_aLongs == null)
+      throw new IllegalStateException ("Column " + m_nColumnIndex + " is of type " + m_eType + " and not " + EExcelColumnType.LONG);
+    return m_aLongs[nRow];
+  }
+
+  /**
+   * @param nRow
+   *        0-based row index relative to the first data row.
+   * @return The value of a {@link EExcelColumnType#LONG} or
+   *         {@link EExcelColumnType#DOUBLE} column, or <code>0</code> for a
+   *         null cell.
+   * @throws IllegalStateException
+   *         If the column is not numeric.
+   */
+  public double getDouble (final int nRow)
+  {
+    if (m_aDoubles != null)
+      return m_aDoubles[nRow];
+    if (m_aLongs != null)
+      return m_aLongs[nRow];
+    throw new IllegalStateException ("Column " + m_nColumnIndex + " is of type " + m_eType + " and not numeric");
+  }
+
+  /**
+   * @param nRow
+   *        0-based row index relative to the first data row.
+   * @return The value of a {@link EExcelColumnType#BOOLEAN} column, or
+   *         <code>false</code> for a null cell.
+   * @throws IllegalStateException
+   *         If the column is not a {@link EExcelColumnType#BOOLEAN} column.
+   */
+  public boolean getBoolean (final int nRow)
+  {
+    if (m_aBooleans == null)
+      throw new IllegalStateException ("Column " + m_nColumnIndex + " is of type " + m_eType + " and not " + EExcelColumnType.BOOLEAN);
+    return m_aBooleans.get (nRow);
+  }
+
+  /**
+   * @param nRow
+   *        0-based row index relative to the first data row.
+   * @return The dictionary code of a {@link EExcelColumnType#STRING} column,
+   *         or <code>-1</code> for a null cell.
+   * @throws IllegalStateException
+   *         If the column is not a {@link EExcelColumnType#STRING} column.
+   * @see #getDictionaryEntry(int)
+   */
+  public int getStringCode (final int nRow)
+  {
+    if (m_aStringCodes == null)
+      throw new IllegalStateException ("Column " + m_nColumnIndex + " is of type " + m_eType + " and not " + EExcelColumnType.STRING);
+    return m_aStringCodes[nRow];
+  }
+
+  /**
+   * @return The number of distinct strings of a {@link EExcelColumnType#STRING}
+   *         column, 0 for all other columns.
+   */
+  @Nonnegative
+  public int getDictionarySize ()
+  {
+    return m_aDictionary == null ? 0 : m_aDictionary.length;
+  }
+
+  /**
+   * @param nCode
+   *        The dictionary code as returned by {@link #getStringCode(int)}.
+   * @return The string with the passed code.
+   */
+  @NonNull
+  public String getDictionaryEntry (@Nonnegative final int nCode)
+  {
+    return m_aDictionary[nCode];
+  }
+
+  /**
+   * Get the value of any column type as a string. Numbers are converted as in
+   * {@link ExcelReadHelper#getCellValueString(org.apache.poi.ss.usermodel.Cell)}.
+   * This method allocates for non-string columns.
+   *
+   * @param nRow
+   *        0-based row index relative to the first data row.
+   * @return <code>null</code> for a null cell.
+   */
+  @Nullable
+  public String getString (final int nRow)
+  {
+    if (isNull (nRow))
+      return null;
+    switch (m_eType)
+    {
+      case STRING:
+        return m_aDictionary[m_aStringCodes[nRow]];
+      case LONG:
+        return Long.toString (m_aLongs[nRow]);
+      case DOUBLE:
+        return ExcelReadHelper.getAsNumberObject (m_aDoubles[nRow]).toString ();
+      case BOOLEAN:
+        return Boolean.toString (m_aBooleans.get (nRow));
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("ColumnIndex", m_nColumnIndex)
+                                       .append ("Name", m_sName)
+                                       .append ("Type", m_eType)
+                                       .append ("RowCount", m_nRowCount)
+                                       .append ("NullCount", getNullCount ())
+                                       .append ("DictionarySize", getDictionarySize ())
+                                       .getToString ();
+  }
+}
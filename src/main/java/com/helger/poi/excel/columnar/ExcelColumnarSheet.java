@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.columnar;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.equals.EqualsHelper;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A rectangular region of a sheet materialized column by column into
+ * primitive arrays. Use {@link ExcelColumnarSheetBuilder} to create instances,
+ * either from a streaming reader or from a POI sheet.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelColumnarSheet
+{
+  private final String m_sSheetName;
+  private final int m_nFirstRowIndex;
+  private final int m_nRowCount;
+  private final ICommonsList <ExcelColumnarColumn> m_aColumns;
+
+  ExcelColumnarSheet (@Nullable final String sSheetName,
+                      final int nFirstRowIndex,
+                      @Nonnegative final int nRowCount,
+                      @NonNull final ICommonsList <ExcelColumnarColumn> aColumns)
+  {
+    m_sSheetName = sSheetName;
+    m_nFirstRowIndex = nFirstRowIndex;
+    m_nRowCount = nRowCount;
+    m_aColumns = aColumns;
+  }
+
+  /**
+   * @return The name of the source sheet. May be <code>null</code> if no row
+   *         was read.
+   */
+  @Nullable
+  public String getSheetName ()
+  {
+    return m_sSheetName;
+  }
+
+  /**
+   * @return The 0-based index of the first data row in the source sheet.
+   */
+  public int getFirstRowIndex ()
+  {
+    return m_nFirstRowIndex;
+  }
+
+  /**
+   * @return The number of data rows. Excludes the header row.
+   */
+  @Nonnegative
+  public int getRowCount ()
+  {
+    return m_nRowCount;
+  }
+
+  /**
+   * @return The number of columns.
+   */
+  @Nonnegative
+  public int getColumnCount ()
+  {
+    return m_aColumns.size ();
+  }
+
+  /**
+   * @param nIndex
+   *        0-based column index relative to the first column of the region.
+   * @return The column at the passed index.
+   */
+  @NonNull
+  public ExcelColumnarColumn getColumn (@Nonnegative final int nIndex)
+  {
+    return m_aColumns.get (nIndex);
+  }
+
+  /**
+   * @param sName
+   *        The column name from the header row.
+   * @return <code>null</code> if no such column exists.
+   */
+  @Nullable
+  public ExcelColumnarColumn getColumnOfName (@Nullable final String sName)
+  {
+    return m_aColumns.findFirst (x -> EqualsHelper.equals (x.getName (), sName));
+  }
+
+  /**
+   * @return A copy of all columns. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ExcelColumnarColumn> getAllColumns ()
+  {
+    return m_aColumns.getClone ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("SheetName", m_sSheetName)
+                                       .append ("FirstRowIndex", m_nFirstRowIndex)
+                                       .append ("RowCount", m_nRowCount)
+                                       .append ("Columns", m_aColumns)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.columnar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.poi.excel.ExcelReadHelper;
+import com.helger.poi.excel.stream.ExcelStreamingRow;
+import com.helger.poi.excel.stream.IExcelStreamingRowHandler;
+
+/**
+ * Builder for {@link ExcelColumnarSheet}. It can be used directly as the row
+ * handler of a streaming reader (see
+ * {@link com.helger.poi.excel.stream.IExcelStreamingReader}), or be filled from
+ * a POI {@link Sheet} via {@link #addSheet(Sheet)}. Values are stored in
+ * primitive arrays without boxing and the column types are inferred on the
+ * fly. Numeric cells are stored as numbers also if they are date formatted.
+ * Error cells are treated as missing.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelColumnarSheetBuilder implements IExcelStreamingRowHandler
+{
+  private static final int INITIAL_CAPACITY = 256;
+  // Largest value up to which all longs can be represented exactly as double
+  private static final double MAX_EXACT_LONG = 9_007_199_254_740_992d;
+
+  private int m_nSheetIndex = 0;
+  private int m_nFirstRow = 0;
+  private int m_nLastRow = Integer.MAX_VALUE;
+  private int m_nFirstColumn = 0;
+  private int m_nLastColumn = Integer.MAX_VALUE;
+  private boolean m_bHeaderRow = false;
+
+  private String m_sSheetName;
+  private int m_nFirstDataRow = -1;
+  private int m_nRowCount = 0;
+  private final ICommonsList <ColumnBuilder> m_aColumns = new CommonsArrayList <> ();
+
+  public ExcelColumnarSheetBuilder ()
+  {}
+
+  /**
+   * Set the sheet to read, if used as a streaming row handler. Rows of all
+   * other sheets are ignored.
+   *
+   * @param nSheetIndex
+   *        0-based sheet index. Must be &ge; 0. Default is 0.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ExcelColumnarSheetBuilder setSheetIndex (@Nonnegative final int nSheetIndex)
+  {
+    ValueEnforcer.isGE0 (nSheetIndex, "SheetIndex");
+    m_nSheetIndex = nSheetIndex;
+    return this;
+  }
+
+  /**
+   * Set the row range to read.
+   *
+   * @param nFirstRow
+   *        0-based index of the first row to read (inclusive). Must be &ge; 0.
+   * @param nLastRow
+   *        0-based index of the last row to read (inclusive). Must be &ge;
+   *        first row.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ExcelColumnarSheetBuilder setRowRange (@Nonnegative final int nFirstRow, final int nLastRow)
+  {
+    ValueEnforcer.isGE0 (nFirstRow, "FirstRow");
+    ValueEnforcer.isTrue (nLastRow >= nFirstRow, "LastRow must be >= FirstRow");
+    m_nFirstRow = nFirstRow;
+    m_nLastRow = nLastRow;
+    return this;
+  }
+
+  /**
+   * Set the column range to read.
+   *
+   * @param nFirstColumn
+   *        0-based index of the first column to read (inclusive). Must be &ge;
+   *        0.
+   * @param nLastColumn
+   *        0-based index of the last column to read (inclusive). Must be &ge;
+   *        first column.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ExcelColumnarSheetBuilder setColumnRange (@Nonnegative final int nFirstColumn, final int nLastColumn)
+  {
+    ValueEnforcer.isGE0 (nFirstColumn, "FirstColumn");
+    ValueEnforcer.isTrue (nLastColumn >= nFirstColumn, "LastColumn must be >= FirstColumn");
+    m_nFirstColumn = nFirstColumn;
+    m_nLastColumn = nLastColumn;
+    return this;
+  }
+
+  /**
+   * Define whether the first row of the range contains the column names.
+   *
+   * @param bHeaderRow
+   *        <code>true</code> to use the first row as header row. Default is
+   *        <code>false</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ExcelColumnarSheetBuilder setHeaderRow (final boolean bHeaderRow)
+  {
+    m_bHeaderRow = bHeaderRow;
+    return this;
+  }
+
+  @NonNull
+  private ColumnBuilder _getColumn (final int nCol)
+  {
+    final int nIndex = nCol - m_nFirstColumn;
+    while (m_aColumns.size () <= nIndex)
+      m_aColumns.add (new ColumnBuilder (m_nFirstColumn + m_aColumns.size ()));
+    return m_aColumns.get (nIndex);
+  }
+
+  /**
+   * Check whether the passed row is in range and remember the sheet name.
+   *
+   * @return the data row index relative to the first data row, -1 for the
+   *         header row or {@link Integer#MIN_VALUE} to skip the row.
+   */
+  private int _startRow (@Nullable final String sSheetName, final int nRowIndex)
+  {
+    if (nRowIndex < m_nFirstRow || nRowIndex > m_nLastRow)
+      return Integer.MIN_VALUE;
+    if (m_sSheetName == null)
+      m_sSheetName = sSheetName;
+    if (m_nFirstDataRow < 0)
+      m_nFirstDataRow = m_bHeaderRow ? m_nFirstRow + 1 : m_nFirstRow;
+    if (nRowIndex < m_nFirstDataRow)
+      return -1;
+    final int ret = nRowIndex - m_nFirstDataRow;
+    m_nRowCount = Math.max (m_nRowCount, ret + 1);
+    return ret;
+  }
+
+  private boolean _isColumnInRange (final int nCol)
+  {
+    return nCol >= m_nFirstColumn && nCol <= m_nLastColumn;
+  }
+
+  @Override
+  public void onRow (@NonNull final ExcelStreamingRow aRow)
+  {
+    if (aRow.getSheetIndex () != m_nSheetIndex)
+      return;
+    final int nDataRow = _startRow (aRow.getSheetName (), aRow.getRowIndex ());
+    if (nDataRow == Integer.MIN_VALUE)
+      return;
+
+    final int nLastCol = Math.min (aRow.getCellCount () - 1, m_nLastColumn);
+    for (int nCol = m_nFirstColumn; nCol <= nLastCol; ++nCol)
+    {
+      final CellType eType = aRow.getCellType (nCol);
+      if (eType == null)
+        continue;
+      if (nDataRow < 0)
+      {
+        // Header row
+        _getColumn (nCol).m_sName = aRow.getCellValueString (nCol);
+        continue;
+      }
+      switch (eType)
+      {
+        case NUMERIC:
+          _getColumn (nCol).addNumber (nDataRow, aRow.getNumericValue (nCol));
+          break;
+        case STRING:
+          _getColumn (nCol).addString (nDataRow, aRow.getStringValue (nCol));
+          break;
+        case BOOLEAN:
+          _getColumn (nCol).addBoolean (nDataRow, aRow.getBooleanValue (nCol));
+          break;
+        default:
+          // Blank or error
+          break;
+      }
+    }
+  }
+
+  /**
+   * Add a single row of a POI sheet.
+   *
+   * @param aRow
+   *        The row to add. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnarSheetBuilder addRow (@NonNull final Row aRow)
+  {
+    ValueEnforcer.notNull (aRow, "Row");
+
+    final int nDataRow = _startRow (aRow.getSheet ().getSheetName (), aRow.getRowNum ());
+    if (nDataRow == Integer.MIN_VALUE)
+      return this;
+
+    for (final Cell aCell : aRow)
+    {
+      final int nCol = aCell.getColumnIndex ();
+      if (!_isColumnInRange (nCol))
+        continue;
+      if (nDataRow < 0)
+      {
+        // Header row
+        _getColumn (nCol).m_sName = ExcelReadHelper.getCellValueString (aCell);
+        continue;
+      }
+      CellType eType = aCell.getCellType ();
+      if (eType == CellType.FORMULA)
+        eType = aCell.getCachedFormulaResultType ();
+      switch (eType)
+      {
+        case NUMERIC:
+          _getColumn (nCol).addNumber (nDataRow, aCell.getNumericCellValue ());
+          break;
+        case STRING:
+          _getColumn (nCol).addString (nDataRow, aCell.getStringCellValue ());
+          break;
+        case BOOLEAN:
+          _getColumn (nCol).addBoolean (nDataRow, aCell.getBooleanCellValue ());
+          break;
+        default:
+          // Blank or error
+          break;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Add all rows of a POI sheet. The sheet index setting is ignored.
+   *
+   * @param aSheet
+   *        The sheet to add. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public ExcelColumnarSheetBuilder addSheet (@NonNull final Sheet aSheet)
+  {
+    ValueEnforcer.notNull (aSheet, "Sheet");
+    for (final Row aRow : aSheet)
+      addRow (aRow);
+    return this;
+  }
+
+  /**
+   * Create the columnar sheet from all rows added so far. The builder should
+   * not be used afterwards.
+   *
+   * @return The new columnar sheet. Never <code>null</code>.
+   */
+  @NonNull
+  public ExcelColumnarSheet build ()
+  {
+    final ICommonsList <ExcelColumnarColumn> aColumns = new CommonsArrayList <> (m_aColumns.size ());
+    for (final ColumnBuilder aColumn : m_aColumns)
+      aColumns.add (aColumn.build (m_nRowCount));
+    return new ExcelColumnarSheet (m_sSheetName,
+                                   m_nFirstDataRow < 0 ? m_nFirstRow : m_nFirstDataRow,
+                                   m_nRowCount,
+                                   aColumns);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("SheetIndex", m_nSheetIndex)
+                                       .append ("FirstRow", m_nFirstRow)
+                                       .append ("LastRow", m_nLastRow)
+                                       .append ("FirstColumn", m_nFirstColumn)
+                                       .append ("LastColumn", m_nLastColumn)
+                                       .append ("HeaderRow", m_bHeaderRow)
+                                       .getToString ();
+  }
+
+  /**
+   * Collects the values of a single column and widens the type if needed.
+   */
+  private static final class ColumnBuilder
+  {
+    private final int m_nColumnIndex;
+    private String m_sName;
+    private EExcelColumnType m_eType = EExcelColumnType.EMPTY;
+    private final BitSet m_aPresent = new BitSet ();
+    private long [] m_aLongs;
+    private double [] m_aDoubles;
+    private BitSet m_aBooleans;
+    private int [] m_aStringCodes;
+    private ICommonsMap <String, Integer> m_aDictionaryMap;
+    private ICommonsList <String> m_aDictionary;
+
+    ColumnBuilder (final int nColumnIndex)
+    {
+      m_nColumnIndex = nColumnIndex;
+    }
+
+    private static int _getNewCapacity (final int nOldCapacity, final int nRow)
+    {
+      return Math.max (nRow + 1, Math.max (INITIAL_CAPACITY, nOldCapacity + (nOldCapacity >> 1)));
+    }
+
+    private int _getStringCode (@NonNull final String sValue)
+    {
+      final Integer aCode = m_aDictionaryMap.get (sValue);
+      if (aCode != null)
+        return aCode.intValue ();
+      final int ret = m_aDictionary.size ();
+      m_aDictionary.add (sValue);
+      m_aDictionaryMap.put (sValue, Integer.valueOf (ret));
+      return ret;
+    }
+
+    private void _setStringCode (final int nRow, final int nCode)
+    {
+      if (nRow >= m_aStringCodes.length)
+      {
+        final int nOldLength = m_aStringCodes.length;
+        m_aStringCodes = Arrays.copyOf (m_aStringCodes, _getNewCapacity (nOldLength, nRow));
+        Arrays.fill (m_aStringCodes, nOldLength, m_aStringCodes.length, -1);
+      }
+      m_aStringCodes[nRow] = nCode;
+    }
+
+    @NonNull
+    private String _getValueAsString (final int nRow)
+    {
+      switch (m_eType)
+      {
+        case LONG:
+          return Long.toString (m_aLongs[nRow]);
+        case DOUBLE:
+          return ExcelReadHelper.getAsNumberObject (m_aDoubles[nRow]).toString ();
+        case BOOLEAN:
+          return Boolean.toString (m_aBooleans.get (nRow));
+        default:
+          throw new IllegalStateException ("Unexpected type " + m_eType);
+      }
+    }
+
+    /**
+     * Widen the column type so that values of the passed type can be stored.
+     */
+    private void _ensureType (@NonNull final EExcelColumnType eValueType)
+    {
+      final EExcelColumnType eNewType = m_eType.getMergedType (eValueType);
+      if (eNewType == m_eType)
+        return;
+
+      switch (eNewType)
+      {
+        case BOOLEAN:
+          m_aBooleans = new BitSet ();
+          break;
+        case LONG:
+          m_aLongs = new long [INITIAL_CAPACITY];
+          break;
+        case DOUBLE:
+          m_aDoubles = new double [m_aLongs == null ? INITIAL_CAPACITY : m_aLongs.length];
+          if (m_aLongs != null)
+          {
+            for (int i = m_aPresent.nextSetBit (0); i >= 0; i = m_aPresent.nextSetBit (i + 1))
+              m_aDoubles[i] = m_aLongs[i];
+            m_aLongs = null;
+          }
+          break;
+        case STRING:
+          m_aDictionaryMap = new CommonsHashMap <> ();
+          m_aDictionary = new CommonsArrayList <> ();
+          m_aStringCodes = new int [INITIAL_CAPACITY];
+          Arrays.fill (m_aStringCodes, -1);
+          if (m_eType != EExcelColumnType.EMPTY)
+          {
+            // Convert all existing values to strings
+            for (int i = m_aPresent.nextSetBit (0); i >= 0; i = m_aPresent.nextSetBit (i + 1))
+              _setStringCode (i, _getStringCode (_getValueAsString (i)));
+            m_aLongs = null;
+            m_aDoubles = null;
+            m_aBooleans = null;
+          }
+          break;
+        default:
+          throw new IllegalStateException ("Unexpected type " + eNewType);
+      }
+      m_eType = eNewType;
+    }
+
+    void addNumber (final int nRow, final double dValue)
+    {
+      final boolean bIsLong = dValue == (long) dValue && Math.abs (dValue) <= MAX_EXACT_LONG;
+      _ensureType (bIsLong ? EExcelColumnType.LONG : EExcelColumnType.DOUBLE);
+      switch (m_eType)
+      {
+        case LONG:
+          if (nRow >= m_aLongs.length)
+            m_aLongs = Arrays.copyOf (m_aLongs, _getNewCapacity (m_aLongs.length, nRow));
+          m_aLongs[nRow] = (long) dValue;
+          break;
+        case DOUBLE:
+          if (nRow >= m_aDoubles.length)
+            m_aDoubles = Arrays.copyOf (m_aDoubles, _getNewCapacity (m_aDoubles.length, nRow));
+          m_aDoubles[nRow] = dValue;
+          break;
+        default:
+          _setStringCode (nRow, _getStringCode (ExcelReadHelper.getAsNumberObject (dValue).toString ()));
+          break;
+      }
+      m_aPresent.set (nRow);
+    }
+
+    void addBoolean (final int nRow, final boolean bValue)
+    {
+      _ensureType (EExcelColumnType.BOOLEAN);
+      if (m_eType == EExcelColumnType.BOOLEAN)
+        m_aBooleans.set (nRow, bValue);
+      else
+        _setStringCode (nRow, _getStringCode (Boolean.toString (bValue)));
+      m_aPresent.set (nRow);
+    }
+
+    void addString (final int nRow, @Nullable final String sValue)
+    {
+      if (sValue == null)
+        return;
+      _ensureType (EExcelColumnType.STRING);
+      _setStringCode (nRow, _getStringCode (sValue));
+      m_aPresent.set (nRow);
+    }
+
+    @NonNull
+    ExcelColumnarColumn build (final int nRowCount)
+    {
+      long [] aLongs = null;
+      double [] aDoubles = null;
+      BitSet aBooleans = null;
+      int [] aStringCodes = null;
+      String [] aDictionary = null;
+      switch (m_eType)
+      {
+        case LONG:
+          aLongs = Arrays.copyOf (m_aLongs, nRowCount);
+          break;
+        case DOUBLE:
+          aDoubles = Arrays.copyOf (m_aDoubles, nRowCount);
+          break;
+        case BOOLEAN:
+          aBooleans = m_aBooleans;
+          break;
+        case STRING:
+        {
+          final int nOldLength = m_aStringCodes.length;
+          aStringCodes = Arrays.copyOf (m_aStringCodes, nRowCount);
+          if (nRowCount > nOldLength)
+            Arrays.fill (aStringCodes, nOldLength, nRowCount, -1);
+          aDictionary = m_aDictionary.toArray (new String [0]);
+          break;
+        }
+        default:
+          break;
+      }
+      return new ExcelColumnarColumn (m_nColumnIndex,
+                                      m_sName,
+                                      m_eType,
+                                      nRowCount,
+                                      m_aPresent,
+                                      aLongs,
+                                      aDoubles,
+                                      aBooleans,
+                                      aStringCodes,
+                                      aDictionary);
+    }
+  }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.lookup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.poi.ss.formula.OperationEvaluationContext;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.EvaluationException;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.RefEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.FreeRefFunction;
+import org.apache.poi.ss.formula.udf.DefaultUDFFinder;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * Index based implementations of the lookup functions <code>VLOOKUP</code>,
+ * <code>MATCH</code> and <code>XLOOKUP</code>. POI evaluates the built-in
+ * functions with a linear scan per call. These implementations use the indexes
+ * of an {@link ExcelLookupIndexCache}, so that exact matches are resolved via
+ * a hash lookup and approximate matches via a sorted map.<br>
+ * POI does not allow replacing built-in functions, so the functions are
+ * available as user defined functions with the names {@link #VLOOKUP},
+ * {@link #MATCH} and {@link #XLOOKUP} and the same arguments as their
+ * built-in counterparts. Approximate matches require sorted data like in
+ * Excel; if the data is not sorted, the results may differ from Excel. Use
+ * {@link com.helger.poi.excel.ExcelFormulaEvaluator#ExcelFormulaEvaluator(Workbook, org.apache.poi.ss.formula.IStabilityClassifier, ExcelLookupIndexCache)}
+ * to evaluate formulas using them.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelIndexedLookupFunctions
+{
+  /** The name of the indexed VLOOKUP function */
+  public static final String VLOOKUP = "INDEXED.VLOOKUP";
+  /** The name of the indexed MATCH function */
+  public static final String MATCH = "INDEXED.MATCH";
+  /** The name of the indexed XLOOKUP function */
+  public static final String XLOOKUP = "INDEXED.XLOOKUP";
+
+  // Used for parsing only
+  private static final UDFFinder UNCACHED_FINDER = createUDFFinder (null);
+  private static final Map <Workbook, Boolean> REGISTERED = Collections.synchronizedMap (new WeakHashMap <> ());
+
+  private ExcelIndexedLookupFunctions ()
+  {}
+
+  @NonNull
+  private static ValueEval _getSingleValue (@NonNull final ValueEval aArg,
+                                            @NonNull final OperationEvaluationContext aEC) throws EvaluationException
+  {
+    return OperandResolver.getSingleValue (aArg, aEC.getRowIndex (), aEC.getColumnIndex ());
+  }
+
+  @Nullable
+  private static Object _getLookupKey (@NonNull final ValueEval aArg,
+                                       @NonNull final OperationEvaluationContext aEC) throws EvaluationException
+  {
+    return ExcelLookupIndex.getKey (_getSingleValue (aArg, aEC));
+  }
+
+  @NonNull
+  private static AreaEval _getArea (@NonNull final ValueEval aArg) throws EvaluationException
+  {
+    if (aArg instanceof AreaEval)
+      return (AreaEval) aArg;
+    if (aArg instanceof RefEval)
+      return ((RefEval) aArg).offset (0, 0, 0, 0);
+    if (aArg instanceof ErrorEval)
+      throw new EvaluationException ((ErrorEval) aArg);
+    throw new EvaluationException (ErrorEval.VALUE_INVALID);
+  }
+
+  @NonNull
+  private static AreaEval _getVector (@NonNull final ValueEval aArg) throws EvaluationException
+  {
+    final AreaEval ret = _getArea (aArg);
+    if (ret.getWidth () != 1 && ret.getHeight () != 1)
+      throw new EvaluationException (ErrorEval.NA);
+    return ret;
+  }
+
+  private static int _getInt (@NonNull final ValueEval [] aArgs,
+                              final int nIndex,
+                              final int nDefault,
+                              @NonNull final OperationEvaluationContext aEC) throws EvaluationException
+  {
+    if (aArgs.length <= nIndex || aArgs[nIndex] == MissingArgEval.instance)
+      return nDefault;
+    return OperandResolver.coerceValueToInt (_getSingleValue (aArgs[nIndex], aEC));
+  }
+
+  @NonNull
+  private static ExcelLookupIndex _getIndex (@Nullable final ExcelLookupIndexCache aCache,
+                                             @NonNull final AreaEval aVector,
+                                             @NonNull final OperationEvaluationContext aEC)
+  {
+    return aCache == null ? ExcelLookupIndex.create (aVector) : aCache.getIndex (aVector, aEC);
+  }
+
+  private static int _getExact (@NonNull final ExcelLookupIndex aIndex,
+                                @NonNull final Object aKey,
+                                final boolean bLast,
+                                final boolean bWildcards)
+  {
+    if (bWildcards && aKey instanceof String && ExcelLookupIndex.containsWildcards ((String) aKey))
+      return aIndex.getWildcardMatch ((String) aKey, bLast);
+    return aIndex.getExact (aKey, bLast);
+  }
+
+  /**
+   * <code>INDEXED.VLOOKUP(lookup_value, table_array, col_index_num, [range_lookup])</code>
+   */
+  private static final class IndexedVLookup implements FreeRefFunction
+  {
+    private final ExcelLookupIndexCache m_aCache;
+
+    IndexedVLookup (@Nullable final ExcelLookupIndexCache aCache)
+    {
+      m_aCache = aCache;
+    }
+
+    @Override
+    public ValueEval evaluate (final ValueEval [] aArgs, final OperationEvaluationContext aEC)
+    {
+      if (aArgs.length < 3 || aArgs.length > 4)
+        return ErrorEval.VALUE_INVALID;
+      try
+      {
+        final Object aKey = _getLookupKey (aArgs[0], aEC);
+        final AreaEval aTable = _getArea (aArgs[1]);
+        final int nColumn = OperandResolver.coerceValueToInt (_getSingleValue (aArgs[2], aEC)) - 1;
+        if (nColumn < 0)
+          return ErrorEval.VALUE_INVALID;
+        if (nColumn >= aTable.getWidth ())
+          return ErrorEval.REF_INVALID;
+        boolean bApproximate = true;
+        if (aArgs.length > 3)
+        {
+          final Boolean aRangeLookup = OperandResolver.coerceValueToBoolean (_getSingleValue (aArgs[3], aEC), false);
+          bApproximate = aRangeLookup != null && aRangeLookup.booleanValue ();
+        }
+        if (aKey == null)
+          return ErrorEval.NA;
+
+        final ExcelLookupIndex aIndex = _getIndex (m_aCache, aTable.offset (0, aTable.getHeight () - 1, 0, 0), aEC);
+        final int nPos = bApproximate ? aIndex.getFloor (aKey, true) : _getExact (aIndex, aKey, false, true);
+        if (nPos < 0)
+          return ErrorEval.NA;
+        return aTable.getRelativeValue (nPos, nColumn);
+      }
+      catch (final EvaluationException ex)
+      {
+        return ex.getErrorEval ();
+      }
+    }
+  }
+
+  /**
+   * <code>INDEXED.MATCH(lookup_value, lookup_array, [match_type])</code>
+   */
+  private static final class IndexedMatch implements FreeRefFunction
+  {
+    private final ExcelLookupIndexCache m_aCache;
+
+    IndexedMatch (@Nullable final ExcelLookupIndexCache aCache)
+    {
+      m_aCache = aCache;
+    }
+
+    @Override
+    public ValueEval evaluate (final ValueEval [] aArgs, final OperationEvaluationContext aEC)
+    {
+      if (aArgs.length < 2 || aArgs.length > 3)
+        return ErrorEval.VALUE_INVALID;
+      try
+      {
+        final Object aKey = _getLookupKey (aArgs[0], aEC);
+        final AreaEval aVector = _getVector (aArgs[1]);
+        final int nMatchType = _getInt (aArgs, 2, 1, aEC);
+        if (aKey == null)
+          return ErrorEval.NA;
+
+        final ExcelLookupIndex aIndex = _getIndex (m_aCache, aVector, aEC);
+        final int nPos;
+        if (nMatchType == 0)
+          nPos = _getExact (aIndex, aKey, false, true);
+        else
+          if (nMatchType > 0)
+          {
+            // Ascending data - the last of the values <= key
+            nPos = aIndex.getFloor (aKey, true);
+          }
+          else
+          {
+            // Descending data - the last of the values >= key
+            nPos = aIndex.getCeiling (aKey, true);
+          }
+        if (nPos < 0)
+          return ErrorEval.NA;
+        return new NumberEval (nPos + 1);
+      }
+      catch (final EvaluationException ex)
+      {
+        return ex.getErrorEval ();
+      }
+    }
+  }
+
+  /**
+   * <code>INDEXED.XLOOKUP(lookup_value, lookup_array, return_array, [if_not_found], [match_mode], [search_mode])</code>
+   */
+  private static final class IndexedXLookup implements FreeRefFunction
+  {
+    private final ExcelLookupIndexCache m_aCache;
+
+    IndexedXLookup (@Nullable final ExcelLookupIndexCache aCache)
+    {
+      m_aCache = aCache;
+    }
+
+    @Override
+    public ValueEval evaluate (final ValueEval [] aArgs, final OperationEvaluationContext aEC)
+    {
+      if (aArgs.length < 3 || aArgs.length > 6)
+        return ErrorEval.VALUE_INVALID;
+      try
+      {
+        final Object aKey = _getLookupKey (aArgs[0], aEC);
+        final AreaEval aVector = _getVector (aArgs[1]);
+        final AreaEval aReturn = _getArea (aArgs[2]);
+        final boolean bColumn = aVector.getWidth () == 1;
+        if ((bColumn ? aReturn.getHeight () : aReturn.getWidth ()) != (bColumn ? aVector.getHeight ()
+                                                                                : aVector.getWidth ()))
+          return ErrorEval.VALUE_INVALID;
+        final int nMatchMode = _getInt (aArgs, 4, 0, aEC);
+        final int nSearchMode = _getInt (aArgs, 5, 1, aEC);
+        if (nMatchMode < -1 || nMatchMode > 2 || nSearchMode == 0 || nSearchMode < -2 || nSearchMode > 2)
+          return ErrorEval.VALUE_INVALID;
+
+        int nPos = -1;
+        if (aKey != null)
+        {
+          // The binary search modes yield the same result on sorted data
+          final boolean bLast = nSearchMode < 0;
+          final ExcelLookupIndex aIndex = _getIndex (m_aCache, aVector, aEC);
+          switch (nMatchMode)
+          {
+            case -1:
+              nPos = aIndex.getFloor (aKey, bLast);
+              break;
+            case 1:
+              nPos = aIndex.getCeiling (aKey, bLast);
+              break;
+            case 2:
+              nPos = _getExact (aIndex, aKey, bLast, true);
+              break;
+            default:
+              nPos = _getExact (aIndex, aKey, bLast, false);
+              break;
+          }
+        }
+
+        if (nPos < 0)
+        {
+          if (aArgs.length > 3 && aArgs[3] != MissingArgEval.instance)
+            return _getSingleValue (aArgs[3], aEC);
+          return ErrorEval.NA;
+        }
+        if (bColumn)
+          return aReturn.getWidth () == 1 ? aReturn.getRelativeValue (nPos, 0)
+                                          : aReturn.offset (nPos, nPos, 0, aReturn.getWidth () - 1);
+        return aReturn.getHeight () == 1 ? aReturn.getRelativeValue (0, nPos)
+                                         : aReturn.offset (0, aReturn.getHeight () - 1, nPos, nPos);
+      }
+      catch (final EvaluationException ex)
+      {
+        return ex.getErrorEval ();
+      }
+    }
+  }
+
+  /**
+   * Create a function finder with all indexed lookup functions.
+   *
+   * @param aCache
+   *        The index cache to use. May be <code>null</code> in which case
+   *        each call builds a temporary index, which is not faster than the
+   *        built-in functions.
+   * @return A new function finder to be passed to a formula evaluator. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static UDFFinder createUDFFinder (@Nullable final ExcelLookupIndexCache aCache)
+  {
+    return new DefaultUDFFinder (new String [] { VLOOKUP, MATCH, XLOOKUP },
+                                 new FreeRefFunction [] { new IndexedVLookup (aCache),
+                                                          new IndexedMatch (aCache),
+                                                          new IndexedXLookup (aCache) });
+  }
+
+  /**
+   * Register the function names in the passed workbook, so that formulas
+   * using them can be parsed. This must be called before formulas using the
+   * functions are set. Registering the same workbook multiple times has no
+   * effect.
+   *
+   * @param aWB
+   *        The workbook to register the functions in. May not be
+   *        <code>null</code>.
+   */
+  public static void registerInWorkbook (@NonNull final Workbook aWB)
+  {
+    ValueEnforcer.notNull (aWB, "Workbook");
+    if (REGISTERED.putIfAbsent (aWB, Boolean.TRUE) == null)
+      aWB.addToolPack (UNCACHED_FINDER);
+  }
+}
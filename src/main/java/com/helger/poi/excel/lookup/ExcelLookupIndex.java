@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.lookup;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+
+/**
+ * The index of a single row or column of cells, as used by the lookup
+ * functions. Values are normalized as in Excel: strings are compared case
+ * insensitive and values of different types never match each other. For each
+ * distinct value the first and the last position are stored, both in a hash
+ * map for exact matches and in sorted maps for approximate matches.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class ExcelLookupIndex
+{
+  private static final int FIRST = 0;
+  private static final int LAST = 1;
+
+  private final Object [] m_aKeys;
+  // Value to first and last position
+  private final ICommonsMap <Object, int []> m_aExact = new CommonsHashMap <> ();
+  // Keys of one type are always comparable with each other
+  private final NavigableMap <Object, int []> m_aNumbers = new TreeMap <> ();
+  private final NavigableMap <Object, int []> m_aStrings = new TreeMap <> ();
+  private final NavigableMap <Object, int []> m_aBooleans = new TreeMap <> ();
+
+  private ExcelLookupIndex (@NonNull final Object [] aKeys)
+  {
+    m_aKeys = aKeys;
+    for (int i = 0; i < aKeys.length; ++i)
+    {
+      final Object aKey = aKeys[i];
+      if (aKey != null)
+      {
+        final int [] aPositions = m_aExact.get (aKey);
+        if (aPositions == null)
+        {
+          final int [] aNewPositions = new int [] { i, i };
+          m_aExact.put (aKey, aNewPositions);
+          _getSorted (aKey).put (aKey, aNewPositions);
+        }
+        else
+          aPositions[LAST] = i;
+      }
+    }
+  }
+
+  /**
+   * Get the normalized key of a value.
+   *
+   * @param aValue
+   *        The value to normalize. May be <code>null</code>.
+   * @return <code>null</code> for blank and error values.
+   */
+  @Nullable
+  static Object getKey (@Nullable final ValueEval aValue)
+  {
+    if (aValue instanceof NumberEval)
+    {
+      final double dValue = ((NumberEval) aValue).getNumberValue ();
+      // Unify -0.0 and 0.0
+      return Double.valueOf (dValue == 0 ? 0d : dValue);
+    }
+    if (aValue instanceof StringEval)
+      return ((StringEval) aValue).getStringValue ().toUpperCase (Locale.ROOT);
+    if (aValue instanceof BoolEval)
+      return Boolean.valueOf (((BoolEval) aValue).getBooleanValue ());
+    return null;
+  }
+
+  /**
+   * Create the index of a vector.
+   *
+   * @param aVector
+   *        A single row or single column area. May not be <code>null</code>.
+   * @return The new index. Never <code>null</code>.
+   */
+  @NonNull
+  static ExcelLookupIndex create (@NonNull final AreaEval aVector)
+  {
+    final boolean bColumn = aVector.getWidth () == 1;
+    final int nSize = bColumn ? aVector.getHeight () : aVector.getWidth ();
+    final Object [] aKeys = new Object [nSize];
+    for (int i = 0; i < nSize; ++i)
+      aKeys[i] = getKey (bColumn ? aVector.getRelativeValue (i, 0) : aVector.getRelativeValue (0, i));
+    return new ExcelLookupIndex (aKeys);
+  }
+
+  @NonNull
+  private NavigableMap <Object, int []> _getSorted (@NonNull final Object aKey)
+  {
+    if (aKey instanceof Double)
+      return m_aNumbers;
+    if (aKey instanceof String)
+      return m_aStrings;
+    return m_aBooleans;
+  }
+
+  private static int _getPosition (@Nullable final int [] aPositions, final boolean bLast)
+  {
+    return aPositions == null ? -1 : aPositions[bLast ? LAST : FIRST];
+  }
+
+  private static int _getPosition (@Nullable final Map.Entry <Object, int []> aEntry, final boolean bLast)
+  {
+    return aEntry == null ? -1 : _getPosition (aEntry.getValue (), bLast);
+  }
+
+  /**
+   * @return The number of indexed cells.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aKeys.length;
+  }
+
+  /**
+   * Find an exact match.
+   *
+   * @param aKey
+   *        The normalized key to search. May not be <code>null</code>.
+   * @param bLast
+   *        <code>true</code> to return the last match, <code>false</code> to
+   *        return the first match.
+   * @return The 0-based position or -1 if no match was found.
+   */
+  public int getExact (@NonNull final Object aKey, final boolean bLast)
+  {
+    return _getPosition (m_aExact.get (aKey), bLast);
+  }
+
+  /**
+   * Find the largest value that is less than or equal to the passed key. Only
+   * values of the same type are considered.
+   *
+   * @param aKey
+   *        The normalized key to search. May not be <code>null</code>.
+   * @param bLast
+   *        <code>true</code> to return the last position of the found value,
+   *        <code>false</code> to return the first position.
+   * @return The 0-based position or -1 if no match was found.
+   */
+  public int getFloor (@NonNull final Object aKey, final boolean bLast)
+  {
+    return _getPosition (_getSorted (aKey).floorEntry (aKey), bLast);
+  }
+
+  /**
+   * Find the smallest value that is greater than or equal to the passed key.
+   * Only values of the same type are considered.
+   *
+   * @param aKey
+   *        The normalized key to search. May not be <code>null</code>.
+   * @param bLast
+   *        <code>true</code> to return the last position of the found value,
+   *        <code>false</code> to return the first position.
+   * @return The 0-based position or -1 if no match was found.
+   */
+  public int getCeiling (@NonNull final Object aKey, final boolean bLast)
+  {
+    return _getPosition (_getSorted (aKey).ceilingEntry (aKey), bLast);
+  }
+
+  /**
+   * Check if the passed string contains Excel wildcard characters.
+   *
+   * @param sValue
+   *        The value to check. May not be <code>null</code>.
+   * @return <code>true</code> if it contains <code>*</code>, <code>?</code> or
+   *         <code>~</code>.
+   */
+  static boolean containsWildcards (@NonNull final String sValue)
+  {
+    return sValue.indexOf ('*') >= 0 || sValue.indexOf ('?') >= 0 || sValue.indexOf ('~') >= 0;
+  }
+
+  @NonNull
+  private static Pattern _createWildcardPattern (@NonNull final String sPattern)
+  {
+    final StringBuilder aSB = new StringBuilder (sPattern.length () + 8);
+    for (int i = 0; i < sPattern.length (); ++i)
+    {
+      final char c = sPattern.charAt (i);
+      if (c == '~' && i + 1 < sPattern.length ())
+      {
+        // Escaped wildcard
+        aSB.append (Pattern.quote (Character.toString (sPattern.charAt (i + 1))));
+        i++;
+      }
+      else
+        if (c == '*')
+          aSB.append (".*");
+        else
+          if (c == '?')
+            aSB.append ('.');
+          else
+            aSB.append (Pattern.quote (Character.toString (c)));
+    }
+    return Pattern.compile (aSB.toString (), Pattern.DOTALL);
+  }
+
+  /**
+   * Find a string matching an Excel wildcard pattern. This requires a linear
+   * scan.
+   *
+   * @param sPattern
+   *        The normalized pattern. May not be <code>null</code>.
+   * @param bLast
+   *        <code>true</code> to return the last match, <code>false</code> to
+   *        return the first match.
+   * @return The 0-based position or -1 if no match was found.
+   */
+  public int getWildcardMatch (@NonNull final String sPattern, final boolean bLast)
+  {
+    final Pattern aPattern = _createWildcardPattern (sPattern);
+    final int nSize = m_aKeys.length;
+    for (int i = 0; i < nSize; ++i)
+    {
+      final Object aKey = m_aKeys[bLast ? nSize - 1 - i : i];
+      if (aKey instanceof String && aPattern.matcher ((String) aKey).matches ())
+        return bLast ? nSize - 1 - i : i;
+    }
+    return -1;
+  }
+}
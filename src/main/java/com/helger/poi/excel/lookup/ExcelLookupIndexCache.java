@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.lookup;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.poi.ss.formula.EvaluationCell;
+import org.apache.poi.ss.formula.EvaluationSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.OperationEvaluationContext;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.usermodel.CellType;
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.poi.excel.ExcelFormulaDependencyGraph;
+
+/**
+ * Caches the indexes of the lookup ranges used by
+ * {@link ExcelIndexedLookupFunctions}. An index is built on first use of a
+ * range and reused by all following lookups in the same range. Only ranges
+ * that contain no formula cells are cached, because the values of formula
+ * cells may change without a change of the range itself. All changes to cells
+ * must be reported via {@link #notifyUpdateCell(int, int, int)}, which is
+ * automatically done by {@link com.helger.poi.excel.ExcelFormulaEvaluator}.
+ * Because a lookup using a cached index does not read the cells of the range,
+ * the formula evaluator does not know that the result depends on them. The
+ * formula cells that used an index are therefore recorded, and are returned
+ * when the index is invalidated.
+ * One cache instance must only be used for a single workbook.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class ExcelLookupIndexCache
+{
+  /** Ranges with less cells are scanned without caching */
+  public static final int MIN_CACHED_SIZE = 16;
+
+  /**
+   * The position of a single row or column range.
+   */
+  private static final class RangeKey
+  {
+    private final int m_nSheetIndex;
+    private final int m_nFirstRow;
+    private final int m_nLastRow;
+    private final int m_nFirstColumn;
+    private final int m_nLastColumn;
+
+    RangeKey (@NonNull final AreaEval aVector)
+    {
+      m_nSheetIndex = aVector.getFirstSheetIndex ();
+      m_nFirstRow = aVector.getFirstRow ();
+      m_nLastRow = aVector.getLastRow ();
+      m_nFirstColumn = aVector.getFirstColumn ();
+      m_nLastColumn = aVector.getLastColumn ();
+    }
+
+    boolean contains (final int nSheetIndex, final int nRow, final int nColumn)
+    {
+      return nSheetIndex == m_nSheetIndex &&
+             nRow >= m_nFirstRow &&
+             nRow <= m_nLastRow &&
+             nColumn >= m_nFirstColumn &&
+             nColumn <= m_nLastColumn;
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final RangeKey rhs = (RangeKey) o;
+      return m_nSheetIndex == rhs.m_nSheetIndex &&
+             m_nFirstRow == rhs.m_nFirstRow &&
+             m_nLastRow == rhs.m_nLastRow &&
+             m_nFirstColumn == rhs.m_nFirstColumn &&
+             m_nLastColumn == rhs.m_nLastColumn;
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return new HashCodeGenerator (this).append (m_nSheetIndex)
+                                         .append (m_nFirstRow)
+                                         .append (m_nLastRow)
+                                         .append (m_nFirstColumn)
+                                         .append (m_nLastColumn)
+                                         .getHashCode ();
+    }
+  }
+
+  /**
+   * A cached index together with the formula cells that used it.
+   */
+  private static final class CachedIndex
+  {
+    private final ExcelLookupIndex m_aIndex;
+    private final Set <Long> m_aUsingCells = ConcurrentHashMap.newKeySet ();
+
+    CachedIndex (@NonNull final ExcelLookupIndex aIndex)
+    {
+      m_aIndex = aIndex;
+    }
+  }
+
+  private final Map <RangeKey, CachedIndex> m_aIndexes = new ConcurrentHashMap <> ();
+  private final AtomicLong m_aBuildCount = new AtomicLong ();
+  private final AtomicLong m_aHitCount = new AtomicLong ();
+
+  public ExcelLookupIndexCache ()
+  {}
+
+  private static boolean _containsFormulas (@NonNull final AreaEval aVector, @NonNull final EvaluationWorkbook aWB)
+  {
+    final EvaluationSheet aSheet = aWB.getSheet (aVector.getFirstSheetIndex ());
+    for (int nRow = aVector.getFirstRow (); nRow <= aVector.getLastRow (); ++nRow)
+      for (int nCol = aVector.getFirstColumn (); nCol <= aVector.getLastColumn (); ++nCol)
+      {
+        final EvaluationCell aCell = aSheet.getCell (nRow, nCol);
+        if (aCell != null && aCell.getCellType () == CellType.FORMULA)
+          return true;
+      }
+    return false;
+  }
+
+  /**
+   * Get the index of the passed vector, building it if necessary.
+   *
+   * @param aVector
+   *        A single row or single column area. May not be <code>null</code>.
+   * @param aEC
+   *        The context of the formula cell performing the lookup. It is
+   *        recorded as user of the index. May not be <code>null</code>.
+   * @return The index. Never <code>null</code>.
+   */
+  @NonNull
+  ExcelLookupIndex getIndex (@NonNull final AreaEval aVector, @NonNull final OperationEvaluationContext aEC)
+  {
+    if (aVector.getWidth () * aVector.getHeight () < MIN_CACHED_SIZE)
+      return ExcelLookupIndex.create (aVector);
+
+    final Long aUsingCell = Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (aEC.getSheetIndex (),
+                                                                                  aEC.getRowIndex (),
+                                                                                  aEC.getColumnIndex ()));
+    final RangeKey aKey = new RangeKey (aVector);
+    CachedIndex aCached = m_aIndexes.get (aKey);
+    if (aCached != null)
+    {
+      aCached.m_aUsingCells.add (aUsingCell);
+      m_aHitCount.incrementAndGet ();
+      return aCached.m_aIndex;
+    }
+
+    final ExcelLookupIndex ret = ExcelLookupIndex.create (aVector);
+    if (!_containsFormulas (aVector, aEC.getWorkbook ()))
+    {
+      // Concurrent builds of the same range are harmless
+      aCached = new CachedIndex (ret);
+      aCached.m_aUsingCells.add (aUsingCell);
+      m_aIndexes.put (aKey, aCached);
+      m_aBuildCount.incrementAndGet ();
+    }
+    return ret;
+  }
+
+  /**
+   * Remove all indexes containing the passed cell. Must be called after a
+   * cell value was changed. The cached results of the returned formula cells
+   * must be invalidated by the caller.
+   *
+   * @param nSheetIndex
+   *        0-based sheet index
+   * @param nRow
+   *        0-based row index
+   * @param nColumn
+   *        0-based column index
+   * @return The keys of all formula cells that used one of the removed indexes,
+   *         as created by
+   *         {@link ExcelFormulaDependencyGraph#getCellKey(int, int, int)}.
+   *         Never <code>null</code> but maybe empty.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsSet <Long> notifyUpdateCell (final int nSheetIndex, final int nRow, final int nColumn)
+  {
+    final ICommonsSet <Long> ret = new CommonsHashSet <> ();
+    final Iterator <Map.Entry <RangeKey, CachedIndex>> it = m_aIndexes.entrySet ().iterator ();
+    while (it.hasNext ())
+    {
+      final Map.Entry <RangeKey, CachedIndex> aEntry = it.next ();
+      if (aEntry.getKey ().contains (nSheetIndex, nRow, nColumn))
+      {
+        it.remove ();
+        ret.addAll (aEntry.getValue ().m_aUsingCells);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Remove all cached indexes. Must be called after structural changes like
+   * moving rows or sheets.
+   */
+  public void clear ()
+  {
+    m_aIndexes.clear ();
+  }
+
+  /**
+   * @return The number of currently cached indexes.
+   */
+  @Nonnegative
+  public int getIndexCount ()
+  {
+    return m_aIndexes.size ();
+  }
+
+  /**
+   * @return The total number of indexes that were built and cached.
+   */
+  @Nonnegative
+  public long getBuildCount ()
+  {
+    return m_aBuildCount.get ();
+  }
+
+  /**
+   * @return The total number of lookups that used a cached index.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHitCount.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Indexes", m_aIndexes.size ())
+                                       .append ("BuildCount", m_aBuildCount.get ())
+                                       .append ("HitCount", m_aHitCount.get ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.xml.sax.SAXException;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * An {@link IExcelSharedStrings} implementation that keeps all strings on the
+ * heap. This is the fastest option for small and medium sized files.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelSharedStringsInMemory implements IExcelSharedStrings
+{
+  private final ICommonsList <String> m_aStrings;
+
+  private ExcelSharedStringsInMemory (@NonNull final ICommonsList <String> aStrings)
+  {
+    m_aStrings = aStrings;
+  }
+
+  @Nonnegative
+  public int getCount ()
+  {
+    return m_aStrings.size ();
+  }
+
+  @Nullable
+  public String getString (final int nIndex)
+  {
+    return m_aStrings.getAtIndex (nIndex);
+  }
+
+  public void close ()
+  {
+    // Nothing to release
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Count", m_aStrings.size ()).getToString ();
+  }
+
+  /**
+   * Read all strings of the passed shared strings part into memory.
+   *
+   * @param aIS
+   *        The input stream of the shared strings part. May not be
+   *        <code>null</code>. Is not closed.
+   * @return The new object and never <code>null</code>.
+   * @throws IOException
+   *         On read error
+   * @throws SAXException
+   *         On XML error
+   * @throws ParserConfigurationException
+   *         If the SAX parser cannot be created
+   */
+  @NonNull
+  public static ExcelSharedStringsInMemory create (@NonNull final InputStream aIS) throws IOException,
+                                                                                  SAXException,
+                                                                                  ParserConfigurationException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    final ICommonsList <String> aStrings = new CommonsArrayList <> ();
+    ExcelSharedStringsParser.parse (aIS,
+                                    aCount -> aStrings.ensureCapacity (ExcelSharedStringsParser.getPresizeCount (aCount.intValue ())),
+                                    aStrings::add);
+    return new ExcelSharedStringsInMemory (aStrings);
+  }
+
+  /**
+   * @return An empty shared strings table, for files without shared strings.
+   */
+  @NonNull
+  public static ExcelSharedStringsInMemory createEmpty ()
+  {
+    return new ExcelSharedStringsInMemory (new CommonsArrayList <> (0));
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.io.file.FileOperations;
+
+/**
+ * An {@link IExcelSharedStrings} implementation that keeps the strings UTF-8
+ * encoded in a memory mapped temporary file. Only the offset index (8 bytes
+ * per string) and a small LRU cache of decoded strings are kept on the heap,
+ * so that shared strings tables with millions of unique entries can be read.
+ * The temporary file is deleted when this object is closed.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@ThreadSafe
+public final class ExcelSharedStringsMapped implements IExcelSharedStrings
+{
+  /** The default number of decoded strings to keep on the heap */
+  public static final int DEFAULT_CACHE_SIZE = 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (ExcelSharedStringsMapped.class);
+  // A single mapping is limited to 2GB
+  private static final int SEGMENT_SHIFT = 30;
+  private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+  private static final int SEGMENT_MASK = (int) (SEGMENT_SIZE - 1);
+
+  private final File m_aFile;
+  private final int m_nCount;
+  // Start offset of each string plus the end offset of the last string
+  private final long [] m_aOffsets;
+  // Only guards the LRU cache and closing
+  private final ReentrantLock m_aLock = new ReentrantLock ();
+  private final Map <Integer, String> m_aCache;
+  private FileChannel m_aChannel;
+  // The segments are read-only and only use absolute reads, so they can be
+  // used concurrently
+  private volatile MappedByteBuffer [] m_aSegments;
+
+  private ExcelSharedStringsMapped (@NonNull final File aFile,
+                                    @Nonnegative final int nCount,
+                                    @NonNull final long [] aOffsets,
+                                    @Nonnegative final int nCacheSize) throws IOException
+  {
+    m_aFile = aFile;
+    m_nCount = nCount;
+    m_aOffsets = aOffsets;
+    m_aCache = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (final Map.Entry <Integer, String> aEldest)
+      {
+        return size () > nCacheSize;
+      }
+    };
+
+    final long nTotalSize = aOffsets[nCount];
+    m_aChannel = FileChannel.open (aFile.toPath (), StandardOpenOption.READ);
+    final int nSegments = (int) ((nTotalSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+    final MappedByteBuffer [] aSegments = new MappedByteBuffer [nSegments];
+    for (int i = 0; i < nSegments; ++i)
+    {
+      final long nStart = (long) i << SEGMENT_SHIFT;
+      aSegments[i] = m_aChannel.map (FileChannel.MapMode.READ_ONLY, nStart, Math.min (SEGMENT_SIZE, nTotalSize - nStart));
+    }
+    m_aSegments = aSegments;
+  }
+
+  @Nonnegative
+  public int getCount ()
+  {
+    return m_nCount;
+  }
+
+  /**
+   * @return The number of bytes used by the UTF-8 encoded strings in the
+   *         temporary file.
+   */
+  @Nonnegative
+  public long getFileSize ()
+  {
+    return m_aOffsets[m_nCount];
+  }
+
+  @NonNull
+  private String _decode (@NonNull final MappedByteBuffer [] aSegments, final int nIndex)
+  {
+    final long nStart = m_aOffsets[nIndex];
+    final int nLength = (int) (m_aOffsets[nIndex + 1] - nStart);
+    if (nLength == 0)
+      return "";
+
+    final byte [] aBytes = new byte [nLength];
+    int nDone = 0;
+    while (nDone < nLength)
+    {
+      // A string may span two segments
+      final long nPos = nStart + nDone;
+      final MappedByteBuffer aSegment = aSegments[(int) (nPos >>> SEGMENT_SHIFT)];
+      final int nSegmentPos = (int) (nPos & SEGMENT_MASK);
+      final int nChunk = Math.min (nLength - nDone, aSegment.limit () - nSegmentPos);
+      aSegment.get (nSegmentPos, aBytes, nDone, nChunk);
+      nDone += nChunk;
+    }
+    return new String (aBytes, StandardCharsets.UTF_8);
+  }
+
+  @Nullable
+  public String getString (final int nIndex)
+  {
+    if (nIndex < 0 || nIndex >= m_nCount)
+      return null;
+
+    final MappedByteBuffer [] aSegments = m_aSegments;
+    if (aSegments == null)
+      throw new IllegalStateException ("The shared strings table was already closed");
+
+    final Integer aKey = Integer.valueOf (nIndex);
+    m_aLock.lock ();
+    try
+    {
+      final String ret = m_aCache.get (aKey);
+      if (ret != null)
+        return ret;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+
+    // Decode outside of the lock, so that parallel readers do not block each
+    // other. Concurrent decoding of the same string is harmless.
+    final String ret = _decode (aSegments, nIndex);
+    m_aLock.lock ();
+    try
+    {
+      m_aCache.put (aKey, ret);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+    return ret;
+  }
+
+  public void close ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (m_aSegments != null)
+      {
+        // The mappings are released by the GC
+        m_aSegments = null;
+        m_aCache.clear ();
+        StreamHelper.close (m_aChannel);
+        m_aChannel = null;
+        if (FileOperations.deleteFileIfExisting (m_aFile).isFailure ())
+        {
+          // Happens on Windows while the mapping is still alive
+          LOGGER.warn ("Failed to delete temporary shared strings file " + m_aFile.getAbsolutePath ());
+          m_aFile.deleteOnExit ();
+        }
+      }
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("File", m_aFile)
+                                       .append ("Count", m_nCount)
+                                       .append ("FileSize", getFileSize ())
+                                       .getToString ();
+  }
+
+  /**
+   * Read all strings of the passed shared strings part into a new temporary
+   * file using the default cache size.
+   *
+   * @param aIS
+   *        The input stream of the shared strings part. May not be
+   *        <code>null</code>. Is not closed.
+   * @return The new object and never <code>null</code>.
+   * @throws IOException
+   *         On read or write error
+   * @throws SAXException
+   *         On XML error
+   * @throws ParserConfigurationException
+   *         If the SAX parser cannot be created
+   */
+  @NonNull
+  public static ExcelSharedStringsMapped create (@NonNull final InputStream aIS) throws IOException,
+                                                                                SAXException,
+                                                                                ParserConfigurationException
+  {
+    return create (aIS, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Read all strings of the passed shared strings part into a new temporary
+   * file.
+   *
+   * @param aIS
+   *        The input stream of the shared strings part. May not be
+   *        <code>null</code>. Is not closed.
+   * @param nCacheSize
+   *        The maximum number of decoded strings to keep on the heap. Must be
+   *        &ge; 0.
+   * @return The new object and never <code>null</code>.
+   * @throws IOException
+   *         On read or write error
+   * @throws SAXException
+   *         On XML error
+   * @throws ParserConfigurationException
+   *         If the SAX parser cannot be created
+   */
+  @NonNull
+  public static ExcelSharedStringsMapped create (@NonNull final InputStream aIS,
+                                                 @Nonnegative final int nCacheSize) throws IOException,
+                                                                                    SAXException,
+                                                                                    ParserConfigurationException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.isGE0 (nCacheSize, "CacheSize");
+
+    final File aFile = File.createTempFile ("ph-poi-sst-", ".bin");
+    boolean bSuccess = false;
+    try
+    {
+      final long [] [] aOffsets = { new long [1024] };
+      final int [] aCount = { 0 };
+      final long [] aPos = { 0 };
+      try (final OutputStream aOS = new BufferedOutputStream (Files.newOutputStream (aFile.toPath ()), 64 * 1024))
+      {
+        ExcelSharedStringsParser.parse (aIS, aUniqueCount -> {
+          // Pre-size the offset index - growing is handled below
+          final int nPresize = ExcelSharedStringsParser.getPresizeCount (aUniqueCount.intValue ());
+          if (nPresize >= aOffsets[0].length)
+            aOffsets[0] = Arrays.copyOf (aOffsets[0], nPresize + 1);
+        }, sValue -> {
+          final byte [] aBytes = sValue.getBytes (StandardCharsets.UTF_8);
+          try
+          {
+            aOS.write (aBytes);
+          }
+          catch (final IOException ex)
+          {
+            throw new UncheckedIOException (ex);
+          }
+          final int nIndex = aCount[0]++;
+          if (nIndex + 1 >= aOffsets[0].length)
+            aOffsets[0] = Arrays.copyOf (aOffsets[0], aOffsets[0].length * 2);
+          aOffsets[0][nIndex] = aPos[0];
+          aPos[0] += aBytes.length;
+        });
+      }
+      catch (final UncheckedIOException ex)
+      {
+        throw ex.getCause ();
+      }
+      final int nCount = aCount[0];
+      aOffsets[0][nCount] = aPos[0];
+
+      final ExcelSharedStringsMapped ret = new ExcelSharedStringsMapped (aFile, nCount, aOffsets[0], nCacheSize);
+      bSuccess = true;
+      return ret;
+    }
+    finally
+    {
+      if (!bSuccess)
+        FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.util.XMLHelper;
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.annotation.concurrent.Immutable;
+
+/**
+ * SAX based parser for the shared strings part of an XLSX file. Each string
+ * is passed to a consumer as soon as it is complete, so that the table never
+ * needs to be held completely in memory. Phonetic runs are skipped and
+ * <code>_xHHHH_</code> escape sequences are decoded.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+final class ExcelSharedStringsParser
+{
+  // The uniqueCount attribute is only a hint and is never trusted beyond this
+  private static final int MAX_PRESIZE_COUNT = 1 << 20;
+
+  private ExcelSharedStringsParser ()
+  {}
+
+  /**
+   * Get the number of entries to pre-allocate for the passed
+   * <code>uniqueCount</code> attribute value. The value is read from the file
+   * and may be arbitrary, so it is limited to a sensible range.
+   *
+   * @param nUniqueCount
+   *        The value of the attribute.
+   * @return A value between 0 and 2<sup>20</sup>.
+   */
+  static int getPresizeCount (final int nUniqueCount)
+  {
+    return Math.max (0, Math.min (nUniqueCount, MAX_PRESIZE_COUNT));
+  }
+
+  /**
+   * Parse the passed shared strings part.
+   *
+   * @param aIS
+   *        The input stream of the shared strings part. May not be
+   *        <code>null</code>. Is not closed.
+   * @param aCountConsumer
+   *        The consumer for the <code>uniqueCount</code> attribute, if
+   *        present. May not be <code>null</code>.
+   * @param aStringConsumer
+   *        The consumer for each shared string in document order. May not be
+   *        <code>null</code>.
+   * @throws IOException
+   *         On read error
+   * @throws SAXException
+   *         On XML error
+   * @throws ParserConfigurationException
+   *         If the SAX parser cannot be created
+   */
+  static void parse (@NonNull final InputStream aIS,
+                     @NonNull final Consumer <Integer> aCountConsumer,
+                     @NonNull final Consumer <String> aStringConsumer) throws IOException,
+                                                                     SAXException,
+                                                                     ParserConfigurationException
+  {
+    final XMLReader aXMLReader = XMLHelper.newXMLReader ();
+    aXMLReader.setContentHandler (new DefaultHandler ()
+    {
+      private final StringBuilder m_aText = new StringBuilder ();
+      private boolean m_bInItem = false;
+      private boolean m_bInPhonetic = false;
+      private boolean m_bCollectText = false;
+
+      @Override
+      public void startElement (final String sURI,
+                                final String sLocalName,
+                                final String sQName,
+                                final Attributes aAttrs)
+      {
+        switch (sLocalName)
+        {
+          case "sst":
+          {
+            final String sCount = aAttrs.getValue ("uniqueCount");
+            if (sCount != null)
+              try
+              {
+                aCountConsumer.accept (Integer.valueOf (Integer.parseInt (sCount)));
+              }
+              catch (final NumberFormatException ex)
+              {
+                // Ignore - only a hint
+              }
+            break;
+          }
+          case "si":
+            m_bInItem = true;
+            m_aText.setLength (0);
+            break;
+          case "rPh":
+            m_bInPhonetic = true;
+            break;
+          case "t":
+            if (m_bInItem && !m_bInPhonetic)
+              m_bCollectText = true;
+            break;
+          default:
+            break;
+        }
+      }
+
+      @Override
+      public void characters (final char [] aChars, final int nStart, final int nLength)
+      {
+        if (m_bCollectText)
+          m_aText.append (aChars, nStart, nLength);
+      }
+
+      @Override
+      public void endElement (final String sURI, final String sLocalName, final String sQName)
+      {
+        switch (sLocalName)
+        {
+          case "si":
+            m_bInItem = false;
+            aStringConsumer.accept (decodeEscapes (m_aText));
+            break;
+          case "rPh":
+            m_bInPhonetic = false;
+            break;
+          case "t":
+            m_bCollectText = false;
+            break;
+          default:
+            break;
+        }
+      }
+    });
+    aXMLReader.parse (new InputSource (aIS));
+  }
+
+  private static int _getHexValue (final char c)
+  {
+    if (c >= '0' && c <= '9')
+      return c - '0';
+    if (c >= 'a' && c <= 'f')
+      return c - 'a' + 10;
+    if (c >= 'A' && c <= 'F')
+      return c - 'A' + 10;
+    return -1;
+  }
+
+  /**
+   * Decode the OOXML <code>_xHHHH_</code> escape sequences in the passed text.
+   *
+   * @param aText
+   *        The text to decode. May not be <code>null</code>.
+   * @return The decoded string. Never <code>null</code>.
+   */
+  @NonNull
+  static String decodeEscapes (@NonNull final CharSequence aText)
+  {
+    final int nLen = aText.length ();
+    // Fast path: nothing to decode
+    int nFirst = -1;
+    for (int i = 0; i + 6 < nLen; ++i)
+      if (aText.charAt (i) == '_' && aText.charAt (i + 1) == 'x' && aText.charAt (i + 6) == '_')
+      {
+        nFirst = i;
+        break;
+      }
+    if (nFirst < 0)
+      return aText.toString ();
+
+    final StringBuilder aSB = new StringBuilder (nLen);
+    aSB.append (aText, 0, nFirst);
+    int i = nFirst;
+    while (i < nLen)
+    {
+      final char c = aText.charAt (i);
+      if (c == '_' && i + 6 < nLen && aText.charAt (i + 1) == 'x' && aText.charAt (i + 6) == '_')
+      {
+        int nValue = 0;
+        boolean bValid = true;
+        for (int j = i + 2; j < i + 6; ++j)
+        {
+          final int nHex = _getHexValue (aText.charAt (j));
+          if (nHex < 0)
+          {
+            bValid = false;
+            break;
+          }
+          nValue = nValue * 16 + nHex;
+        }
+        if (bValid)
+        {
+          aSB.append ((char) nValue);
+          i += 7;
+          continue;
+        }
+      }
+      aSB.append (c);
+      i++;
+    }
+    return aSB.toString ();
+  }
+}
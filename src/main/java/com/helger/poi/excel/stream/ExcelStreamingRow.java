@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.poi.excel.ExcelDateConverter;
+import com.helger.poi.excel.ExcelDateFormatCache;
+import com.helger.poi.excel.ExcelReadHelper;
+import com.helger.poi.excel.IExcelCellValueVisitor;
+
+/**
+ * A single row as delivered by the streaming readers. The values are stored in
+ * primitive arrays indexed by the 0-based column and the object is reused for
+ * all rows of a file, so that reading has a constant memory footprint.<br>
+ * For formula cells the cached result is reported, together with
+ * {@link #isFormula(int)} returning <code>true</code>.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelStreamingRow
+{
+  private int m_nSheetIndex;
+  private String m_sSheetName;
+  private int m_nRowIndex;
+  private boolean m_bDate1904;
+  private int m_nCellCount;
+
+  private CellType [] m_aTypes = new CellType [16];
+  private double [] m_aNumbers = new double [16];
+  private String [] m_aStrings = new String [16];
+  private boolean [] m_aFormulas = new boolean [16];
+  private int [] m_aFormatIndices = new int [16];
+  private String [] m_aFormatStrings = new String [16];
+
+  public ExcelStreamingRow ()
+  {}
+
+  void startRow (final int nSheetIndex,
+                 @NonNull final String sSheetName,
+                 final int nRowIndex,
+                 final boolean bDate1904)
+  {
+    // Clear the previous content
+    Arrays.fill (m_aTypes, 0, m_nCellCount, null);
+    Arrays.fill (m_aStrings, 0, m_nCellCount, null);
+    Arrays.fill (m_aFormatStrings, 0, m_nCellCount, null);
+    Arrays.fill (m_aFormulas, 0, m_nCellCount, false);
+    m_nSheetIndex = nSheetIndex;
+    m_sSheetName = sSheetName;
+    m_nRowIndex = nRowIndex;
+    m_bDate1904 = bDate1904;
+    m_nCellCount = 0;
+  }
+
+  private void _ensureCapacity (final int nCol)
+  {
+    if (nCol >= m_aTypes.length)
+    {
+      final int nNewLength = Math.max (nCol + 1, m_aTypes.length * 2);
+      m_aTypes = Arrays.copyOf (m_aTypes, nNewLength);
+      m_aNumbers = Arrays.copyOf (m_aNumbers, nNewLength);
+      m_aStrings = Arrays.copyOf (m_aStrings, nNewLength);
+      m_aFormulas = Arrays.copyOf (m_aFormulas, nNewLength);
+      m_aFormatIndices = Arrays.copyOf (m_aFormatIndices, nNewLength);
+      m_aFormatStrings = Arrays.copyOf (m_aFormatStrings, nNewLength);
+    }
+  }
+
+  private void _setCell (final int nCol,
+                         @NonNull final CellType eType,
+                         final double dValue,
+                         @Nullable final String sValue,
+                         final boolean bFormula,
+                         final int nFormatIndex,
+                         @Nullable final String sFormatString)
+  {
+    _ensureCapacity (nCol);
+    m_aTypes[nCol] = eType;
+    m_aNumbers[nCol] = dValue;
+    m_aStrings[nCol] = sValue;
+    m_aFormulas[nCol] = bFormula;
+    m_aFormatIndices[nCol] = nFormatIndex;
+    m_aFormatStrings[nCol] = sFormatString;
+    if (nCol >= m_nCellCount)
+      m_nCellCount = nCol + 1;
+  }
+
+  void setNumeric (final int nCol,
+                   final double dValue,
+                   final boolean bFormula,
+                   final int nFormatIndex,
+                   @Nullable final String sFormatString)
+  {
+    _setCell (nCol, CellType.NUMERIC, dValue, null, bFormula, nFormatIndex, sFormatString);
+  }
+
+  void setString (final int nCol, @NonNull final String sValue, final boolean bFormula)
+  {
+    _setCell (nCol, CellType.STRING, 0, sValue, bFormula, 0, null);
+  }
+
+  void setBoolean (final int nCol, final boolean bValue, final boolean bFormula)
+  {
+    _setCell (nCol, CellType.BOOLEAN, bValue ? 1 : 0, null, bFormula, 0, null);
+  }
+
+  void setError (final int nCol, @Nullable final String sErrorText, final boolean bFormula)
+  {
+    _setCell (nCol, CellType.ERROR, 0, sErrorText, bFormula, 0, null);
+  }
+
+  void setBlank (final int nCol, final int nFormatIndex, @Nullable final String sFormatString)
+  {
+    _setCell (nCol, CellType.BLANK, 0, null, false, nFormatIndex, sFormatString);
+  }
+
+  /**
+   * @return The 0-based index of the sheet the row belongs to.
+   */
+  @Nonnegative
+  public int getSheetIndex ()
+  {
+    return m_nSheetIndex;
+  }
+
+  /**
+   * @return The name of the sheet the row belongs to.
+   */
+  @NonNull
+  public String getSheetName ()
+  {
+    return m_sSheetName;
+  }
+
+  /**
+   * @return The 0-based index of the row within the sheet.
+   */
+  @Nonnegative
+  public int getRowIndex ()
+  {
+    return m_nRowIndex;
+  }
+
+  /**
+   * @return <code>true</code> if the workbook uses the 1904 date system.
+   */
+  public boolean isDate1904 ()
+  {
+    return m_bDate1904;
+  }
+
+  /**
+   * @return The number of cells in this row, which is the 0-based index of the
+   *         last cell plus 1. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getCellCount ()
+  {
+    return m_nCellCount;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The type of the cell or <code>null</code> if the cell is not
+   *         present. For formula cells the type of the cached result is
+   *         returned.
+   */
+  @Nullable
+  public CellType getCellType (final int nCol)
+  {
+    return nCol >= 0 && nCol < m_nCellCount ? m_aTypes[nCol] : null;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return <code>true</code> if the cell contains a formula.
+   */
+  public boolean isFormula (final int nCol)
+  {
+    return nCol >= 0 && nCol < m_nCellCount && m_aFormulas[nCol];
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The numeric value of the cell or 0 if the cell is not numeric.
+   */
+  public double getNumericValue (final int nCol)
+  {
+    return getCellType (nCol) == CellType.NUMERIC ? m_aNumbers[nCol] : 0;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The boolean value of the cell or <code>false</code> if the cell is
+   *         not boolean.
+   */
+  public boolean getBooleanValue (final int nCol)
+  {
+    return getCellType (nCol) == CellType.BOOLEAN && m_aNumbers[nCol] != 0;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The string value of a string cell, the error text of an error
+   *         cell or <code>null</code> otherwise.
+   */
+  @Nullable
+  public String getStringValue (final int nCol)
+  {
+    return nCol >= 0 && nCol < m_nCellCount ? m_aStrings[nCol] : null;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The data format index of a numeric or blank cell. 0 for general.
+   */
+  public int getDataFormatIndex (final int nCol)
+  {
+    return nCol >= 0 && nCol < m_nCellCount ? m_aFormatIndices[nCol] : 0;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The data format string of a numeric or blank cell. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public String getDataFormatString (final int nCol)
+  {
+    return nCol >= 0 && nCol < m_nCellCount ? m_aFormatStrings[nCol] : null;
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return <code>true</code> if the cell is numeric and has a date format.
+   */
+  public boolean isDateFormatted (final int nCol)
+  {
+    return getCellType (nCol) == CellType.NUMERIC &&
+           ExcelDateFormatCache.getDefaultInstance ().isDateFormat (m_aFormatIndices[nCol], m_aFormatStrings[nCol]);
+  }
+
+  /**
+   * Get the value of the cell with the same semantics as
+   * {@link ExcelReadHelper#getCellValueObject(org.apache.poi.ss.usermodel.Cell)}.
+   * Error cells result in <code>null</code>.
+   *
+   * @param nCol
+   *        0-based column index
+   * @return <code>null</code> if the cell is not present, blank or an error.
+   */
+  @Nullable
+  public Object getCellValueObject (final int nCol)
+  {
+    final CellType eType = getCellType (nCol);
+    if (eType == null)
+      return null;
+    switch (eType)
+    {
+      case NUMERIC:
+        return ExcelReadHelper.getAsNumberObject (m_aNumbers[nCol]);
+      case STRING:
+        return m_aStrings[nCol];
+      case BOOLEAN:
+        return Boolean.valueOf (m_aNumbers[nCol] != 0);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The string representation of
+   *         {@link #getCellValueObject(int)}. May be <code>null</code>.
+   */
+  @Nullable
+  public String getCellValueString (final int nCol)
+  {
+    final CellType eType = getCellType (nCol);
+    if (eType == null)
+      return null;
+    switch (eType)
+    {
+      case NUMERIC:
+        // Avoid the intermediate number object
+        return ExcelReadHelper.getAsNumberString (m_aNumbers[nCol]);
+      case STRING:
+        return m_aStrings[nCol];
+      case BOOLEAN:
+        return Boolean.toString (m_aNumbers[nCol] != 0);
+      default:
+        return null;
+    }
+  }
+
+  @Nullable
+  private static FormulaError _getFormulaError (@Nullable final String sErrorText)
+  {
+    if (sErrorText != null)
+      try
+      {
+        return FormulaError.forString (sErrorText);
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // Unknown error text
+      }
+    return null;
+  }
+
+  /**
+   * Pass the value of the cell to the visitor without creating wrapper
+   * objects. Error cells with an unknown error text are reported as blank.
+   *
+   * @param nCol
+   *        0-based column index
+   * @param aVisitor
+   *        The visitor to be invoked. May not be <code>null</code>.
+   * @since 7.1.1
+   * @see ExcelReadHelper#visitCellValue(org.apache.poi.ss.usermodel.Cell,
+   *      IExcelCellValueVisitor)
+   */
+  public void visitCellValue (final int nCol, @NonNull final IExcelCellValueVisitor aVisitor)
+  {
+    final CellType eType = getCellType (nCol);
+    if (eType == null)
+    {
+      aVisitor.onBlank ();
+      return;
+    }
+    switch (eType)
+    {
+      case NUMERIC:
+        aVisitor.onNumber (m_aNumbers[nCol]);
+        break;
+      case STRING:
+        aVisitor.onString (m_aStrings[nCol]);
+        break;
+      case BOOLEAN:
+        aVisitor.onBoolean (m_aNumbers[nCol] != 0);
+        break;
+      case ERROR:
+      {
+        final FormulaError eError = _getFormulaError (m_aStrings[nCol]);
+        if (eError != null)
+          aVisitor.onError (eError.getCode ());
+        else
+          aVisitor.onBlank ();
+        break;
+      }
+      default:
+        aVisitor.onBlank ();
+        break;
+    }
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The numeric value interpreted as date/time, or <code>null</code>
+   *         if the cell is not numeric.
+   */
+  @Nullable
+  public LocalDateTime getCellValueLocalDateTime (final int nCol)
+  {
+    if (getCellType (nCol) != CellType.NUMERIC)
+      return null;
+    return ExcelDateConverter.toLocalDateTime (m_aNumbers[nCol], m_bDate1904);
+  }
+
+  /**
+   * @param nCol
+   *        0-based column index
+   * @return The numeric value interpreted as date, or <code>null</code> if the
+   *         cell is not numeric.
+   */
+  @Nullable
+  public LocalDate getCellValueLocalDate (final int nCol)
+  {
+    if (getCellType (nCol) != CellType.NUMERIC)
+      return null;
+    return ExcelDateConverter.toLocalDate (m_aNumbers[nCol], m_bDate1904);
+  }
+
+  /**
+   * Get the value of the cell with the same semantics as
+   * {@link ExcelReadHelper#getCellValueTyped(org.apache.poi.ss.usermodel.Cell)}:
+   * date formatted numeric cells are returned as {@link LocalDate} or
+   * {@link LocalDateTime}, all other cells as in
+   * {@link #getCellValueObject(int)}.
+   *
+   * @param nCol
+   *        0-based column index
+   * @return <code>null</code> if the cell is not present, blank or an error.
+   * @since 7.1.1
+   */
+  @Nullable
+  public Object getCellValueTyped (final int nCol)
+  {
+    if (isDateFormatted (nCol) && DateUtil.isValidExcelDate (m_aNumbers[nCol]))
+    {
+      final double dSerial = m_aNumbers[nCol];
+      if (dSerial == Math.floor (dSerial))
+        return ExcelDateConverter.toLocalDate (dSerial, m_bDate1904);
+      return ExcelDateConverter.toLocalDateTime (dSerial, m_bDate1904);
+    }
+    return getCellValueObject (nCol);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("SheetIndex", m_nSheetIndex)
+                                       .append ("SheetName", m_sSheetName)
+                                       .append ("RowIndex", m_nRowIndex)
+                                       .append ("CellCount", m_nCellCount)
+                                       .getToString ();
+  }
+}
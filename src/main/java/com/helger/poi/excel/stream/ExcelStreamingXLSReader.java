@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.WillClose;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A streaming XLS (BIFF8) reader based on the HSSF event model. The records of
+ * the workbook are processed one after another and rows are reported to the
+ * {@link IExcelStreamingRowHandler} as soon as they are complete, without
+ * creating a workbook object model.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelStreamingXLSReader implements IExcelStreamingReader
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ExcelStreamingXLSReader.class);
+
+  public ExcelStreamingXLSReader ()
+  {}
+
+  @Override
+  @NonNull
+  public ESuccess read (@NonNull final File aFile, @NonNull final IExcelStreamingRowHandler aHandler)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    try (final POIFSFileSystem aFS = new POIFSFileSystem (aFile, true))
+    {
+      return read (aFS, aHandler);
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.error ("Error trying to read XLS file " + aFile.getAbsolutePath (), ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  @Override
+  @NonNull
+  public ESuccess read (@NonNull @WillClose final InputStream aIS, @NonNull final IExcelStreamingRowHandler aHandler)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    try (final POIFSFileSystem aFS = new POIFSFileSystem (aIS))
+    {
+      return read (aFS, aHandler);
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.error ("Error trying to read XLS stream", ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
+
+  /**
+   * Read the workbook contained in the passed file system.
+   *
+   * @param aFS
+   *        The file system to read. May not be <code>null</code>. Is not
+   *        closed.
+   * @param aHandler
+   *        The row handler. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the workbook was read completely.
+   */
+  @NonNull
+  public ESuccess read (@NonNull final POIFSFileSystem aFS, @NonNull final IExcelStreamingRowHandler aHandler)
+  {
+    ValueEnforcer.notNull (aFS, "FileSystem");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    final RecordListener aListener = new RecordListener (aHandler);
+    final FormatTrackingHSSFListener aFormatListener = new FormatTrackingHSSFListener (new MissingRecordAwareHSSFListener (aListener));
+    aListener.m_aFormatListener = aFormatListener;
+
+    final HSSFRequest aRequest = new HSSFRequest ();
+    aRequest.addListenerForAllRecords (aFormatListener);
+    try
+    {
+      new HSSFEventFactory ().processWorkbookEvents (aRequest, aFS);
+      aListener.finish ();
+      return ESuccess.SUCCESS;
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.error ("Error trying to process XLS records", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * The actual record handler.
+   */
+  private static final class RecordListener implements HSSFListener
+  {
+    private final IExcelStreamingRowHandler m_aHandler;
+    private final ExcelStreamingRow m_aRow = new ExcelStreamingRow ();
+    private FormatTrackingHSSFListener m_aFormatListener;
+
+    private final ICommonsList <BoundSheetRecord> m_aBoundSheets = new CommonsArrayList <> ();
+    private BoundSheetRecord [] m_aOrderedSheets;
+    private SSTRecord m_aSST;
+    private boolean m_bDate1904 = false;
+
+    // Substream nesting (embedded charts have their own BOF/EOF)
+    private int m_nDepth = 0;
+    private int m_nSheetIndex = -1;
+    private String m_sSheetName;
+    private boolean m_bInWorksheet = false;
+
+    private boolean m_bRowStarted = false;
+    private int m_nRowIndex = -1;
+
+    // Formula with a string result - the value is in the next StringRecord
+    private int m_nPendingStringCol = -1;
+
+    RecordListener (@NonNull final IExcelStreamingRowHandler aHandler)
+    {
+      m_aHandler = aHandler;
+    }
+
+    private void _finishRow ()
+    {
+      if (m_bRowStarted)
+      {
+        m_bRowStarted = false;
+        m_aHandler.onRow (m_aRow);
+      }
+    }
+
+    private void _finishSheet ()
+    {
+      if (m_bInWorksheet)
+      {
+        _finishRow ();
+        m_bInWorksheet = false;
+        m_aHandler.onSheetEnd (m_nSheetIndex, m_sSheetName);
+      }
+    }
+
+    void finish ()
+    {
+      _finishSheet ();
+    }
+
+    @Nullable
+    private String _getSheetName (final int nSheetIndex)
+    {
+      if (m_aOrderedSheets == null)
+        m_aOrderedSheets = BoundSheetRecord.orderByBofPosition (m_aBoundSheets);
+      return nSheetIndex < m_aOrderedSheets.length ? m_aOrderedSheets[nSheetIndex].getSheetname () : null;
+    }
+
+    private void _ensureRow (final int nRowIndex)
+    {
+      if (!m_bRowStarted || nRowIndex != m_nRowIndex)
+      {
+        _finishRow ();
+        m_aRow.startRow (m_nSheetIndex, m_sSheetName, nRowIndex, m_bDate1904);
+        m_nRowIndex = nRowIndex;
+        m_bRowStarted = true;
+      }
+    }
+
+    private void _setNumeric (@NonNull final CellValueRecordInterface aRec, final double dValue, final boolean bFormula)
+    {
+      _ensureRow (aRec.getRow ());
+      final int nFormatIndex;
+      final String sFormatString;
+      if (aRec instanceof NumberRecord)
+      {
+        nFormatIndex = m_aFormatListener.getFormatIndex ((NumberRecord) aRec);
+        sFormatString = m_aFormatListener.getFormatString ((NumberRecord) aRec);
+      }
+      else
+      {
+        nFormatIndex = m_aFormatListener.getFormatIndex ((FormulaRecord) aRec);
+        sFormatString = m_aFormatListener.getFormatString ((FormulaRecord) aRec);
+      }
+      m_aRow.setNumeric (aRec.getColumn (), dValue, bFormula, nFormatIndex, sFormatString);
+    }
+
+    @Override
+    public void processRecord (final Record aRecord)
+    {
+      if (aRecord instanceof LastCellOfRowDummyRecord)
+      {
+        // Dummy records have no specific SID
+        if (m_bInWorksheet && m_nDepth == 1)
+          _finishRow ();
+        return;
+      }
+
+      switch (aRecord.getSid ())
+      {
+        case BOFRecord.sid:
+        {
+          final BOFRecord aBOF = (BOFRecord) aRecord;
+          if (m_nDepth == 0 && aBOF.getType () != BOFRecord.TYPE_WORKBOOK)
+          {
+            // A new top-level sheet substream
+            m_nSheetIndex++;
+            if (aBOF.getType () == BOFRecord.TYPE_WORKSHEET)
+            {
+              final String sSheetName = _getSheetName (m_nSheetIndex);
+              m_sSheetName = sSheetName != null ? sSheetName : "Sheet" + m_nSheetIndex;
+              m_bInWorksheet = true;
+              m_nRowIndex = -1;
+              m_aHandler.onSheetStart (m_nSheetIndex, m_sSheetName);
+            }
+          }
+          m_nDepth++;
+          break;
+        }
+        case EOFRecord.sid:
+          m_nDepth--;
+          if (m_nDepth == 0)
+            _finishSheet ();
+          break;
+        case BoundSheetRecord.sid:
+          m_aBoundSheets.add ((BoundSheetRecord) aRecord);
+          break;
+        case SSTRecord.sid:
+          m_aSST = (SSTRecord) aRecord;
+          break;
+        case DateWindow1904Record.sid:
+          m_bDate1904 = ((DateWindow1904Record) aRecord).getWindowing () == 1;
+          break;
+        default:
+          // Cell records are only relevant directly inside a worksheet
+          if (m_bInWorksheet && m_nDepth == 1)
+            _processCellRecord (aRecord);
+          break;
+      }
+    }
+
+    private void _processCellRecord (@NonNull final Record aRecord)
+    {
+      switch (aRecord.getSid ())
+      {
+        case NumberRecord.sid:
+        {
+          final NumberRecord aRec = (NumberRecord) aRecord;
+          _setNumeric (aRec, aRec.getValue (), false);
+          break;
+        }
+        case LabelSSTRecord.sid:
+        {
+          final LabelSSTRecord aRec = (LabelSSTRecord) aRecord;
+          _ensureRow (aRec.getRow ());
+          if (m_aSST != null)
+            m_aRow.setString (aRec.getColumn (), m_aSST.getString (aRec.getSSTIndex ()).getString (), false);
+          break;
+        }
+        case LabelRecord.sid:
+        {
+          final LabelRecord aRec = (LabelRecord) aRecord;
+          _ensureRow (aRec.getRow ());
+          m_aRow.setString (aRec.getColumn (), aRec.getValue (), false);
+          break;
+        }
+        case BoolErrRecord.sid:
+        {
+          final BoolErrRecord aRec = (BoolErrRecord) aRecord;
+          _ensureRow (aRec.getRow ());
+          if (aRec.isBoolean ())
+            m_aRow.setBoolean (aRec.getColumn (), aRec.getBooleanValue (), false);
+          else
+            m_aRow.setError (aRec.getColumn (), FormulaError.forInt (aRec.getErrorValue ()).getString (), false);
+          break;
+        }
+        case BlankRecord.sid:
+        {
+          final BlankRecord aRec = (BlankRecord) aRecord;
+          _ensureRow (aRec.getRow ());
+          // Blank cells have no value, so no format is needed
+          m_aRow.setBlank (aRec.getColumn (), 0, null);
+          break;
+        }
+        case FormulaRecord.sid:
+        {
+          final FormulaRecord aRec = (FormulaRecord) aRecord;
+          final CellType eResultType = aRec.getCachedResultTypeEnum ();
+          switch (eResultType)
+          {
+            case NUMERIC:
+              _setNumeric (aRec, aRec.getValue (), true);
+              break;
+            case STRING:
+              _ensureRow (aRec.getRow ());
+              // Placeholder until the StringRecord arrives
+              m_aRow.setString (aRec.getColumn (), "", true);
+              m_nPendingStringCol = aRec.getColumn ();
+              break;
+            case BOOLEAN:
+              _ensureRow (aRec.getRow ());
+              m_aRow.setBoolean (aRec.getColumn (), aRec.getCachedBooleanValue (), true);
+              break;
+            case ERROR:
+              _ensureRow (aRec.getRow ());
+              m_aRow.setError (aRec.getColumn (), FormulaError.forInt (aRec.getCachedErrorValue ()).getString (), true);
+              break;
+            default:
+              break;
+          }
+          break;
+        }
+        case StringRecord.sid:
+          if (m_nPendingStringCol >= 0)
+          {
+            m_aRow.setString (m_nPendingStringCol, ((StringRecord) aRecord).getString (), true);
+            m_nPendingStringCol = -1;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+}
@@ -0,0 +1,834 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.WillClose;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.file.FileOperations;
+
+/**
+ * A streaming XLSX reader based on SAX parsing of the sheet XML. In contrast to
+ * {@link com.helger.poi.excel.ExcelReadHelper} no workbook object model is
+ * created, so arbitrarily large files can be read with a memory footprint that
+ * only depends on the shared strings and the longest row. Large shared strings
+ * tables are kept in a memory mapped temporary file (see
+ * {@link #setSharedStringsFileThreshold(long)}).
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelStreamingXLSXReader implements IExcelStreamingReader
+{
+  /**
+   * The default uncompressed size of the shared strings part in bytes, from
+   * which on the strings are kept in a memory mapped file.
+   */
+  public static final long DEFAULT_SHARED_STRINGS_FILE_THRESHOLD = 64L * 1024 * 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (ExcelStreamingXLSXReader.class);
+
+  private long m_nSharedStringsFileThreshold = DEFAULT_SHARED_STRINGS_FILE_THRESHOLD;
+  private int m_nSharedStringsCacheSize = ExcelSharedStringsMapped.DEFAULT_CACHE_SIZE;
+
+  public ExcelStreamingXLSXReader ()
+  {}
+
+  /**
+   * @return The uncompressed size of the shared strings part in bytes, from
+   *         which on the strings are kept in a memory mapped temporary file
+   *         instead of the heap.
+   */
+  @Nonnegative
+  public final long getSharedStringsFileThreshold ()
+  {
+    return m_nSharedStringsFileThreshold;
+  }
+
+  /**
+   * Set the uncompressed size of the shared strings part, from which on the
+   * strings are kept in a memory mapped temporary file instead of the heap.
+   * Use 0 to always use a file and {@link Long#MAX_VALUE} to never use a
+   * file. Parts of unknown size are always read into memory.
+   *
+   * @param nSharedStringsFileThreshold
+   *        The threshold in bytes. Must be &ge; 0.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ExcelStreamingXLSXReader setSharedStringsFileThreshold (@Nonnegative final long nSharedStringsFileThreshold)
+  {
+    ValueEnforcer.isGE0 (nSharedStringsFileThreshold, "SharedStringsFileThreshold");
+    m_nSharedStringsFileThreshold = nSharedStringsFileThreshold;
+    return this;
+  }
+
+  /**
+   * @return The number of decoded shared strings to keep on the heap, if the
+   *         shared strings are kept in a file.
+   */
+  @Nonnegative
+  public final int getSharedStringsCacheSize ()
+  {
+    return m_nSharedStringsCacheSize;
+  }
+
+  /**
+   * Set the number of decoded shared strings to keep on the heap, if the
+   * shared strings are kept in a file.
+   *
+   * @param nSharedStringsCacheSize
+   *        The cache size. Must be &ge; 0.
+   * @return this for chaining
+   */
+  @NonNull
+  public final ExcelStreamingXLSXReader setSharedStringsCacheSize (@Nonnegative final int nSharedStringsCacheSize)
+  {
+    ValueEnforcer.isGE0 (nSharedStringsCacheSize, "SharedStringsCacheSize");
+    m_nSharedStringsCacheSize = nSharedStringsCacheSize;
+    return this;
+  }
+
+  /**
+   * Read the shared strings of the passed package, either on the heap or in a
+   * memory mapped file, depending on the configured threshold.
+   *
+   * @param aPkg
+   *        The package to read from. May not be <code>null</code>.
+   * @return The shared strings and never <code>null</code>. Must be closed by
+   *         the caller.
+   * @throws IOException
+   *         On read error
+   * @throws SAXException
+   *         On XML error
+   * @throws ParserConfigurationException
+   *         If the SAX parser cannot be created
+   * @throws InvalidFormatException
+   *         If the package is invalid
+   */
+  @NonNull
+  protected IExcelSharedStrings readSharedStrings (@NonNull final OPCPackage aPkg) throws IOException,
+                                                                                   SAXException,
+                                                                                   ParserConfigurationException,
+                                                                                   InvalidFormatException
+  {
+    final ICommonsList <PackagePart> aParts = new CommonsArrayList <> (aPkg.getPartsByContentType (XSSFRelation.SHARED_STRINGS.getContentType ()));
+    if (aParts.isEmpty ())
+      return ExcelSharedStringsInMemory.createEmpty ();
+
+    final PackagePart aPart = aParts.getFirstOrNull ();
+    final long nSize = aPart.getSize ();
+    try (final InputStream aIS = aPart.getInputStream ())
+    {
+      if (nSize >= 0 && nSize >= m_nSharedStringsFileThreshold)
+      {
+        if (LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Reading " + nSize + " bytes of shared strings into a memory mapped file");
+        return ExcelSharedStringsMapped.create (aIS, m_nSharedStringsCacheSize);
+      }
+      return ExcelSharedStringsInMemory.create (aIS);
+    }
+  }
+
+  /**
+   * Read the passed XLSX file. The file is opened read-only and is not loaded
+   * into memory.
+   *
+   * @param aFile
+   *        The file to read. May not be <code>null</code>.
+   * @param aHandler
+   *        The row handler. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the file was read completely.
+   */
+  @Override
+  @NonNull
+  public ESuccess read (@NonNull final File aFile, @NonNull final IExcelStreamingRowHandler aHandler)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    try (final OPCPackage aPkg = OPCPackage.open (aFile, PackageAccess.READ))
+    {
+      return read (aPkg, aHandler);
+    }
+    catch (final IOException | OpenXML4JException ex)
+    {
+      LOGGER.error ("Error trying to read XLSX file " + aFile.getAbsolutePath (), ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Read the passed XLSX stream. Because the ZIP container needs random access,
+   * the stream is first copied to a temporary file, which is deleted
+   * afterwards.
+   *
+   * @param aIS
+   *        The input stream to read. Is closed afterwards. May not be
+   *        <code>null</code>.
+   * @param aHandler
+   *        The row handler. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the stream was read completely.
+   */
+  @Override
+  @NonNull
+  public ESuccess read (@NonNull @WillClose final InputStream aIS, @NonNull final IExcelStreamingRowHandler aHandler)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    File aTempFile = null;
+    try
+    {
+      aTempFile = File.createTempFile ("ph-poi-", ".xlsx");
+      Files.copy (aIS, aTempFile.toPath (), StandardCopyOption.REPLACE_EXISTING);
+      StreamHelper.close (aIS);
+      return read (aTempFile, aHandler);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Error trying to buffer XLSX stream to a temporary file", ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+      if (aTempFile != null)
+        FileOperations.deleteFileIfExisting (aTempFile);
+    }
+  }
+
+  /**
+   * Read all sheets of the passed package.
+   *
+   * @param aPkg
+   *        The package to read. May not be <code>null</code>. Is not closed.
+   * @param aHandler
+   *        The row handler. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the package was read completely.
+   */
+  @NonNull
+  public ESuccess read (@NonNull final OPCPackage aPkg, @NonNull final IExcelStreamingRowHandler aHandler)
+  {
+    ValueEnforcer.notNull (aPkg, "Package");
+    ValueEnforcer.notNull (aHandler, "Handler");
+
+    try (final IExcelSharedStrings aSST = readSharedStrings (aPkg))
+    {
+      final XSSFReader aReader = new XSSFReader (aPkg);
+      final StyleFormats aFormats = StyleFormats.create (aReader.getStylesTable ());
+      final boolean bDate1904;
+      try (final InputStream aWBIS = aReader.getWorkbookData ())
+      {
+        bDate1904 = _isDate1904 (aWBIS);
+      }
+
+      final XSSFReader.SheetIterator aIter = (XSSFReader.SheetIterator) aReader.getSheetsData ();
+      int nSheetIndex = 0;
+      final ExcelStreamingRow aRow = new ExcelStreamingRow ();
+      while (aIter.hasNext ())
+      {
+        try (final InputStream aSheetIS = aIter.next ())
+        {
+          final String sSheetName = aIter.getSheetName ();
+          aHandler.onSheetStart (nSheetIndex, sSheetName);
+          _parse (aSheetIS,
+                  new SheetHandler (nSheetIndex, sSheetName, bDate1904, aSST, aFormats, aRow, aHandler));
+          aHandler.onSheetEnd (nSheetIndex, sSheetName);
+        }
+        nSheetIndex++;
+      }
+      return ESuccess.SUCCESS;
+    }
+    catch (final IOException | OpenXML4JException | SAXException | ParserConfigurationException ex)
+    {
+      LOGGER.error ("Error trying to read XLSX package", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Read all sheets of the passed XLSX file in parallel. Each worksheet part is
+   * parsed by its own task on the provided executor, sharing the read-only
+   * shared strings and styles. The rows of each sheet are delivered to a
+   * separate handler created by the factory.
+   *
+   * @param aFile
+   *        The file to read. May not be <code>null</code>.
+   * @param aHandlerFactory
+   *        The factory for the per-sheet row handlers. May not be
+   *        <code>null</code>.
+   * @param aExecutor
+   *        The executor to run the sheet tasks on. On Java 21+
+   *        <code>Executors.newVirtualThreadPerTaskExecutor ()</code> is a
+   *        good choice. May not be <code>null</code>. Is not shut down.
+   * @return {@link ESuccess#SUCCESS} if all sheets were read completely.
+   * @see #readParallel(OPCPackage, IExcelStreamingSheetHandlerFactory, ExecutorService)
+   */
+  @NonNull
+  public ESuccess readParallel (@NonNull final File aFile,
+                                @NonNull final IExcelStreamingSheetHandlerFactory aHandlerFactory,
+                                @NonNull final ExecutorService aExecutor)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    try (final OPCPackage aPkg = OPCPackage.open (aFile, PackageAccess.READ))
+    {
+      return readParallel (aPkg, aHandlerFactory, aExecutor);
+    }
+    catch (final IOException | OpenXML4JException ex)
+    {
+      LOGGER.error ("Error trying to read XLSX file " + aFile.getAbsolutePath (), ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Read all sheets of the passed package in parallel. The shared strings and
+   * styles are read once on the calling thread, afterwards each worksheet part
+   * is parsed by its own task on the provided executor. This method returns
+   * after all sheet tasks finished. If a sheet fails, the other sheets are
+   * still read completely. If the calling thread is interrupted, sheets that
+   * did not start yet are skipped, but running sheets are still awaited before
+   * the shared strings are released.
+   *
+   * @param aPkg
+   *        The package to read. May not be <code>null</code>. Is not closed.
+   * @param aHandlerFactory
+   *        The factory for the per-sheet row handlers. May not be
+   *        <code>null</code>.
+   * @param aExecutor
+   *        The executor to run the sheet tasks on. May not be
+   *        <code>null</code>. Is not shut down.
+   * @return {@link ESuccess#SUCCESS} if all sheets were read completely.
+   */
+  @NonNull
+  public ESuccess readParallel (@NonNull final OPCPackage aPkg,
+                                @NonNull final IExcelStreamingSheetHandlerFactory aHandlerFactory,
+                                @NonNull final ExecutorService aExecutor)
+  {
+    ValueEnforcer.notNull (aPkg, "Package");
+    ValueEnforcer.notNull (aHandlerFactory, "HandlerFactory");
+    ValueEnforcer.notNull (aExecutor, "Executor");
+
+    try (final IExcelSharedStrings aSST = readSharedStrings (aPkg))
+    {
+      final XSSFReader aReader = new XSSFReader (aPkg);
+      final StyleFormats aFormats = StyleFormats.create (aReader.getStylesTable ());
+      final boolean bDate1904;
+      try (final InputStream aWBIS = aReader.getWorkbookData ())
+      {
+        bDate1904 = _isDate1904 (aWBIS);
+      }
+
+      // Resolve all sheet parts on the calling thread
+      final ICommonsList <Callable <Void>> aSheetCallables = new CommonsArrayList <> ();
+      final XSSFReader.SheetIterator aIter = (XSSFReader.SheetIterator) aReader.getSheetsData ();
+      int nSheetIndex = 0;
+      while (aIter.hasNext ())
+      {
+        // The stream is opened again by the worker
+        StreamHelper.close (aIter.next ());
+        final int nThisSheetIndex = nSheetIndex;
+        final String sSheetName = aIter.getSheetName ();
+        final PackagePart aSheetPart = aIter.getSheetPart ();
+        final IExcelStreamingRowHandler aHandler = aHandlerFactory.createSheetHandler (nThisSheetIndex, sSheetName);
+        ValueEnforcer.notNull (aHandler, "Handler");
+        aSheetCallables.add ( () -> {
+          try (final InputStream aSheetIS = aSheetPart.getInputStream ())
+          {
+            aHandler.onSheetStart (nThisSheetIndex, sSheetName);
+            _parse (aSheetIS,
+                    new SheetHandler (nThisSheetIndex,
+                                      sSheetName,
+                                      bDate1904,
+                                      aSST,
+                                      aFormats,
+                                      new ExcelStreamingRow (),
+                                      aHandler));
+            aHandler.onSheetEnd (nThisSheetIndex, sSheetName);
+          }
+          return null;
+        });
+        nSheetIndex++;
+      }
+
+      // Every task counts down exactly once - either when it finished or when
+      // it was skipped before starting
+      final CountDownLatch aLatch = new CountDownLatch (aSheetCallables.size ());
+      final ICommonsList <SheetTask> aTasks = new CommonsArrayList <> (aSheetCallables.size ());
+      for (final Callable <Void> aCallable : aSheetCallables)
+        aTasks.add (new SheetTask (aCallable, aLatch));
+
+      ESuccess eSuccess = ESuccess.SUCCESS;
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> (aTasks.size ());
+      try
+      {
+        for (final SheetTask aTask : aTasks)
+          aFutures.add (aExecutor.submit (aTask));
+
+        // Wait for all sheets - the shared strings must stay open until then
+        for (final Future <?> aFuture : aFutures)
+          try
+          {
+            aFuture.get ();
+          }
+          catch (final ExecutionException ex)
+          {
+            LOGGER.error ("Error trying to read XLSX sheet", ex.getCause ());
+            eSuccess = ESuccess.FAILURE;
+          }
+          catch (final InterruptedException ex)
+          {
+            LOGGER.error ("Interrupted while reading XLSX package in parallel", ex);
+            for (final SheetTask aTask : aTasks)
+              aTask.skip ();
+            for (final Future <?> aOther : aFutures)
+              aOther.cancel (true);
+            Thread.currentThread ().interrupt ();
+            eSuccess = ESuccess.FAILURE;
+            break;
+          }
+      }
+      finally
+      {
+        // Tasks that were never submitted or did not start yet are skipped
+        for (final SheetTask aTask : aTasks)
+          aTask.skip ();
+        // Running tasks still use the shared strings and the package
+        _awaitUninterruptibly (aLatch);
+      }
+      return eSuccess;
+    }
+    catch (final IOException | OpenXML4JException | SAXException | ParserConfigurationException ex)
+    {
+      LOGGER.error ("Error trying to read XLSX package", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  private static void _awaitUninterruptibly (@NonNull final CountDownLatch aLatch)
+  {
+    // Remember and clear the interrupted state, so that await blocks
+    boolean bInterrupted = Thread.interrupted ();
+    while (true)
+      try
+      {
+        aLatch.await ();
+        break;
+      }
+      catch (final InterruptedException ex)
+      {
+        bInterrupted = true;
+      }
+    if (bInterrupted)
+      Thread.currentThread ().interrupt ();
+  }
+
+  private static void _parse (@NonNull final InputStream aIS, @NonNull final DefaultHandler aHandler) throws IOException,
+                                                                                                      SAXException,
+                                                                                                      ParserConfigurationException
+  {
+    final XMLReader aXMLReader = XMLHelper.newXMLReader ();
+    aXMLReader.setContentHandler (aHandler);
+    aXMLReader.parse (new InputSource (aIS));
+  }
+
+  private static boolean _isDate1904 (@NonNull final InputStream aWorkbookIS) throws IOException,
+                                                                              SAXException,
+                                                                              ParserConfigurationException
+  {
+    final boolean [] aResult = { false };
+    _parse (aWorkbookIS, new DefaultHandler ()
+    {
+      @Override
+      public void startElement (final String sURI,
+                                final String sLocalName,
+                                final String sQName,
+                                final Attributes aAttrs)
+      {
+        if ("workbookPr".equals (sLocalName))
+        {
+          final String sValue = aAttrs.getValue ("date1904");
+          aResult[0] = "1".equals (sValue) || "true".equalsIgnoreCase (sValue);
+        }
+      }
+    });
+    return aResult[0];
+  }
+
+  /**
+   * A single sheet task of a parallel read. It either runs or is skipped, and
+   * counts down the latch exactly once in both cases.
+   */
+  private static final class SheetTask implements Callable <Void>
+  {
+    private final Callable <Void> m_aCallable;
+    private final CountDownLatch m_aLatch;
+    private final AtomicBoolean m_aStarted = new AtomicBoolean (false);
+
+    SheetTask (@NonNull final Callable <Void> aCallable, @NonNull final CountDownLatch aLatch)
+    {
+      m_aCallable = aCallable;
+      m_aLatch = aLatch;
+    }
+
+    @Override
+    @Nullable
+    public Void call () throws Exception
+    {
+      if (!m_aStarted.compareAndSet (false, true))
+      {
+        // Skipped before
+        return null;
+      }
+      try
+      {
+        return m_aCallable.call ();
+      }
+      finally
+      {
+        m_aLatch.countDown ();
+      }
+    }
+
+    /**
+     * Make sure this task is not run anymore. If it already started, the latch
+     * is counted down by the running task.
+     */
+    void skip ()
+    {
+      if (m_aStarted.compareAndSet (false, true))
+        m_aLatch.countDown ();
+    }
+  }
+
+  /**
+   * The data formats of all cell styles, resolved once per file.
+   */
+  static final class StyleFormats
+  {
+    private final int [] m_aFormatIndices;
+    private final String [] m_aFormatStrings;
+
+    private StyleFormats (@NonNull final int [] aFormatIndices, @NonNull final String [] aFormatStrings)
+    {
+      m_aFormatIndices = aFormatIndices;
+      m_aFormatStrings = aFormatStrings;
+    }
+
+    int getFormatIndex (final int nStyleIndex)
+    {
+      return nStyleIndex >= 0 && nStyleIndex < m_aFormatIndices.length ? m_aFormatIndices[nStyleIndex] : 0;
+    }
+
+    @Nullable
+    String getFormatString (final int nStyleIndex)
+    {
+      return nStyleIndex >= 0 && nStyleIndex < m_aFormatStrings.length ? m_aFormatStrings[nStyleIndex] : null;
+    }
+
+    @NonNull
+    static StyleFormats create (@Nullable final StylesTable aStyles)
+    {
+      final int nCount = aStyles == null ? 0 : aStyles.getNumCellStyles ();
+      final int [] aIndices = new int [nCount];
+      final String [] aStrings = new String [nCount];
+      for (int i = 0; i < nCount; ++i)
+      {
+        final XSSFCellStyle aStyle = aStyles.getStyleAt (i);
+        if (aStyle != null)
+        {
+          aIndices[i] = aStyle.getDataFormat ();
+          aStrings[i] = aStyle.getDataFormatString ();
+        }
+      }
+      return new StyleFormats (aIndices, aStrings);
+    }
+  }
+
+  /**
+   * SAX handler for a single worksheet.
+   */
+  static final class SheetHandler extends DefaultHandler
+  {
+    private static final byte TYPE_NUMBER = 0;
+    private static final byte TYPE_SST = 1;
+    private static final byte TYPE_INLINE = 2;
+    private static final byte TYPE_FORMULA_STRING = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_ERROR = 5;
+
+    private final int m_nSheetIndex;
+    private final String m_sSheetName;
+    private final boolean m_bDate1904;
+    private final IExcelSharedStrings m_aSST;
+    private final StyleFormats m_aFormats;
+    private final ExcelStreamingRow m_aRow;
+    private final IExcelStreamingRowHandler m_aHandler;
+
+    private final StringBuilder m_aText = new StringBuilder ();
+    private boolean m_bInRow = false;
+    private int m_nRowIndex = -1;
+    private int m_nCol = -1;
+    private byte m_nCellType;
+    private int m_nCellStyle;
+    private boolean m_bCellFormula;
+    private boolean m_bCollectText = false;
+    private boolean m_bInPhonetic = false;
+
+    SheetHandler (final int nSheetIndex,
+                  @NonNull final String sSheetName,
+                  final boolean bDate1904,
+                  @NonNull final IExcelSharedStrings aSST,
+                  @NonNull final StyleFormats aFormats,
+                  @NonNull final ExcelStreamingRow aRow,
+                  @NonNull final IExcelStreamingRowHandler aHandler)
+    {
+      m_nSheetIndex = nSheetIndex;
+      m_sSheetName = sSheetName;
+      m_bDate1904 = bDate1904;
+      m_aSST = aSST;
+      m_aFormats = aFormats;
+      m_aRow = aRow;
+      m_aHandler = aHandler;
+    }
+
+    private static int _getColumnIndex (@NonNull final String sCellRef)
+    {
+      int ret = 0;
+      final int nLen = sCellRef.length ();
+      for (int i = 0; i < nLen; ++i)
+      {
+        final char c = sCellRef.charAt (i);
+        if (c < 'A' || c > 'Z')
+          break;
+        ret = ret * 26 + (c - 'A' + 1);
+      }
+      return ret - 1;
+    }
+
+    private static int _parseInt (@Nullable final String s, final int nDefault)
+    {
+      if (s == null || s.isEmpty ())
+        return nDefault;
+      try
+      {
+        return Integer.parseInt (s);
+      }
+      catch (final NumberFormatException ex)
+      {
+        return nDefault;
+      }
+    }
+
+    @Override
+    public void startElement (final String sURI, final String sLocalName, final String sQName, final Attributes aAttrs)
+    {
+      switch (sLocalName)
+      {
+        case "row":
+        {
+          m_nRowIndex = _parseInt (aAttrs.getValue ("r"), m_nRowIndex + 2) - 1;
+          m_nCol = -1;
+          m_aRow.startRow (m_nSheetIndex, m_sSheetName, m_nRowIndex, m_bDate1904);
+          m_bInRow = true;
+          break;
+        }
+        case "c":
+        {
+          final String sRef = aAttrs.getValue ("r");
+          m_nCol = sRef != null ? _getColumnIndex (sRef) : m_nCol + 1;
+          m_nCellStyle = _parseInt (aAttrs.getValue ("s"), 0);
+          final String sType = aAttrs.getValue ("t");
+          if (sType == null || "n".equals (sType))
+            m_nCellType = TYPE_NUMBER;
+          else
+            switch (sType)
+            {
+              case "s":
+                m_nCellType = TYPE_SST;
+                break;
+              case "inlineStr":
+                m_nCellType = TYPE_INLINE;
+                break;
+              case "str":
+                m_nCellType = TYPE_FORMULA_STRING;
+                break;
+              case "b":
+                m_nCellType = TYPE_BOOLEAN;
+                break;
+              case "e":
+                m_nCellType = TYPE_ERROR;
+                break;
+              default:
+                // E.g. "d" for ISO 8601 dates - treat as text
+                m_nCellType = TYPE_INLINE;
+                break;
+            }
+          m_bCellFormula = false;
+          m_aText.setLength (0);
+          break;
+        }
+        case "v":
+          m_bCollectText = true;
+          m_aText.setLength (0);
+          break;
+        case "t":
+          // Text of inline strings - may occur multiple times in rich text
+          if (!m_bInPhonetic)
+            m_bCollectText = true;
+          break;
+        case "rPh":
+          m_bInPhonetic = true;
+          break;
+        case "f":
+          m_bCellFormula = true;
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength)
+    {
+      if (m_bCollectText)
+        m_aText.append (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void endElement (final String sURI, final String sLocalName, final String sQName)
+    {
+      switch (sLocalName)
+      {
+        case "v":
+        case "t":
+          m_bCollectText = false;
+          break;
+        case "rPh":
+          m_bInPhonetic = false;
+          break;
+        case "c":
+          _endCell ();
+          break;
+        case "row":
+          m_bInRow = false;
+          m_aHandler.onRow (m_aRow);
+          break;
+        default:
+          break;
+      }
+    }
+
+    private void _endCell ()
+    {
+      if (!m_bInRow || m_nCol < 0)
+        return;
+
+      final int nCol = m_nCol;
+      switch (m_nCellType)
+      {
+        case TYPE_NUMBER:
+          if (m_aText.length () == 0)
+          {
+            // Only styled
+            m_aRow.setBlank (nCol, m_aFormats.getFormatIndex (m_nCellStyle), m_aFormats.getFormatString (m_nCellStyle));
+          }
+          else
+            try
+            {
+              m_aRow.setNumeric (nCol,
+                                 Double.parseDouble (m_aText.toString ()),
+                                 m_bCellFormula,
+                                 m_aFormats.getFormatIndex (m_nCellStyle),
+                                 m_aFormats.getFormatString (m_nCellStyle));
+            }
+            catch (final NumberFormatException ex)
+            {
+              LOGGER.warn ("Invalid numeric value '" + m_aText + "' in sheet " + m_sSheetName);
+              m_aRow.setError (nCol, m_aText.toString (), m_bCellFormula);
+            }
+          break;
+        case TYPE_SST:
+        {
+          final int nIndex = _parseInt (m_aText.toString (), -1);
+          final String sValue = m_aSST.getString (nIndex);
+          if (sValue != null)
+            m_aRow.setString (nCol, sValue, false);
+          else
+            LOGGER.warn ("Invalid shared string index '" + m_aText + "' in sheet " + m_sSheetName);
+          break;
+        }
+        case TYPE_INLINE:
+          m_aRow.setString (nCol, ExcelSharedStringsParser.decodeEscapes (m_aText), m_bCellFormula);
+          break;
+        case TYPE_FORMULA_STRING:
+          m_aRow.setString (nCol, m_aText.toString (), m_bCellFormula);
+          break;
+        case TYPE_BOOLEAN:
+          m_aRow.setBoolean (nCol, "1".equals (m_aText.toString ()) || "true".contentEquals (m_aText), m_bCellFormula);
+          break;
+        case TYPE_ERROR:
+          m_aRow.setError (nCol, m_aText.toString (), m_bCellFormula);
+          break;
+        default:
+          throw new IllegalStateException ("Unsupported cell type " + m_nCellType);
+      }
+    }
+  }
+}
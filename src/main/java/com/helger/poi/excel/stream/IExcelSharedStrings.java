@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.Closeable;
+
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+
+/**
+ * Read-only access to the shared strings table of an XLSX file, as used by
+ * {@link ExcelStreamingXLSXReader}. Implementations may hold external
+ * resources, so they need to be closed after usage.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public interface IExcelSharedStrings extends Closeable
+{
+  /**
+   * @return The number of shared strings. Always &ge; 0.
+   */
+  @Nonnegative
+  int getCount ();
+
+  /**
+   * Get the shared string at the provided index.
+   *
+   * @param nIndex
+   *        The 0-based index of the shared string.
+   * @return <code>null</code> if the index is out of range.
+   */
+  @Nullable
+  String getString (int nIndex);
+
+  /**
+   * Release all resources held by this object. Does not throw an exception.
+   */
+  @Override
+  void close ();
+}
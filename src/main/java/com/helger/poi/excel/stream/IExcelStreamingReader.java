@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import java.io.File;
+import java.io.InputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.WillClose;
+import com.helger.base.state.ESuccess;
+
+/**
+ * Common interface for the streaming Excel readers, so that the consumer code
+ * is independent of the file format.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+public interface IExcelStreamingReader
+{
+  /**
+   * Read the passed file and report all rows to the handler.
+   *
+   * @param aFile
+   *        The file to read. May not be <code>null</code>.
+   * @param aHandler
+   *        The row handler. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the file was read completely.
+   */
+  @NonNull
+  ESuccess read (@NonNull File aFile, @NonNull IExcelStreamingRowHandler aHandler);
+
+  /**
+   * Read the passed stream and report all rows to the handler.
+   *
+   * @param aIS
+   *        The input stream to read. Is closed afterwards. May not be
+   *        <code>null</code>.
+   * @param aHandler
+   *        The row handler. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the stream was read completely.
+   */
+  @NonNull
+  ESuccess read (@NonNull @WillClose InputStream aIS, @NonNull IExcelStreamingRowHandler aHandler);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Callback interface for the streaming Excel readers. Only rows that are
+ * physically present in the file are reported.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@FunctionalInterface
+public interface IExcelStreamingRowHandler
+{
+  /**
+   * Called before the first row of a sheet is reported.
+   *
+   * @param nSheetIndex
+   *        The 0-based index of the sheet.
+   * @param sSheetName
+   *        The name of the sheet. Never <code>null</code>.
+   */
+  default void onSheetStart (final int nSheetIndex, @NonNull final String sSheetName)
+  {}
+
+  /**
+   * Called for each row of a sheet. The passed row object is reused for the
+   * next row, so the values need to be extracted inside this method.
+   *
+   * @param aRow
+   *        The current row. Never <code>null</code>.
+   */
+  void onRow (@NonNull ExcelStreamingRow aRow);
+
+  /**
+   * Called after the last row of a sheet was reported.
+   *
+   * @param nSheetIndex
+   *        The 0-based index of the sheet.
+   * @param sSheetName
+   *        The name of the sheet. Never <code>null</code>.
+   */
+  default void onSheetEnd (final int nSheetIndex, @NonNull final String sSheetName)
+  {}
+}
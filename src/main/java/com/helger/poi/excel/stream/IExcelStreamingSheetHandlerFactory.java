@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Factory for per-sheet row handlers, as used for parallel reading in
+ * {@link ExcelStreamingXLSXReader#readParallel(java.io.File, IExcelStreamingSheetHandlerFactory, java.util.concurrent.ExecutorService)}.
+ * Each sheet is parsed on its own worker thread and reports its rows only to
+ * the handler created for it, so the handlers don't need to be thread-safe
+ * unless they share state.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@FunctionalInterface
+public interface IExcelStreamingSheetHandlerFactory
+{
+  /**
+   * Create the row handler for a single sheet. This method is called on the
+   * calling thread in sheet order, before any sheet is parsed.
+   *
+   * @param nSheetIndex
+   *        The 0-based index of the sheet.
+   * @param sSheetName
+   *        The name of the sheet. Never <code>null</code>.
+   * @return The row handler for the sheet. May not be <code>null</code>.
+   */
+  @NonNull
+  IExcelStreamingRowHandler createSheetHandler (int nSheetIndex, @NonNull String sSheetName);
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.style;
+
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+
+/**
+ * A per-workbook cache that maps data format strings to the data format index
+ * of the workbook. Resolving a format via {@link DataFormat#getFormat(String)}
+ * is a linear search on XSSF, so this cache keeps the style creation O(1) even
+ * with many distinct formats.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelDataFormatCache
+{
+  private final DataFormat m_aDataFormat;
+  private final ICommonsMap <String, Short> m_aMap = new CommonsHashMap <> ();
+  private long m_nHits = 0;
+  private long m_nMisses = 0;
+
+  public ExcelDataFormatCache (@NonNull final Workbook aWB)
+  {
+    ValueEnforcer.notNull (aWB, "Workbook");
+    m_aDataFormat = aWB.createDataFormat ();
+  }
+
+  /**
+   * Get the index of the passed format string in the underlying workbook. If
+   * the format is not yet present in the workbook, it is created.
+   *
+   * @param sDataFormat
+   *        The data format string. May not be <code>null</code>.
+   * @return The data format index.
+   */
+  public short getFormatIndex (@NonNull final String sDataFormat)
+  {
+    ValueEnforcer.notNull (sDataFormat, "DataFormat");
+
+    final Short aIndex = m_aMap.get (sDataFormat);
+    if (aIndex != null)
+    {
+      m_nHits++;
+      return aIndex.shortValue ();
+    }
+
+    m_nMisses++;
+    final short nIndex = m_aDataFormat.getFormat (sDataFormat);
+    m_aMap.put (sDataFormat, Short.valueOf (nIndex));
+    return nIndex;
+  }
+
+  /**
+   * @return The number of different data formats in this cache. Always &ge;
+   *         0.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    return m_aMap.size ();
+  }
+
+  /**
+   * @return The number of lookups that were resolved from the cache. Always
+   *         &ge; 0.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_nHits;
+  }
+
+  /**
+   * @return The number of lookups that had to be resolved by the workbook.
+   *         Always &ge; 0.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_nMisses;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Map", m_aMap)
+                                       .append ("Hits", m_nHits)
+                                       .append ("Misses", m_nMisses)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.style;
+
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+
+/**
+ * A per-workbook caching class that maps {@link ExcelFontSpec} objects to
+ * {@link Font} objects, so that equal font specifications result in a single
+ * font in the workbook.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@NotThreadSafe
+public class ExcelFontCache
+{
+  private final Workbook m_aWB;
+  private final ICommonsMap <ExcelFontSpec, Font> m_aMap = new CommonsHashMap <> ();
+
+  public ExcelFontCache (@NonNull final Workbook aWB)
+  {
+    m_aWB = ValueEnforcer.notNull (aWB, "Workbook");
+  }
+
+  /**
+   * Get the cached font for the passed specification.
+   *
+   * @param aFontSpec
+   *        The font specification. May be <code>null</code>.
+   * @return <code>null</code> if no such font was created so far.
+   */
+  @Nullable
+  public Font getFont (@Nullable final ExcelFontSpec aFontSpec)
+  {
+    return m_aMap.get (aFontSpec);
+  }
+
+  /**
+   * Get the font for the passed specification, creating it in the workbook if
+   * it was not yet created via this cache.
+   *
+   * @param aFontSpec
+   *        The font specification. May not be <code>null</code>.
+   * @return The font and never <code>null</code>.
+   */
+  @NonNull
+  public Font getOrCreateFont (@NonNull final ExcelFontSpec aFontSpec)
+  {
+    ValueEnforcer.notNull (aFontSpec, "FontSpec");
+
+    Font ret = m_aMap.get (aFontSpec);
+    if (ret == null)
+    {
+      ret = m_aWB.createFont ();
+      aFontSpec.fillFont (ret);
+      m_aMap.put (aFontSpec, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * @return The number of fonts created via this cache. Always &ge; 0.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    return m_aMap.size ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Map", m_aMap).getToString ();
+  }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.style;
+
+import java.io.Serializable;
+
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.equals.EqualsHelper;
+import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Immutable description of a font. Equal font specifications are mapped to a
+ * single {@link Font} object by {@link ExcelFontCache}, so that the font table
+ * of a workbook does not grow with the number of cells. Use {@link #builder()}
+ * to create new instances.
+ *
+ * @author Philip Helger
+ * @since 7.1.1
+ */
+@Immutable
+public final class ExcelFontSpec implements Serializable
+{
+  /** Font height to indicate that the default height should be used */
+  public static final short DEFAULT_HEIGHT_IN_POINTS = -1;
+
+  private final String m_sFontName;
+  private final short m_nHeightInPoints;
+  private final boolean m_bBold;
+  private final boolean m_bItalic;
+  private final boolean m_bStrikeout;
+  private final byte m_nUnderline;
+  private final short m_nTypeOffset;
+  private final IndexedColors m_eColor;
+  // Status vars
+  private final int m_nHashCode;
+
+  private ExcelFontSpec (@Nullable final String sFontName,
+                         final short nHeightInPoints,
+                         final boolean bBold,
+                         final boolean bItalic,
+                         final boolean bStrikeout,
+                         final byte nUnderline,
+                         final short nTypeOffset,
+                         @Nullable final IndexedColors eColor)
+  {
+    m_sFontName = sFontName;
+    m_nHeightInPoints = nHeightInPoints;
+    m_bBold = bBold;
+    m_bItalic = bItalic;
+    m_bStrikeout = bStrikeout;
+    m_nUnderline = nUnderline;
+    m_nTypeOffset = nTypeOffset;
+    m_eColor = eColor;
+    m_nHashCode = new HashCodeGenerator (this).append (m_sFontName)
+                                              .append (m_nHeightInPoints)
+                                              .append (m_bBold)
+                                              .append (m_bItalic)
+                                              .append (m_bStrikeout)
+                                              .append (m_nUnderline)
+                                              .append (m_nTypeOffset)
+                                              .append (m_eColor)
+                                              .getHashCode ();
+  }
+
+  /**
+   * @return The font name or <code>null</code> to use the default font name.
+   */
+  @Nullable
+  public String getFontName ()
+  {
+    return m_sFontName;
+  }
+
+  /**
+   * @return The font height in points or {@link #DEFAULT_HEIGHT_IN_POINTS} to
+   *         use the default height.
+   */
+  public short getHeightInPoints ()
+  {
+    return m_nHeightInPoints;
+  }
+
+  public boolean isBold ()
+  {
+    return m_bBold;
+  }
+
+  public boolean isItalic ()
+  {
+    return m_bItalic;
+  }
+
+  public boolean isStrikeout ()
+  {
+    return m_bStrikeout;
+  }
+
+  /**
+   * @return The underline type. One of the <code>Font.U_*</code> constants.
+   */
+  public byte getUnderline ()
+  {
+    return m_nUnderline;
+  }
+
+  /**
+   * @return The type offset. One of the <code>Font.SS_*</code> constants.
+   */
+  public short getTypeOffset ()
+  {
+    return m_nTypeOffset;
+  }
+
+  @Nullable
+  public IndexedColors getColor ()
+  {
+    return m_eColor;
+  }
+
+  /**
+   * Apply all settings of this specification onto the passed font.
+   *
+   * @param aFont
+   *        The font to be filled. May not be <code>null</code>.
+   */
+  public void fillFont (@NonNull final Font aFont)
+  {
+    ValueEnforcer.notNull (aFont, "Font");
+    if (m_sFontName != null)
+      aFont.setFontName (m_sFontName);
+    if (m_nHeightInPoints > 0)
+      aFont.setFontHeightInPoints (m_nHeightInPoints);
+    aFont.setBold (m_bBold);
+    aFont.setItalic (m_bItalic);
+    aFont.setStrikeout (m_bStrikeout);
+    aFont.setUnderline (m_nUnderline);
+    aFont.setTypeOffset (m_nTypeOffset);
+    if (m_eColor != null)
+      aFont.setColor (m_eColor.getIndex ());
+  }
+
+  /**
+   * Find an existing font matching this specification in the passed workbook
+   * or create a new one. This performs a linear search over all fonts of the
+   * workbook and should only be used if no {@link ExcelFontCache} is
+   * available.
+   *
+   * @param aWB
+   *        The workbook to search. May not be <code>null</code>.
+   * @return The matching font and never <code>null</code>.
+   */
+  @NonNull
+  public Font findOrCreateFont (@NonNull final Workbook aWB)
+  {
+    ValueEnforcer.notNull (aWB, "Workbook");
+
+    // Resolve the defaults from the default font of the workbook
+    final Font aDefaultFont = aWB.getFontAt (0);
+    final String sFontName = m_sFontName != null ? m_sFontName : aDefaultFont.getFontName ();
+    final short nHeight = m_nHeightInPoints > 0 ? (short) (m_nHeightInPoints * 20) : aDefaultFont.getFontHeight ();
+    final short nColor = m_eColor != null ? m_eColor.getIndex () : aDefaultFont.getColor ();
+
+    Font ret = aWB.findFont (m_bBold, nColor, nHeight, sFontName, m_bItalic, m_bStrikeout, m_nTypeOffset, m_nUnderline);
+    if (ret == null)
+    {
+      ret = aWB.createFont ();
+      fillFont (ret);
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final ExcelFontSpec rhs = (ExcelFontSpec) o;
+    return m_nHashCode == rhs.m_nHashCode &&
+           EqualsHelper.equals (m_sFontName, rhs.m_sFontName) &&
+           m_nHeightInPoints == rhs.m_nHeightInPoints &&
+           m_bBold == rhs.m_bBold &&
+           m_bItalic == rhs.m_bItalic &&
+           m_bStrikeout == rhs.m_bStrikeout &&
+           m_nUnderline == rhs.m_nUnderline &&
+           m_nTypeOffset == rhs.m_nTypeOffset &&
+           EqualsHelper.equals (m_eColor, rhs.m_eColor);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return m_nHashCode;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).appendIfNotNull ("fontName", m_sFontName)
+                                       .append ("heightInPoints", m_nHeightInPoints)
+                                       .append ("bold", m_bBold)
+                                       .append ("italic", m_bItalic)
+                                       .append ("strikeout", m_bStrikeout)
+                                       .append ("underline", m_nUnderline)
+                                       .append ("typeOffset", m_nTypeOffset)
+                                       .appendIfNotNull ("color", m_eColor)
+                                       .getToString ();
+  }
+
+  /**
+   * @return A new builder for {@link ExcelFontSpec} objects. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static Builder builder ()
+  {
+    return new Builder ();
+  }
+
+  /**
+   * @param aOther
+   *        The specification to copy the settings from. May not be
+   *        <code>null</code>.
+   * @return A new builder initialized with the settings of the passed
+   *         specification. Never <code>null</code>.
+   */
+  @NonNull
+  public static Builder builder (@NonNull final ExcelFontSpec aOther)
+  {
+    ValueEnforcer.notNull (aOther, "Other");
+    return new Builder ().fontName (aOther.m_sFontName)
+                         .heightInPoints (aOther.m_nHeightInPoints)
+                         .bold (aOther.m_bBold)
+                         .italic (aOther.m_bItalic)
+                         .strikeout (aOther.m_bStrikeout)
+                         .underline (aOther.m_nUnderline)
+                         .typeOffset (aOther.m_nTypeOffset)
+                         .color (aOther.m_eColor);
+  }
+
+  /**
+   * Builder class for {@link ExcelFontSpec} objects.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public static final class Builder
+  {
+    private String m_sFontName;
+    private short m_nHeightInPoints = DEFAULT_HEIGHT_IN_POINTS;
+    private boolean m_bBold = false;
+    private boolean m_bItalic = false;
+    private boolean m_bStrikeout = false;
+    private byte m_nUnderline = Font.U_NONE;
+    private short m_nTypeOffset = Font.SS_NONE;
+    private IndexedColors m_eColor;
+
+    Builder ()
+    {}
+
+    @NonNull
+    public Builder fontName (@Nullable final String s)
+    {
+      m_sFontName = s;
+      return this;
+    }
+
+    @NonNull
+    public Builder heightInPoints (final int n)
+    {
+      ValueEnforcer.isTrue (n == DEFAULT_HEIGHT_IN_POINTS || (n > 0 && n <= Short.MAX_VALUE / 20),
+                            () -> "Invalid font height " + n);
+      m_nHeightInPoints = (short) n;
+      return this;
+    }
+
+    @NonNull
+    public Builder bold (final boolean b)
+    {
+      m_bBold = b;
+      return this;
+    }
+
+    @NonNull
+    public Builder italic (final boolean b)
+    {
+      m_bItalic = b;
+      return this;
+    }
+
+    @NonNull
+    public Builder strikeout (final boolean b)
+    {
+      m_bStrikeout = b;
+      return this;
+    }
+
+    @NonNull
+    public Builder underline (final byte n)
+    {
+      m_nUnderline = n;
+      return this;
+    }
+
+    @NonNull
+    public Builder typeOffset (final short n)
+    {
+      m_nTypeOffset = n;
+      return this;
+    }
+
+    @NonNull
+    public Builder color (@Nullable final IndexedColors e)
+    {
+      m_eColor = e;
+      return this;
+    }
+
+    @NonNull
+    public ExcelFontSpec build ()
+    {
+      return new ExcelFontSpec (m_sFontName,
+                                m_nHeightInPoints,
+                                m_bBold,
+                                m_bItalic,
+                                m_bStrikeout,
+                                m_nUnderline,
+                                m_nTypeOffset,
+                                m_eColor);
+    }
+  }
+}
@@ -38,7 +38,11 @@ import com.helger.base.hashcode.HashCodeGenerator;
 import com.helger.base.tostring.ToStringGenerator;
 
 /**
- * Represents a single excel style.
+ * Represents a single excel style.<br>
+ * A style can be frozen via {@link #freeze()}, making it immutable. Frozen
+ * styles have a precomputed hash code and are looked up by identity in
+ * {@link ExcelStyleCache}, so it is recommended to freeze styles that are
+ * applied to many cells.
  *
  * @author Philip Helger
  */
@@ -60,6 +64,10 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   private BorderStyle m_eBorderBottom;
   private BorderStyle m_eBorderLeft;
   private int m_nFontIndex = -1;
+  private ExcelFontSpec m_aFontSpec;
+  // Status vars
+  private boolean m_bFrozen = false;
+  private int m_nFrozenHashCode;
 
   public ExcelStyle ()
   {}
@@ -79,6 +87,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
     m_eBorderBottom = aOther.m_eBorderBottom;
     m_eBorderLeft = aOther.m_eBorderLeft;
     m_nFontIndex = aOther.m_nFontIndex;
+    m_aFontSpec = aOther.m_aFontSpec;
   }
 
   @Nullable
@@ -90,6 +99,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setAlign (@Nullable final HorizontalAlignment eAlign)
   {
+    _checkNotFrozen ();
     m_eAlign = eAlign;
     return this;
   }
@@ -103,6 +113,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setVerticalAlign (@Nullable final VerticalAlignment eVAlign)
   {
+    _checkNotFrozen ();
     m_eVAlign = eVAlign;
     return this;
   }
@@ -115,6 +126,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setWrapText (final boolean bWrapText)
   {
+    _checkNotFrozen ();
     m_bWrapText = bWrapText;
     return this;
   }
@@ -128,6 +140,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setDataFormat (@Nullable final String sDataFormat)
   {
+    _checkNotFrozen ();
     m_sDataFormat = sDataFormat;
     return this;
   }
@@ -141,6 +154,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setFillBackgroundColor (@Nullable final IndexedColors eColor)
   {
+    _checkNotFrozen ();
     m_eFillBackgroundColor = eColor;
     return this;
   }
@@ -154,6 +168,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setFillForegroundColor (@Nullable final IndexedColors eColor)
   {
+    _checkNotFrozen ();
     m_eFillForegroundColor = eColor;
     return this;
   }
@@ -167,6 +182,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setFillPattern (@Nullable final FillPatternType ePattern)
   {
+    _checkNotFrozen ();
     m_eFillPattern = ePattern;
     return this;
   }
@@ -180,6 +196,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setBorderTop (@Nullable final BorderStyle eBorder)
   {
+    _checkNotFrozen ();
     m_eBorderTop = eBorder;
     return this;
   }
@@ -193,6 +210,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setBorderRight (@Nullable final BorderStyle eBorder)
   {
+    _checkNotFrozen ();
     m_eBorderRight = eBorder;
     return this;
   }
@@ -206,6 +224,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setBorderBottom (@Nullable final BorderStyle eBorder)
   {
+    _checkNotFrozen ();
     m_eBorderBottom = eBorder;
     return this;
   }
@@ -219,6 +238,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setBorderLeft (@Nullable final BorderStyle eBorder)
   {
+    _checkNotFrozen ();
     m_eBorderLeft = eBorder;
     return this;
   }
@@ -245,6 +265,7 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   @NonNull
   public ExcelStyle setFontIndex (final int nFontIndex)
   {
+    _checkNotFrozen ();
     m_nFontIndex = nFontIndex;
     return this;
   }
@@ -264,6 +285,69 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
     return setFontIndex (aFont.getIndex ());
   }
 
+  @Nullable
+  public ExcelFontSpec getFontSpec ()
+  {
+    return m_aFontSpec;
+  }
+
+  /**
+   * Set the font to use as a specification. In contrast to
+   * {@link #setFontIndex(int)} the font does not need to be created before, as
+   * it is created on demand when the cell style is filled. If a font
+   * specification is present, it takes precedence over the font index.
+   *
+   * @param aFontSpec
+   *        The font specification to use. May be <code>null</code>.
+   * @return this
+   * @since 7.1.1
+   */
+  @NonNull
+  public ExcelStyle setFontSpec (@Nullable final ExcelFontSpec aFontSpec)
+  {
+    _checkNotFrozen ();
+    m_aFontSpec = aFontSpec;
+    return this;
+  }
+
+  private void _checkNotFrozen ()
+  {
+    if (m_bFrozen)
+      throw new IllegalStateException ("This ExcelStyle is frozen and cannot be modified: " + toString ());
+  }
+
+  /**
+   * @return <code>true</code> if this style is frozen and can therefore not be
+   *         modified anymore, <code>false</code> if not.
+   * @since 7.1.1
+   */
+  public boolean isFrozen ()
+  {
+    return m_bFrozen;
+  }
+
+  /**
+   * Freeze this style, so that it cannot be modified anymore. The hash code is
+   * precomputed and all setters throw an {@link IllegalStateException}
+   * afterwards. Calling this method on an already frozen style has no effect.
+   *
+   * @return this for chaining
+   * @since 7.1.1
+   */
+  @NonNull
+  public ExcelStyle freeze ()
+  {
+    if (!m_bFrozen)
+    {
+      m_nFrozenHashCode = _calcHashCode ();
+      m_bFrozen = true;
+    }
+    return this;
+  }
+
+  /**
+   * @return A mutable (not frozen) copy of this style.
+   */
   @NonNull
   public ExcelStyle getClone ()
   {
@@ -271,14 +355,72 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
   }
 
   public void fillCellStyle (@NonNull final Workbook aWB, @NonNull final CellStyle aCS, @NonNull final CreationHelper aCreationHelper)
+  {
+    _fillCellStyle (aWB,
+                    aCS,
+                    m_sDataFormat == null ? -1 : aCreationHelper.createDataFormat ().getFormat (m_sDataFormat),
+                    m_aFontSpec == null ? null : m_aFontSpec.findOrCreateFont (aWB));
+  }
+
+  /**
+   * Fill the passed cell style with the settings of this object, resolving the
+   * data format via the passed cache.
+   *
+   * @param aWB
+   *        The workbook the cell style belongs to. May not be <code>null</code>.
+   * @param aCS
+   *        The cell style to be filled. May not be <code>null</code>.
+   * @param aDataFormatCache
+   *        The data format cache of the workbook. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public void fillCellStyle (@NonNull final Workbook aWB,
+                             @NonNull final CellStyle aCS,
+                             @NonNull final ExcelDataFormatCache aDataFormatCache)
+  {
+    _fillCellStyle (aWB,
+                    aCS,
+                    m_sDataFormat == null ? -1 : aDataFormatCache.getFormatIndex (m_sDataFormat),
+                    m_aFontSpec == null ? null : m_aFontSpec.findOrCreateFont (aWB));
+  }
+
+  /**
+   * Fill the passed cell style with the settings of this object, resolving the
+   * data format and the font specification via the passed caches.
+   *
+   * @param aWB
+   *        The workbook the cell style belongs to. May not be <code>null</code>.
+   * @param aCS
+   *        The cell style to be filled. May not be <code>null</code>.
+   * @param aDataFormatCache
+   *        The data format cache of the workbook. May not be <code>null</code>.
+   * @param aFontCache
+   *        The font cache of the workbook. May not be <code>null</code>.
+   * @since 7.1.1
+   */
+  public void fillCellStyle (@NonNull final Workbook aWB,
+                             @NonNull final CellStyle aCS,
+                             @NonNull final ExcelDataFormatCache aDataFormatCache,
+                             @NonNull final ExcelFontCache aFontCache)
+  {
+    _fillCellStyle (aWB,
+                    aCS,
+                    m_sDataFormat == null ? -1 : aDataFormatCache.getFormatIndex (m_sDataFormat),
+                    m_aFontSpec == null ? null : aFontCache.getOrCreateFont (m_aFontSpec));
+  }
+
+  private void _fillCellStyle (@NonNull final Workbook aWB,
+                               @NonNull final CellStyle aCS,
+                               final int nDataFormatIndex,
+                               @Nullable final Font aSpecFont)
   {
     if (m_eAlign != null)
       aCS.setAlignment (m_eAlign);
     if (m_eVAlign != null)
       aCS.setVerticalAlignment (m_eVAlign);
     aCS.setWrapText (m_bWrapText);
-    if (m_sDataFormat != null)
-      aCS.setDataFormat (aCreationHelper.createDataFormat ().getFormat (m_sDataFormat));
+    if (nDataFormatIndex >= 0)
+      aCS.setDataFormat ((short) nDataFormatIndex);
     if (m_eFillBackgroundColor != null)
       aCS.setFillBackgroundColor (m_eFillBackgroundColor.getIndex ());
     if (m_eFillForegroundColor != null)
@@ -293,8 +435,11 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
       aCS.setBorderBottom (m_eBorderBottom);
     if (m_eBorderLeft != null)
       aCS.setBorderLeft (m_eBorderLeft);
-    if (m_nFontIndex >= 0)
-      aCS.setFont (aWB.getFontAt (m_nFontIndex));
+    if (aSpecFont != null)
+      aCS.setFont (aSpecFont);
+    else
+      if (m_nFontIndex >= 0)
+        aCS.setFont (aWB.getFontAt (m_nFontIndex));
   }
 
   @Override
@@ -305,6 +450,8 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
     if (o == null || !getClass ().equals (o.getClass ()))
       return false;
     final ExcelStyle rhs = (ExcelStyle) o;
+    if (m_bFrozen && rhs.m_bFrozen && m_nFrozenHashCode != rhs.m_nFrozenHashCode)
+      return false;
     return EqualsHelper.equals (m_eAlign, rhs.m_eAlign) &&
            EqualsHelper.equals (m_eVAlign, rhs.m_eVAlign) &&
            m_bWrapText == rhs.m_bWrapText &&
@@ -316,11 +463,11 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
            EqualsHelper.equals (m_eBorderRight, rhs.m_eBorderRight) &&
            EqualsHelper.equals (m_eBorderBottom, rhs.m_eBorderBottom) &&
            EqualsHelper.equals (m_eBorderLeft, rhs.m_eBorderLeft) &&
-           m_nFontIndex == rhs.m_nFontIndex;
+           m_nFontIndex == rhs.m_nFontIndex &&
+           EqualsHelper.equals (m_aFontSpec, rhs.m_aFontSpec);
   }
 
-  @Override
-  public int hashCode ()
+  private int _calcHashCode ()
   {
     return new HashCodeGenerator (this).append (m_eAlign)
                                        .append (m_eVAlign)
@@ -334,9 +481,16 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
                                        .append (m_eBorderBottom)
                                        .append (m_eBorderLeft)
                                        .append (m_nFontIndex)
+                                       .append (m_aFontSpec)
                                        .getHashCode ();
   }
 
+  @Override
+  public int hashCode ()
+  {
+    return m_bFrozen ? m_nFrozenHashCode : _calcHashCode ();
+  }
+
   @Override
   public String toString ()
   {
@@ -352,6 +506,8 @@ public class ExcelStyle implements ICloneable <ExcelStyle>, Serializable
                                        .appendIfNotNull ("borderBottom", m_eBorderBottom)
                                        .appendIfNotNull ("borderLeft", m_eBorderLeft)
                                        .append ("fontIndex", m_nFontIndex)
+                                       .appendIfNotNull ("fontSpec", m_aFontSpec)
+                                       .append ("frozen", m_bFrozen)
                                        .getToString ();
   }
 }
@@ -16,6 +16,9 @@
  */
 package com.helger.poi.excel.style;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -28,12 +31,20 @@ import com.helger.collection.commons.ICommonsMap;
 
 /**
  * A caching class that maps {@link ExcelStyle} objects to {@link CellStyle}.
+ * Frozen {@link ExcelStyle} objects (see {@link ExcelStyle#freeze()}) are
+ * additionally resolved by identity, which avoids the hash code calculation and
+ * the equals check on every lookup. Only the interned instances (see
+ * {@link #getInterned(ExcelStyle)}) are resolved by identity; other equal
+ * frozen instances are resolved by their (cached) hash code.
  *
  * @author Philip Helger
  */
 public class ExcelStyleCache
 {
   private final ICommonsMap <ExcelStyle, CellStyle> m_aMap = new CommonsHashMap <> ();
+  // Identity based lookup for frozen styles
+  private final Map <ExcelStyle, CellStyle> m_aFrozenMap = new IdentityHashMap <> ();
+  private final ICommonsMap <ExcelStyle, ExcelStyle> m_aInternMap = new CommonsHashMap <> ();
 
   public ExcelStyleCache ()
   {}
@@ -48,20 +59,65 @@ public class ExcelStyleCache
   @Nullable
   public CellStyle getCellStyle (@Nullable final ExcelStyle aExcelStyle)
   {
+    if (aExcelStyle != null && aExcelStyle.isFrozen ())
+    {
+      final CellStyle ret = m_aFrozenMap.get (aExcelStyle);
+      if (ret != null)
+        return ret;
+      // Another instance with the same content may be present - it is not
+      // stored, so that the identity map only contains the interned keys
+    }
     return m_aMap.get (aExcelStyle);
   }
+    }
 
   public void addCellStyle (@NonNull final ExcelStyle aExcelStyle, @NonNull final CellStyle aCellStyle)
   {
     ValueEnforcer.notNull (aExcelStyle, "ExcelStyle");
     ValueEnforcer.notNull (aCellStyle, "CellStyle");
 
-    m_aMap.put (aExcelStyle, aCellStyle);
+    // Ensure the key cannot be modified afterwards
+    final ExcelStyle aKey = getInterned (aExcelStyle);
+    m_aMap.put (aKey, aCellStyle);
+    m_aFrozenMap.put (aKey, aCellStyle);
+  }
+
+  /**
+   * Get the canonical frozen instance of the passed style. All equal styles
+   * passed to this method result in the same instance, so that they can be
+   * compared by identity.
+   *
+   * @param aExcelStyle
+   *        The style to be interned. May not be <code>null</code>.
+   * @return The canonical frozen instance. If the passed style is not frozen, a
+   *         frozen copy is returned.
+   * @since 7.1.1
+   */
+  @NonNull
+  public ExcelStyle getInterned (@NonNull final ExcelStyle aExcelStyle)
+  {
+    ValueEnforcer.notNull (aExcelStyle, "ExcelStyle");
+
+    ExcelStyle ret = m_aInternMap.get (aExcelStyle);
+    if (ret == null)
+    {
+      ret = aExcelStyle.isFrozen () ? aExcelStyle : aExcelStyle.getClone ().freeze ();
+      m_aInternMap.put (ret, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * @return The number of styles resolvable by identity. For testing only.
+   */
+  int getIdentityMappingCount ()
+  {
+    return m_aFrozenMap.size ();
   }
 
   @Override
   public String toString ()
   {
-    return new ToStringGenerator (this).append ("Map", m_aMap).getToString ();
+    return new ToStringGenerator (this).append ("Map", m_aMap).append ("InternMap", m_aInternMap).getToString ();
   }
 }
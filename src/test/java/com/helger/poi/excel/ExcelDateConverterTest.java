@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.GregorianCalendar;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ExcelDateConverter}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelDateConverterTest
+{
+  @Test
+  public void testToExcelDate ()
+  {
+    assertEquals (1, ExcelDateConverter.toExcelDate (LocalDate.of (1900, 1, 1), false), 0);
+    assertEquals (59, ExcelDateConverter.toExcelDate (LocalDate.of (1900, 2, 28), false), 0);
+    assertEquals (61, ExcelDateConverter.toExcelDate (LocalDate.of (1900, 3, 1), false), 0);
+    assertEquals (25569, ExcelDateConverter.toExcelDate (LocalDate.of (1970, 1, 1), false), 0);
+    assertEquals (0, ExcelDateConverter.toExcelDate (LocalDate.of (1904, 1, 1), true), 0);
+    assertEquals (ExcelDateConverter.INVALID_EXCEL_DATE,
+                  ExcelDateConverter.toExcelDate (LocalDate.of (1899, 12, 31), false),
+                  0);
+    assertEquals (ExcelDateConverter.INVALID_EXCEL_DATE,
+                  ExcelDateConverter.toExcelDate (LocalDate.of (1903, 12, 31), true),
+                  0);
+
+    // Compare with POI
+    for (final boolean bDate1904 : new boolean [] { false, true })
+    {
+      LocalDateTime aLDT = LocalDateTime.of (1904, 1, 1, 0, 0);
+      while (aLDT.getYear () < 2100)
+      {
+        assertEquals (aLDT.toString (),
+                      DateUtil.getExcelDate (aLDT, bDate1904),
+                      ExcelDateConverter.toExcelDate (aLDT, bDate1904),
+                      1e-9);
+        assertEquals (aLDT.toString (),
+                      DateUtil.getExcelDate (aLDT.toLocalDate (), bDate1904),
+                      ExcelDateConverter.toExcelDate (aLDT.toLocalDate (), bDate1904),
+                      0);
+        aLDT = aLDT.plusDays (17).plusMinutes (97).plusNanos (123_456_789);
+      }
+    }
+  }
+
+  @Test
+  public void testFromExcelDate ()
+  {
+    assertEquals (LocalDate.of (1900, 1, 1), ExcelDateConverter.toLocalDate (1, false));
+    // The non-existing 1900-02-29 is mapped to 1900-03-01 like in POI
+    assertEquals (LocalDate.of (1900, 3, 1), ExcelDateConverter.toLocalDate (60, false));
+    assertEquals (LocalDate.of (1900, 3, 1), ExcelDateConverter.toLocalDate (61, false));
+    assertEquals (LocalDate.of (1904, 1, 1), ExcelDateConverter.toLocalDate (0, true));
+    assertNull (ExcelDateConverter.toLocalDateTime (-1, false));
+    assertNull (ExcelDateConverter.toLocalDateTime (Double.NaN, false));
+    assertEquals (LocalTime.NOON, ExcelDateConverter.toLocalTime (45000.5));
+    // Rounding to the next day
+    assertEquals (LocalDateTime.of (2023, 3, 16, 0, 0), ExcelDateConverter.toLocalDateTime (45000.9999999999, false));
+
+    // Compare with POI
+    for (final boolean bDate1904 : new boolean [] { false, true })
+      for (double d = 0; d < 80000; d += 13.370001)
+        assertEquals (Double.toString (d),
+                      DateUtil.getLocalDateTime (d, bDate1904),
+                      ExcelDateConverter.toLocalDateTime (d, bDate1904));
+  }
+
+  @Test
+  public void testWorkbookRoundtrip ()
+  {
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      final Sheet aSheet = aWBCH.createNewSheet ();
+      aWBCH.addRow ();
+      aWBCH.addCell (LocalDate.of (2024, 2, 29));
+      aWBCH.addCell (LocalDateTime.of (2024, 2, 29, 13, 14, 15));
+      aWBCH.addCell ();
+
+      assertEquals (LocalDate.of (2024, 2, 29), ExcelReadHelper.getCellValueLocalDate (aSheet.getRow (0).getCell (0)));
+      assertEquals (LocalDateTime.of (2024, 2, 29, 13, 14, 15),
+                    ExcelReadHelper.getCellValueLocalDateTime (aSheet.getRow (0).getCell (1)));
+      assertEquals (LocalTime.of (13, 14, 15), ExcelReadHelper.getCellValueLocalTime (aSheet.getRow (0).getCell (1)));
+      assertNull (ExcelReadHelper.getCellValueLocalDate (aSheet.getRow (0).getCell (2)));
+    }
+  }
+
+  @Test
+  public void testCalendarEquivalence ()
+  {
+    // Fixed zone, so that midnight always exists
+    final ZoneId aZone = ZoneOffset.UTC;
+    final LocalDate aStart = LocalDate.of (2000, 1, 1);
+    for (final boolean bDate1904 : new boolean [] { false, true })
+      for (int i = 0; i < 10_000; ++i)
+      {
+        final LocalDate aDate = aStart.plusDays (i);
+        assertEquals (aDate.toString (),
+                      DateUtil.getExcelDate (GregorianCalendar.from (aDate.atStartOfDay (aZone)), bDate1904),
+                      ExcelDateConverter.toExcelDate (aDate, bDate1904),
+                      0);
+      }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ExcelDateFormatCache}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelDateFormatCacheTest
+{
+  @Test
+  public void testIsDateFormat ()
+  {
+    final ExcelDateFormatCache aCache = ExcelDateFormatCache.getDefaultInstance ();
+    for (final String sFormat : new String [] { "yyyy-mm-dd",
+                                                "dd.mm.yyyy hh:mm:ss",
+                                                "[h]:mm",
+                                                "mmm yy",
+                                                "0.00",
+                                                "#,##0",
+                                                "General",
+                                                "@",
+                                                "\"Date\" yyyy",
+                                                "[Red]0.00" })
+    {
+      final boolean bExpected = DateUtil.isADateFormat (-1, sFormat);
+      assertEquals (sFormat, bExpected, aCache.isDateFormat (-1, sFormat));
+      // Cached
+      assertEquals (sFormat, bExpected, aCache.isDateFormat (200, sFormat));
+    }
+    // Built-in date format
+    assertTrue (aCache.isDateFormat (0x0e, null));
+    assertFalse (aCache.isDateFormat (0, null));
+    assertFalse (aCache.isDateFormat (200, ""));
+  }
+
+  @Test
+  public void testCells ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final CellStyle aDateStyle = aWB.createCellStyle ();
+      aDateStyle.setDataFormat (aWB.createDataFormat ().getFormat ("yyyy-mm-dd"));
+      final CellStyle aDateTimeStyle = aWB.createCellStyle ();
+      aDateTimeStyle.setDataFormat (aWB.createDataFormat ().getFormat ("yyyy-mm-dd hh:mm"));
+      final CellStyle aNumberStyle = aWB.createCellStyle ();
+      aNumberStyle.setDataFormat (aWB.createDataFormat ().getFormat ("0.00"));
+
+      final Row aRow = aWB.createSheet ().createRow (0);
+      final Cell aDate = aRow.createCell (0);
+      aDate.setCellValue (LocalDate.of (2024, 2, 29));
+      aDate.setCellStyle (aDateStyle);
+      final Cell aDateTime = aRow.createCell (1);
+      aDateTime.setCellValue (LocalDateTime.of (2024, 2, 29, 13, 45));
+      aDateTime.setCellStyle (aDateTimeStyle);
+      final Cell aNumber = aRow.createCell (2);
+      aNumber.setCellValue (45000);
+      aNumber.setCellStyle (aNumberStyle);
+      final Cell aString = aRow.createCell (3);
+      aString.setCellValue ("2024-02-29");
+      aString.setCellStyle (aDateStyle);
+
+      final ExcelDateFormatCache aCache = ExcelDateFormatCache.createForWorkbook (aWB);
+      for (int i = 0; i < 2; ++i)
+      {
+        for (int nCol = 0; nCol < 5; ++nCol)
+        {
+          final Cell aCell = aRow.getCell (nCol);
+          final boolean bExpected = aCell != null && DateUtil.isCellDateFormatted (aCell);
+          assertEquals (bExpected, aCache.isCellDateFormatted (aCell));
+          assertEquals (bExpected, ExcelReadHelper.isCellDateFormatted (aCell));
+        }
+        assertEquals (LocalDate.of (2024, 2, 29), ExcelReadHelper.getCellValueTyped (aDate, aCache));
+        assertEquals (LocalDateTime.of (2024, 2, 29, 13, 45), ExcelReadHelper.getCellValueTyped (aDateTime, aCache));
+        assertEquals (Integer.valueOf (45000), ExcelReadHelper.getCellValueTyped (aNumber, aCache));
+        assertEquals ("2024-02-29", ExcelReadHelper.getCellValueTyped (aString, aCache));
+        assertNull (ExcelReadHelper.getCellValueTyped (null, aCache));
+      }
+
+      // Style added after the cache was created
+      final CellStyle aNewStyle = aWB.createCellStyle ();
+      aNewStyle.setDataFormat (aWB.createDataFormat ().getFormat ("dd/mm/yy"));
+      aNumber.setCellStyle (aNewStyle);
+      assertTrue (aCache.isCellDateFormatted (aNumber));
+      assertEquals (LocalDate.of (2023, 3, 15), ExcelReadHelper.getCellValueTyped (aNumber));
+    }
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedSet;
+
+/**
+ * Test class for class {@link ExcelIncrementalFormulaEvaluator}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelIncrementalFormulaEvaluatorTest
+{
+  @Test
+  public void testCellKey ()
+  {
+    final long nKey = ExcelFormulaDependencyGraph.getCellKey (3, 1_048_575, 16_383);
+    assertEquals (3, ExcelFormulaDependencyGraph.getSheetIndex (nKey));
+    assertEquals (1_048_575, ExcelFormulaDependencyGraph.getRowIndex (nKey));
+    assertEquals (16_383, ExcelFormulaDependencyGraph.getColumnIndex (nKey));
+  }
+
+  @Test
+  public void testIncrementalEvaluation ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Sheet aSheet1 = aWB.createSheet ("Data");
+      final Sheet aSheet2 = aWB.createSheet ("Other");
+      final Row aRow0 = aSheet1.createRow (0);
+      final Row aRow1 = aSheet1.createRow (1);
+      final Cell aA1 = aRow0.createCell (0);
+      aA1.setCellValue (1);
+      aRow1.createCell (0).setCellValue (2);
+      final Cell aB1 = aRow0.createCell (1);
+      aB1.setCellFormula ("A1*2");
+      aRow1.createCell (1).setCellFormula ("A2*2");
+      final Cell aC1 = aRow0.createCell (2);
+      aC1.setCellFormula ("SUM(B1:B2)");
+      final Cell aOther = aSheet2.createRow (0).createCell (0);
+      aOther.setCellFormula ("Data!A2+1");
+      final Cell aVolatile = aSheet2.createRow (1).createCell (0);
+      aVolatile.setCellFormula ("INDIRECT(\"Data!A1\")");
+
+      final ExcelIncrementalFormulaEvaluator aEvaluator = new ExcelIncrementalFormulaEvaluator (aWB);
+      final ExcelFormulaDependencyGraph aGraph = aEvaluator.getDependencyGraph ();
+      assertEquals (5, aGraph.getFormulaCellCount ());
+      assertTrue (aGraph.isVolatileCell (ExcelFormulaDependencyGraph.getCellKey (aVolatile)));
+      assertFalse (aGraph.isVolatileCell (ExcelFormulaDependencyGraph.getCellKey (aC1)));
+
+      final ICommonsOrderedSet <Long> aDependents = aGraph.getAllDependents (ExcelFormulaDependencyGraph.getCellKey (aA1));
+      assertEquals (2, aDependents.size ());
+      assertTrue (aDependents.contains (Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (aB1))));
+      assertTrue (aDependents.contains (Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (aC1))));
+
+      // Everything is dirty initially
+      assertEquals (5, aEvaluator.getDirtyCellCount ());
+      assertEquals (5, aEvaluator.evaluateAll ());
+      assertEquals (0, aEvaluator.getDirtyCellCount ());
+      assertEquals (6, aC1.getNumericCellValue (), 0);
+      assertEquals (3, aOther.getNumericCellValue (), 0);
+      assertEquals (1, aVolatile.getNumericCellValue (), 0);
+
+      // Change A1 - only B1, C1 and the volatile cell are recalculated
+      aA1.setCellValue (10);
+      aEvaluator.notifyUpdateCell (aA1);
+      assertEquals (2, aEvaluator.getDirtyCellCount ());
+      assertEquals (3, aEvaluator.evaluateDirty ());
+      assertEquals (24, aC1.getNumericCellValue (), 0);
+      assertEquals (20, aB1.getNumericCellValue (), 0);
+      assertEquals (10, aVolatile.getNumericCellValue (), 0);
+      assertEquals (3, aOther.getNumericCellValue (), 0);
+      assertEquals (8, aEvaluator.getRecomputedCellCount ());
+      assertEquals (2, aEvaluator.getReusedCellCount ());
+
+      // Change a formula - the new precedents are tracked
+      aB1.setCellFormula ("Other!A1*3");
+      aEvaluator.notifySetFormula (aB1);
+      assertEquals (2, aEvaluator.getDirtyCellCount ());
+      aEvaluator.evaluateDirty ();
+      assertEquals (9, aB1.getNumericCellValue (), 0);
+      assertEquals (13, aC1.getNumericCellValue (), 0);
+      assertEquals (0, aGraph.getAllDependents (ExcelFormulaDependencyGraph.getCellKey (aA1)).size ());
+      assertEquals (2,
+                    aGraph.getAllDependents (ExcelFormulaDependencyGraph.getCellKey (aOther)).size ());
+    }
+  }
+
+  @Test
+  public void testVolatileFunctions ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Row aRow = aWB.createSheet ().createRow (0);
+      final Cell aRand = aRow.createCell (0);
+      aRand.setCellFormula ("RAND()");
+      final Cell aDependent = aRow.createCell (1);
+      aDependent.setCellFormula ("A1*2");
+
+      final ExcelIncrementalFormulaEvaluator aEvaluator = new ExcelIncrementalFormulaEvaluator (aWB);
+      assertTrue (aEvaluator.getDependencyGraph ().isVolatileCell (ExcelFormulaDependencyGraph.getCellKey (aRand)));
+      assertEquals (2, aEvaluator.evaluateAll ());
+      final double dFirst = aRand.getNumericCellValue ();
+      assertEquals (dFirst * 2, aDependent.getNumericCellValue (), 0);
+
+      // Nothing changed, but the volatile cell and its dependent are
+      // recalculated
+      assertEquals (2, aEvaluator.evaluateDirty ());
+      final double dSecond = aRand.getNumericCellValue ();
+      assertTrue (dFirst != dSecond);
+      assertEquals (dSecond * 2, aDependent.getNumericCellValue (), 0);
+    }
+  }
+
+  @Test
+  public void testAreaDependencies ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Sheet aSheet = aWB.createSheet ();
+      final Row aRow = aSheet.createRow (0);
+      // Spans multiple row buckets
+      final Cell aD1 = aRow.createCell (3);
+      aD1.setCellFormula ("SUM(A1:A2000)");
+      // Whole column
+      final Cell aE1 = aRow.createCell (4);
+      aE1.setCellFormula ("SUM(A:A)");
+      // Spans two column buckets
+      final Cell aF1 = aRow.createCell (5);
+      aF1.setCellFormula ("SUM(BL1:BM1)");
+
+      final ExcelFormulaDependencyGraph aGraph = ExcelFormulaDependencyGraph.build (aWB);
+      final Long aKeyD1 = Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (aD1));
+      final Long aKeyE1 = Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (aE1));
+      final Long aKeyF1 = Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (aF1));
+
+      ICommonsOrderedSet <Long> aDependents = aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0,
+                                                                                                              1499,
+                                                                                                              0));
+      assertEquals (2, aDependents.size ());
+      assertTrue (aDependents.contains (aKeyD1));
+      assertTrue (aDependents.contains (aKeyE1));
+
+      aDependents = aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 2999, 0));
+      assertEquals (1, aDependents.size ());
+      assertTrue (aDependents.contains (aKeyE1));
+
+      aDependents = aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 0, 64));
+      assertEquals (1, aDependents.size ());
+      assertTrue (aDependents.contains (aKeyF1));
+      assertEquals (1, aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 0, 63)).size ());
+      assertEquals (0, aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 0, 65)).size ());
+      assertEquals (0, aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 0, 1)).size ());
+
+      // Removing a formula removes all its areas
+      aD1.setCellValue (1);
+      aGraph.addFormulaCell (aD1);
+      aE1.setCellFormula ("SUM(B:B)");
+      aGraph.addFormulaCell (aE1);
+      assertEquals (0, aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 1499, 0)).size ());
+      aDependents = aGraph.getDirectDependents (ExcelFormulaDependencyGraph.getCellKey (0, 1499, 1));
+      assertEquals (1, aDependents.size ());
+      assertTrue (aDependents.contains (aKeyE1));
+    }
+  }
+
+  @Test
+  public void testEvaluateAllParallel () throws Exception
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      for (int nSheet = 0; nSheet < 4; ++nSheet)
+      {
+        final Sheet aSheet = aWB.createSheet ("Sheet" + nSheet);
+        for (int nRow = 0; nRow < 50; ++nRow)
+        {
+          final Row aRow = aSheet.createRow (nRow);
+          aRow.createCell (0).setCellValue (nSheet * 100 + nRow);
+          aRow.createCell (1).setCellFormula ("A" + (nRow + 1) + "*2");
+          aRow.createCell (2).setCellFormula ("IF(B" + (nRow + 1) + ">100,\"big\",\"small\")");
+        }
+        aSheet.createRow (50).createCell (1).setCellFormula ("SUM(B1:B50)");
+      }
+
+      final ExcelIncrementalFormulaEvaluator aEvaluator = new ExcelIncrementalFormulaEvaluator (aWB);
+      final ExcelFormulaDependencyGraph aGraph = aEvaluator.getDependencyGraph ();
+      assertFalse (aGraph.hasCycle ());
+      // One group per sheet
+      final ICommonsList <ICommonsList <Long>> aComponents = aGraph.getIndependentComponents ();
+      assertEquals (4, aComponents.size ());
+      assertEquals (Long.valueOf (ExcelFormulaDependencyGraph.getCellKey (0, 0, 1)), aComponents.get (0).get (0));
+      assertEquals (101, aComponents.get (0).size ());
+
+      final ExecutorService aExecutor = Executors.newFixedThreadPool (4);
+      try
+      {
+        assertEquals (4 * 101, aEvaluator.evaluateAllParallel (aExecutor));
+      }
+      finally
+      {
+        aExecutor.shutdown ();
+        assertTrue (aExecutor.awaitTermination (10, TimeUnit.SECONDS));
+      }
+      assertEquals (0, aEvaluator.getDirtyCellCount ());
+
+      for (int nSheet = 0; nSheet < 4; ++nSheet)
+      {
+        final Sheet aSheet = aWB.getSheetAt (nSheet);
+        double dSum = 0;
+        for (int nRow = 0; nRow < 50; ++nRow)
+        {
+          final Row aRow = aSheet.getRow (nRow);
+          final double dValue = (nSheet * 100 + nRow) * 2;
+          assertEquals (dValue, aRow.getCell (1).getNumericCellValue (), 0);
+          assertEquals (dValue > 100 ? "big" : "small", aRow.getCell (2).getStringCellValue ());
+          dSum += dValue;
+        }
+        assertEquals (dSum, aSheet.getRow (50).getCell (1).getNumericCellValue (), 0);
+      }
+
+      // Incremental evaluation still works afterwards
+      final Cell aA1 = aWB.getSheetAt (1).getRow (0).getCell (0);
+      aA1.setCellValue (1000);
+      aEvaluator.notifyUpdateCell (aA1);
+      assertEquals (3, aEvaluator.evaluateDirty ());
+      assertEquals ("big", aWB.getSheetAt (1).getRow (0).getCell (2).getStringCellValue ());
+    }
+  }
+
+  @Test
+  public void testCycle ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Row aRow = aWB.createSheet ().createRow (0);
+      aRow.createCell (0).setCellFormula ("B1+1");
+      aRow.createCell (1).setCellFormula ("C1+1");
+      aRow.createCell (2).setCellValue (1);
+      assertFalse (ExcelFormulaDependencyGraph.build (aWB).hasCycle ());
+
+      aRow.getCell (2).setCellFormula ("SUM(A1:A2)");
+      final ExcelFormulaDependencyGraph aGraph = ExcelFormulaDependencyGraph.build (aWB);
+      assertTrue (aGraph.hasCycle ());
+      assertEquals (1, aGraph.getIndependentComponents ().size ());
+    }
+  }
+}
@@ -17,22 +17,33 @@
 package com.helger.poi.excel;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.formula.IStabilityClassifier;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.FormulaError;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jspecify.annotations.NonNull;
 import org.junit.Test;
 
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.string.StringReplace;
 import com.helger.io.resource.ClassPathResource;
 
 /**
@@ -151,6 +162,37 @@ public final class ExcelReadHelperTest
     assertNull (aWB);
   }
 
+  @Test
+  public void testReadWorkbookFromRawInputStream ()
+  {
+    // XLS
+    Workbook aWB = ExcelReadHelper.readWorkbookFromInputStream (ClassPathResource.getInputStream (TEST1_XLS));
+    assertTrue (aWB instanceof HSSFWorkbook);
+    _validateWorkbook (aWB);
+
+    // XLSX
+    aWB = ExcelReadHelper.readWorkbookFromInputStream (ClassPathResource.getInputStream (TEST1_XLSX));
+    assertTrue (aWB instanceof XSSFWorkbook);
+    _validateWorkbook (aWB);
+
+    // No Excel file
+    aWB = ExcelReadHelper.readWorkbookFromInputStream (ClassPathResource.getInputStream ("excel/nonexcel.txt"));
+    assertNull (aWB);
+
+    // Empty content
+    aWB = ExcelReadHelper.readWorkbookFromInputStream (new NonBlockingByteArrayInputStream (new byte [0]));
+    assertNull (aWB);
+  }
+
+  @Test
+  public void testGetFromFileMagic ()
+  {
+    assertEquals (EExcelVersion.XLS, EExcelVersion.getFromFileMagic (FileMagic.OLE2));
+    assertEquals (EExcelVersion.XLSX, EExcelVersion.getFromFileMagic (FileMagic.OOXML));
+    assertNull (EExcelVersion.getFromFileMagic (FileMagic.PDF));
+    assertNull (EExcelVersion.getFromFileMagic (null));
+  }
+
   @Test
   public void testGetCellValueObject ()
   {
@@ -191,6 +233,149 @@ public final class ExcelReadHelperTest
     }
   }
 
+  @Test
+  public void testPrimitiveAccessors ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Sheet aSheet = aWB.createSheet ();
+      final Row aRow = aSheet.createRow (0);
+      final Cell aCell = aRow.createCell (0);
+
+      assertFalse (ExcelReadHelper.isNumericCell (null));
+      assertEquals (-1, ExcelReadHelper.getCellValueDouble (null, -1), 0);
+      assertEquals (-1, ExcelReadHelper.getCellValueLong (aCell, -1));
+
+      aCell.setCellValue (4711);
+      assertTrue (ExcelReadHelper.isNumericCell (aCell));
+      assertFalse (ExcelReadHelper.isStringCell (aCell));
+      assertEquals (4711, ExcelReadHelper.getCellValueDouble (aCell, -1), 0);
+      assertEquals (4711, ExcelReadHelper.getCellValueLong (aCell, -1));
+      assertEquals ("4711", ExcelReadHelper.getCellValueString (aCell));
+
+      aCell.setCellValue (Long.MAX_VALUE);
+      assertEquals (Long.MAX_VALUE, ExcelReadHelper.getCellValueLong (aCell, -1));
+      assertEquals (Long.toString (Long.MAX_VALUE), ExcelReadHelper.getCellValueString (aCell));
+
+      aCell.setCellValue (3.5);
+      assertEquals (3.5, ExcelReadHelper.getCellValueDouble (aCell, -1), 0);
+      assertEquals (-1, ExcelReadHelper.getCellValueLong (aCell, -1));
+      assertEquals ("3.5", ExcelReadHelper.getCellValueString (aCell));
+
+      aCell.setCellValue ("Anyhow");
+      assertTrue (ExcelReadHelper.isStringCell (aCell));
+      assertEquals (-1, ExcelReadHelper.getCellValueDouble (aCell, -1), 0);
+
+      aCell.setCellValue (true);
+      assertTrue (ExcelReadHelper.isBooleanCell (aCell));
+      assertEquals ("true", ExcelReadHelper.getCellValueString (aCell));
+
+      // Formula with cached numeric result
+      final Cell aFormulaCell = aRow.createCell (1);
+      aFormulaCell.setCellFormula ("1+2");
+      aWB.getCreationHelper ().createFormulaEvaluator ().evaluateFormulaCell (aFormulaCell);
+      assertTrue (ExcelReadHelper.isNumericCell (aFormulaCell));
+      assertEquals (3, ExcelReadHelper.getCellValueLong (aFormulaCell, -1));
+    }
+  }
+
+  @Test
+  public void testVisitCellValue ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    final IExcelCellValueVisitor aVisitor = new IExcelCellValueVisitor ()
+    {
+      @Override
+      public void onNumber (final double dValue)
+      {
+        aSB.append ('n').append (dValue);
+      }
+
+      @Override
+      public void onString (@NonNull final String sValue)
+      {
+        aSB.append ('s').append (sValue);
+      }
+
+      @Override
+      public void onBoolean (final boolean bValue)
+      {
+        aSB.append ('b').append (bValue);
+      }
+
+      @Override
+      public void onBlank ()
+      {
+        aSB.append ('-');
+      }
+    };
+
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      aSB.setLength (0);
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Row aRow = aWB.createSheet ().createRow (0);
+      aRow.createCell (0).setCellValue (1.5);
+      aRow.createCell (1).setCellValue ("x");
+      aRow.createCell (2).setCellValue (false);
+      aRow.createCell (3).setBlank ();
+      aRow.createCell (4).setCellErrorValue (FormulaError.DIV0.getCode ());
+      for (int i = 0; i < 6; ++i)
+        ExcelReadHelper.visitCellValue (aRow.getCell (i), aVisitor);
+      assertEquals ("n1.5sxbfalse---", aSB.toString ());
+    }
+  }
+
+  @NonNull
+  private static String _normalizeMultiPass (@NonNull final String sValue)
+  {
+    // The previous implementation as reference
+    final StringBuilder aSB = new StringBuilder ();
+    for (final char c : sValue.toCharArray ())
+      if (Character.getType (c) != Character.CONTROL)
+        aSB.append (c);
+    return StringReplace.replaceAllRepeatedly (aSB.toString ().trim (), "  ", " ");
+  }
+
+  @Test
+  public void testGetNormalizedString ()
+  {
+    assertNull (ExcelReadHelper.getNormalizedString (null));
+
+    // Unchanged - same instance
+    for (final String s : new String [] { "", "a", "abc def", "a b c", "ä\u00a0ö" })
+      assertSame (s, ExcelReadHelper.getNormalizedString (s));
+
+    for (final String s : new String [] { " ",
+                                          "   ",
+                                          "\t",
+                                          " a",
+                                          "a ",
+                                          "  a  b   c  ",
+                                          "a\tb",
+                                          "a \t b",
+                                          "\r\nline1\r\n  line2 \u0000",
+                                          "x\u0007 \u0007 y" })
+    {
+      final String sExpected = _normalizeMultiPass (s);
+      assertEquals (sExpected, ExcelReadHelper.getNormalizedString (s));
+
+      final StringBuilder aSB = new StringBuilder ("prefix|");
+      ExcelReadHelper.appendNormalizedString (s, aSB);
+      assertEquals ("prefix|" + sExpected, aSB.toString ());
+    }
+
+    final Workbook aWB = EExcelVersion.XLSX.createWorkbook ();
+    final Row aRow = aWB.createSheet ().createRow (0);
+    aRow.createCell (0).setCellValue ("  Hello \n  World ");
+    assertEquals ("Hello World", ExcelReadHelper.getCellValueNormalizedString (aRow.getCell (0)));
+    final StringBuilder aSB = new StringBuilder ();
+    assertTrue (ExcelReadHelper.appendCellValueNormalizedString (aRow.getCell (0), aSB));
+    assertFalse (ExcelReadHelper.appendCellValueNormalizedString (aRow.getCell (1), aSB));
+    assertEquals ("Hello World", aSB.toString ());
+  }
+
   @Test
   public void testReadXLS ()
   {
@@ -204,4 +389,47 @@ public final class ExcelReadHelperTest
     assertNotNull (aWB);
     _validateWorkbook (aWB);
   }
+
+  @Test
+  public void testReadWorkbookFromFile () throws IOException
+  {
+    final File aXLS = new ClassPathResource (TEST1_XLS).getAsFile ();
+    final File aXLSX = new ClassPathResource (TEST1_XLSX).getAsFile ();
+    final File aNonExcel = new ClassPathResource ("excel/nonexcel.txt").getAsFile ();
+
+    // Explicit version
+    try (final Workbook aWB = EExcelVersion.XLS.readWorkbook (aXLS))
+    {
+      assertTrue (aWB instanceof HSSFWorkbook);
+      _validateWorkbook (aWB);
+    }
+    try (final Workbook aWB = EExcelVersion.XLSX.readWorkbook (aXLSX.toPath ()))
+    {
+      assertTrue (aWB instanceof XSSFWorkbook);
+      _validateWorkbook (aWB);
+    }
+
+    // Wrong version
+    assertNull (EExcelVersion.XLS.readWorkbook (aXLSX));
+    assertNull (EExcelVersion.XLSX.readWorkbook (aXLS));
+    assertNull (EExcelVersion.XLSX.readWorkbook (aNonExcel));
+    // OLE2 but no Excel file
+    final File aDoc = new ClassPathResource ("word/test1.doc").getAsFile ();
+    assertNull (EExcelVersion.XLS.readWorkbook (aDoc));
+    assertNull (ExcelReadHelper.readWorkbook (aDoc));
+
+    // Auto detection
+    try (final Workbook aWB = ExcelReadHelper.readWorkbook (aXLS))
+    {
+      assertTrue (aWB instanceof HSSFWorkbook);
+      _validateWorkbook (aWB);
+    }
+    try (final Workbook aWB = ExcelReadHelper.readWorkbook (aXLSX.toPath ()))
+    {
+      assertTrue (aWB instanceof XSSFWorkbook);
+      _validateWorkbook (aWB);
+    }
+    assertNull (ExcelReadHelper.readWorkbook (aNonExcel));
+    assertNull (ExcelReadHelper.readWorkbook (new File ("no-such-file.xlsx")));
+  }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Test;
+
+/**
+ * Test class for class {@link ExcelStabilityClassifier}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelStabilityClassifierTest
+{
+  @Test
+  public void testClassification ()
+  {
+    final Workbook aWB = EExcelVersion.XLSX.createWorkbook ();
+    final Sheet aSheet = aWB.createSheet ("Input");
+    aSheet.createRow (0).createCell (0).setCellValue (1);
+    aSheet.getRow (0).createCell (1).setCellFormula ("A1*2");
+    aWB.createSheet ("Other");
+
+    final ExcelStabilityClassifier aClassifier = new ExcelStabilityClassifier (aWB);
+    // Disabled by default
+    assertFalse (aClassifier.isCellFinal (0, 0, 0));
+    assertFalse (aClassifier.isCellFinal (1, 5, 5));
+
+    aClassifier.setUnwrittenCellsFinal (true);
+    assertTrue (aClassifier.isCellFinal (0, 0, 0));
+    assertTrue (aClassifier.isCellFinal (1, 5, 5));
+    // Formula cells are never final
+    assertFalse (aClassifier.isCellFinal (0, 0, 1));
+
+    aClassifier.setUnwrittenCellsFinal (false);
+    assertFalse (aClassifier.isCellFinal (0, 0, 0));
+    assertFalse (aClassifier.isCellFinal (1, 5, 5));
+    aClassifier.addInputSheet (0).addStableRange (1, CellRangeAddress.valueOf ("A1:F10"));
+    assertTrue (aClassifier.isCellFinal (0, 0, 0));
+    assertTrue (aClassifier.isCellFinal (1, 5, 5));
+    assertFalse (aClassifier.isCellFinal (1, 10, 5));
+    assertFalse (aClassifier.isCellFinal (0, 0, 1));
+
+    // Written cells are no longer final
+    assertTrue (aClassifier.notifyCellWritten (1, 5, 5));
+    assertFalse (aClassifier.isCellFinal (1, 5, 5));
+    assertFalse (aClassifier.notifyCellWritten (1, 5, 5));
+  }
+
+  @Test
+  public void testEvaluation ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Sheet aSheet = aWB.createSheet ("Data");
+      for (int i = 0; i < 100; ++i)
+        aSheet.createRow (i).createCell (0).setCellValue (i);
+      final Cell aSum = aSheet.getRow (0).createCell (1);
+      aSum.setCellFormula ("SUM(A1:A100)");
+      final Cell aDouble = aSheet.getRow (0).createCell (2);
+      aDouble.setCellFormula ("B1*2");
+
+      final ExcelStabilityClassifier aClassifier = new ExcelStabilityClassifier (aWB).setUnwrittenCellsFinal (true)
+                                                                                      .setMeasurementEnabled (true);
+      final ExcelFormulaEvaluator aEvaluator = new ExcelFormulaEvaluator (aWB, aClassifier);
+      assertEquals (9900, aEvaluator.evaluate (aDouble).getNumberValue (), 0);
+      // One saved entry per input cell
+      assertEquals (100, aClassifier.getSavedCacheEntryCount ());
+      assertTrue (aClassifier.getQueryCount () >= 100);
+
+      // Changing a final cell is still reflected in the result
+      final Cell aA1 = aSheet.getRow (0).getCell (0);
+      aA1.setCellValue (100);
+      aEvaluator.notifyUpdateCell (aA1);
+      assertEquals (10100, aEvaluator.evaluate (aDouble).getNumberValue (), 0);
+      assertFalse (aClassifier.isCellFinal (0, 0, 0));
+
+      aClassifier.resetMeasurement ();
+      assertEquals (0, aClassifier.getSavedCacheEntryCount ());
+      assertEquals (0, aClassifier.getQueryCount ());
+    }
+  }
+
+  @Test
+  public void testIncrementalInvalidation ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      final Sheet aSheet = aWB.createSheet ("Data");
+      for (int i = 0; i < 10; ++i)
+      {
+        final Row aRow = aSheet.createRow (i);
+        aRow.createCell (0).setCellValue (i);
+        aRow.createCell (1).setCellFormula ("A" + (i + 1) + "*2");
+      }
+      final Cell aSum = aSheet.getRow (0).createCell (2);
+      aSum.setCellFormula ("SUM(B1:B10)");
+      final Cell aInput = aSheet.getRow (0).createCell (3);
+      aInput.setCellValue (1);
+      final Cell aUnrelated = aSheet.getRow (0).createCell (4);
+      aUnrelated.setCellFormula ("D1+1");
+
+      final ExcelStabilityClassifier aClassifier = new ExcelStabilityClassifier (aWB).setUnwrittenCellsFinal (true);
+      final ExcelIncrementalFormulaEvaluator aEvaluator = new ExcelIncrementalFormulaEvaluator (aWB, aClassifier);
+      assertEquals (12, aEvaluator.evaluateAll ());
+      assertEquals (90, aSum.getNumericCellValue (), 0);
+      assertEquals (2, aUnrelated.getNumericCellValue (), 0);
+
+      // Not notified on purpose - the cached result must survive
+      aInput.setCellValue (5);
+
+      // Change a final cell - only B1 and the sum are recomputed
+      aEvaluator.resetStatistics ();
+      final Cell aA1 = aSheet.getRow (0).getCell (0);
+      aA1.setCellValue (100);
+      aEvaluator.notifyUpdateCell (aA1);
+      assertEquals (2, aEvaluator.evaluateDirty ());
+      assertEquals (2, aEvaluator.getRecomputedCellCount ());
+      assertEquals (10, aEvaluator.getReusedCellCount ());
+      assertEquals (200, aSheet.getRow (0).getCell (1).getNumericCellValue (), 0);
+      assertEquals (290, aSum.getNumericCellValue (), 0);
+      assertEquals (290, aEvaluator.evaluate (aSum).getNumberValue (), 0);
+      // The other cached results were not cleared
+      assertEquals (2, aEvaluator.evaluate (aUnrelated).getNumberValue (), 0);
+    }
+  }
+}
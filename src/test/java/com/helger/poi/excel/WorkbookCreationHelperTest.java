@@ -16,10 +16,26 @@
  */
 package com.helger.poi.excel;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
 
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.junit.Test;
 
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.poi.excel.style.ExcelStyle;
+
 /**
  * Test class for class {@link WorkbookCreationHelper}.
  *
@@ -57,4 +73,275 @@ public final class WorkbookCreationHelperTest
       aWBCH.writeTo (new File ("mock.xlsx"));
     }
   }
+
+  @Test
+  public void testStreaming ()
+  {
+    final int nRows = 5_000;
+    final byte [] aBytes;
+    try (final WorkbookCreationHelper aWBCH = WorkbookCreationHelper.createStreaming (10, true))
+    {
+      assertTrue (aWBCH.isStreaming ());
+      final Sheet aSheet = aWBCH.createNewSheet ("Streaming");
+      for (int i = 0; i < nRows; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell ("Row " + i);
+        aWBCH.addCell (i);
+      }
+      assertEquals (nRows, aWBCH.getRowCount ());
+
+      // Only the last 10 rows are kept in memory
+      assertNull (aSheet.getRow (0));
+      assertNotNull (aSheet.getRow (nRows - 1));
+
+      aBytes = aWBCH.getAsByteArray ();
+      assertNotNull (aBytes);
+    }
+
+    // Read it again
+    final Workbook aWB = EExcelVersion.XLSX.readWorkbook (new NonBlockingByteArrayInputStream (aBytes));
+    assertNotNull (aWB);
+    final Sheet aSheet = aWB.getSheet ("Streaming");
+    assertNotNull (aSheet);
+    assertEquals (nRows - 1, aSheet.getLastRowNum ());
+    assertEquals ("Row 0", aSheet.getRow (0).getCell (0).getStringCellValue ());
+    assertEquals (nRows - 1, aSheet.getRow (nRows - 1).getCell (1).getNumericCellValue (), 0.0001);
+
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      assertFalse (aWBCH.isStreaming ());
+    }
+  }
+
+  @Test
+  public void testEstimateColumnWidths ()
+  {
+    final ExcelStyle aNumberStyle = new ExcelStyle ().setDataFormat ("#,##0.00");
+    final ExcelStyle aDateStyle = new ExcelStyle ().setDataFormat ("dd.mm.yyyy");
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      assertFalse (aWBCH.isEstimateColumnWidths ());
+      aWBCH.setEstimateColumnWidths (true);
+      assertTrue (aWBCH.isEstimateColumnWidths ());
+
+      final Sheet aSheet = aWBCH.createNewSheet ();
+      for (int i = 0; i < 100; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell ("Short");
+        aWBCH.addCell ("A much longer text value in row " + i);
+        aWBCH.addCell (1234567.891 * i);
+        aWBCH.addCellStyle (aNumberStyle);
+        aWBCH.addCell (LocalDate.of (2020, 1, 1));
+        aWBCH.addCellStyle (aDateStyle);
+        aWBCH.addCellFormula ("A1");
+      }
+      final int nDefaultWidth = aSheet.getColumnWidth (4);
+      aWBCH.autoSizeAllColumns ();
+
+      // "Short" + padding
+      assertEquals (6 * 256, aSheet.getColumnWidth (0));
+      assertTrue (aSheet.getColumnWidth (1) > aSheet.getColumnWidth (0));
+      // "122,222,221.21" + padding
+      assertEquals (15 * 256, aSheet.getColumnWidth (2));
+      // "01.01.2020" + padding
+      assertEquals (11 * 256, aSheet.getColumnWidth (3));
+      // Formulas are not estimated
+      assertEquals (nDefaultWidth, aSheet.getColumnWidth (4));
+    }
+
+    // Streaming mode
+    try (final WorkbookCreationHelper aWBCH = WorkbookCreationHelper.createStreaming (5, false))
+    {
+      assertTrue (aWBCH.isEstimateColumnWidths ());
+      final Sheet aSheet = aWBCH.createNewSheet ();
+      for (int i = 0; i < 100; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell (i == 0 ? "The longest value is in the first row" : "x");
+      }
+      aWBCH.autoSizeAllColumns ();
+      assertEquals (38 * 256, aSheet.getColumnWidth (0));
+    }
+  }
+
+  @Test
+  public void testRegisteredStyles ()
+  {
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      final int nBold = aWBCH.registerCellStyle (new ExcelStyle ().setWrapText (true));
+      final int nDate = aWBCH.registerCellStyle (new ExcelStyle ().setDataFormat ("dd.mm.yyyy"));
+      assertEquals (0, nBold);
+      assertEquals (1, nDate);
+      // Same style again
+      assertEquals (nDate, aWBCH.registerCellStyle (new ExcelStyle ().setDataFormat ("dd.mm.yyyy").freeze ()));
+      assertEquals (2, aWBCH.getRegisteredCellStyleCount ());
+      assertEquals (2, aWBCH.getCreatedCellStyleCount ());
+
+      final Sheet aSheet = aWBCH.createNewSheet ();
+      aWBCH.setColumnStyle (2, nBold);
+      aWBCH.addRow ();
+      final Cell aCell1 = aWBCH.addCell ("Text", nBold);
+      final Cell aCell2 = aWBCH.addCell (LocalDate.of (2020, 2, 3), nDate);
+      final Cell aCell3 = aWBCH.addCell (12.5);
+      aWBCH.addCellStyle (nDate);
+      assertTrue (aCell1.getCellStyle ().getWrapText ());
+      assertEquals ("dd.mm.yyyy", aCell2.getCellStyle ().getDataFormatString ());
+      assertEquals ("dd.mm.yyyy", aCell3.getCellStyle ().getDataFormatString ());
+      assertTrue (aSheet.getColumnStyle (2).getWrapText ());
+
+      try
+      {
+        aWBCH.addCellStyle (2);
+        fail ();
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+      // No new styles were created
+      assertEquals (2, aWBCH.getCreatedCellStyleCount ());
+    }
+  }
+
+  private static final class MockPerson
+  {
+    private final String m_sName;
+    private final int m_nAge;
+    private final LocalDate m_aBirthday;
+
+    MockPerson (final String sName, final int nAge, final LocalDate aBirthday)
+    {
+      m_sName = sName;
+      m_nAge = nAge;
+      m_aBirthday = aBirthday;
+    }
+  }
+
+  @Test
+  public void testAddRows ()
+  {
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      final Sheet aSheet = aWBCH.createNewSheet ();
+      aWBCH.addRow ("Name", "Age", "Birthday", null, Boolean.TRUE);
+      aWBCH.addRows (List.of (new MockPerson ("Alice", 42, LocalDate.of (1984, 2, 29)),
+                              new MockPerson ("Bob", 17, null)),
+                     ExcelColumnSpec.<MockPerson> ofString (x -> x.m_sName),
+                     ExcelColumnSpec.<MockPerson> ofLong (x -> x.m_nAge),
+                     ExcelColumnSpec.<MockPerson> ofLocalDate (x -> x.m_aBirthday)
+                                    .withStyle (new ExcelStyle ().setDataFormat ("yyyy-mm-dd")));
+      assertEquals (3, aWBCH.getRowCount ());
+      assertEquals (1, aWBCH.getRegisteredCellStyleCount ());
+
+      assertEquals (CellType.BLANK, aSheet.getRow (0).getCell (3).getCellType ());
+      assertTrue (aSheet.getRow (0).getCell (4).getBooleanCellValue ());
+      assertEquals ("Alice", aSheet.getRow (1).getCell (0).getStringCellValue ());
+      assertEquals (42, aSheet.getRow (1).getCell (1).getNumericCellValue (), 0);
+      assertEquals (LocalDate.of (1984, 2, 29), aSheet.getRow (1).getCell (2).getLocalDateTimeCellValue ().toLocalDate ());
+      assertEquals ("yyyy-mm-dd", aSheet.getRow (1).getCell (2).getCellStyle ().getDataFormatString ());
+      assertEquals (CellType.BLANK, aSheet.getRow (2).getCell (2).getCellType ());
+      assertEquals ("yyyy-mm-dd", aSheet.getRow (2).getCell (2).getCellStyle ().getDataFormatString ());
+    }
+  }
+
+  @Test
+  public void testFormulaTemplate ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+      try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (eVersion))
+      {
+        aWBCH.createNewSheet ();
+        // Anchored in C1
+        final ExcelFormulaTemplate aTemplate = aWBCH.createFormulaTemplate ("A1*B1+$A$1", 0, 2);
+        final ExcelFormulaTemplate aSumTemplate = aWBCH.createFormulaTemplate ("SUM(A$1:A1)", 0, 3);
+        assertEquals (2, aWBCH.getFormulaParseCount ());
+        for (int i = 0; i < 100; ++i)
+        {
+          aWBCH.addRow ();
+          aWBCH.addCell (i + 1);
+          aWBCH.addCell (2);
+          aWBCH.addCellFormula (aTemplate);
+          aWBCH.addCellFormula (aSumTemplate);
+          aWBCH.addCellFormula ("PI()");
+        }
+
+        final Sheet aSheet = aWBCH.getWorkbook ().getSheetAt (0);
+        assertEquals ("A1*B1+$A$1", aSheet.getRow (0).getCell (2).getCellFormula ());
+        assertEquals ("A50*B50+$A$1", aSheet.getRow (49).getCell (2).getCellFormula ());
+        assertEquals ("SUM(A$1:A100)", aSheet.getRow (99).getCell (3).getCellFormula ());
+
+        final ExcelFormulaEvaluator aEvaluator = new ExcelFormulaEvaluator (aWBCH.getWorkbook ());
+        assertEquals (101, aEvaluator.evaluate (aSheet.getRow (49).getCell (2)).getNumberValue (), 0);
+        assertEquals (5050, aEvaluator.evaluate (aSheet.getRow (99).getCell (3)).getNumberValue (), 0);
+
+        if (eVersion == EExcelVersion.XLSX)
+        {
+          // Templates and the repeated literal formula were parsed only once
+          assertEquals (3, aWBCH.getFormulaParseCount ());
+          assertEquals (99, aWBCH.getFormulaCacheHitCount ());
+        }
+        else
+        {
+          // HSSF always parses when setting a formula
+          assertEquals (2 + 3 * 100, aWBCH.getFormulaParseCount ());
+        }
+      }
+  }
+
+  @Test
+  public void testFormulaTemplateOutOfRange ()
+  {
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      aWBCH.createNewSheet ();
+      final ExcelFormulaTemplate aTemplate = aWBCH.createFormulaTemplate ("A2", 5, 0);
+      assertEquals ("A1", aTemplate.getFormula (4, 0));
+      try
+      {
+        // Would refer to row 0
+        aTemplate.getFormula (3, 0);
+        fail ();
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testWriteColumns ()
+  {
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      final Sheet aSheet = aWBCH.createNewSheet ();
+      aWBCH.addRow ("A", "B");
+      aWBCH.writeColumns (1, new double [] { 1, 2, 3 }, new double [] { 4, 5 });
+      assertEquals (4, aWBCH.getRowCount ());
+
+      final int nStyle = aWBCH.registerCellStyle (new ExcelStyle ().setDataFormat ("0.00"));
+      // Write next to existing rows
+      aWBCH.writeColumns (1,
+                          2,
+                          new ExcelColumnBlock ().addColumn (new int [] { 10, 20, 30, 40 }, nStyle)
+                                                 .addColumn (new boolean [] { true }));
+      assertEquals (5, aWBCH.getRowCount ());
+      assertEquals (4, aWBCH.getMaximumCellCountInRowInSheet ());
+
+      assertEquals (3, aSheet.getRow (3).getCell (0).getNumericCellValue (), 0);
+      assertNull (aSheet.getRow (3).getCell (1));
+      assertEquals (20, aSheet.getRow (2).getCell (2).getNumericCellValue (), 0);
+      assertEquals ("0.00", aSheet.getRow (2).getCell (2).getCellStyle ().getDataFormatString ());
+      assertEquals (40, aSheet.getRow (4).getCell (2).getNumericCellValue (), 0);
+      assertTrue (aSheet.getRow (1).getCell (3).getBooleanCellValue ());
+
+      // Continue with regular rows
+      aWBCH.addRow ();
+      aWBCH.addCell ("After");
+      assertEquals ("After", aSheet.getRow (5).getCell (0).getStringCellValue ());
+    }
+  }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.poi.excel.stream.ExcelStreamingXLSXReader;
+import com.helger.poi.excel.style.ExcelStyle;
+
+/**
+ * Test class for class {@link XLSXDirectWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class XLSXDirectWriterTest
+{
+  private static void _testWrite (final boolean bUseSharedStrings)
+  {
+    final ExcelStyle aDateStyle = new ExcelStyle ().setDataFormat ("dd.mm.yyyy");
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try (final XLSXDirectWriter aWriter = new XLSXDirectWriter (aBAOS, bUseSharedStrings))
+    {
+      aWriter.createNewSheet ("First <&> sheet");
+      aWriter.setColumnWidth (0, 20 * 256);
+      aWriter.addRow ();
+      aWriter.addCell ("Header 1");
+      aWriter.addCell ("Header 2");
+      aWriter.addCell ("Header 3");
+      aWriter.autoFilterAllColumns ();
+      for (int i = 0; i < 100; ++i)
+      {
+        aWriter.addRow ();
+        aWriter.addCell ("Value <" + (i % 10) + ">");
+        aWriter.addCell (i * 1.5);
+        aWriter.addCell (LocalDate.of (2020, 1, 1).plusDays (i));
+        aWriter.addCellStyle (aDateStyle);
+        aWriter.addCell (i % 2 == 0);
+        aWriter.addCellFormula ("B" + (i + 2) + "*2");
+      }
+      aWriter.addMergeRegion (0, 0, 0, 1);
+      assertEquals (101, aWriter.getRowCount ());
+      assertEquals (5, aWriter.getMaximumCellCountInRowInSheet ());
+      assertEquals (1, aWriter.getCreatedCellStyleCount ());
+
+      aWriter.createNewSheet ();
+      aWriter.addRow ();
+      aWriter.addCell (4711L);
+    }
+
+    final Workbook aWB = EExcelVersion.XLSX.readWorkbook (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ()));
+    assertNotNull (aWB);
+    assertEquals (2, aWB.getNumberOfSheets ());
+
+    final Sheet aSheet = aWB.getSheetAt (0);
+    assertEquals ("First <&> sheet", aSheet.getSheetName ());
+    assertEquals (100, aSheet.getLastRowNum ());
+    assertEquals (20 * 256, aSheet.getColumnWidth (0));
+    assertEquals (1, aSheet.getNumMergedRegions ());
+    assertEquals ("Header 1", aSheet.getRow (0).getCell (0).getStringCellValue ());
+    assertEquals ("Value <3>", aSheet.getRow (4).getCell (0).getStringCellValue ());
+    assertEquals (4.5, aSheet.getRow (4).getCell (1).getNumericCellValue (), 0.00001);
+
+    final Cell aDateCell = aSheet.getRow (4).getCell (2);
+    assertEquals (LocalDate.of (2020, 1, 4), aDateCell.getLocalDateTimeCellValue ().toLocalDate ());
+    assertEquals ("dd.mm.yyyy", aDateCell.getCellStyle ().getDataFormatString ());
+
+    assertEquals (CellType.BOOLEAN, aSheet.getRow (4).getCell (3).getCellType ());
+    assertEquals (CellType.FORMULA, aSheet.getRow (4).getCell (4).getCellType ());
+    assertEquals ("B5*2", aSheet.getRow (4).getCell (4).getCellFormula ());
+
+    assertTrue (aWB.getSheetAt (1).getRow (0).getCell (0).getNumericCellValue () == 4711);
+  }
+
+  @Test
+  public void testSharedStrings ()
+  {
+    _testWrite (true);
+  }
+
+  @Test
+  public void testInlineStrings ()
+  {
+    _testWrite (false);
+  }
+
+  @Test
+  public void testControlCharacters ()
+  {
+    final String sValue = "a\u0001b\u001Fc\uFFFF";
+    for (final boolean bUseSharedStrings : new boolean [] { true, false })
+    {
+      final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+      try (final XLSXDirectWriter aWriter = new XLSXDirectWriter (aBAOS, bUseSharedStrings))
+      {
+        aWriter.createNewSheet ();
+        aWriter.addRow ();
+        aWriter.addCell (sValue);
+      }
+      final byte [] aBytes = aBAOS.toByteArray ();
+
+      // XSSF
+      final Workbook aWB = EExcelVersion.XLSX.readWorkbook (new NonBlockingByteArrayInputStream (aBytes));
+      assertNotNull (aWB);
+      assertEquals (sValue, aWB.getSheetAt (0).getRow (0).getCell (0).getStringCellValue ());
+
+      // Streaming reader
+      final ICommonsList <String> aValues = new CommonsArrayList <> ();
+      assertTrue (new ExcelStreamingXLSXReader ().read (new NonBlockingByteArrayInputStream (aBytes),
+                                                        aRow -> aValues.add (aRow.getCellValueObject (0).toString ()))
+                                                 .isSuccess ());
+      assertEquals (new CommonsArrayList <> (sValue), aValues);
+    }
+  }
+
+  @Test
+  public void testAddColumns ()
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try (final XLSXDirectWriter aWriter = new XLSXDirectWriter (aBAOS))
+    {
+      aWriter.createNewSheet ();
+      aWriter.addRow ();
+      aWriter.addCell ("Header");
+      final int nStyle = aWriter.registerCellStyle (new ExcelStyle ().setDataFormat ("0.00"));
+      aWriter.addColumns (new ExcelColumnBlock ().addColumn (new double [] { 1.5, 2.5, 3.5 }, nStyle)
+                                                 .addColumn (new long [] { 1, 2 })
+                                                 .addColumn (new int [] { 7, 8, 9 })
+                                                 .addColumn (new boolean [] { true, false, true }));
+      // Last row stays open
+      aWriter.addCell ("Trailer");
+      assertEquals (4, aWriter.getRowCount ());
+      assertEquals (5, aWriter.getMaximumCellCountInRowInSheet ());
+    }
+
+    final Workbook aWB = EExcelVersion.XLSX.readWorkbook (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ()));
+    final Sheet aSheet = aWB.getSheetAt (0);
+    assertEquals (3, aSheet.getLastRowNum ());
+    assertEquals (1.5, aSheet.getRow (1).getCell (0).getNumericCellValue (), 0);
+    assertEquals ("0.00", aSheet.getRow (1).getCell (0).getCellStyle ().getDataFormatString ());
+    assertEquals (2, aSheet.getRow (2).getCell (1).getNumericCellValue (), 0);
+    assertNull (aSheet.getRow (3).getCell (1));
+    assertEquals (9, aSheet.getRow (3).getCell (2).getNumericCellValue (), 0);
+    assertFalse (aSheet.getRow (2).getCell (3).getBooleanCellValue ());
+    assertEquals ("Trailer", aSheet.getRow (3).getCell (4).getStringCellValue ());
+  }
+}
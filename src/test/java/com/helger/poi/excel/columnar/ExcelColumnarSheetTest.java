@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.columnar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.poi.excel.EExcelVersion;
+import com.helger.poi.excel.WorkbookCreationHelper;
+
+/**
+ * Test class for class {@link ExcelColumnarSheet} and
+ * {@link ExcelColumnarSheetBuilder}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelColumnarSheetTest
+{
+  private static final int ROWS = 100;
+
+  @NonNull
+  private static byte [] _createWorkbook (@NonNull final EExcelVersion eVersion)
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (eVersion))
+    {
+      aWBCH.createNewSheet ("Other");
+      aWBCH.addRow ("ignored");
+      aWBCH.createNewSheet ("Data");
+      aWBCH.addRow ("Name", "Count", "Price", "Flag", "Mixed");
+      for (int i = 0; i < ROWS; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell ("Name" + (i % 7));
+        aWBCH.addCell (i * 10);
+        // Integral at first, widened to double later
+        aWBCH.addCell (i < 50 ? i : i + 0.5);
+        if (i % 3 != 0)
+          aWBCH.addCell (i % 2 == 0);
+        else
+          aWBCH.addCell ();
+        if (i < 80)
+          aWBCH.addCell (i);
+        else
+          aWBCH.addCell ("x" + i);
+      }
+      aWBCH.writeTo (aBAOS);
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  private static void _validate (@NonNull final ExcelColumnarSheet aSheet)
+  {
+    assertEquals ("Data", aSheet.getSheetName ());
+    assertEquals (1, aSheet.getFirstRowIndex ());
+    assertEquals (ROWS, aSheet.getRowCount ());
+    assertEquals (5, aSheet.getColumnCount ());
+
+    final ExcelColumnarColumn aName = aSheet.getColumnOfName ("Name");
+    assertNotNull (aName);
+    assertEquals (EExcelColumnType.STRING, aName.getType ());
+    assertEquals (7, aName.getDictionarySize ());
+    assertEquals ("Name3", aName.getString (10));
+    assertEquals ("Name3", aName.getDictionaryEntry (aName.getStringCode (3)));
+    assertEquals (0, aName.getNullCount ());
+
+    final ExcelColumnarColumn aCount = aSheet.getColumn (1);
+    assertEquals ("Count", aCount.getName ());
+    assertEquals (EExcelColumnType.LONG, aCount.getType ());
+    long nSum = 0;
+    for (int i = 0; i < aCount.getRowCount (); ++i)
+      nSum += aCount.getLong (i);
+    assertEquals (10L * ROWS * (ROWS - 1) / 2, nSum);
+
+    final ExcelColumnarColumn aPrice = aSheet.getColumnOfName ("Price");
+    assertEquals (EExcelColumnType.DOUBLE, aPrice.getType ());
+    assertEquals (49, aPrice.getDouble (49), 0);
+    assertEquals (50.5, aPrice.getDouble (50), 0);
+
+    final ExcelColumnarColumn aFlag = aSheet.getColumnOfName ("Flag");
+    assertEquals (EExcelColumnType.BOOLEAN, aFlag.getType ());
+    assertTrue (aFlag.isNull (0));
+    assertFalse (aFlag.getBoolean (1));
+    assertTrue (aFlag.getBoolean (2));
+    assertEquals (34, aFlag.getNullCount ());
+    assertNull (aFlag.getString (3));
+    assertEquals ("true", aFlag.getString (4));
+
+    final ExcelColumnarColumn aMixed = aSheet.getColumnOfName ("Mixed");
+    assertEquals (EExcelColumnType.STRING, aMixed.getType ());
+    assertEquals ("5", aMixed.getString (5));
+    assertEquals ("x85", aMixed.getString (85));
+    assertEquals (ROWS, aMixed.getDictionarySize ());
+
+    assertNull (aSheet.getColumnOfName ("Unknown"));
+  }
+
+  @Test
+  public void testStreaming ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final ExcelColumnarSheetBuilder aBuilder = new ExcelColumnarSheetBuilder ().setSheetIndex (1).setHeaderRow (true);
+      assertTrue (eVersion.createStreamingReader ()
+                          .read (new NonBlockingByteArrayInputStream (_createWorkbook (eVersion)), aBuilder)
+                          .isSuccess ());
+      _validate (aBuilder.build ());
+    }
+  }
+
+  @Test
+  public void testFromSheet ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final ExcelColumnarSheet aSheet = new ExcelColumnarSheetBuilder ().setHeaderRow (true)
+                                                                        .addSheet (eVersion.readWorkbook (new NonBlockingByteArrayInputStream (_createWorkbook (eVersion)))
+                                                                                           .getSheetAt (1))
+                                                                        .build ();
+      _validate (aSheet);
+    }
+  }
+
+  @Test
+  public void testRegion ()
+  {
+    final ExcelColumnarSheet aSheet = new ExcelColumnarSheetBuilder ().setRowRange (11, 20)
+                                                                      .setColumnRange (1, 2)
+                                                                      .addSheet (EExcelVersion.XLSX.readWorkbook (new NonBlockingByteArrayInputStream (_createWorkbook (EExcelVersion.XLSX)))
+                                                                                                   .getSheetAt (1))
+                                                                      .build ();
+    assertEquals (11, aSheet.getFirstRowIndex ());
+    assertEquals (10, aSheet.getRowCount ());
+    assertEquals (2, aSheet.getColumnCount ());
+    assertNull (aSheet.getColumn (0).getName ());
+    assertEquals (1, aSheet.getColumn (0).getColumnIndex ());
+    assertEquals (100, aSheet.getColumn (0).getLong (0));
+    assertEquals (EExcelColumnType.LONG, aSheet.getColumn (1).getType ());
+    assertEquals (19, aSheet.getColumn (1).getLong (9));
+  }
+
+  @Test
+  public void testMergedType ()
+  {
+    assertSame (EExcelColumnType.LONG, EExcelColumnType.EMPTY.getMergedType (EExcelColumnType.LONG));
+    assertSame (EExcelColumnType.DOUBLE, EExcelColumnType.LONG.getMergedType (EExcelColumnType.DOUBLE));
+    assertSame (EExcelColumnType.DOUBLE, EExcelColumnType.DOUBLE.getMergedType (EExcelColumnType.LONG));
+    assertSame (EExcelColumnType.STRING, EExcelColumnType.BOOLEAN.getMergedType (EExcelColumnType.LONG));
+    assertSame (EExcelColumnType.BOOLEAN, EExcelColumnType.BOOLEAN.getMergedType (EExcelColumnType.EMPTY));
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.lookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+import com.helger.poi.excel.EExcelVersion;
+import com.helger.poi.excel.ExcelFormulaEvaluator;
+
+/**
+ * Test class for class {@link ExcelIndexedLookupFunctions}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelIndexedLookupFunctionsTest
+{
+  private static final int ROWS = 1000;
+
+  @Test
+  public void testLookups ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      ExcelIndexedLookupFunctions.registerInWorkbook (aWB);
+      final Sheet aSheet = aWB.createSheet ("Data");
+      for (int i = 0; i < ROWS; ++i)
+      {
+        final Row aRow = aSheet.createRow (i);
+        // Sorted even numbers
+        aRow.createCell (0).setCellValue (i * 2);
+        aRow.createCell (1).setCellValue ("Name" + i);
+      }
+      final Cell aFormula = aSheet.createRow (ROWS).createCell (0);
+
+      final ExcelLookupIndexCache aCache = new ExcelLookupIndexCache ();
+      final ExcelFormulaEvaluator aEvaluator = new ExcelFormulaEvaluator (aWB, null, aCache);
+      final String [] aCalls = { "VLOOKUP(500,$A$1:$B$1000,2,FALSE)",
+                                 "VLOOKUP(501,$A$1:$B$1000,2,FALSE)",
+                                 "VLOOKUP(501,$A$1:$B$1000,2,TRUE)",
+                                 "VLOOKUP(501,$A$1:$B$1000,2)",
+                                 "VLOOKUP(-1,$A$1:$B$1000,2,TRUE)",
+                                 "VLOOKUP(5000,$A$1:$B$1000,2,TRUE)",
+                                 "VLOOKUP(\"name17\",$B$1:$B$1000,1,FALSE)",
+                                 "VLOOKUP(500,$A$1:$B$1000,3,FALSE)",
+                                 "MATCH(1234,$A$1:$A$1000,0)",
+                                 "MATCH(1235,$A$1:$A$1000,1)",
+                                 "MATCH(1235,$A$1:$A$1000)",
+                                 "MATCH(\"NAME99\",$B$1:$B$1000,0)",
+                                 "MATCH(\"N?me99?\",$B$1:$B$1000,0)",
+                                 "MATCH(\"none\",$B$1:$B$1000,0)",
+                                 "MATCH(\"1234\",$A$1:$A$1000,0)" };
+      for (final String sCall : aCalls)
+      {
+        aFormula.setCellFormula (sCall);
+        aEvaluator.notifySetFormula (aFormula);
+        final CellValue aExpected = aEvaluator.evaluate (aFormula);
+
+        aFormula.setCellFormula ("INDEXED." + sCall);
+        aEvaluator.notifySetFormula (aFormula);
+        final CellValue aIndexed = aEvaluator.evaluate (aFormula);
+        assertEquals (sCall, aExpected.formatAsString (), aIndexed.formatAsString ());
+      }
+      // One index for each of the two lookup columns
+      assertEquals (2, aCache.getBuildCount ());
+      assertTrue (aCache.getHitCount () > 0);
+
+      // Wildcards in exact VLOOKUP
+      aFormula.setCellFormula ("INDEXED.VLOOKUP(\"name7*\",$B$1:$B$1000,1,FALSE)");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals ("Name7", aEvaluator.evaluate (aFormula).getStringValue ());
+
+      // XLOOKUP
+      aFormula.setCellFormula ("INDEXED.XLOOKUP(13,$A$1:$A$1000,$B$1:$B$1000,\"none\",1)");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals ("Name7", aEvaluator.evaluate (aFormula).getStringValue ());
+      aFormula.setCellFormula ("INDEXED.XLOOKUP(13,$A$1:$A$1000,$B$1:$B$1000,\"none\",-1)");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals ("Name6", aEvaluator.evaluate (aFormula).getStringValue ());
+      aFormula.setCellFormula ("INDEXED.XLOOKUP(13,$A$1:$A$1000,$B$1:$B$1000,\"none\")");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals ("none", aEvaluator.evaluate (aFormula).getStringValue ());
+      aFormula.setCellFormula ("INDEXED.XLOOKUP(\"name1?\",$B$1:$B$1000,$A$1:$A$1000,0,2,-1)");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals (38, aEvaluator.evaluate (aFormula).getNumberValue (), 0);
+      aFormula.setCellFormula ("INDEXED.XLOOKUP(\"name1?\",$B$1:$B$1000,$A$1:$A$1000)");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals (CellType.ERROR, aEvaluator.evaluate (aFormula).getCellType ());
+
+      // Changing a cell of an indexed range invalidates the index
+      aFormula.setCellFormula ("INDEXED.VLOOKUP(500,$A$1:$B$1000,2,FALSE)");
+      aEvaluator.notifySetFormula (aFormula);
+      assertEquals ("Name250", aEvaluator.evaluate (aFormula).getStringValue ());
+      final int nIndexCount = aCache.getIndexCount ();
+      final Cell aChanged = aSheet.getRow (3).getCell (0);
+      aChanged.setCellValue (500);
+      aEvaluator.notifyUpdateCell (aChanged);
+      assertEquals (nIndexCount - 1, aCache.getIndexCount ());
+      assertEquals ("Name3", aEvaluator.evaluate (aFormula).getStringValue ());
+    }
+  }
+
+  @Test
+  public void testSelectiveInvalidation ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      ExcelIndexedLookupFunctions.registerInWorkbook (aWB);
+      final Sheet aSheet = aWB.createSheet ("Data");
+      for (int i = 0; i < 100; ++i)
+      {
+        final Row aRow = aSheet.createRow (i);
+        aRow.createCell (0).setCellValue (i);
+        aRow.createCell (1).setCellValue ("Name" + i);
+      }
+      final Row aRow = aSheet.createRow (100);
+      final Cell aLookup1 = aRow.createCell (0);
+      aLookup1.setCellFormula ("INDEXED.VLOOKUP(50,$A$1:$B$100,2,FALSE)");
+      final Cell aLookup2 = aRow.createCell (1);
+      aLookup2.setCellFormula ("INDEXED.MATCH(60,$A$1:$A$100,0)");
+      final Cell aInput = aRow.createCell (2);
+      aInput.setCellValue (1);
+      final Cell aUnrelated = aRow.createCell (3);
+      aUnrelated.setCellFormula ("C101+1");
+
+      final ExcelLookupIndexCache aCache = new ExcelLookupIndexCache ();
+      final ExcelFormulaEvaluator aEvaluator = new ExcelFormulaEvaluator (aWB, null, aCache);
+      assertEquals ("Name50", aEvaluator.evaluate (aLookup1).getStringValue ());
+      assertEquals (61, aEvaluator.evaluate (aLookup2).getNumberValue (), 0);
+      assertEquals (2, aEvaluator.evaluate (aUnrelated).getNumberValue (), 0);
+      // The second lookup used the cached index
+      assertEquals (1, aCache.getHitCount ());
+
+      // Not notified on purpose - the cached result must survive
+      aInput.setCellValue (5);
+
+      final Cell aChanged = aSheet.getRow (10).getCell (0);
+      aChanged.setCellValue (60);
+      aEvaluator.notifyUpdateCell (aChanged);
+      assertEquals (0, aCache.getIndexCount ());
+      assertEquals ("Name50", aEvaluator.evaluate (aLookup1).getStringValue ());
+      assertEquals (11, aEvaluator.evaluate (aLookup2).getNumberValue (), 0);
+      assertEquals (2, aEvaluator.evaluate (aUnrelated).getNumberValue (), 0);
+    }
+  }
+
+  @Test
+  public void testFormulaRangeNotCached ()
+  {
+    for (final EExcelVersion eVersion : EExcelVersion.values ())
+    {
+      final Workbook aWB = eVersion.createWorkbook ();
+      ExcelIndexedLookupFunctions.registerInWorkbook (aWB);
+      final Sheet aSheet = aWB.createSheet ("Data");
+      for (int i = 0; i < 100; ++i)
+        aSheet.createRow (i).createCell (0).setCellFormula ("ROW()*2");
+      final Cell aFormula = aSheet.createRow (100).createCell (1);
+      aFormula.setCellFormula ("INDEXED.MATCH(20,$A$1:$A$100,0)");
+
+      final ExcelLookupIndexCache aCache = new ExcelLookupIndexCache ();
+      final ExcelFormulaEvaluator aEvaluator = new ExcelFormulaEvaluator (aWB, null, aCache);
+      assertEquals (10, aEvaluator.evaluate (aFormula).getNumberValue (), 0);
+      assertEquals (0, aCache.getIndexCount ());
+    }
+  }
+}
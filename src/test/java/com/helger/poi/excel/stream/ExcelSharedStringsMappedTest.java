@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.resource.ClassPathResource;
+
+/**
+ * Test class for class {@link ExcelSharedStringsMapped} and
+ * {@link ExcelSharedStringsInMemory}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelSharedStringsMappedTest
+{
+  private static final String SST = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                                    "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"5\" uniqueCount=\"5\">" +
+                                    "<si><t>Hello</t></si>" +
+                                    "<si><t/></si>" +
+                                    "<si><r><t>Rich </t></r><r><t>text</t></r><rPh><t>phonetic</t></rPh></si>" +
+                                    "<si><t>äöü € 😀</t></si>" +
+                                    "<si><t>Tab_x0009_here</t></si>" +
+                                    "</sst>";
+
+  private static void _validate (final IExcelSharedStrings aSST)
+  {
+    assertEquals (5, aSST.getCount ());
+    assertEquals ("Hello", aSST.getString (0));
+    assertEquals ("", aSST.getString (1));
+    assertEquals ("Rich text", aSST.getString (2));
+    assertEquals ("äöü € 😀", aSST.getString (3));
+    assertEquals ("Tab\there", aSST.getString (4));
+    assertNull (aSST.getString (-1));
+    assertNull (aSST.getString (5));
+  }
+
+  @Test
+  public void testBasic () throws Exception
+  {
+    try (final ExcelSharedStringsInMemory aSST = ExcelSharedStringsInMemory.create (new NonBlockingByteArrayInputStream (SST.getBytes (StandardCharsets.UTF_8))))
+    {
+      _validate (aSST);
+    }
+
+    for (final int nCacheSize : new int [] { 0, 1, ExcelSharedStringsMapped.DEFAULT_CACHE_SIZE })
+      try (final ExcelSharedStringsMapped aSST = ExcelSharedStringsMapped.create (new NonBlockingByteArrayInputStream (SST.getBytes (StandardCharsets.UTF_8)),
+                                                                                  nCacheSize))
+      {
+        _validate (aSST);
+        // Read again from the cache
+        _validate (aSST);
+      }
+  }
+
+  @Test
+  public void testConcurrentAccess () throws Exception
+  {
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (4);
+    try (final ExcelSharedStringsMapped aSST = ExcelSharedStringsMapped.create (new NonBlockingByteArrayInputStream (SST.getBytes (StandardCharsets.UTF_8)),
+                                                                                2))
+    {
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < 8; ++i)
+        aFutures.add (aExecutor.submit ( () -> {
+          for (int j = 0; j < 1000; ++j)
+            _validate (aSST);
+        }));
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+    }
+  }
+
+  @Test
+  public void testBogusUniqueCount () throws Exception
+  {
+    for (final String sUniqueCount : new String [] { "2147483647", "-5", "999999999", "0" })
+    {
+      final byte [] aBytes = SST.replace ("uniqueCount=\"5\"", "uniqueCount=\"" + sUniqueCount + "\"")
+                                .getBytes (StandardCharsets.UTF_8);
+      try (final ExcelSharedStringsInMemory aSST = ExcelSharedStringsInMemory.create (new NonBlockingByteArrayInputStream (aBytes)))
+      {
+        _validate (aSST);
+      }
+      try (final ExcelSharedStringsMapped aSST = ExcelSharedStringsMapped.create (new NonBlockingByteArrayInputStream (aBytes)))
+      {
+        _validate (aSST);
+      }
+    }
+    assertEquals (0, ExcelSharedStringsParser.getPresizeCount (-1));
+    assertEquals (5, ExcelSharedStringsParser.getPresizeCount (5));
+    assertEquals (1 << 20, ExcelSharedStringsParser.getPresizeCount (Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testDecodeEscapes ()
+  {
+    assertEquals ("abc", ExcelSharedStringsParser.decodeEscapes ("abc"));
+    assertEquals ("a\rb", ExcelSharedStringsParser.decodeEscapes ("a_x000D_b"));
+    assertEquals ("_x00ZZ_", ExcelSharedStringsParser.decodeEscapes ("_x00ZZ_"));
+    assertEquals ("_x000", ExcelSharedStringsParser.decodeEscapes ("_x000"));
+  }
+
+  @Test
+  public void testStreamingReaderWithMappedFile ()
+  {
+    final ClassPathResource aRes = new ClassPathResource ("excel/test1.xlsx");
+
+    final ICommonsList <String> aHeap = new CommonsArrayList <> ();
+    assertTrue (new ExcelStreamingXLSXReader ().setSharedStringsFileThreshold (Long.MAX_VALUE)
+                                               .read (aRes.getInputStream (),
+                                                      ExcelStreamingXLSXReaderTest.createCollectingHandler (aHeap))
+                                               .isSuccess ());
+
+    final ICommonsList <String> aMapped = new CommonsArrayList <> ();
+    assertTrue (new ExcelStreamingXLSXReader ().setSharedStringsFileThreshold (0)
+                                               .setSharedStringsCacheSize (2)
+                                               .read (aRes.getInputStream (),
+                                                      ExcelStreamingXLSXReaderTest.createCollectingHandler (aMapped))
+                                               .isSuccess ());
+    assertEquals (aHeap, aMapped);
+  }
+}
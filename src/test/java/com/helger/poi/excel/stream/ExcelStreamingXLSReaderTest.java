@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.resource.ClassPathResource;
+import com.helger.poi.excel.EExcelVersion;
+import com.helger.poi.excel.WorkbookCreationHelper;
+import com.helger.poi.excel.style.ExcelStyle;
+
+/**
+ * Test class for class {@link ExcelStreamingXLSReader}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelStreamingXLSReaderTest
+{
+  @Test
+  public void testReadTestFile ()
+  {
+    final ClassPathResource aRes = new ClassPathResource ("excel/test1.xls");
+    final ICommonsList <String> aValues = new CommonsArrayList <> ();
+    assertTrue (EExcelVersion.XLS.createStreamingReader ()
+                                 .read (aRes.getInputStream (),
+                                        ExcelStreamingXLSXReaderTest.createCollectingHandler (aValues))
+                                 .isSuccess ());
+    ExcelStreamingXLSXReaderTest.compareWithWorkbook (EExcelVersion.XLS.readWorkbook (aRes.getInputStream ()), aValues);
+  }
+
+  @Test
+  public void testReadCreated ()
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLS))
+    {
+      aWBCH.createNewSheet ("Data");
+      aWBCH.addRow ("Text", "Number", "Date", "Bool");
+      for (int i = 0; i < 50; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell ("Row " + i);
+        aWBCH.addCell (i * 0.25);
+        aWBCH.addCell (LocalDate.of (2020, 1, 1).plusDays (i));
+        aWBCH.addCellStyle (new ExcelStyle ().setDataFormat ("yyyy-mm-dd"));
+        aWBCH.addCell (i % 3 == 0);
+        aWBCH.addCell ();
+      }
+      aWBCH.createNewSheet ("Second");
+      aWBCH.addRow ("Other");
+      aWBCH.writeTo (aBAOS);
+    }
+
+    final ICommonsList <String> aValues = new CommonsArrayList <> ();
+    final ICommonsList <String> aSheets = new CommonsArrayList <> ();
+    final IExcelStreamingRowHandler aCollector = ExcelStreamingXLSXReaderTest.createCollectingHandler (aValues);
+    assertTrue (new ExcelStreamingXLSReader ().read (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ()),
+                                                     new IExcelStreamingRowHandler ()
+                                                     {
+                                                       @Override
+                                                       public void onSheetStart (final int nSheetIndex,
+                                                                                 final String sSheetName)
+                                                       {
+                                                         aSheets.add (sSheetName);
+                                                       }
+
+                                                       @Override
+                                                       public void onRow (final ExcelStreamingRow aRow)
+                                                       {
+                                                         aCollector.onRow (aRow);
+                                                         if (aRow.getSheetIndex () == 0 && aRow.getRowIndex () == 3)
+                                                         {
+                                                           assertTrue (aRow.isDateFormatted (2));
+                                                           assertEquals (LocalDate.of (2020, 1, 3),
+                                                                         aRow.getCellValueLocalDate (2));
+                                                         }
+                                                       }
+                                                     })
+                                            .isSuccess ());
+    assertEquals (new CommonsArrayList <> ("Data", "Second"), aSheets);
+    ExcelStreamingXLSXReaderTest.compareWithWorkbook (EExcelVersion.XLS.readWorkbook (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ())),
+                                                      aValues);
+  }
+}
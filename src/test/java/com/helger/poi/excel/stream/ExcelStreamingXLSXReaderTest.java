@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.base.io.nonblocking.NonBlockingByteArrayInputStream;
+import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.file.FileOperations;
+import com.helger.io.resource.ClassPathResource;
+import com.helger.poi.excel.EExcelVersion;
+import com.helger.poi.excel.ExcelReadHelper;
+import com.helger.poi.excel.WorkbookCreationHelper;
+import com.helger.poi.excel.style.ExcelStyle;
+
+/**
+ * Test class for class {@link ExcelStreamingXLSXReader}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelStreamingXLSXReaderTest
+{
+  /**
+   * Compare all cells of the workbook with the streamed values.
+   *
+   * @param aWB
+   *        The workbook as reference
+   * @param aValues
+   *        The streamed values as "sheet/row/col=value"
+   */
+  static void compareWithWorkbook (@NonNull final Workbook aWB, @NonNull final ICommonsList <String> aValues)
+  {
+    final ICommonsList <String> aExpected = new CommonsArrayList <> ();
+    for (int nSheet = 0; nSheet < aWB.getNumberOfSheets (); ++nSheet)
+    {
+      final Sheet aSheet = aWB.getSheetAt (nSheet);
+      for (final Row aRow : aSheet)
+        for (final Cell aCell : aRow)
+        {
+          if (aCell.getCellType () == CellType.ERROR ||
+              aCell.getCellType () == CellType.FORMULA && aCell.getCachedFormulaResultType () == CellType.ERROR)
+            continue;
+          final Object aValue = ExcelReadHelper.getCellValueObject (aCell);
+          if (aValue != null)
+            aExpected.add (nSheet + "/" + aRow.getRowNum () + "/" + aCell.getColumnIndex () + "=" + aValue);
+        }
+    }
+    assertEquals (aExpected, aValues);
+  }
+
+  @NonNull
+  static IExcelStreamingRowHandler createCollectingHandler (@NonNull final ICommonsList <String> aValues)
+  {
+    return aRow -> {
+      for (int i = 0; i < aRow.getCellCount (); ++i)
+      {
+        final Object aValue = aRow.getCellValueObject (i);
+        if (aValue != null)
+          aValues.add (aRow.getSheetIndex () + "/" + aRow.getRowIndex () + "/" + i + "=" + aValue);
+      }
+    };
+  }
+
+  @Test
+  public void testReadTestFile ()
+  {
+    final ClassPathResource aRes = new ClassPathResource ("excel/test1.xlsx");
+    final ICommonsList <String> aValues = new CommonsArrayList <> ();
+    assertTrue (new ExcelStreamingXLSXReader ().read (aRes.getInputStream (), createCollectingHandler (aValues))
+                                               .isSuccess ());
+    compareWithWorkbook (EExcelVersion.XLSX.readWorkbook (aRes.getInputStream ()), aValues);
+  }
+
+  @Test
+  public void testReadCreated ()
+  {
+    final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+    {
+      aWBCH.createNewSheet ("Data");
+      aWBCH.addRow ("Text", "Number", "Date", "Bool");
+      for (int i = 0; i < 50; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell ("Row " + i);
+        aWBCH.addCell (i * 0.25);
+        aWBCH.addCell (LocalDate.of (2020, 1, 1).plusDays (i));
+        aWBCH.addCellStyle (new ExcelStyle ().setDataFormat ("yyyy-mm-dd"));
+        aWBCH.addCell (i % 3 == 0);
+      }
+      aWBCH.createNewSheet ("Empty");
+      aWBCH.writeTo (aBAOS);
+    }
+
+    final ICommonsList <String> aValues = new CommonsArrayList <> ();
+    final ICommonsList <String> aSheets = new CommonsArrayList <> ();
+    final IExcelStreamingRowHandler aCollector = createCollectingHandler (aValues);
+    final ExcelStreamingXLSXReader aReader = new ExcelStreamingXLSXReader ();
+    assertTrue (aReader.read (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ()), new IExcelStreamingRowHandler ()
+    {
+      @Override
+      public void onSheetStart (final int nSheetIndex, @NonNull final String sSheetName)
+      {
+        aSheets.add (sSheetName);
+      }
+
+      @Override
+      public void onRow (@NonNull final ExcelStreamingRow aRow)
+      {
+        aCollector.onRow (aRow);
+        if (aRow.getRowIndex () == 3)
+        {
+          assertTrue (aRow.isDateFormatted (2));
+          assertEquals (LocalDate.of (2020, 1, 3), aRow.getCellValueLocalDate (2));
+        }
+      }
+    }).isSuccess ());
+    assertEquals (new CommonsArrayList <> ("Data", "Empty"), aSheets);
+    compareWithWorkbook (EExcelVersion.XLSX.readWorkbook (new NonBlockingByteArrayInputStream (aBAOS.toByteArray ())),
+                         aValues);
+  }
+
+  @Test
+  public void testReadParallel () throws IOException
+  {
+    final File aFile = File.createTempFile ("ph-poi-test", ".xlsx");
+    try
+    {
+      try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (EExcelVersion.XLSX))
+      {
+        for (int nSheet = 0; nSheet < 6; ++nSheet)
+        {
+          aWBCH.createNewSheet ("Sheet" + nSheet);
+          for (int i = 0; i < 200; ++i)
+            aWBCH.addRow ("Value " + (i % 17), Double.valueOf (nSheet * 1000 + i), Boolean.valueOf (i % 2 == 0));
+        }
+        assertTrue (aWBCH.writeTo (aFile).isSuccess ());
+      }
+
+      // Sequential as reference
+      final ICommonsList <String> aSequential = new CommonsArrayList <> ();
+      assertTrue (new ExcelStreamingXLSXReader ().read (aFile, createCollectingHandler (aSequential)).isSuccess ());
+
+      final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+      try
+      {
+        final ICommonsList <ICommonsList <String>> aPerSheet = new CommonsArrayList <> ();
+        final IExcelStreamingSheetHandlerFactory aFactory = (nSheetIndex, sSheetName) -> {
+          assertEquals (aPerSheet.size (), nSheetIndex);
+          final ICommonsList <String> aValues = new CommonsArrayList <> ();
+          aPerSheet.add (aValues);
+          return createCollectingHandler (aValues);
+        };
+        assertTrue (new ExcelStreamingXLSXReader ().readParallel (aFile, aFactory, aExecutor).isSuccess ());
+        assertEquals (6, aPerSheet.size ());
+
+        final ICommonsList <String> aParallel = new CommonsArrayList <> ();
+        aPerSheet.forEach (aParallel::addAll);
+        assertEquals (aSequential, aParallel);
+      }
+      finally
+      {
+        aExecutor.shutdown ();
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.poi.excel.style;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import com.helger.poi.excel.WorkbookCreationHelper;
+import com.helger.unittest.support.TestHelper;
+
+/**
+ * Test class for class {@link ExcelFontSpec} and {@link ExcelFontCache}.
+ *
+ * @author Philip Helger
+ */
+public final class ExcelFontSpecTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final ExcelFontSpec a = ExcelFontSpec.builder ().bold (true).heightInPoints (14).build ();
+    assertTrue (a.isBold ());
+    assertEquals (14, a.getHeightInPoints ());
+    TestHelper.testDefaultImplementationWithEqualContentObject (a,
+                                                                ExcelFontSpec.builder ()
+                                                                             .bold (true)
+                                                                             .heightInPoints (14)
+                                                                             .build ());
+    TestHelper.testDefaultImplementationWithEqualContentObject (a, ExcelFontSpec.builder (a).build ());
+    TestHelper.testDefaultImplementationWithDifferentContentObject (a,
+                                                                    ExcelFontSpec.builder (a)
+                                                                                 .color (IndexedColors.RED)
+                                                                                 .build ());
+
+    // Font spec is part of the style
+    TestHelper.testDefaultImplementationWithEqualContentObject (new ExcelStyle ().setFontSpec (a),
+                                                                new ExcelStyle ().setFontSpec (ExcelFontSpec.builder (a)
+                                                                                                            .build ()));
+    TestHelper.testDefaultImplementationWithDifferentContentObject (new ExcelStyle ().setFontSpec (a),
+                                                                    new ExcelStyle ());
+  }
+
+  @Test
+  public void testCache ()
+  {
+    try (final XSSFWorkbook aWB = new XSSFWorkbook ())
+    {
+      final int nFonts = aWB.getNumberOfFonts ();
+      final ExcelFontCache aCache = new ExcelFontCache (aWB);
+      final ExcelFontSpec aSpec = ExcelFontSpec.builder ().italic (true).build ();
+      final Font aFont = aCache.getOrCreateFont (aSpec);
+      assertTrue (aFont.getItalic ());
+      assertSame (aFont, aCache.getOrCreateFont (ExcelFontSpec.builder ().italic (true).build ()));
+      assertNotSame (aFont, aCache.getOrCreateFont (ExcelFontSpec.builder ().bold (true).build ()));
+      assertEquals (2, aCache.size ());
+      assertEquals (nFonts + 2, aWB.getNumberOfFonts ());
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  @Test
+  public void testManyStylesShareOneFont ()
+  {
+    try (final WorkbookCreationHelper aWBCH = new WorkbookCreationHelper (new XSSFWorkbook ()))
+    {
+      aWBCH.createNewSheet ();
+      final int nFonts = aWBCH.getWorkbook ().getNumberOfFonts ();
+      for (int i = 0; i < 100; ++i)
+      {
+        aWBCH.addRow ();
+        aWBCH.addCell (i);
+        // Different data format, same font spec
+        aWBCH.addCellStyle (new ExcelStyle ().setDataFormat ("0." + "0".repeat (i % 5 + 1))
+                                             .setFontSpec (ExcelFontSpec.builder ().bold (true).build ()));
+      }
+      assertEquals (nFonts + 1, aWBCH.getWorkbook ().getNumberOfFonts ());
+      assertEquals (1, aWBCH.getFontCache ().size ());
+
+      final CellStyle aCS = aWBCH.getWorkbook ().getSheetAt (0).getRow (0).getCell (0).getCellStyle ();
+      assertTrue (aWBCH.getWorkbook ().getFontAt (aCS.getFontIndex ()).getBold ());
+    }
+  }
+}
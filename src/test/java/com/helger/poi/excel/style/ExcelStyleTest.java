@@ -18,15 +18,22 @@ package com.helger.poi.excel.style;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Test;
 
 import com.helger.unittest.support.TestHelper;
@@ -165,4 +172,113 @@ public final class ExcelStyleTest
       TestHelper.testGetClone (e);
     }
   }
+
+  @Test
+  public void testFreeze ()
+  {
+    final ExcelStyle e = new ExcelStyle ().setAlign (HorizontalAlignment.CENTER).setDataFormat ("0.00");
+    assertFalse (e.isFrozen ());
+    final int nHashCode = e.hashCode ();
+    assertSame (e, e.freeze ());
+    assertTrue (e.isFrozen ());
+    assertEquals (nHashCode, e.hashCode ());
+    // Freezing twice is fine
+    assertSame (e, e.freeze ());
+
+    try
+    {
+      e.setWrapText (true);
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+    try
+    {
+      e.setBorder (BorderStyle.THIN);
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+
+    // Frozen and not frozen are equal
+    TestHelper.testDefaultImplementationWithEqualContentObject (e,
+                                                                new ExcelStyle ().setAlign (HorizontalAlignment.CENTER)
+                                                                                 .setDataFormat ("0.00"));
+    TestHelper.testDefaultImplementationWithDifferentContentObject (e,
+                                                                    new ExcelStyle ().setAlign (HorizontalAlignment.CENTER)
+                                                                                     .setDataFormat ("0.000")
+                                                                                     .freeze ());
+
+    // Clones are mutable
+    final ExcelStyle aClone = e.getClone ();
+    assertFalse (aClone.isFrozen ());
+    aClone.setWrapText (true);
+  }
+
+  @Test
+  public void testCacheInterning ()
+  {
+    try (final XSSFWorkbook aWB = new XSSFWorkbook ())
+    {
+      final ExcelStyleCache aCache = new ExcelStyleCache ();
+      final ExcelStyle aMutable = new ExcelStyle ().setDataFormat ("0.00");
+      final CellStyle aCS = aWB.createCellStyle ();
+      aCache.addCellStyle (aMutable, aCS);
+      assertSame (aCS, aCache.getCellStyle (aMutable));
+
+      // Modifying the style after adding it doesn't break the cache
+      aMutable.setDataFormat ("0.000");
+      assertNull (aCache.getCellStyle (aMutable));
+      assertSame (aCS, aCache.getCellStyle (new ExcelStyle ().setDataFormat ("0.00")));
+      assertSame (aCS, aCache.getCellStyle (new ExcelStyle ().setDataFormat ("0.00").freeze ()));
+      // Equal frozen instances are not remembered by identity
+      for (int i = 0; i < 100; ++i)
+        assertSame (aCS, aCache.getCellStyle (new ExcelStyle ().setDataFormat ("0.00").freeze ()));
+      assertEquals (1, aCache.getIdentityMappingCount ());
+
+      final ExcelStyle aInterned = aCache.getInterned (new ExcelStyle ().setDataFormat ("0.00"));
+      assertTrue (aInterned.isFrozen ());
+      assertSame (aInterned, aCache.getInterned (new ExcelStyle ().setDataFormat ("0.00").freeze ()));
+      assertNotSame (aInterned, aCache.getInterned (aMutable));
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  @Test
+  public void testDataFormatCache ()
+  {
+    try (final XSSFWorkbook aWB = new XSSFWorkbook ())
+    {
+      final ExcelDataFormatCache aCache = new ExcelDataFormatCache (aWB);
+      final short nIndex = aCache.getFormatIndex ("0.000");
+      assertEquals (0, aCache.getHitCount ());
+      assertEquals (1, aCache.getMissCount ());
+      assertEquals (nIndex, aCache.getFormatIndex ("0.000"));
+      assertEquals (1, aCache.getHitCount ());
+      assertEquals (1, aCache.getMissCount ());
+      assertEquals (1, aCache.size ());
+
+      final CellStyle aCS = aWB.createCellStyle ();
+      new ExcelStyle ().setDataFormat ("0.000").fillCellStyle (aWB, aCS, aCache);
+      assertEquals (nIndex, aCS.getDataFormat ());
+      assertEquals ("0.000", aCS.getDataFormatString ());
+      assertEquals (2, aCache.getHitCount ());
+
+      // No data format - no lookup
+      new ExcelStyle ().fillCellStyle (aWB, aWB.createCellStyle (), aCache);
+      assertEquals (2, aCache.getHitCount ());
+      assertEquals (1, aCache.getMissCount ());
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
 }